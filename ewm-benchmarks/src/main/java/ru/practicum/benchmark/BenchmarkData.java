@@ -0,0 +1,102 @@
+package ru.practicum.benchmark;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import ru.practicum.enums.EventState;
+import ru.practicum.model.Category;
+import ru.practicum.model.Event;
+import ru.practicum.model.Location;
+import ru.practicum.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Детерминированные данные бенчмарков: одинаковый набор при каждом запуске, чтобы результаты релизов были сравнимы
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class BenchmarkData {
+    static final String APP = "ewm-main-service";
+    static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private static final String[] WORDS = {
+        "concert", "jazz", "theater", "excursion", "lecture", "festival", "museum", "cinema",
+        "workshop", "exhibition", "marathon", "quiz", "opera", "ballet", "stand-up", "picnic"
+    };
+
+    public static List<Category> categories(int count) {
+        final List<Category> categories = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            categories.add(Category.builder().name("Category" + i).build());
+        }
+        return categories;
+    }
+
+    public static List<User> users(int count) {
+        final List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(User.builder().name("User" + i).email("user" + i + "@mail.ru").build());
+        }
+        return users;
+    }
+
+    public static List<Location> locations(int count) {
+        final List<Location> locations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            locations.add(Location.builder().lat(55f + i * 0.01f).lon(37f + i * 0.01f).build());
+        }
+        return locations;
+    }
+
+    /**
+     * Опубликованные события; i-е событие ссылается на категорию, пользователя и локацию с индексом i по модулю
+     */
+    public static List<Event> events(int count, List<Category> categories, List<User> users, List<Location> locations) {
+        final List<Event> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final String first = WORDS[i % WORDS.length];
+            final String second = WORDS[(i / WORDS.length) % WORDS.length];
+            events.add(Event.builder()
+                    .title(first + " " + second + " " + i)
+                    .annotation("Annotation of the " + first + " and " + second + " event number " + i)
+                    .description("Description of the " + first + " event, see you at the " + second + " " + i)
+                    .eventDate(NOW.plusHours(i % 2000))
+                    .createdOn(NOW.minusDays(30))
+                    .publishedOn(NOW.minusDays(20))
+                    .category(categories.get(i % categories.size()))
+                    .initiator(users.get(i % users.size()))
+                    .location(locations.get(i % locations.size()))
+                    .paid(i % 2 == 0)
+                    .participantLimit(i % 3 == 0 ? 0 : 50)
+                    .confirmedRequests(i % 51)
+                    .requestModeration(i % 4 != 0)
+                    .state(EventState.PUBLISHED)
+                    .build());
+        }
+        return events;
+    }
+
+    /**
+     * События с заполненными id, как после загрузки из базы
+     */
+    public static List<Event> events(int count) {
+        final List<Category> categories = categories(20);
+        final List<User> users = users(100);
+        final List<Location> locations = locations(100);
+        for (int i = 0; i < categories.size(); i++) {
+            categories.get(i).setId(i + 1L);
+        }
+        for (int i = 0; i < users.size(); i++) {
+            users.get(i).setId(i + 1L);
+        }
+        for (int i = 0; i < locations.size(); i++) {
+            locations.get(i).setId(i + 1L);
+        }
+        final List<Event> events = events(count, categories, users, locations);
+        for (int i = 0; i < events.size(); i++) {
+            events.get(i).setId(i + 1L);
+        }
+        return events;
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.dto.event.EventFullDto;
+import ru.practicum.dto.event.EventShortDto;
+import ru.practicum.mapper.EventMapper;
+import ru.practicum.model.Event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Преобразование страницы событий в EventShortDto и EventFullDto
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventMapperBenchmark {
+    @Param({"10", "1000"})
+    private int size;
+
+    private List<Event> events;
+
+    @Setup
+    public void setUp() {
+        events = BenchmarkData.events(size);
+    }
+
+    @Benchmark
+    public List<EventShortDto> toShortDto() {
+        final List<EventShortDto> dtos = new ArrayList<>(events.size());
+        for (Event event : events) {
+            dtos.add(EventMapper.toShortDto(event, event.getId()));
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public List<EventFullDto> toFullDto() {
+        final List<EventFullDto> dtos = new ArrayList<>(events.size());
+        for (Event event : events) {
+            dtos.add(EventMapper.toFullDto(event, event.getId()));
+        }
+        return dtos;
+    }
+}
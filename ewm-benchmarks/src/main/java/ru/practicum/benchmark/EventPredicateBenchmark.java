@@ -0,0 +1,91 @@
+package ru.practicum.benchmark;
+
+import com.querydsl.core.types.Predicate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.enums.EventState;
+import ru.practicum.filter.EventFilter;
+import ru.practicum.filter.EventPredicate;
+import ru.practicum.utils.QPredicate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static ru.practicum.benchmark.BenchmarkData.NOW;
+
+/**
+ * Построение условий выборки событий: фильтр публичного поиска, фильтр администратора со всеми полями
+ * и объединение готовых условий через QPredicate.buildAnd
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventPredicateBenchmark {
+    private EventFilter publicFilter;
+    private EventFilter adminFilter;
+    private List<Predicate> predicates;
+
+    @Setup
+    public void setUp() {
+        final List<Long> categories = LongStream.rangeClosed(1, 20).boxed().collect(Collectors.toList());
+        final List<Long> users = LongStream.rangeClosed(1, 100).boxed().collect(Collectors.toList());
+        publicFilter = EventFilter.builder()
+                .categoryIn(categories)
+                .paidEq(true)
+                .eventDateAfter(NOW)
+                .eventDateBefore(NOW.plusMonths(3))
+                .stateEq(EventState.PUBLISHED)
+                .build();
+        adminFilter = EventFilter.builder()
+                .title("%concert%")
+                .description("%jazz%")
+                .annotation("%festival%")
+                .initiatorIn(users)
+                .categoryIn(categories)
+                .paidEq(false)
+                .eventDateAfter(NOW)
+                .eventDateBefore(NOW.plusMonths(3))
+                .createdOnAfter(NOW.minusYears(1))
+                .createdOnBefore(NOW)
+                .publishedOnAfter(NOW.minusYears(1))
+                .publishedOnBefore(NOW)
+                .participantLimitEq(50)
+                .requestModeration(true)
+                .confirmedRequestsLessThan(50L)
+                .statesIn(List.of(EventState.PENDING, EventState.PUBLISHED))
+                .build();
+        predicates = new ArrayList<>();
+        predicates.add(EventPredicate.getAndEventPredicate(publicFilter));
+        predicates.add(EventPredicate.getAvailable());
+        predicates.add(EventPredicate.getIdIn(LongStream.rangeClosed(1, 1000).boxed().collect(Collectors.toList())));
+    }
+
+    @Benchmark
+    public Predicate publicFilter() {
+        return EventPredicate.getAndEventPredicate(publicFilter);
+    }
+
+    @Benchmark
+    public Predicate adminFilter() {
+        return EventPredicate.getAndEventPredicate(adminFilter);
+    }
+
+    @Benchmark
+    public Predicate buildAnd() {
+        return QPredicate.buildAnd(predicates);
+    }
+}
@@ -0,0 +1,135 @@
+package ru.practicum.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.mock.web.MockHttpServletRequest;
+import ru.practicum.ElmServiceApplication;
+import ru.practicum.client.StatsClient;
+import ru.practicum.dto.event.EventShortDto;
+import ru.practicum.enums.SortType;
+import ru.practicum.model.Category;
+import ru.practicum.model.Location;
+import ru.practicum.model.User;
+import ru.practicum.repository.CategoryRepository;
+import ru.practicum.repository.EventRepository;
+import ru.practicum.repository.LocationRepository;
+import ru.practicum.repository.UserRepository;
+import ru.practicum.service.event.EventService;
+import ru.practicum.service.search.InMemoryEventSearchIndex;
+import ru.practicum.service.stats.EventViewsService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static ru.practicum.benchmark.BenchmarkData.NOW;
+import static ru.practicum.utils.Constants.EVENTS_URI;
+
+/**
+ * Публичный поиск событий целиком: контекст приложения с профилем test на H2 и заполненной базой,
+ * сервис статистики заменен {@link StubStatsClient}.<br>
+ * - DATE: категории, платность, диапазон дат и только доступные события, сортировка по дате<br>
+ * - VIEWS: те же фильтры, сортировка по просмотрам из таблицы event_views<br>
+ * - TEXT: полнотекстовый поиск без сортировки, порядок по релевантности
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PublishedEventsBenchmark {
+    private static final int PAGE_SIZE = 10;
+
+    @Param({"10000"})
+    private int events;
+
+    @Param({"DATE", "VIEWS", "TEXT"})
+    private String scenario;
+
+    private ConfigurableApplicationContext context;
+    private EventService eventService;
+    private MockHttpServletRequest request;
+    private List<Long> categories;
+    private LocalDateTime rangeEnd;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ElmServiceApplication.class, StubStatsConfig.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(
+                        "logging.level.org.hibernate.SQL=warn",
+                        "logging.level.ru.practicum=info",
+                        "logging.level.org.apache.http=warn",
+                        "logging.level.httpclient.wire=warn",
+                        "ewm.views.index.refresh-ms=3600000")
+                .run();
+        seed();
+        context.getBean(InMemoryEventSearchIndex.class).rebuild();
+        context.getBean(EventViewsService.class).refresh();
+
+        eventService = context.getBean(EventService.class);
+        request = new MockHttpServletRequest("GET", EVENTS_URI);
+        request.setRemoteAddr("127.0.0.1");
+        rangeEnd = NOW.plusYears(1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<EventShortDto> getPublishedEvents() {
+        switch (scenario) {
+            case "VIEWS":
+                return eventService.getPublishedEvents(null, categories, true, NOW, rangeEnd, true,
+                        SortType.VIEWS, 0, PAGE_SIZE, request);
+            case "TEXT":
+                return eventService.getPublishedEvents("jazz fest", null, null, NOW, rangeEnd, false,
+                        null, 0, PAGE_SIZE, request);
+            default:
+                return eventService.getPublishedEvents(null, categories, true, NOW, rangeEnd, true,
+                        SortType.EVENT_DATE, 0, PAGE_SIZE, request);
+        }
+    }
+
+    private void seed() {
+        final List<Category> savedCategories = context.getBean(CategoryRepository.class)
+                .saveAll(BenchmarkData.categories(20));
+        categories = savedCategories.subList(0, 5).stream()
+                .map(Category::getId)
+                .collect(Collectors.toList());
+        final List<User> savedUsers = context.getBean(UserRepository.class)
+                .saveAll(BenchmarkData.users(100));
+        final List<Location> savedLocations = context.getBean(LocationRepository.class)
+                .saveAll(BenchmarkData.locations(100));
+        context.getBean(EventRepository.class)
+                .saveAll(BenchmarkData.events(events, savedCategories, savedUsers, savedLocations));
+    }
+
+    static class StubStatsConfig {
+        @Bean
+        @Primary
+        public StatsClient stubStatsClient() {
+            return new StubStatsClient();
+        }
+    }
+}
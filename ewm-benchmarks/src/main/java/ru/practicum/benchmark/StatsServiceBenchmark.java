@@ -0,0 +1,54 @@
+package ru.practicum.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.service.stats.StatsCircuitBreaker;
+import ru.practicum.service.stats.StatsServiceImpl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Просмотры событий из ответа сервиса статистики: построение uri и группировка просмотров по uri (getGroupedMap).
+ * Сеть заменена {@link StubStatsClient}, ответ которого уже разобран в ViewStatsDto
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatsServiceBenchmark {
+    @Param({"10", "1000"})
+    private int size;
+
+    private StatsServiceImpl statsService;
+    private List<Long> eventIds;
+
+    @Setup
+    public void setUp() {
+        statsService = new StatsServiceImpl(new StubStatsClient(), null, null,
+                new StatsCircuitBreaker(new SimpleMeterRegistry(), 5, 30000));
+        ReflectionTestUtils.setField(statsService, "appName", BenchmarkData.APP);
+        eventIds = LongStream.rangeClosed(1, size).boxed().collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public Map<Long, Long> loadViews() {
+        return statsService.loadViews(eventIds, false);
+    }
+}
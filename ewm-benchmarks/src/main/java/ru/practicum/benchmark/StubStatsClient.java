@@ -0,0 +1,49 @@
+package ru.practicum.benchmark;
+
+import org.springframework.http.ResponseEntity;
+import ru.practicum.client.StatsClient;
+import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.dto.HitBatchAckDto;
+import ru.practicum.dto.ViewStatsDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Клиент статистики без сети: просмотры uri вычисляются из его хэша, хиты принимаются и отбрасываются.<br>
+ * Без фильтра по приложению каждый uri возвращается дважды, второй раз от чужого приложения
+ */
+public class StubStatsClient extends StatsClient {
+    private static final String OTHER_APP = "other-service";
+
+    public StubStatsClient() {
+        super("http://localhost:0");
+    }
+
+    @Override
+    public List<ViewStatsDto> getStats(LocalDateTime start, LocalDateTime end, String app, List<String> uris,
+                                       boolean unique) {
+        final List<ViewStatsDto> stats = new ArrayList<>(uris.size() * 2);
+        for (String uri : uris) {
+            final long hits = Math.floorMod(uri.hashCode(), 1000);
+            if (app == null || app.equals(BenchmarkData.APP)) {
+                stats.add(new ViewStatsDto(BenchmarkData.APP, uri, unique ? hits / 2 : hits));
+            }
+            if (app == null || app.equals(OTHER_APP)) {
+                stats.add(new ViewStatsDto(OTHER_APP, uri, 1));
+            }
+        }
+        return stats;
+    }
+
+    @Override
+    public ResponseEntity<Object> saveHit(EndpointHitDto dto) {
+        return ResponseEntity.ok().build();
+    }
+
+    @Override
+    public ResponseEntity<HitBatchAckDto> saveHits(List<EndpointHitDto> hits) {
+        return ResponseEntity.ok(new HitBatchAckDto(hits.size(), hits.size()));
+    }
+}
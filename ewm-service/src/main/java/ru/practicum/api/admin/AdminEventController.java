@@ -3,6 +3,7 @@ package ru.practicum.api.admin;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -13,12 +14,17 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.dto.event.EventFullDto;
 import ru.practicum.dto.event.UpdateEventAdminRequest;
+import ru.practicum.enums.ExportFormat;
 import ru.practicum.service.event.EventService;
 import ru.practicum.utils.Constants;
+import ru.practicum.utils.CursorPage;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -49,14 +55,53 @@ public class AdminEventController {
             //количество событий, которые нужно пропустить для формирования текущего набора
             @PositiveOrZero @RequestParam(value = "from", defaultValue = Constants.FROM) Integer from,
             //количество событий в наборе
-            @Positive @RequestParam(value = "size", defaultValue = Constants.PAGE_SIZE) Integer size
+            @Positive @RequestParam(value = "size", defaultValue = Constants.PAGE_SIZE) Integer size,
+            //курсор следующей страницы из заголовка X-Next-Cursor, пустое значение - первая страница
+            @RequestParam(value = "cursor", required = false) String cursor,
+            HttpServletResponse response
     ) {
         log.debug("Request received GET /admin/events");
-        log.debug("RequestParams: users={},states={},categories={},rangeStart={}, rangeEnd={}, from={}, size={} ",
-                users, states, categories, rangeStart, rangeEnd, from, size);
+        log.debug("RequestParams: users={},states={},categories={},rangeStart={}, rangeEnd={}, from={}, size={}, cursor={} ",
+                users, states, categories, rangeStart, rangeEnd, from, size, cursor);
+        if (cursor != null) {
+            final CursorPage<EventFullDto> page = eventService.getEventsByAdmin(
+                    users, states, categories, rangeStart, rangeEnd, cursor, size);
+            if (page.getNextCursor() != null) {
+                response.setHeader(Constants.NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return page.getContent();
+        }
         return eventService.getEventsByAdmin(users, states, categories, rangeStart, rangeEnd, from, size);
     }
 
+    /**
+     * Выгрузка всех событий по тем же условиям, что и поиск, без постраничной выборки: NDJSON или CSV
+     */
+    @GetMapping("/export")
+    public void exportEventsByAdmin(
+            @RequestParam(value = "users", required = false) List<Long> users,
+            @RequestParam(value = "states", required = false) List<String> states,
+            @RequestParam(value = "categories", required = false) List<Long> categories,
+            @RequestParam(value = "rangeStart", required = false)
+            @DateTimeFormat(pattern = YYYY_MM_DD_HH_MM_SS) LocalDateTime rangeStart,
+            @RequestParam(value = "rangeEnd", required = false)
+            @DateTimeFormat(pattern = YYYY_MM_DD_HH_MM_SS) LocalDateTime rangeEnd,
+            @RequestParam(value = "format", defaultValue = "NDJSON") ExportFormat format,
+            HttpServletResponse response
+    ) throws IOException {
+        log.debug("Request received GET /admin/events/export");
+        log.debug("RequestParams: users={},states={},categories={},rangeStart={}, rangeEnd={}, format={}",
+                users, states, categories, rangeStart, rangeEnd, format);
+        eventService.validateExportRange(rangeStart, rangeEnd);
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                String.format("attachment; filename=\"events.%s\"", format.getExtension()));
+        final long count = eventService.exportEventsByAdmin(users, states, categories, rangeStart, rangeEnd, format,
+                response.getOutputStream());
+        log.debug("Exported {} events", count);
+    }
+
     @PatchMapping("/{eventId}")
     public EventFullDto updateEventByAdmin(@Valid @RequestBody(required = false) UpdateEventAdminRequest body,
                                            @PathVariable long eventId) {
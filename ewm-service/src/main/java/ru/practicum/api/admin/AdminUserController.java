@@ -17,7 +17,9 @@ import ru.practicum.dto.user.NewUserRequest;
 import ru.practicum.dto.user.UserDto;
 import ru.practicum.service.user.UserService;
 import ru.practicum.utils.Constants;
+import ru.practicum.utils.CursorPage;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
@@ -44,13 +46,22 @@ public class AdminUserController {
                                   @PositiveOrZero
                                   @RequestParam(value = "from", defaultValue = Constants.FROM) Integer from,
                                   @Positive
-                                  @RequestParam(value = "size", defaultValue = Constants.PAGE_SIZE) Integer size) {
+                                  @RequestParam(value = "size", defaultValue = Constants.PAGE_SIZE) Integer size,
+                                  @RequestParam(value = "cursor", required = false) String cursor,
+                                  HttpServletResponse response) {
         if (ids != null) {
-            log.debug("Request received GET /admin/users?{}&from={}&size={}",
+            log.debug("Request received GET /admin/users?{}&from={}&size={}&cursor={}",
                     ids.stream().map(aLong -> "ids=" + aLong).collect(Collectors.joining("&")),
-                    from, size);
+                    from, size, cursor);
         } else {
-            log.debug("Request received GET /admin/users?from={}&size={}", from, size);
+            log.debug("Request received GET /admin/users?from={}&size={}&cursor={}", from, size, cursor);
+        }
+        if (cursor != null) {
+            final CursorPage<UserDto> page = userService.getUsers(ids, cursor, size);
+            if (page.getNextCursor() != null) {
+                response.setHeader(Constants.NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return page.getContent();
         }
         return userService.getUsers(ids, from, size);
     }
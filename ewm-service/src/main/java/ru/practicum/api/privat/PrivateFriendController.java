@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.dto.event.EventShortDto;
 import ru.practicum.dto.user.UserDto;
 import ru.practicum.service.subs.FriendService;
+import ru.practicum.service.subs.RecommendationService;
 
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
@@ -26,6 +27,7 @@ import static ru.practicum.utils.Constants.PAGE_SIZE;
 @Validated
 public class PrivateFriendController {
     private final FriendService friendService;
+    private final RecommendationService recommendationService;
 
 
     /**
@@ -74,4 +76,16 @@ public class PrivateFriendController {
         return friendService.getFriendEvents(userId, from, size);
     }
 
+    /**
+     * Получить предстоящие события, в которых участвуют друзья и друзья друзей, по убыванию оценки<br>
+     * GET /users/{userId}/friends/recommendations?from={from}&size={size}
+     */
+    @GetMapping("/friends/recommendations")
+    public List<EventShortDto> getRecommendations(
+            @PathVariable("userId") long userId,
+            @PositiveOrZero @RequestParam(value = "from", defaultValue = FROM) int from,
+            @Positive @RequestParam(value = "size", defaultValue = PAGE_SIZE) int size) {
+        log.debug("Request received GET /users/{}/friends/recommendations?from={}&size={}", userId, from, size);
+        return recommendationService.getRecommendations(userId, from, size);
+    }
 }
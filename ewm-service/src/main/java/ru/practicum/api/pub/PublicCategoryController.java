@@ -10,12 +10,15 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.dto.category.CategoryDto;
 import ru.practicum.service.category.CategoryService;
+import ru.practicum.utils.CursorPage;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 import java.util.List;
 
 import static ru.practicum.utils.Constants.FROM;
+import static ru.practicum.utils.Constants.NEXT_CURSOR_HEADER;
 import static ru.practicum.utils.Constants.PAGE_SIZE;
 
 @RestController
@@ -29,9 +32,18 @@ public class PublicCategoryController {
     @GetMapping("/categories")
     public List<CategoryDto> getCategories(
             @PositiveOrZero @RequestParam(value = "from", defaultValue = FROM) Integer from,
-            @Positive @RequestParam(value = "size", defaultValue = PAGE_SIZE) Integer size
+            @Positive @RequestParam(value = "size", defaultValue = PAGE_SIZE) Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            HttpServletResponse response
     ) {
-        log.debug("Request received GET /categories?from={}&size={}", from, size);
+        log.debug("Request received GET /categories?from={}&size={}&cursor={}", from, size, cursor);
+        if (cursor != null) {
+            final CursorPage<CategoryDto> page = categoryService.getCategories(cursor, size);
+            if (page.getNextCursor() != null) {
+                response.setHeader(NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return page.getContent();
+        }
         return categoryService.getCategories(from, size);
     }
 
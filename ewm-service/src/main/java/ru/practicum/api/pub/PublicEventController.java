@@ -13,8 +13,10 @@ import ru.practicum.dto.event.EventFullDto;
 import ru.practicum.dto.event.EventShortDto;
 import ru.practicum.enums.SortType;
 import ru.practicum.service.event.EventService;
+import ru.practicum.utils.CursorPage;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 import java.time.LocalDateTime;
@@ -22,6 +24,7 @@ import java.util.List;
 
 import static ru.practicum.Constants.YYYY_MM_DD_HH_MM_SS;
 import static ru.practicum.utils.Constants.FROM;
+import static ru.practicum.utils.Constants.NEXT_CURSOR_HEADER;
 import static ru.practicum.utils.Constants.PAGE_SIZE;
 
 @RestController
@@ -51,11 +54,22 @@ public class PublicEventController {
             @RequestParam(value = "sort", required = false) SortType sort,
             @PositiveOrZero @RequestParam(value = "from", defaultValue = FROM) Integer from,
             @Positive @RequestParam(value = "size", defaultValue = PAGE_SIZE) Integer size,
-            HttpServletRequest request
+            //курсор следующей страницы из заголовка X-Next-Cursor, пустое значение - первая страница
+            @RequestParam(value = "cursor", required = false) String cursor,
+            HttpServletRequest request,
+            HttpServletResponse response
     ) {
         log.debug("Request received GET /events");
-        log.debug("RequestParams: text='{}',categories={},paid={},rangeStart={},rangeEnd={},onlyAvailable={},sort='{}',from={},size={}",
-                text, categories, paid, rangeStart, rangeEnd, onlyAvailable, sort, from, size);
+        log.debug("RequestParams: text='{}',categories={},paid={},rangeStart={},rangeEnd={},onlyAvailable={},sort='{}',from={},size={},cursor={}",
+                text, categories, paid, rangeStart, rangeEnd, onlyAvailable, sort, from, size, cursor);
+        if (cursor != null) {
+            final CursorPage<EventShortDto> page = eventService.getPublishedEvents(
+                    text, categories, paid, rangeStart, rangeEnd, onlyAvailable, sort, cursor, size, request);
+            if (page.getNextCursor() != null) {
+                response.setHeader(NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return page.getContent();
+        }
         return eventService.getPublishedEvents(
                 text, categories, paid, rangeStart, rangeEnd, onlyAvailable, sort, from, size, request);
     }
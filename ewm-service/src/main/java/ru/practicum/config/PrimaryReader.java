@@ -0,0 +1,38 @@
+package ru.practicum.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Чтение из основной базы для кэшей: снимок, прочитанный с отстающей реплики, прожил бы весь ttl.<br>
+ * - с репликой чтение внутри read-only транзакции выполняется в отдельной транзакции на запись,
+ * которая направляется в основную базу<br>
+ * - без реплики и вне read-only транзакций чтение идет в текущей транзакции, второе соединение пула не занимается
+ */
+@Component
+public class PrimaryReader {
+    private final TransactionTemplate primaryTransaction;
+
+    public PrimaryReader(PlatformTransactionManager transactionManager,
+                         @Value("${ewm.datasource.replica.url:}") String replicaUrl) {
+        if (replicaUrl.isEmpty()) {
+            this.primaryTransaction = null;
+        } else {
+            this.primaryTransaction = new TransactionTemplate(transactionManager);
+            this.primaryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        }
+    }
+
+    public <T> T read(Supplier<T> reader) {
+        if (primaryTransaction == null || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return reader.get();
+        }
+        return primaryTransaction.execute(status -> reader.get());
+    }
+}
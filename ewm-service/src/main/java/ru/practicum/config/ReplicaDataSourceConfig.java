@@ -0,0 +1,98 @@
+package ru.practicum.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * Источник данных с репликой для чтения. Включается заданием ewm.datasource.replica.url,
+ * без него используется единственный источник из spring.datasource.
+ * Логин, пароль и драйвер реплики по умолчанию совпадают с основной базой.
+ * Пул основной базы настраивается свойствами spring.datasource.hikari.*, как и без реплики.
+ */
+@Configuration
+@ConditionalOnProperty(name = "ewm.datasource.replica.url")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        final HikariDataSource primary = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${ewm.datasource.replica.url}") String url,
+                                              @Value("${ewm.datasource.replica.username:}") String username,
+                                              @Value("${ewm.datasource.replica.password:}") String password,
+                                              @Value("${ewm.datasource.replica.pool-size:10}") int poolSize) {
+        final HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username.isEmpty() ? properties.determineUsername() : username)
+                .password(password.isEmpty() ? properties.determinePassword() : password)
+                .build();
+        replica.setPoolName("replica");
+        replica.setMaximumPoolSize(poolSize);
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replica,
+                                               @Value("${ewm.datasource.replica.lag-query:}") String lagQuery,
+                                               @Value("${ewm.datasource.replica.max-lag-ms:5000}") long maxLagMs) {
+        final ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica,
+                lagQuery.isEmpty() ? ReplicaLagMonitor.POSTGRES_LAG_QUERY : lagQuery, maxLagMs);
+        monitor.check();
+        return monitor;
+    }
+
+    /**
+     * Реплика с отставанием до max-lag-ms используется еще lag-check-ms до следующей проверки,
+     * столько сессия после записи читает из основной базы
+     */
+    @Bean
+    public ReplicaSessionPinning replicaSessionPinning(
+            @Value("${ewm.datasource.replica.max-lag-ms:5000}") long maxLagMs,
+            @Value("${ewm.datasource.replica.lag-check-ms:1000}") long lagCheckMs) {
+        return new ReplicaSessionPinning(maxLagMs + lagCheckMs);
+    }
+
+    @Bean
+    public WebMvcConfigurer replicaSessionPinningConfigurer(ReplicaSessionPinning replicaSessionPinning) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(replicaSessionPinning);
+            }
+        };
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaLagMonitor replicaLagMonitor,
+                                 ReplicaSessionPinning replicaSessionPinning) {
+        return new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, replica, replicaLagMonitor, replicaSessionPinning));
+    }
+}
@@ -0,0 +1,63 @@
+package ru.practicum.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Периодически проверяет доступность реплики и ее отставание от основной базы
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+    /**
+     * Отставание реплики PostgreSQL в миллисекундах. Реплика, применившая весь полученный WAL, не отстает,
+     * даже если в основную базу давно не писали. На основной базе функции возвращают null - отставание 0.
+     */
+    public static final String POSTGRES_LAG_QUERY = "SELECT COALESCE(CASE "
+            + "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 END, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String lagQuery;
+    private final long maxLagMs;
+    private volatile boolean available;
+
+    /**
+     * @param lagQuery запрос к реплике, возвращающий отставание в миллисекундах
+     * @param maxLagMs наибольшее допустимое отставание
+     */
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, long maxLagMs) {
+        this.jdbcTemplate = new JdbcTemplate(replica);
+        this.lagQuery = lagQuery;
+        this.maxLagMs = maxLagMs;
+    }
+
+    /**
+     * @return true, если при последней проверке реплика ответила и отставала не больше допустимого
+     */
+    public boolean isAvailable() {
+        return available;
+    }
+
+    @Scheduled(fixedDelayString = "${ewm.datasource.replica.lag-check-ms:1000}")
+    public void check() {
+        boolean result;
+        try {
+            final Double lagMs = jdbcTemplate.queryForObject(lagQuery, Double.class);
+            result = lagMs != null && lagMs <= maxLagMs;
+            if (!result) {
+                log.warn("Replica lag {} ms exceeds {} ms", lagMs, maxLagMs);
+            }
+        } catch (DataAccessException e) {
+            result = false;
+            log.warn("Replica is unavailable: {}", e.getMessage());
+        }
+        if (result != available) {
+            log.info("Read-only transactions are routed to {}", result ? "replica" : "primary");
+        }
+        available = result;
+    }
+}
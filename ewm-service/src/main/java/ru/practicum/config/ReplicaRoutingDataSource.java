@@ -0,0 +1,41 @@
+package ru.practicum.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Направляет read-only транзакции в реплику, остальные запросы - в основную базу.<br>
+ * Пока ReplicaLagMonitor считает реплику недоступной или отстающей, read-only транзакции тоже идут в основную базу.
+ * Так же читают запросы сессии, закрепленной ReplicaSessionPinning за основной базой после записи.
+ * Признак read-only выставляется уже после получения соединения транзакцией, поэтому источник оборачивается
+ * в LazyConnectionDataSourceProxy: соединение выбирается при первом запросе.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReplicaSessionPinning sessionPinning;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                    ReplicaSessionPinning sessionPinning) {
+        this.lagMonitor = lagMonitor;
+        this.sessionPinning = sessionPinning;
+        setTargetDataSources(Map.<Object, Object>of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && lagMonitor.isAvailable()
+                && !sessionPinning.isPinned()
+                ? Route.REPLICA
+                : Route.PRIMARY;
+    }
+}
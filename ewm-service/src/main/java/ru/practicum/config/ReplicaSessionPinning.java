@@ -0,0 +1,87 @@
+package ru.practicum.config;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Чтение своих записей при работе с репликой.<br>
+ * - после изменяющего запроса (не GET, HEAD, OPTIONS) сессия клиента на pinMs закрепляется за основной базой:
+ * реплика могла еще не применить записанное<br>
+ * - сам изменяющий запрос тоже читает только из основной базы<br>
+ * - сессия - пользователь из пути /users/{userId}/..., для остальных запросов - адрес клиента
+ */
+public class ReplicaSessionPinning implements HandlerInterceptor {
+    private static final Set<String> SAFE_METHODS = Set.of(
+            HttpMethod.GET.name(), HttpMethod.HEAD.name(), HttpMethod.OPTIONS.name());
+    private static final String USER_ID = "userId";
+
+    private final ThreadLocal<Boolean> pinned = new ThreadLocal<>();
+    private final Map<String, Long> pinnedUntil = new ConcurrentHashMap<>();
+    private final long pinMs;
+    private final LongSupplier currentTimeMillis;
+
+    /**
+     * @param pinMs время после записи, в течение которого чтения сессии идут в основную базу
+     */
+    public ReplicaSessionPinning(long pinMs) {
+        this(pinMs, System::currentTimeMillis);
+    }
+
+    ReplicaSessionPinning(long pinMs, LongSupplier currentTimeMillis) {
+        this.pinMs = pinMs;
+        this.currentTimeMillis = currentTimeMillis;
+    }
+
+    /**
+     * @return true, если текущий запрос должен читать из основной базы
+     */
+    public boolean isPinned() {
+        return Boolean.TRUE.equals(pinned.get());
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        final Long until = pinnedUntil.get(getSession(request));
+        pinned.set(!isSafe(request) || (until != null && until > currentTimeMillis.getAsLong()));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        try {
+            if (!isSafe(request)) {
+                pinnedUntil.merge(getSession(request), currentTimeMillis.getAsLong() + pinMs, Math::max);
+            }
+        } finally {
+            pinned.remove();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ewm.datasource.replica.lag-check-ms:1000}")
+    public void evictExpired() {
+        final long now = currentTimeMillis.getAsLong();
+        pinnedUntil.values().removeIf(until -> until <= now);
+    }
+
+    private static boolean isSafe(HttpServletRequest request) {
+        return SAFE_METHODS.contains(request.getMethod());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String getSession(HttpServletRequest request) {
+        final Map<String, String> variables = (Map<String, String>) request.getAttribute(
+                HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        final String userId = (variables == null) ? null : variables.get(USER_ID);
+        return (userId != null) ? "user:" + userId : "address:" + request.getRemoteAddr();
+    }
+}
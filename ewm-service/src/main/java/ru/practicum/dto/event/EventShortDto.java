@@ -30,4 +30,13 @@ public class EventShortDto {
     private UserShortDto initiator;
     private Boolean paid;
     private Long views = 0L;
+
+    /**
+     * Проекция запроса списка событий: у категории заполнен только id, название и просмотры заполняются после выборки
+     */
+    public EventShortDto(Long id, String title, String annotation, Long categoryId, Integer confirmedRequests,
+                         LocalDateTime eventDate, UserShortDto initiator, Boolean paid) {
+        this(id, title, annotation, new CategoryDto(categoryId, null), confirmedRequests, eventDate, initiator, paid,
+                0L);
+    }
 }
@@ -6,6 +6,10 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import ru.practicum.enums.RequestStatus;
 
+import java.time.LocalDateTime;
+
+import static ru.practicum.Constants.FORMATTER;
+
 /**
  * Заявка на участие в событии
  */
@@ -20,4 +24,12 @@ public class ParticipationRequestDto {
     private String created;
     private RequestStatus status;
     private boolean isPrivate;
+
+    /**
+     * Проекция запроса заявок
+     */
+    public ParticipationRequestDto(Long id, Long event, Long requester, LocalDateTime created, RequestStatus status,
+                                   boolean isPrivate) {
+        this(id, event, requester, created.format(FORMATTER), status, isPrivate);
+    }
 }
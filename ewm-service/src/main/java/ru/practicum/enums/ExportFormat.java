@@ -0,0 +1,20 @@
+package ru.practicum.enums;
+
+import lombok.Getter;
+
+/**
+ * Формат выгрузки событий: NDJSON - один EventFullDto в строке, CSV - плоские колонки с заголовком
+ */
+@Getter
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+}
@@ -0,0 +1,8 @@
+package ru.practicum.enums;
+
+/**
+ * Тип записи ленты друзей: событие, опубликованное другом, или публичное участие друга в событии
+ */
+public enum FriendFeedType {
+    EVENT, PARTICIPATION
+}
@@ -0,0 +1,16 @@
+package ru.practicum.enums;
+
+import static ru.practicum.mapper.EnumMapper.getEnumFromString;
+
+/**
+ * Поведение очереди хитов статистики при переполнении
+ */
+public enum HitOverflowPolicy {
+    DROP,  // хит отбрасывается, увеличивается счетчик потерянных хитов
+    BLOCK, // поток запроса ждет освобождения места в очереди (не дольше block-timeout-ms)
+    SPILL; // хит дописывается в файл на диске и отправляется позже
+
+    public static HitOverflowPolicy from(String name) {
+        return getEnumFromString(HitOverflowPolicy.class, name, "Unknown hit overflow policy");
+    }
+}
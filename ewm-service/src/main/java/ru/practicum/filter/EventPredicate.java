@@ -1,10 +1,14 @@
 package ru.practicum.filter;
 
+import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.Predicate;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import ru.practicum.utils.PageCursor;
 import ru.practicum.utils.QPredicate;
 
+import java.util.Collection;
+
 import static ru.practicum.model.QEvent.event;
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
@@ -14,9 +18,8 @@ public class EventPredicate {
                 .or(event.confirmedRequests.lt(event.participantLimit));
     }
 
-    public static Predicate getTextFilter(String text) {
-        return event.description.likeIgnoreCase(text)
-                .or(event.annotation.likeIgnoreCase(text));
+    public static Predicate getIdIn(Collection<Long> ids) {
+        return event.id.in(ids);
     }
 
     public static Predicate getAndEventPredicate(EventFilter filter) {
@@ -43,4 +46,21 @@ public class EventPredicate {
                 .add(filter.getStateEq(), event.state::eq)
                 .buildAnd();
     }
+
+    /**
+     * События после курсора в порядке {@link #getCursorOrder(String)}
+     */
+    public static Predicate getAfterCursor(PageCursor cursor) {
+        if (PageCursor.BY_EVENT_DATE.equals(cursor.getSort())) {
+            return event.eventDate.gt(cursor.getEventDate())
+                    .or(event.eventDate.eq(cursor.getEventDate()).and(event.id.gt(cursor.getId())));
+        }
+        return event.id.gt(cursor.getId());
+    }
+
+    public static OrderSpecifier<?>[] getCursorOrder(String sort) {
+        return PageCursor.BY_EVENT_DATE.equals(sort)
+                ? new OrderSpecifier<?>[]{event.eventDate.asc(), event.id.asc()}
+                : new OrderSpecifier<?>[]{event.id.asc()};
+    }
 }
@@ -1,18 +1,26 @@
 package ru.practicum.mapper;
 
+import com.querydsl.core.types.ConstructorExpression;
+import com.querydsl.core.types.Projections;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import ru.practicum.dto.category.CategoryDto;
 import ru.practicum.dto.event.EventFullDto;
 import ru.practicum.dto.event.EventShortDto;
 import ru.practicum.dto.event.NewEventDto;
+import ru.practicum.dto.user.UserShortDto;
 import ru.practicum.enums.EventState;
 import ru.practicum.model.Category;
 import ru.practicum.model.Event;
 import ru.practicum.model.Location;
+import ru.practicum.model.QEvent;
+import ru.practicum.model.QUser;
 import ru.practicum.model.User;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
@@ -62,6 +70,18 @@ public class EventMapper {
                 .build();
     }
 
+    /**
+     * Категория берется по id из categories, как в {@link #withCategoryNames}; без нее - из события
+     * @param categories категория по id
+     */
+    public static EventFullDto toFullDto(Event event, Function<Long, Optional<CategoryDto>> categories) {
+        final EventFullDto dto = toFullDto(event);
+        if (event.getCategory() != null) {
+            categories.apply(event.getCategory().getId()).ifPresent(dto::setCategory);
+        }
+        return dto;
+    }
+
     public static EventShortDto toShortDto(Event event) {
         return EventShortDto.builder()
                 .id(event.getId())
@@ -86,6 +106,38 @@ public class EventMapper {
                 .build();
     }
 
+    /**
+     * Проекция запроса в EventShortDto: выбираются только нужные колонки события и инициатора.
+     * Названия категорий заполняются {@link #withCategoryNames} без соединения с таблицей категорий
+     * @param initiator соединение события с инициатором
+     */
+    public static ConstructorExpression<EventShortDto> toShortDto(QEvent event, QUser initiator) {
+        return Projections.constructor(EventShortDto.class,
+                event.id,
+                event.title,
+                event.annotation,
+                event.category.id,
+                event.confirmedRequests,
+                event.eventDate,
+                Projections.constructor(UserShortDto.class, initiator.id, initiator.name),
+                event.paid);
+    }
+
+    /**
+     * Заполнить категории событий, у которых известен только id категории
+     * @param categories категория по id
+     */
+    public static List<EventShortDto> withCategoryNames(List<EventShortDto> events,
+                                                        Function<Long, Optional<CategoryDto>> categories) {
+        for (EventShortDto event : events) {
+            final CategoryDto category = event.getCategory();
+            if (category != null && category.getName() == null) {
+                categories.apply(category.getId()).ifPresent(event::setCategory);
+            }
+        }
+        return events;
+    }
+
     public static List<EventShortDto> toDto(List<Event> subs) {
         return subs.stream()
                 .map(EventMapper::toShortDto)
@@ -16,6 +16,8 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.Table;
 import java.time.LocalDateTime;
 
@@ -25,7 +27,17 @@ import java.time.LocalDateTime;
 @Entity
 @Data
 @Table(name = "events")
+@NamedEntityGraph(name = Event.DETAILS_GRAPH, attributeNodes = {
+        @NamedAttributeNode("category"),
+        @NamedAttributeNode("initiator"),
+        @NamedAttributeNode("location")
+})
 public class Event {
+    /**
+     * Событие вместе с категорией, инициатором и локацией одним запросом - все они нужны EventMapper
+     */
+    public static final String DETAILS_GRAPH = "Event.details";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "id", nullable = false)
@@ -0,0 +1,34 @@
+package ru.practicum.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Количество просмотров опубликованного события, периодически загружаемое из сервиса статистики.
+ * Используется для сортировки событий по просмотрам на стороне базы данных.
+ */
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "event_views")
+@Data
+public class EventViews {
+    @Id
+    @Column(name = "event_id", nullable = false)
+    private Long eventId;
+
+    @Column
+    private Long views;
+
+    @Column(name = "updated_on")
+    private LocalDateTime updatedOn;
+}
@@ -0,0 +1,50 @@
+package ru.practicum.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.enums.FriendFeedType;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Запись ленты друзей подписчика: событие друга friendId или участие друга в событии.
+ * Записи добавляются при публикации события, подтверждении заявки и одобрении дружбы,
+ * дата события хранится в записи, чтобы страница ленты читалась по индексу без соединений.
+ */
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Data
+@IdClass(FriendFeedItemId.class)
+@Table(name = "friend_feed")
+public class FriendFeedItem {
+    @Id
+    @Column(name = "follower_id", nullable = false)
+    private Long followerId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "item_type", nullable = false)
+    private FriendFeedType type;
+
+    @Id
+    @Column(name = "event_id", nullable = false)
+    private Long eventId;
+
+    @Id
+    @Column(name = "friend_id", nullable = false)
+    private Long friendId;
+
+    @Column(name = "event_date", nullable = false)
+    private LocalDateTime eventDate;
+}
@@ -0,0 +1,18 @@
+package ru.practicum.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.enums.FriendFeedType;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FriendFeedItemId implements Serializable {
+    private Long followerId;
+    private FriendFeedType type;
+    private Long eventId;
+    private Long friendId;
+}
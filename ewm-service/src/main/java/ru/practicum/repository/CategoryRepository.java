@@ -1,10 +1,15 @@
 package ru.practicum.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import ru.practicum.model.Category;
 
+import java.util.List;
+
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     boolean existsByIdNotAndName(long catId, String name);
+
+    List<Category> findAllByIdGreaterThan(long id, Pageable page);
 }
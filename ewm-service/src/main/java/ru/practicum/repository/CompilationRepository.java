@@ -7,6 +7,6 @@ import org.springframework.stereotype.Repository;
 import ru.practicum.model.Compilation;
 
 @Repository
-public interface CompilationRepository extends JpaRepository<Compilation, Long> {
+public interface CompilationRepository extends JpaRepository<Compilation, Long>, CompilationRepositoryCustom {
     Page<Compilation> findAllByPinned(Boolean pinned, PageRequest page);
 }
@@ -0,0 +1,18 @@
+package ru.practicum.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface CompilationRepositoryCustom {
+    /**
+     * id событий подборок одним запросом к compilation_events
+     * @return id событий по возрастанию для каждой подборки, в которой есть события
+     */
+    Map<Long, List<Long>> findEventIds(Collection<Long> compilationIds);
+
+    /**
+     * id подборок, в которые входит событие
+     */
+    List<Long> findIdsByEventId(long eventId);
+}
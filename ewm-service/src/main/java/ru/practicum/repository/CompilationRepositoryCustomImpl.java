@@ -0,0 +1,47 @@
+package ru.practicum.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+import javax.persistence.EntityManager;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static ru.practicum.model.QCompilation.compilation;
+import static ru.practicum.model.QEvent.event;
+
+public class CompilationRepositoryCustomImpl implements CompilationRepositoryCustom {
+    private final JPAQueryFactory queryFactory;
+
+    public CompilationRepositoryCustomImpl(EntityManager em) {
+        this.queryFactory = new JPAQueryFactory(em);
+    }
+
+    @Override
+    public Map<Long, List<Long>> findEventIds(Collection<Long> compilationIds) {
+        if (compilationIds.isEmpty()) return Collections.emptyMap();
+        final List<Tuple> rows = queryFactory
+                .select(compilation.id, event.id)
+                .from(compilation)
+                .innerJoin(compilation.events, event)
+                .where(compilation.id.in(compilationIds))
+                .orderBy(compilation.id.asc(), event.id.asc())
+                .fetch();
+        return rows.stream()
+                .collect(Collectors.groupingBy(row -> row.get(compilation.id),
+                        Collectors.mapping(row -> row.get(event.id), Collectors.toList())));
+    }
+
+    @Override
+    public List<Long> findIdsByEventId(long eventId) {
+        return queryFactory
+                .select(compilation.id)
+                .from(compilation)
+                .innerJoin(compilation.events, event)
+                .where(event.id.eq(eventId))
+                .fetch();
+    }
+}
@@ -1,25 +1,80 @@
 package ru.practicum.repository;
 
+import com.querydsl.core.types.Predicate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.enums.EventState;
 import ru.practicum.model.Event;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+/**
+ * Методы, результат которых преобразуется EventMapper, загружают связи графом Event.DETAILS_GRAPH.
+ * Запрос количества для страниц строится без соединений.
+ */
 @Repository
-public interface EventRepository extends JpaRepository<Event, Long>, QuerydslPredicateExecutor<Event> {
+public interface EventRepository extends JpaRepository<Event, Long>, QuerydslPredicateExecutor<Event>,
+        EventRepositoryCustom {
 
+    @EntityGraph(Event.DETAILS_GRAPH)
     Optional<Event> findByIdAndInitiatorId(long eventId, long userId);
 
+    @EntityGraph(Event.DETAILS_GRAPH)
     Page<Event> findAllByInitiatorId(long userId, PageRequest page);
 
     boolean existsByCategoryId(long catId);
 
+    @EntityGraph(Event.DETAILS_GRAPH)
     Optional<Event> findByIdAndState(long id, EventState eventState);
 
     boolean existsByInitiatorId(long userId);
+
+    @Override
+    @EntityGraph(Event.DETAILS_GRAPH)
+    Optional<Event> findById(Long id);
+
+    @Override
+    @EntityGraph(Event.DETAILS_GRAPH)
+    List<Event> findAllById(Iterable<Long> ids);
+
+    @Override
+    @EntityGraph(Event.DETAILS_GRAPH)
+    Page<Event> findAll(Pageable pageable);
+
+    @Override
+    @EntityGraph(Event.DETAILS_GRAPH)
+    Page<Event> findAll(Predicate predicate, Pageable pageable);
+
+    /**
+     * Увеличить количество подтвержденных заявок на count, если это не превысит лимит участников.
+     * Лимит проверяется в том же UPDATE под блокировкой строки, поэтому параллельные подтверждения его не превышают
+     * @return 1 - места заняты, 0 - свободных мест меньше count
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update Event e set e.confirmedRequests = coalesce(e.confirmedRequests, 0) + :count " +
+            "where e.id = :eventId " +
+            "and (e.participantLimit = 0 or coalesce(e.confirmedRequests, 0) + :count <= e.participantLimit)")
+    int reserveSeats(@Param("eventId") long eventId, @Param("count") int count);
+
+    /**
+     * Свободные места события по данным в базе, а не в сессии
+     */
+    @Query("select e.participantLimit - coalesce(e.confirmedRequests, 0) from Event e where e.id = :eventId")
+    int findFreeSeats(@Param("eventId") long eventId);
+
+    /**
+     * id событий из списка, инициатор которых userId
+     */
+    @Query("select e.id from Event e where e.id in :eventIds and e.initiator.id = :userId")
+    List<Long> findIdsByInitiator(@Param("eventIds") Collection<Long> eventIds, @Param("userId") long userId);
 }
@@ -0,0 +1,46 @@
+package ru.practicum.repository;
+
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import ru.practicum.dto.event.EventShortDto;
+import ru.practicum.model.Event;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface EventRepositoryCustom {
+    /**
+     * Первые limit событий в заданном порядке, без подсчета общего количества
+     * @param predicate условие выборки, может быть null
+     */
+    List<Event> findAllWithLimit(Predicate predicate, long limit, OrderSpecifier<?>... orders);
+
+    /**
+     * Краткая информация о событиях в заданном порядке: выбираются только колонки EventShortDto,
+     * у категории заполнен только id
+     * @param predicate условие выборки, может быть null
+     */
+    List<EventShortDto> findShortWithLimit(Predicate predicate, long offset, long limit, OrderSpecifier<?>... orders);
+
+    /**
+     * Краткая информация о событиях по убыванию количества просмотров из таблицы event_views, затем по id,
+     * у категории заполнен только id.
+     * События без записи о просмотрах идут последними, сортировка по самой колонке views совпадает с индексом.
+     * @param predicate условие выборки, может быть null
+     */
+    List<EventShortDto> findShortOrderByViews(Predicate predicate, long offset, long limit);
+
+    /**
+     * Первые limit id событий по возрастанию
+     * @param predicate условие выборки, может быть null
+     */
+    List<Long> findIdsWithLimit(Predicate predicate, long limit);
+
+    /**
+     * Обойти события с категорией, инициатором и локацией по возрастанию id курсором базы, не загружая выборку в память.
+     * Каждые batchSize событий контекст персистентности очищается, поэтому action должен использовать событие сразу
+     * @param predicate условие выборки, может быть null
+     * @return количество событий
+     */
+    long forEachWithDetails(Predicate predicate, int batchSize, Consumer<Event> action);
+}
@@ -0,0 +1,112 @@
+package ru.practicum.repository;
+
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.jpa.QueryHints;
+import ru.practicum.dto.event.EventShortDto;
+import ru.practicum.mapper.EventMapper;
+import ru.practicum.model.Event;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static ru.practicum.model.QEvent.event;
+import static ru.practicum.model.QEventViews.eventViews;
+import static ru.practicum.model.QUser.user;
+
+public class EventRepositoryCustomImpl implements EventRepositoryCustom {
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+
+    public EventRepositoryCustomImpl(EntityManager em) {
+        this.em = em;
+        this.queryFactory = new JPAQueryFactory(em);
+    }
+
+    @Override
+    public List<Event> findAllWithLimit(Predicate predicate, long limit, OrderSpecifier<?>... orders) {
+        return selectWithDetails()
+                .where(predicate)
+                .orderBy(orders)
+                .limit(limit)
+                .fetch();
+    }
+
+    @Override
+    public List<EventShortDto> findShortWithLimit(Predicate predicate, long offset, long limit,
+                                                  OrderSpecifier<?>... orders) {
+        return selectShort()
+                .where(predicate)
+                .orderBy(orders)
+                .offset(offset)
+                .limit(limit)
+                .fetch();
+    }
+
+    @Override
+    public List<EventShortDto> findShortOrderByViews(Predicate predicate, long offset, long limit) {
+        return selectShort()
+                .leftJoin(eventViews).on(eventViews.eventId.eq(event.id))
+                .where(predicate)
+                .orderBy(eventViews.views.desc().nullsLast(), event.id.asc())
+                .offset(offset)
+                .limit(limit)
+                .fetch();
+    }
+
+    @Override
+    public List<Long> findIdsWithLimit(Predicate predicate, long limit) {
+        return queryFactory
+                .select(event.id)
+                .from(event)
+                .where(predicate)
+                .orderBy(event.id.asc())
+                .limit(limit)
+                .fetch();
+    }
+
+    @Override
+    public long forEachWithDetails(Predicate predicate, int batchSize, Consumer<Event> action) {
+        final org.hibernate.query.Query<?> query = selectWithDetails()
+                .where(predicate)
+                .orderBy(event.id.asc())
+                .setHint(QueryHints.HINT_FETCH_SIZE, batchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .createQuery()
+                .unwrap(org.hibernate.query.Query.class);
+        long count = 0;
+        try (ScrollableResults results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                action.accept((Event) results.get(0));
+                if (++count % batchSize == 0) {
+                    em.clear();
+                }
+            }
+        }
+        em.clear();
+        return count;
+    }
+
+    /**
+     * События с категорией, инициатором и локацией, загруженными в том же запросе
+     */
+    private JPAQuery<Event> selectWithDetails() {
+        return queryFactory
+                .selectFrom(event)
+                .leftJoin(event.category).fetchJoin()
+                .leftJoin(event.initiator).fetchJoin()
+                .leftJoin(event.location).fetchJoin();
+    }
+
+    private JPAQuery<EventShortDto> selectShort() {
+        return queryFactory
+                .select(EventMapper.toShortDto(event, user))
+                .from(event)
+                .innerJoin(event.initiator, user);
+    }
+}
@@ -0,0 +1,125 @@
+package ru.practicum.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.practicum.enums.FriendFeedType;
+import ru.practicum.model.FriendFeedItem;
+import ru.practicum.model.FriendFeedItemId;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Изменение ленты друзей одним INSERT ... SELECT или DELETE на набор событий, заявок или дружб.
+ * Уже существующие записи, в том числе добавленные параллельной транзакцией, пропускаются
+ * через ON CONFLICT DO NOTHING
+ */
+@Repository
+public interface FriendFeedRepository extends JpaRepository<FriendFeedItem, FriendFeedItemId> {
+    /**
+     * Записи лент нескольких подписчиков для событий, которые начнутся позже after,
+     * от ближайших событий к дальним: порядок по event_date совпадает с индексами
+     * ix_friend_feed_follower_date и ix_friend_feed_event_date, поэтому страница ограниченного размера
+     * читается по индексу без сортировки всех записей лент
+     */
+    @Query("select f from FriendFeedItem f " +
+            "where f.type = :type and f.followerId in :followerIds and f.eventDate > :after " +
+            "order by f.eventDate, f.eventId, f.followerId, f.friendId")
+    List<FriendFeedItem> findByFollowers(@Param("type") FriendFeedType type,
+                                         @Param("followerIds") Collection<Long> followerIds,
+                                         @Param("after") LocalDateTime after,
+                                         Pageable page);
+
+    /**
+     * Добавить опубликованное событие в ленты подписчиков инициатора
+     * @return количество добавленных записей
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = "INSERT INTO friend_feed (follower_id, item_type, event_id, friend_id, event_date) " +
+            "SELECT DISTINCT f.follower_id, 'EVENT', e.id, e.initiator_id, e.event_date " +
+            "FROM events e " +
+            "JOIN friendship f ON f.friend_id = e.initiator_id AND f.state = 'APPROVED' " +
+            "WHERE e.id = :eventId AND e.state = 'PUBLISHED' " +
+            "ON CONFLICT DO NOTHING")
+    int insertEvent(@Param("eventId") long eventId);
+
+    /**
+     * Добавить подтвержденные публичные заявки в ленты подписчиков их авторов
+     * @return количество добавленных записей
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = "INSERT INTO friend_feed (follower_id, item_type, event_id, friend_id, event_date) " +
+            "SELECT DISTINCT f.follower_id, 'PARTICIPATION', r.event_id, r.requester_id, e.event_date " +
+            "FROM requests r " +
+            "JOIN events e ON e.id = r.event_id " +
+            "JOIN friendship f ON f.friend_id = r.requester_id AND f.state = 'APPROVED' " +
+            "WHERE r.id IN (:requestIds) AND r.status = 'CONFIRMED' AND r.private = false " +
+            "ON CONFLICT DO NOTHING")
+    int insertParticipations(@Param("requestIds") Collection<Long> requestIds);
+
+    /**
+     * Удалить участие авторов заявок в событиях заявок из всех лент
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = "DELETE FROM friend_feed WHERE item_type = 'PARTICIPATION' " +
+            "AND EXISTS (SELECT 1 FROM requests r WHERE r.id IN (:requestIds) " +
+            "AND r.requester_id = friend_feed.friend_id AND r.event_id = friend_feed.event_id)")
+    int deleteParticipations(@Param("requestIds") Collection<Long> requestIds);
+
+    /**
+     * Добавить в ленты подписчиков одобренных дружб будущие события друзей
+     * @return количество добавленных записей
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = "INSERT INTO friend_feed (follower_id, item_type, event_id, friend_id, event_date) " +
+            "SELECT DISTINCT f.follower_id, 'EVENT', e.id, e.initiator_id, e.event_date " +
+            "FROM friendship f " +
+            "JOIN events e ON e.initiator_id = f.friend_id " +
+            "WHERE f.id IN (:friendshipIds) AND f.state = 'APPROVED' " +
+            "AND e.state = 'PUBLISHED' AND e.event_date > :after " +
+            "ON CONFLICT DO NOTHING")
+    int insertFriendEvents(@Param("friendshipIds") Collection<Long> friendshipIds,
+                           @Param("after") LocalDateTime after);
+
+    /**
+     * Добавить в ленты подписчиков одобренных дружб публичное участие друзей в будущих событиях
+     * @return количество добавленных записей
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = "INSERT INTO friend_feed (follower_id, item_type, event_id, friend_id, event_date) " +
+            "SELECT DISTINCT f.follower_id, 'PARTICIPATION', r.event_id, r.requester_id, e.event_date " +
+            "FROM friendship f " +
+            "JOIN requests r ON r.requester_id = f.friend_id " +
+            "JOIN events e ON e.id = r.event_id " +
+            "WHERE f.id IN (:friendshipIds) AND f.state = 'APPROVED' " +
+            "AND r.status = 'CONFIRMED' AND r.private = false AND e.event_date > :after " +
+            "ON CONFLICT DO NOTHING")
+    int insertFriendParticipations(@Param("friendshipIds") Collection<Long> friendshipIds,
+                                   @Param("after") LocalDateTime after);
+
+    /**
+     * Удалить из лент подписчиков все записи друзей по дружбам
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = "DELETE FROM friend_feed " +
+            "WHERE EXISTS (SELECT 1 FROM friendship f WHERE f.id IN (:friendshipIds) " +
+            "AND f.follower_id = friend_feed.follower_id AND f.friend_id = friend_feed.friend_id)")
+    int deleteFriendships(@Param("friendshipIds") Collection<Long> friendshipIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update FriendFeedItem f set f.eventDate = :eventDate where f.eventId = :eventId")
+    int updateEventDate(@Param("eventId") long eventId, @Param("eventDate") LocalDateTime eventDate);
+
+    /**
+     * Удалить записи событий, которые начнутся раньше before
+     * @return количество удаленных записей
+     */
+    @Modifying
+    @Query("delete from FriendFeedItem f where f.eventDate <= :before")
+    int deleteByEventDateBefore(@Param("before") LocalDateTime before);
+}
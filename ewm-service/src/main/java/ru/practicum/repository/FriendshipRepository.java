@@ -1,16 +1,53 @@
 package ru.practicum.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.enums.FriendshipState;
 import ru.practicum.model.Friendship;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface FriendshipRepository extends JpaRepository<Friendship, Long>, QuerydslPredicateExecutor<Friendship> {
     void deleteByFollowerIdAndId(long followerId, long friendId);
 
-    boolean existsByFollowerIdAndFriendIdAndStateNot(long followerId, long friendId, FriendshipState status);
+    boolean existsByFollowerIdAndFriendIdAndState(long followerId, long friendId, FriendshipState state);
 
     boolean existsByIdAndFollowerId(long subsId, long followerId);
+
+    Optional<Friendship> findByIdAndFollowerId(long subsId, long followerId);
+
+    /**
+     * id пользователей, на которых подписан followerId, в статусе state по возрастанию
+     */
+    @Query("select distinct f.friend.id from Friendship f " +
+            "where f.follower.id = :followerId and f.state = :state order by f.friend.id")
+    List<Long> findFriendIds(@Param("followerId") long followerId, @Param("state") FriendshipState state);
+
+    /**
+     * id подписчиков friendId в статусе state по возрастанию
+     */
+    @Query("select distinct f.follower.id from Friendship f " +
+            "where f.friend.id = :friendId and f.state = :state order by f.follower.id")
+    List<Long> findFollowerIds(@Param("friendId") long friendId, @Param("state") FriendshipState state);
+
+    /**
+     * Ребра follower -> friend дружб в статусе state с id больше afterId, по возрастанию id
+     */
+    @Query("select f.id as id, f.follower.id as followerId, f.friend.id as friendId from Friendship f " +
+            "where f.state = :state and f.id > :afterId order by f.id")
+    List<Edge> findEdges(@Param("state") FriendshipState state, @Param("afterId") long afterId, Pageable page);
+
+    interface Edge {
+        long getId();
+
+        long getFollowerId();
+
+        long getFriendId();
+    }
 }
@@ -1,10 +1,16 @@
 package ru.practicum.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.dto.request.ParticipationRequestDto;
 import ru.practicum.enums.RequestStatus;
 import ru.practicum.model.Request;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,4 +27,39 @@ public interface RequestRepository extends JpaRepository<Request, Long> {
     boolean existsByEventIdAndRequesterId(long eventId, long userId);
 
     boolean existsByRequesterId(long userId);
+
+    long countByIdInAndEventIdAndStatus(Collection<Long> requestIds, long eventId, RequestStatus status);
+
+    /**
+     * Перевести заявки события из списка, находящиеся в статусе from, в статус to одним UPDATE
+     * @return количество измененных заявок
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update Request r set r.status = :to " +
+            "where r.id in :requestIds and r.event.id = :eventId and r.status = :from")
+    int updateStatus(@Param("requestIds") Collection<Long> requestIds, @Param("eventId") long eventId,
+                     @Param("from") RequestStatus from, @Param("to") RequestStatus to);
+
+    /**
+     * id событий, которые начнутся позже after, с заявкой requesterId в статусе status
+     */
+    @Query("select r.event.id from Request r " +
+            "where r.requester.id = :requesterId and r.status = :status and r.event.eventDate > :after")
+    List<Long> findEventIdsByRequesterIdAndStatus(@Param("requesterId") long requesterId,
+                                                  @Param("status") RequestStatus status,
+                                                  @Param("after") LocalDateTime after);
+
+    /**
+     * id заявок события в статусе status по возрастанию
+     */
+    @Query("select r.id from Request r where r.event.id = :eventId and r.status = :status order by r.id")
+    List<Long> findIdsByEventIdAndStatus(@Param("eventId") long eventId, @Param("status") RequestStatus status);
+
+    /**
+     * Заявки по id без загрузки сущностей, по возрастанию id
+     */
+    @Query("select new ru.practicum.dto.request.ParticipationRequestDto(" +
+            "r.id, r.event.id, r.requester.id, r.created, r.status, r.isPrivate) " +
+            "from Request r where r.id in :requestIds order by r.id")
+    List<ParticipationRequestDto> findDtoByIdIn(@Param("requestIds") Collection<Long> requestIds);
 }
@@ -2,6 +2,7 @@ package ru.practicum.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import ru.practicum.model.User;
@@ -11,4 +12,8 @@ import java.util.List;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Page<User> findAllByIdIn(List<Long> ids, PageRequest page);
+
+    List<User> findAllByIdGreaterThan(long id, Pageable page);
+
+    List<User> findAllByIdInAndIdGreaterThan(List<Long> ids, long id, Pageable page);
 }
@@ -0,0 +1,143 @@
+package ru.practicum.service.category;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.config.PrimaryReader;
+import ru.practicum.dto.category.CategoryDto;
+import ru.practicum.mapper.CategoryMapper;
+import ru.practicum.repository.CategoryRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Снимок всей таблицы категорий в памяти: категорий мало, и меняются они редко.<br>
+ * - снимок загружается при первом обращении и перечитывается через ttl, чтобы видеть изменения других экземпляров<br>
+ * - изменение категорий сбрасывает снимок после фиксации транзакции<br>
+ * - снимок, загрузка которого началась до сброса, не сохраняется<br>
+ * - снимок и категории вне его читаются из основной базы, а не из отстающей реплики
+ */
+@Slf4j
+@Component
+public class CategoryCache {
+    private final CategoryRepository categoryRepository;
+    private final PrimaryReader primaryReader;
+    private final long ttlMs;
+    private final LongSupplier currentTimeMillis;
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public CategoryCache(CategoryRepository categoryRepository, PrimaryReader primaryReader,
+                         @Value("${ewm.categories.cache.ttl-ms:60000}") long ttlMs) {
+        this(categoryRepository, primaryReader, ttlMs, System::currentTimeMillis);
+    }
+
+    CategoryCache(CategoryRepository categoryRepository, PrimaryReader primaryReader, long ttlMs,
+                  LongSupplier currentTimeMillis) {
+        this.categoryRepository = categoryRepository;
+        this.primaryReader = primaryReader;
+        this.ttlMs = ttlMs;
+        this.currentTimeMillis = currentTimeMillis;
+    }
+
+    /**
+     * Категория из снимка. Категория, добавленная после загрузки снимка, читается из базы
+     */
+    public Optional<CategoryDto> find(long catId) {
+        final CategoryDto category = getSnapshot().categories.get(catId);
+        if (category != null) {
+            return Optional.of(copy(category));
+        }
+        return primaryReader.read(() -> categoryRepository.findById(catId).map(CategoryMapper::toDto));
+    }
+
+    /**
+     * @return все категории по возрастанию id
+     */
+    public List<CategoryDto> getAll() {
+        return getSnapshot().categories.values().stream()
+                .map(CategoryCache::copy)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return первые limit категорий с id больше afterId по возрастанию id
+     */
+    public List<CategoryDto> getAfter(long afterId, int limit) {
+        return getSnapshot().categories.tailMap(afterId, false).values().stream()
+                .limit(limit)
+                .map(CategoryCache::copy)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Сбросить снимок. Внутри транзакции снимок сбрасывается после ее фиксации
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reset();
+                }
+            });
+        } else {
+            reset();
+        }
+    }
+
+    private void reset() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    private Snapshot getSnapshot() {
+        final Snapshot current = snapshot;
+        if (current != null && currentTimeMillis.getAsLong() - current.loadedAt < ttlMs) {
+            return current;
+        }
+        synchronized (this) {
+            final Snapshot loaded = snapshot;
+            if (loaded != null && currentTimeMillis.getAsLong() - loaded.loadedAt < ttlMs) {
+                return loaded;
+            }
+            final long loadGeneration = generation.get();
+            final TreeMap<Long, CategoryDto> categories = primaryReader.read(() -> {
+                final TreeMap<Long, CategoryDto> result = new TreeMap<>();
+                categoryRepository.findAll(Sort.by("id"))
+                        .forEach(category -> result.put(category.getId(), CategoryMapper.toDto(category)));
+                return result;
+            });
+            final Snapshot result = new Snapshot(categories, currentTimeMillis.getAsLong());
+            if (generation.get() == loadGeneration) {
+                snapshot = result;
+            }
+            log.debug("Category cache loaded {} categories", categories.size());
+            return result;
+        }
+    }
+
+    private static CategoryDto copy(CategoryDto category) {
+        return new CategoryDto(category.getId(), category.getName());
+    }
+
+    private static class Snapshot {
+        private final TreeMap<Long, CategoryDto> categories;
+        private final long loadedAt;
+
+        private Snapshot(TreeMap<Long, CategoryDto> categories, long loadedAt) {
+            this.categories = categories;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
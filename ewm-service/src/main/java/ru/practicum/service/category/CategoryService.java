@@ -3,6 +3,7 @@ package ru.practicum.service.category;
 import ru.practicum.dto.category.CategoryDto;
 import ru.practicum.dto.category.NewCategoryDto;
 import ru.practicum.model.Category;
+import ru.practicum.utils.CursorPage;
 
 import java.util.List;
 
@@ -34,6 +35,14 @@ public interface CategoryService {
      */
     List<CategoryDto> getCategories(Integer from, Integer size);
 
+    /**
+     * Получение категорий с постраничной выборкой по курсору, категории упорядочены по id
+     * @param cursor курсор из предыдущей страницы, null или пустая строка - первая страница
+     * @param size количество категорий в наборе
+     * @return категории и курсор следующей страницы
+     */
+    CursorPage<CategoryDto> getCategories(String cursor, Integer size);
+
     /**
      * Получение информации о категории по её идентификатору
      * @param catId id категории
@@ -2,8 +2,8 @@ package ru.practicum.service.category;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.dto.category.CategoryDto;
 import ru.practicum.dto.category.NewCategoryDto;
 import ru.practicum.exception.ConflictException;
@@ -13,6 +13,8 @@ import ru.practicum.model.Category;
 import ru.practicum.repository.CategoryRepository;
 import ru.practicum.repository.EventRepository;
 import ru.practicum.utils.Constants;
+import ru.practicum.utils.CursorPage;
+import ru.practicum.utils.PageCursor;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -25,10 +27,15 @@ import static ru.practicum.utils.Constants.THE_REQUIRED_OBJECT_WAS_NOT_FOUND;
 public class CategoryServiceImpl implements CategoryService {
     private final CategoryRepository categoryRepository;
     private final EventRepository eventRepository;
+    private final CategoryCache categoryCache;
 
+    /**
+     * Категория из кэша, не связанная с контекстом персистентности: для ссылки из события достаточно id
+     */
     @Override
     public Category findCategoryById(long catId) {
-        return categoryRepository.findById(catId)
+        return categoryCache.find(catId)
+                .map(category -> new Category(category.getId(), category.getName()))
                 .orElseThrow(() -> new NotFoundException(
                         String.format(CATEGORY_WITH_ID_D_WAS_NOT_FOUND, catId),
                         THE_REQUIRED_OBJECT_WAS_NOT_FOUND));
@@ -38,6 +45,7 @@ public class CategoryServiceImpl implements CategoryService {
     public CategoryDto saveCategory(NewCategoryDto body) {
         try {
             final Category category = categoryRepository.save(CategoryMapper.fromDto(body));
+            categoryCache.invalidate();
             return CategoryMapper.toDto(category);
         } catch (DataIntegrityViolationException ex) {
             throw new ConflictException(
@@ -60,6 +68,7 @@ public class CategoryServiceImpl implements CategoryService {
                     Constants.FOR_THE_REQUESTED_OPERATION_THE_CONDITIONS_ARE_NOT_MET);
         }
         categoryRepository.deleteById(catId);
+        categoryCache.invalidate();
     }
 
     @Override
@@ -73,21 +82,34 @@ public class CategoryServiceImpl implements CategoryService {
         final Category category = findCategoryById(catId);
         category.setName(body.getName());
         final Category updatedCategory = categoryRepository.save(category);
+        categoryCache.invalidate();
         return CategoryMapper.toDto(updatedCategory);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CategoryDto> getCategories(Integer from, Integer size) {
-        final PageRequest page = PageRequest.of(from / size, size);
-        final List<Category> categories = categoryRepository.findAll(page).getContent();
-        return categories.stream()
-                .map(CategoryMapper::toDto)
+        return categoryCache.getAll().stream()
+                .skip(from)
+                .limit(size)
                 .collect(Collectors.toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public CursorPage<CategoryDto> getCategories(String cursor, Integer size) {
+        final PageCursor after = PageCursor.decode(cursor, PageCursor.BY_ID);
+        final long afterId = (after == null) ? 0 : after.getId();
+        final List<CategoryDto> categories = categoryCache.getAfter(afterId, size + 1);
+        return CursorPage.of(categories, size, category -> PageCursor.ofId(category.getId()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public CategoryDto getCategory(long catId) {
-        final Category category = findCategoryById(catId);
-        return CategoryMapper.toDto(category);
+        return categoryCache.find(catId)
+                .orElseThrow(() -> new NotFoundException(
+                        String.format(CATEGORY_WITH_ID_D_WAS_NOT_FOUND, catId),
+                        THE_REQUIRED_OBJECT_WAS_NOT_FOUND));
     }
 }
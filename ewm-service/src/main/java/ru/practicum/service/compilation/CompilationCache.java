@@ -0,0 +1,179 @@
+package ru.practicum.service.compilation;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.config.PrimaryReader;
+import ru.practicum.dto.compilation.CompilationDto;
+import ru.practicum.dto.event.EventShortDto;
+import ru.practicum.repository.CompilationRepository;
+import ru.practicum.utils.TtlCache;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Готовые ответы публичного API подборок: страницы по (pinned, from, size) и подборки по id.<br>
+ * - события в ответах хранятся без названий категорий и просмотров, их заполняют при каждом чтении<br>
+ * - изменение подборки сбрасывает ее запись и все страницы, изменение события или подтверждение заявок на него -
+ * подборки, в которые оно входит<br>
+ * - сброс выполняется после фиксации транзакции; ответ, загрузка которого началась до сброса, не сохраняется<br>
+ * - ответы загружаются из основной базы, а не из отстающей реплики<br>
+ * - ttl ограничивает устаревание из-за изменений других экземпляров
+ */
+@Component
+public class CompilationCache {
+    private final CompilationRepository compilationRepository;
+    private final PrimaryReader primaryReader;
+    private final TtlCache<PageKey, List<CompilationDto>> pages;
+    private final TtlCache<Long, CompilationDto> compilations;
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public CompilationCache(CompilationRepository compilationRepository, PrimaryReader primaryReader,
+                            @Value("${ewm.compilations.cache.max-size:1000}") int maxSize,
+                            @Value("${ewm.compilations.cache.ttl-ms:60000}") long ttlMs) {
+        this(compilationRepository, primaryReader,
+                new TtlCache<>(maxSize, Duration.ofMillis(ttlMs), Duration.ZERO),
+                new TtlCache<>(maxSize, Duration.ofMillis(ttlMs), Duration.ZERO));
+    }
+
+    CompilationCache(CompilationRepository compilationRepository, PrimaryReader primaryReader,
+                     TtlCache<PageKey, List<CompilationDto>> pages,
+                     TtlCache<Long, CompilationDto> compilations) {
+        this.compilationRepository = compilationRepository;
+        this.primaryReader = primaryReader;
+        this.pages = pages;
+        this.compilations = compilations;
+    }
+
+    /**
+     * Страница подборок из кэша или loader
+     * @return копия, которую можно изменять
+     */
+    public List<CompilationDto> getPage(Boolean pinned, int from, int size, Supplier<List<CompilationDto>> loader) {
+        final PageKey key = new PageKey(pinned, from, size);
+        final TtlCache.Lookup<List<CompilationDto>> cached = pages.get(key);
+        if (cached != null) {
+            return copy(cached.getValue());
+        }
+        final long loadGeneration = generation.get();
+        final List<CompilationDto> loaded = primaryReader.read(loader);
+        if (generation.get() == loadGeneration) {
+            pages.put(key, copy(loaded));
+        }
+        return copy(loaded);
+    }
+
+    /**
+     * Подборка из кэша или loader
+     * @return копия, которую можно изменять
+     */
+    public CompilationDto get(long compId, Supplier<CompilationDto> loader) {
+        final TtlCache.Lookup<CompilationDto> cached = compilations.get(compId);
+        if (cached != null) {
+            return copy(cached.getValue());
+        }
+        final long loadGeneration = generation.get();
+        final CompilationDto loaded = primaryReader.read(loader);
+        if (generation.get() == loadGeneration) {
+            compilations.put(compId, copy(loaded));
+        }
+        return copy(loaded);
+    }
+
+    /**
+     * Сбросить подборку и все страницы после изменения или удаления подборки
+     */
+    public void invalidate(long compId) {
+        afterCommit(() -> {
+            compilations.invalidate(compId);
+            pages.invalidateAll();
+        });
+    }
+
+    /**
+     * Сбросить все страницы после добавления подборки
+     */
+    public void invalidatePages() {
+        afterCommit(pages::invalidateAll);
+    }
+
+    /**
+     * Сбросить подборки, в которые входит событие, и все страницы после изменения события
+     * или количества подтвержденных заявок на него. Событие вне подборок ничего не сбрасывает
+     */
+    public void invalidateEvent(long eventId) {
+        final List<Long> compIds = compilationRepository.findIdsByEventId(eventId);
+        if (compIds.isEmpty()) return;
+        afterCommit(() -> {
+            compIds.forEach(compilations::invalidate);
+            pages.invalidateAll();
+        });
+    }
+
+    /** Внутри транзакции сброс выполняется после ее фиксации */
+    private void afterCommit(Runnable reset) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generation.incrementAndGet();
+                    reset.run();
+                }
+            });
+        } else {
+            generation.incrementAndGet();
+            reset.run();
+        }
+    }
+
+    private static List<CompilationDto> copy(List<CompilationDto> compilations) {
+        return compilations.stream()
+                .map(CompilationCache::copy)
+                .collect(Collectors.toList());
+    }
+
+    private static CompilationDto copy(CompilationDto compilation) {
+        final List<EventShortDto> events = compilation.getEvents() == null
+                ? Collections.emptyList()
+                : compilation.getEvents().stream()
+                .map(event -> event.toBuilder().build())
+                .collect(Collectors.toList());
+        return compilation.toBuilder()
+                .events(events)
+                .build();
+    }
+
+    static final class PageKey {
+        private final Boolean pinned;
+        private final int from;
+        private final int size;
+
+        PageKey(Boolean pinned, int from, int size) {
+            this.pinned = pinned;
+            this.from = from;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof PageKey)) return false;
+            final PageKey other = (PageKey) o;
+            return Objects.equals(pinned, other.pinned) && from == other.from && size == other.size;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(pinned, from, size);
+        }
+    }
+}
@@ -4,9 +4,11 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.dto.compilation.CompilationDto;
 import ru.practicum.dto.compilation.NewCompilationDto;
 import ru.practicum.dto.compilation.UpdateCompilationRequest;
+import ru.practicum.dto.event.EventShortDto;
 import ru.practicum.exception.ConflictException;
 import ru.practicum.exception.NotFoundException;
 import ru.practicum.mapper.CompilationMapper;
@@ -15,9 +17,13 @@ import ru.practicum.model.Event;
 import ru.practicum.repository.CompilationRepository;
 import ru.practicum.service.event.EventService;
 import ru.practicum.utils.Constants;
+import ru.practicum.utils.OffsetPageRequest;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static ru.practicum.utils.Constants.THE_REQUIRED_OBJECT_WAS_NOT_FOUND;
@@ -28,6 +34,7 @@ public class CompilationServiceImpl implements CompilationService {
 
     private final CompilationRepository compilationRepository;
     private final EventService eventService;
+    private final CompilationCache compilationCache;
 
     @Override
     public Compilation findCompilationById(long compId) {
@@ -38,21 +45,27 @@ public class CompilationServiceImpl implements CompilationService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public CompilationDto getCompilation(long compId) {
-        final Compilation compilation = findCompilationById(compId);
-        return CompilationMapper.toDto(compilation);
+        final CompilationDto compilation = compilationCache.get(compId,
+                () -> toDtoWithEvents(List.of(findCompilationById(compId))).get(0));
+        eventService.withViews(compilation.getEvents());
+        return compilation;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CompilationDto> getCompilations(Boolean pinned, Integer from, Integer size) {
-        final PageRequest page = PageRequest.of(from / size, size);
-        final List<Compilation> compilations =
-                (pinned == null)
-                        ? compilationRepository.findAll(page).getContent()
-                        : compilationRepository.findAllByPinned(pinned, page).getContent();
-        return compilations.stream()
-                .map(CompilationMapper::toDto)
-                .collect(Collectors.toList());
+        final List<CompilationDto> compilations = compilationCache.getPage(pinned, from, size, () -> {
+            final PageRequest page = OffsetPageRequest.of(from, size);
+            return toDtoWithEvents((pinned == null)
+                    ? compilationRepository.findAll(page).getContent()
+                    : compilationRepository.findAllByPinned(pinned, page).getContent());
+        });
+        eventService.withViews(compilations.stream()
+                .flatMap(compilation -> compilation.getEvents().stream())
+                .collect(Collectors.toList()));
+        return compilations;
     }
 
     @Override
@@ -63,6 +76,7 @@ public class CompilationServiceImpl implements CompilationService {
                     ? eventService.findEventsByIds(eventIdList)
                     : Collections.emptyList();
             final Compilation compilation = compilationRepository.save(CompilationMapper.fromDto(body, events));
+            compilationCache.invalidatePages();
             return CompilationMapper.toDto(compilation);
         } catch (
                 DataIntegrityViolationException ex) {
@@ -78,6 +92,7 @@ public class CompilationServiceImpl implements CompilationService {
                     THE_REQUIRED_OBJECT_WAS_NOT_FOUND);
         }
         compilationRepository.deleteById(compId);
+        compilationCache.invalidate(compId);
     }
 
     @Override
@@ -95,6 +110,31 @@ public class CompilationServiceImpl implements CompilationService {
             compilation.setEvents(events);
         }
         final Compilation savedCompilation = compilationRepository.save(compilation);
+        compilationCache.invalidate(compId);
         return CompilationMapper.toDto(savedCompilation);
     }
+
+    /**
+     * Подборки с событиями, загруженными двумя запросами на все подборки: id событий и их краткая информация
+     */
+    private List<CompilationDto> toDtoWithEvents(List<Compilation> compilations) {
+        final Map<Long, List<Long>> eventIds = compilationRepository.findEventIds(compilations.stream()
+                .map(Compilation::getId)
+                .collect(Collectors.toList()));
+        final Map<Long, EventShortDto> events = eventService.findShortEventsByIds(eventIds.values().stream()
+                        .flatMap(List::stream)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(EventShortDto::getId, Function.identity()));
+        return compilations.stream()
+                .map(compilation -> CompilationDto.builder()
+                        .id(compilation.getId())
+                        .title(compilation.getTitle())
+                        .pinned(compilation.getPinned())
+                        .events(eventIds.getOrDefault(compilation.getId(), Collections.emptyList()).stream()
+                                .map(events::get)
+                                .filter(Objects::nonNull)
+                                .collect(Collectors.toList()))
+                        .build())
+                .collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,128 @@
+package ru.practicum.service.event;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import ru.practicum.dto.event.EventFullDto;
+import ru.practicum.enums.ExportFormat;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static ru.practicum.Constants.FORMATTER;
+
+/**
+ * Построчная запись событий в поток ответа: строка пишется сразу после загрузки события,
+ * в памяти держится только буфер потока
+ */
+abstract class EventExportWriter {
+    static final String CSV_HEADER = "id,title,annotation,category_id,category_name,initiator_id,initiator_name," +
+            "state,event_date,created_on,published_on,paid,participant_limit,request_moderation," +
+            "confirmed_requests,lat,lon";
+
+    static EventExportWriter of(ExportFormat format, OutputStream out, ObjectMapper objectMapper) throws IOException {
+        return (format == ExportFormat.CSV) ? new Csv(out) : new Ndjson(out, objectMapper);
+    }
+
+    /**
+     * @throws UncheckedIOException если клиент закрыл соединение
+     */
+    final void write(EventFullDto event) {
+        try {
+            writeEvent(event);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    abstract void writeEvent(EventFullDto event) throws IOException;
+
+    abstract void flush() throws IOException;
+
+    private static final class Ndjson extends EventExportWriter {
+        private final JsonGenerator generator;
+        private final ObjectWriter writer;
+
+        private Ndjson(OutputStream out, ObjectMapper objectMapper) throws IOException {
+            this.generator = objectMapper.getFactory()
+                    .createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.writer = objectMapper.writerFor(EventFullDto.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        }
+
+        @Override
+        void writeEvent(EventFullDto event) throws IOException {
+            writer.writeValue(generator, event);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        void flush() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static final class Csv extends EventExportWriter {
+        private final Writer writer;
+
+        private Csv(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        @Override
+        void writeEvent(EventFullDto event) throws IOException {
+            writer.write(String.valueOf(event.getId()));
+            writeField(event.getTitle());
+            writeField(event.getAnnotation());
+            writeField(event.getCategory() == null ? null : event.getCategory().getId());
+            writeField(event.getCategory() == null ? null : event.getCategory().getName());
+            writeField(event.getInitiator() == null ? null : event.getInitiator().getId());
+            writeField(event.getInitiator() == null ? null : event.getInitiator().getName());
+            writeField(event.getState());
+            writeField(event.getEventDate());
+            writeField(event.getCreatedOn());
+            writeField(event.getPublishedOn());
+            writeField(event.getPaid());
+            writeField(event.getParticipantLimit());
+            writeField(event.getRequestModeration());
+            writeField(event.getConfirmedRequests());
+            writeField(event.getLocation() == null ? null : event.getLocation().getLat());
+            writeField(event.getLocation() == null ? null : event.getLocation().getLon());
+            writer.write('\n');
+        }
+
+        @Override
+        void flush() throws IOException {
+            writer.flush();
+        }
+
+        private void writeField(Object value) throws IOException {
+            writer.write(',');
+            if (value == null) return;
+            if (value instanceof LocalDateTime) {
+                writer.write(FORMATTER.format((LocalDateTime) value));
+            } else if (value instanceof String) {
+                writeQuoted((String) value);
+            } else {
+                writer.write(value.toString());
+            }
+        }
+
+        /** Строки в кавычках по RFC 4180: кавычки внутри удваиваются, переводы строк сохраняются */
+        private void writeQuoted(String value) throws IOException {
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
@@ -5,11 +5,16 @@ import ru.practicum.dto.event.EventShortDto;
 import ru.practicum.dto.event.NewEventDto;
 import ru.practicum.dto.event.UpdateEventAdminRequest;
 import ru.practicum.dto.event.UpdateEventUserRequest;
+import ru.practicum.enums.ExportFormat;
 import ru.practicum.enums.SortType;
 import ru.practicum.model.Event;
+import ru.practicum.utils.CursorPage;
 
 import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface EventService {
@@ -47,6 +52,33 @@ public interface EventService {
     List<EventFullDto> getEventsByAdmin(List<Long> users, List<String> states, List<Long> categories,
                                         LocalDateTime rangeStart, LocalDateTime rangeEnd, Integer from, Integer size);
 
+    /**
+     * Поиск событий с постраничной выборкой по курсору, события упорядочены по id
+     * @param cursor курсор из предыдущей страницы, null или пустая строка - первая страница
+     * @param size количество событий в наборе
+     * @return события и курсор следующей страницы
+     */
+    CursorPage<EventFullDto> getEventsByAdmin(List<Long> users, List<String> states, List<Long> categories,
+                                              LocalDateTime rangeStart, LocalDateTime rangeEnd,
+                                              String cursor, Integer size);
+
+    /**
+     * Проверка диапазона дат выгрузки до того, как в ответ записаны заголовки
+     * @throws ru.practicum.exception.ValidateException если rangeStart позже rangeEnd
+     */
+    void validateExportRange(LocalDateTime rangeStart, LocalDateTime rangeEnd);
+
+    /**
+     * Выгрузка всех событий, подходящих под условия поиска, в поток без постраничной выборки.
+     * События читаются курсором базы по возрастанию id и записываются по одному, память не зависит от объема выгрузки
+     * @param format NDJSON или CSV
+     * @param out поток ответа, не закрывается
+     * @return количество выгруженных событий
+     */
+    long exportEventsByAdmin(List<Long> users, List<String> states, List<Long> categories,
+                             LocalDateTime rangeStart, LocalDateTime rangeEnd,
+                             ExportFormat format, OutputStream out) throws IOException;
+
     /**
      * @param body
      * @param eventId
@@ -73,6 +105,19 @@ public interface EventService {
                                            Boolean onlyAvailable, SortType sort,
                                            Integer from, Integer size, HttpServletRequest request);
 
+    /**
+     * Получение событий с постраничной выборкой по курсору.
+     * Без сортировки события упорядочены по id, при сортировке EVENT_DATE - по дате события,
+     * сортировка VIEWS не поддерживается
+     * @param cursor курсор из предыдущей страницы, null или пустая строка - первая страница
+     * @param size количество событий в наборе
+     * @return события и курсор следующей страницы
+     */
+    CursorPage<EventShortDto> getPublishedEvents(String text, List<Long> categories, Boolean paid,
+                                                 LocalDateTime rangeStart, LocalDateTime rangeEnd,
+                                                 Boolean onlyAvailable, SortType sort,
+                                                 String cursor, Integer size, HttpServletRequest request);
+
 
     /**
      * Получение подробной информации об опубликованном событии по его идентификатору
@@ -88,4 +133,15 @@ public interface EventService {
     Event findEventById(long eventId);
 
     List<Event> findEventsByIds(List<Long> eventIdList);
+
+    /**
+     * Краткая информация о событиях одним запросом, по возрастанию id.
+     * Названия категорий и просмотры не заполнены, см. {@link #withViews}
+     */
+    List<EventShortDto> findShortEventsByIds(Collection<Long> eventIds);
+
+    /**
+     * Заполнить названия категорий из кэша и количество просмотров
+     */
+    List<EventShortDto> withViews(List<EventShortDto> events);
 }
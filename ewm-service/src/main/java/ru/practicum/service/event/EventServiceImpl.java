@@ -1,9 +1,10 @@
 package ru.practicum.service.event;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.querydsl.core.types.ExpressionUtils;
 import com.querydsl.core.types.Predicate;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.dto.event.EventFullDto;
@@ -14,6 +15,7 @@ import ru.practicum.dto.event.UpdateEventUserRequest;
 import ru.practicum.dto.location.LocationDto;
 import ru.practicum.enums.EventState;
 import ru.practicum.enums.EventStateAction;
+import ru.practicum.enums.ExportFormat;
 import ru.practicum.enums.SortType;
 import ru.practicum.exception.ConflictException;
 import ru.practicum.exception.NotFoundException;
@@ -26,21 +28,33 @@ import ru.practicum.model.Event;
 import ru.practicum.model.Location;
 import ru.practicum.model.User;
 import ru.practicum.repository.EventRepository;
+import ru.practicum.service.category.CategoryCache;
 import ru.practicum.service.category.CategoryService;
+import ru.practicum.service.compilation.CompilationCache;
 import ru.practicum.service.location.LocationService;
+import ru.practicum.service.search.EventSearchIndex;
 import ru.practicum.service.stats.StatsService;
+import ru.practicum.service.subs.FriendFeedService;
 import ru.practicum.service.user.UserService;
 import ru.practicum.utils.Constants;
+import ru.practicum.utils.CursorPage;
+import ru.practicum.utils.OffsetPageRequest;
+import ru.practicum.utils.PageCursor;
 import ru.practicum.utils.QPredicate;
 
 import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static ru.practicum.enums.EventState.*;
@@ -49,19 +63,25 @@ import static ru.practicum.enums.EventStateAction.PUBLISH_EVENT;
 import static ru.practicum.enums.EventStateAction.REJECT_EVENT;
 import static ru.practicum.enums.EventStateAction.SEND_TO_REVIEW;
 import static ru.practicum.utils.Constants.EVENT_WITH_ID_D_WAS_NOT_FOUND;
-import static ru.practicum.utils.Constants.START;
 import static ru.practicum.utils.Constants.THE_REQUIRED_OBJECT_WAS_NOT_FOUND;
 
 @Service
 @RequiredArgsConstructor
 public class EventServiceImpl implements EventService {
     private static final String EVENT_DATE_AND_TIME_IS_BEFORE = "Event date and time cannot be earlier than %d hours from the";
+    /** Строк в одной выборке курсора и между очистками контекста персистентности при выгрузке */
+    private static final int EXPORT_BATCH_SIZE = 500;
     private final EventRepository eventRepository;
 
     private final UserService userService;
     private final CategoryService categoryService;
+    private final CategoryCache categoryCache;
     private final LocationService locationService;
     private final StatsService statsService;
+    private final EventSearchIndex searchIndex;
+    private final CompilationCache compilationCache;
+    private final FriendFeedService friendFeedService;
+    private final ObjectMapper objectMapper;
 
     @Override
     @Transactional
@@ -74,13 +94,16 @@ public class EventServiceImpl implements EventService {
 
         final Event event = EventMapper.fromDto(body, user, category, location, PENDING, LocalDateTime.now());
 
-        return EventMapper.toFullDto(eventRepository.save(event));
+        final Event savedEvent = eventRepository.save(event);
+        searchIndex.index(savedEvent);
+        return toFullDto(savedEvent);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<EventShortDto> getEvents(long userId, int from, int size) {
         userService.checkExistById(userId);
-        final PageRequest page = PageRequest.of(from / size, size);
+        final PageRequest page = OffsetPageRequest.of(from, size);
         final List<Event> events = eventRepository.findAllByInitiatorId(userId, page).getContent();
         return events.stream()
                 .map(EventMapper::toShortDto)
@@ -88,38 +111,71 @@ public class EventServiceImpl implements EventService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public EventFullDto getEvent(long userId, long eventId) {
         userService.checkExistById(userId);
         final Event event = getEventForUser(userId, eventId);
-        return EventMapper.toFullDto(event);
+        return toFullDto(event);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<EventFullDto> getEventsByAdmin(List<Long> users, List<String> states, List<Long> categories,
                                                LocalDateTime rangeStart, LocalDateTime rangeEnd,
                                                Integer from, Integer size) {
 
         confirmStartBeforeEnd(rangeStart, rangeEnd);
 
-        final List<EventState> stateList = (states == null) ? null : getEventStates(states);
-        final PageRequest page = PageRequest.of(from / size, size);
-        final EventFilter filter = EventFilter.builder()
-                .initiatorIn(users)
-                .categoryIn(categories)
-                .eventDateAfter(rangeStart)
-                .eventDateBefore(rangeEnd)
-                .statesIn(stateList)
-                .build();
-        final Predicate predicate = EventPredicate.getAndEventPredicate(filter);
+        final PageRequest page = OffsetPageRequest.of(from, size);
+        final Predicate predicate = getAdminPredicate(users, states, categories, rangeStart, rangeEnd);
 
         final List<Event> events = (predicate == null)
                 ? eventRepository.findAll(page).getContent()
                 : eventRepository.findAll(predicate, page).getContent();
         return events.stream()
-                .map(EventMapper::toFullDto)
+                .map(this::toFullDto)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<EventFullDto> getEventsByAdmin(List<Long> users, List<String> states, List<Long> categories,
+                                                     LocalDateTime rangeStart, LocalDateTime rangeEnd,
+                                                     String cursor, Integer size) {
+        confirmStartBeforeEnd(rangeStart, rangeEnd);
+
+        final PageCursor after = PageCursor.decode(cursor, PageCursor.BY_ID);
+        final List<Predicate> predicateList = new ArrayList<>();
+        predicateList.add(getAdminPredicate(users, states, categories, rangeStart, rangeEnd));
+        if (after != null) {
+            predicateList.add(EventPredicate.getAfterCursor(after));
+        }
+
+        final List<Event> events = eventRepository.findAllWithLimit(QPredicate.buildAnd(predicateList), size + 1,
+                EventPredicate.getCursorOrder(PageCursor.BY_ID));
+        return CursorPage.of(events, size, event -> getCursor(event.getId(), event.getEventDate(), PageCursor.BY_ID))
+                .map(this::toFullDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportEventsByAdmin(List<Long> users, List<String> states, List<Long> categories,
+                                    LocalDateTime rangeStart, LocalDateTime rangeEnd,
+                                    ExportFormat format, OutputStream out) throws IOException {
+        confirmStartBeforeEnd(rangeStart, rangeEnd);
+
+        final Predicate predicate = getAdminPredicate(users, states, categories, rangeStart, rangeEnd);
+        final EventExportWriter writer = EventExportWriter.of(format, out, objectMapper);
+        final long count = eventRepository.forEachWithDetails(predicate, EXPORT_BATCH_SIZE,
+                event -> writer.write(toFullDto(event)));
+        writer.flush();
+        return count;
+    }
+
+    @Override
+    public void validateExportRange(LocalDateTime rangeStart, LocalDateTime rangeEnd) {
+        confirmStartBeforeEnd(rangeStart, rangeEnd);
+    }
 
     /**
      * Получение подробной информации об опубликованном событии по его идентификатору<br>
@@ -128,6 +184,7 @@ public class EventServiceImpl implements EventService {
      * - информацию о том, что по этому эндпоинту был осуществлен и обработан запрос, нужно сохранить в сервисе статистики <br>
      */
     @Override
+    @Transactional(readOnly = true)
     public EventFullDto getPublishedEvent(long eventId, HttpServletRequest request) {
         final Event event = eventRepository.findByIdAndState(eventId, PUBLISHED)
                 .orElseThrow(() -> new NotFoundException(
@@ -135,8 +192,10 @@ public class EventServiceImpl implements EventService {
                         THE_REQUIRED_OBJECT_WAS_NOT_FOUND));
 
         statsService.save(request);
-        final Map<String, Long> mapViewStats = statsService.getMap(request, true);
-        return EventMapper.toFullDto(event, mapViewStats.getOrDefault(request.getRequestURI(), 0L));
+        final Map<Long, Long> views = statsService.getViews(List.of(eventId), true);
+        final EventFullDto dto = toFullDto(event);
+        dto.setViews(views.getOrDefault(eventId, 0L));
+        return dto;
     }
 
     /**
@@ -148,8 +207,12 @@ public class EventServiceImpl implements EventService {
      * количество уже одобренных заявок на участие<br>
      * - информацию о том, что по этому эндпоинту был осуществлен и обработан запрос,
      * нужно сохранить в сервисе статистики<br>
+     * - при сортировке VIEWS события упорядочены по убыванию просмотров из таблицы event_views<br>
+     * - текст ищется полнотекстовым поиском по префиксам слов, без сортировки события упорядочены по релевантности
+     * среди первых ewm.search.max-results найденных, при остальных сортировках условие поиска входит в основной запрос<br>
      */
     @Override
+    @Transactional(readOnly = true)
     public List<EventShortDto> getPublishedEvents(String text, List<Long> categories, Boolean paid,
                                                   LocalDateTime rangeStart, LocalDateTime rangeEnd,
                                                   Boolean onlyAvailable,
@@ -157,25 +220,53 @@ public class EventServiceImpl implements EventService {
                                                   Integer from, Integer size, HttpServletRequest request) {
         confirmStartBeforeEnd(rangeStart, rangeEnd);
 
-        final PageRequest page = getPageRequest(sort, from, size);
-
-        final List<Predicate> predicateList = getPredicates(text, categories, paid, rangeStart, rangeEnd, onlyAvailable);
-        final Predicate predicate = QPredicate.buildAnd(predicateList);
-        final List<Event> events = eventRepository.findAll(predicate, page).getContent();
+        final List<Predicate> predicateList = getPredicates(categories, paid, rangeStart, rangeEnd, onlyAvailable);
+        final List<EventShortDto> events;
+        if (sort == null && hasText(text)) {
+            events = findByRelevance(searchIndex.search(text), QPredicate.buildAnd(predicateList), from, size);
+        } else {
+            addMatchPredicate(predicateList, text);
+            final Predicate predicate = QPredicate.buildAnd(predicateList);
+            events = needSortByViews(sort)
+                    ? eventRepository.findShortOrderByViews(predicate, from, size)
+                    : eventRepository.findShortWithLimit(predicate, from, size,
+                    EventPredicate.getCursorOrder(getCursorSort(sort)));
+        }
 
         statsService.save(request);
-        if (events.isEmpty()) return Collections.emptyList();
+        return withViews(events);
+    }
 
+    /**
+     * Выборка по курсору: без сортировки события упорядочены по id, при сортировке EVENT_DATE - по дате события и id.
+     * Сортировка по просмотрам не поддерживается: количество просмотров меняется между запросами страниц.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<EventShortDto> getPublishedEvents(String text, List<Long> categories, Boolean paid,
+                                                        LocalDateTime rangeStart, LocalDateTime rangeEnd,
+                                                        Boolean onlyAvailable, SortType sort,
+                                                        String cursor, Integer size, HttpServletRequest request) {
+        confirmStartBeforeEnd(rangeStart, rangeEnd);
+        if (needSortByViews(sort)) {
+            throw new ValidateException("Cursor pagination is not supported for sort by views");
+        }
 
-        final Map<String, Long> mapViewStats = getViewStats(request, events, false);
-        List<EventShortDto> eventShortDtoList = events.stream()
-                .map(event -> EventMapper.toShortDto(event, getView(request, mapViewStats, event.getId())))
-                .collect(Collectors.toList());
+        final String cursorSort = getCursorSort(sort);
+        final PageCursor after = PageCursor.decode(cursor, cursorSort);
+        final List<Predicate> predicateList = getPredicates(categories, paid, rangeStart, rangeEnd, onlyAvailable);
+        addMatchPredicate(predicateList, text);
+        if (after != null) {
+            predicateList.add(EventPredicate.getAfterCursor(after));
+        }
 
-        return needSortByViews(sort)
-                ? getSortedList(eventShortDtoList)
-                : eventShortDtoList;
+        final List<EventShortDto> events = eventRepository.findShortWithLimit(QPredicate.buildAnd(predicateList),
+                0, size + 1, EventPredicate.getCursorOrder(cursorSort));
+        final CursorPage<EventShortDto> page = CursorPage.of(events, size,
+                event -> getCursor(event.getId(), event.getEventDate(), cursorSort));
 
+        statsService.save(request);
+        return new CursorPage<>(withViews(page.getContent()), page.getNextCursor());
     }
 
     @Override
@@ -203,7 +294,9 @@ public class EventServiceImpl implements EventService {
         updateStatusByUser(body, event);
 
         final Event savedEvent = eventRepository.save(event);
-        return EventMapper.toFullDto(savedEvent);
+        searchIndex.index(savedEvent);
+        compilationCache.invalidateEvent(eventId);
+        return toFullDto(savedEvent);
     }
 
     @Override
@@ -229,7 +322,14 @@ public class EventServiceImpl implements EventService {
         updateStatusByAdmin(body, event);
 
         final Event savedEvent = eventRepository.save(event);
-        return EventMapper.toFullDto(savedEvent);
+        searchIndex.index(savedEvent);
+        compilationCache.invalidateEvent(eventId);
+        if (PUBLISH_EVENT.equals(body.getStateAction())) {
+            friendFeedService.addEvent(eventId);
+        } else if (body.getEventDate() != null && PUBLISHED.equals(savedEvent.getState())) {
+            friendFeedService.updateEventDate(eventId, savedEvent.getEventDate());
+        }
+        return toFullDto(savedEvent);
     }
 
     @Override
@@ -245,24 +345,74 @@ public class EventServiceImpl implements EventService {
         return eventRepository.findAllById(eventIdList);
     }
 
-    private Map<String, Long> getViewStats(HttpServletRequest request, List<Event> events, boolean unique) {
-        final LocalDateTime start = events.stream()
-                .map(Event::getPublishedOn)
-                .min(LocalDateTime::compareTo)
-                .orElse(START);
-        final LocalDateTime end = LocalDateTime.now();
-        final List<Long> collect = events.stream()
-                .map(Event::getId)
+    @Override
+    public List<EventShortDto> findShortEventsByIds(Collection<Long> eventIds) {
+        if (eventIds.isEmpty()) return Collections.emptyList();
+        return eventRepository.findShortWithLimit(EventPredicate.getIdIn(eventIds), 0, eventIds.size(),
+                EventPredicate.getCursorOrder(PageCursor.BY_ID));
+    }
+
+    @Override
+    public List<EventShortDto> withViews(List<EventShortDto> events) {
+        if (events.isEmpty()) return Collections.emptyList();
+
+        EventMapper.withCategoryNames(events, categoryCache::find);
+        final List<Long> ids = events.stream()
+                .map(EventShortDto::getId)
                 .collect(Collectors.toList());
-        return statsService.getMap(request, collect, start, end, unique);
+        final Map<Long, Long> views = statsService.getViews(ids, false);
+        events.forEach(event -> event.setViews(views.getOrDefault(event.getId(), 0L)));
+        return events;
+    }
+
+    /**
+     * Категория берется из кэша категорий, как и в кратких описаниях событий
+     */
+    private EventFullDto toFullDto(Event event) {
+        return EventMapper.toFullDto(event, categoryCache::find);
     }
 
     private boolean needSortByViews(SortType sort) {
         return sort != null && sort.equals(SortType.VIEWS);
     }
 
-    private List<Predicate> getPredicates(String text,
-                                          List<Long> categories,
+    private boolean hasText(String text) {
+        return text != null && !text.isBlank();
+    }
+
+    /**
+     * Полнотекстовый поиск как условие основного запроса, без ограничения количества найденных событий
+     */
+    private void addMatchPredicate(List<Predicate> predicateList, String text) {
+        if (hasText(text)) {
+            predicateList.add(searchIndex.getMatchPredicate(text));
+        }
+    }
+
+    /**
+     * Страница событий в порядке релевантности: фильтры применяются к найденным событиям одним запросом id
+     */
+    private List<EventShortDto> findByRelevance(List<Long> foundIds, Predicate predicate, int from, int size) {
+        if (foundIds.isEmpty()) return Collections.emptyList();
+        final Set<Long> filteredIds = new HashSet<>(eventRepository.findIdsWithLimit(
+                ExpressionUtils.and(predicate, EventPredicate.getIdIn(foundIds)), foundIds.size()));
+        final List<Long> pageIds = foundIds.stream()
+                .filter(filteredIds::contains)
+                .skip(from)
+                .limit(size)
+                .collect(Collectors.toList());
+        if (pageIds.isEmpty()) return Collections.emptyList();
+
+        final Map<Long, EventShortDto> events = eventRepository.findShortWithLimit(EventPredicate.getIdIn(pageIds),
+                        0, pageIds.size()).stream()
+                .collect(Collectors.toMap(EventShortDto::getId, Function.identity()));
+        return pageIds.stream()
+                .map(events::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private List<Predicate> getPredicates(List<Long> categories,
                                           Boolean paid,
                                           LocalDateTime rangeStart,
                                           LocalDateTime rangeEnd,
@@ -280,26 +430,34 @@ public class EventServiceImpl implements EventService {
         final Predicate mainPredicate = EventPredicate.getAndEventPredicate(mainFilter);
         predicateList.add(mainPredicate);
 
-        if (text != null && !text.isBlank()) {
-            predicateList.add(EventPredicate.getTextFilter(text));
-        }
-
         if (onlyAvailable != null && onlyAvailable) {
             predicateList.add(EventPredicate.getAvailable());
         }
         return predicateList;
     }
 
-    private PageRequest getPageRequest(SortType sort, Integer from, Integer size) {
-        return (sort == null)
-                ? PageRequest.of(from / size, size)
-                : getPageRequestWithSort(from, size, sort);
+    private Predicate getAdminPredicate(List<Long> users, List<String> states, List<Long> categories,
+                                        LocalDateTime rangeStart, LocalDateTime rangeEnd) {
+        final List<EventState> stateList = (states == null) ? null : getEventStates(states);
+        final EventFilter filter = EventFilter.builder()
+                .initiatorIn(users)
+                .categoryIn(categories)
+                .eventDateAfter(rangeStart)
+                .eventDateBefore(rangeEnd)
+                .statesIn(stateList)
+                .build();
+        return EventPredicate.getAndEventPredicate(filter);
     }
 
-    private PageRequest getPageRequestWithSort(Integer from, Integer size, SortType sortType) {
-        return sortType.equals(SortType.VIEWS)
-                ? PageRequest.of(from / size, size)
-                : PageRequest.of(from / size, size).withSort(Sort.by(sortType.getName()));
+    /** Без сортировки события упорядочены по id, при сортировке EVENT_DATE - по дате события и id */
+    private static String getCursorSort(SortType sort) {
+        return (sort == null) ? PageCursor.BY_ID : PageCursor.BY_EVENT_DATE;
+    }
+
+    private static PageCursor getCursor(long id, LocalDateTime eventDate, String sort) {
+        return PageCursor.BY_EVENT_DATE.equals(sort)
+                ? PageCursor.ofEventDate(eventDate, id)
+                : PageCursor.ofId(id);
     }
 
     /** Получение списка статусов */
@@ -309,12 +467,6 @@ public class EventServiceImpl implements EventService {
                 .collect(Collectors.toList());
     }
 
-    /** Получить просмотры события */
-    private static long getView(HttpServletRequest request, Map<String, Long> viewStats, Long eventId) {
-        final String uri = request.getRequestURI() + "/" + eventId;
-        return viewStats.getOrDefault(uri, 0L);
-    }
-
     /** Получить событие пользователя */
     private Event getEventForUser(long userId, long eventId) {
         return eventRepository.findByIdAndInitiatorId(eventId, userId)
@@ -438,10 +590,4 @@ public class EventServiceImpl implements EventService {
                     newEventState, set.stream().sorted().collect(Collectors.toList()), currentEventState));
         }
     }
-
-    private List<EventShortDto> getSortedList(List<EventShortDto> eventShortDtoList) {
-        return eventShortDtoList.stream()
-                .sorted(Comparator.comparing(EventShortDto::getViews))
-                .collect(Collectors.toList());
-    }
 }
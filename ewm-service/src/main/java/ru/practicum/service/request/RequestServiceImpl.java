@@ -16,7 +16,9 @@ import ru.practicum.model.Request;
 import ru.practicum.model.User;
 import ru.practicum.repository.EventRepository;
 import ru.practicum.repository.RequestRepository;
+import ru.practicum.service.compilation.CompilationCache;
 import ru.practicum.service.event.EventService;
+import ru.practicum.service.subs.FriendFeedService;
 import ru.practicum.service.user.UserService;
 import ru.practicum.utils.Constants;
 
@@ -24,10 +26,10 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-import static java.lang.Boolean.FALSE;
 import static ru.practicum.enums.RequestStatus.CANCELED;
 import static ru.practicum.enums.RequestStatus.CONFIRMED;
 import static ru.practicum.enums.RequestStatus.PENDING;
@@ -36,12 +38,15 @@ import static ru.practicum.enums.RequestStatus.REJECTED;
 @Service
 @RequiredArgsConstructor
 public class RequestServiceImpl implements RequestService {
+    private static final String PENDING_ONLY = "Status change is only possible for requests with state='PENDING'";
 
     private final RequestRepository requestRepository;
     private final EventRepository eventRepository;
 
     private final UserService userService;
     private final EventService eventService;
+    private final FriendFeedService friendFeedService;
+    private final CompilationCache compilationCache;
 
     /**
      * - нельзя добавить повторный запрос (Ожидается код ошибки 409)<p>
@@ -90,16 +95,21 @@ public class RequestServiceImpl implements RequestService {
                 .created(LocalDateTime.now())
                 .build();
 
+//        место занимается условным UPDATE: проверка лимита выше могла устареть из-за параллельных заявок
+        if (newRequest.getStatus().equals(CONFIRMED) && eventRepository.reserveSeats(eventId, 1) == 0) {
+            throw new ConflictException("Event confirmed limit reached.", "Conflict exception");
+        }
         final Request savedRequest = requestRepository.save(newRequest);
         if (newRequest.getStatus().equals(CONFIRMED)) {
-            event.setConfirmedRequests(event.getConfirmedRequests() + 1);
-            eventRepository.save(event);
+            friendFeedService.addParticipations(List.of(savedRequest.getId()));
+            compilationCache.invalidateEvent(eventId);
         }
 
         return RequestMapper.toDto(savedRequest);
     }
 
     @Override
+    @Transactional
     public ParticipationRequestDto cancelRequest(long userId, long requestId) {
         userService.checkExistById(userId);
 
@@ -110,11 +120,13 @@ public class RequestServiceImpl implements RequestService {
 
         request.setStatus(CANCELED);
         requestRepository.save(request);
+        friendFeedService.removeParticipations(List.of(requestId));
 
         return RequestMapper.toDto(request);
     }
 
     @Override
+    @Transactional
     public List<ParticipationRequestDto> changeVisibilityEventParticipation(long userId, List<Long> ids, boolean hide) {
         userService.checkExistById(userId);
 
@@ -131,6 +143,11 @@ public class RequestServiceImpl implements RequestService {
         }
         requestList.forEach(f -> f.setPrivate(hide));
         requestRepository.saveAll(requestList);
+        if (hide) {
+            friendFeedService.removeParticipations(ids);
+        } else {
+            friendFeedService.addParticipations(ids);
+        }
         return requestList.stream()
                 .map(RequestMapper::toDto)
                 .collect(Collectors.toList());
@@ -164,7 +181,9 @@ public class RequestServiceImpl implements RequestService {
      * @param eventId id события текущего пользователя
      * @return - нельзя подтвердить заявку, если уже достигнут лимит по заявкам на данное событие (Ожидается код ошибки 409)<p></p>
      * - статус можно изменить только у заявок, находящихся в состоянии ожидания (Ожидается код ошибки 409)<p></p>
-     * - если при подтверждении данной заявки, лимит заявок для события исчерпан, то все неподтверждённые заявки необходимо отклонить
+     * - если при подтверждении данной заявки, лимит заявок для события исчерпан, то все неподтверждённые заявки необходимо отклонить<p></p>
+     * - лимит соблюдается и при отключенной пре-модерации: заявки сверх лимита отклоняются<p></p>
+     * - заявки, отклоненные из-за исчерпания лимита, возвращаются среди отклоненных вместе с заявками из запроса
      */
     @Override
     @Transactional
@@ -176,11 +195,12 @@ public class RequestServiceImpl implements RequestService {
             throw new ConflictException(String.format("User(id=%d) is not the initiator of the event(id=%d).", userId, eventId));
         }
 
-        final List<Long> requestIds = body.getRequestIds();
+        final List<Long> requestIds = body.getRequestIds().stream()
+                .distinct()
+                .collect(Collectors.toList());
 
         final long participantLimit = event.getParticipantLimit();
-        int currentConfirmed = event.getConfirmedRequests();
-        final Boolean isRequestModeration = event.getRequestModeration();
+        final int currentConfirmed = event.getConfirmedRequests();
         if (participantLimit > 0 && participantLimit == currentConfirmed) {
             // нельзя подтвердить заявку, если уже достигнут лимит по заявкам на данное событие
             // (Ожидается код ошибки 409)
@@ -188,63 +208,73 @@ public class RequestServiceImpl implements RequestService {
                     "The limit on confirmations for this event has already been reached.",
                     "Conflict confirmed exception");
         }
-        //находим заявки в режиме ожидания по списку id
-        final List<Request> requestList = requestRepository.findAllByIdInAndStatus(requestIds, PENDING);
-        if (requestList.size() != requestIds.size()) {
-            // статус можно изменить только у заявок, находящихся в состоянии ожидания (Ожидается код ошибки 409)
-            throw new ConflictException("Status change is only possible for requests with state='PENDING'");
+        checkStatus(newStatus);
+
+        if (REJECTED.equals(newStatus)) {
+            updatePendingStatus(requestIds, eventId, REJECTED);
+            return new EventRequestStatusUpdateResult(Collections.emptyList(),
+                    requestRepository.findDtoByIdIn(requestIds));
         }
 
-        final List<ParticipationRequestDto> rejectedList = new ArrayList<>();
-        final List<ParticipationRequestDto> confirmedDto = new ArrayList<>();
+        if (requestRepository.countByIdInAndEventIdAndStatus(requestIds, eventId, PENDING) != requestIds.size()) {
+            // статус можно изменить только у заявок, находящихся в состоянии ожидания (Ожидается код ошибки 409)
+            throw new ConflictException(PENDING_ONLY);
+        }
+        // если для события лимит заявок равен 0, места занимаются без ограничения
+        final int reserved = reserveSeats(eventId, (participantLimit == 0)
+                ? requestIds.size()
+                : (int) Math.min(requestIds.size(), participantLimit - currentConfirmed));
+        updatePendingStatus(requestIds.subList(0, reserved), eventId, CONFIRMED);
+        updatePendingStatus(requestIds.subList(reserved, requestIds.size()), eventId, REJECTED);
+        friendFeedService.addParticipations(requestIds.subList(0, reserved));
+        if (reserved > 0) {
+            compilationCache.invalidateEvent(eventId);
+        }
 
+        // - если при подтверждении данной заявки, лимит заявок для события исчерпан,
+        // то все неподтверждённые заявки необходимо отклонить
+        final List<Long> resultIds = new ArrayList<>(requestIds);
+        if (participantLimit > 0 && eventRepository.findFreeSeats(eventId) <= 0) {
+            final List<Long> pendingIds = requestRepository.findIdsByEventIdAndStatus(eventId, PENDING);
+            if (!pendingIds.isEmpty()) {
+                requestRepository.updateStatus(pendingIds, eventId, PENDING, REJECTED);
+                resultIds.addAll(pendingIds);
+            }
+        }
 
-        checkStatus(newStatus);
+        final Map<RequestStatus, List<ParticipationRequestDto>> updated = requestRepository.findDtoByIdIn(resultIds)
+                .stream()
+                .collect(Collectors.groupingBy(ParticipationRequestDto::getStatus));
+        return new EventRequestStatusUpdateResult(
+                updated.getOrDefault(CONFIRMED, Collections.emptyList()),
+                updated.getOrDefault(REJECTED, Collections.emptyList()));
+    }
 
-        if (REJECTED.equals(newStatus)) {
-            requestList.forEach(r -> r.setStatus(REJECTED));
-            rejectedList.addAll(requestList.stream()
-                    .map(RequestMapper::toDto)
-                    .collect(Collectors.toList()));
+    /**
+     * Перевести заявки события из ожидания в статус status одним UPDATE.
+     * Если часть заявок не в ожидании, изменение отменяется вместе с транзакцией
+     */
+    private void updatePendingStatus(List<Long> requestIds, long eventId, RequestStatus status) {
+        if (requestIds.isEmpty()) return;
+        if (requestRepository.updateStatus(requestIds, eventId, PENDING, status) != requestIds.size()) {
+            throw new ConflictException(PENDING_ONLY);
         }
+    }
 
-        if (CONFIRMED.equals(newStatus)) {
-            // если для события лимит заявок равен 0 или отключена пре-модерация заявок,
-            // то подтверждение заявок не требуется
-            if ((participantLimit == 0) || FALSE.equals(isRequestModeration)) {
-                requestList.forEach(r -> r.setStatus(CONFIRMED));
-                final List<ParticipationRequestDto> confirmedList = requestList.stream()
-                        .map(RequestMapper::toDto)
-                        .collect(Collectors.toList());
-                requestRepository.saveAll(requestList);
-                return new EventRequestStatusUpdateResult(confirmedList, Collections.emptyList());
-            }
-            // - если при подтверждении данной заявки, лимит заявок для события исчерпан,
-            // то все неподтверждённые заявки необходимо отклонить
-
-            for (Request r : requestList) {
-                if (currentConfirmed < participantLimit) {
-                    r.setStatus(CONFIRMED);
-                    currentConfirmed++;
-                } else {
-                    r.setStatus(REJECTED);
-                }
+    /**
+     * Занять до count мест события. Если параллельное подтверждение заняло часть мест,
+     * свободные места перечитываются и попытка повторяется с меньшим количеством
+     * @return количество занятых мест
+     */
+    private int reserveSeats(long eventId, int count) {
+        int wanted = count;
+        while (wanted > 0) {
+            if (eventRepository.reserveSeats(eventId, wanted) > 0) {
+                return wanted;
             }
-
-            event.setConfirmedRequests(currentConfirmed);
-            eventRepository.save(event);
-
-            confirmedDto.addAll(requestList.stream()
-                    .filter(RequestServiceImpl::isConfirmedRequest)
-                    .map(RequestMapper::toDto)
-                    .collect(Collectors.toList()));
-            rejectedList.addAll(requestList.stream()
-                    .filter(RequestServiceImpl::isRejectedRequest)
-                    .map(RequestMapper::toDto)
-                    .collect(Collectors.toList()));
+            wanted = Math.min(wanted - 1, eventRepository.findFreeSeats(eventId));
         }
-        requestRepository.saveAll(requestList);
-        return new EventRequestStatusUpdateResult(confirmedDto, rejectedList);
+        return 0;
     }
 
     private void checkStatus(RequestStatus newStatus) {
@@ -255,13 +285,4 @@ public class RequestServiceImpl implements RequestService {
         }
     }
 
-
-    private static boolean isConfirmedRequest(Request r) {
-        return CONFIRMED.equals(r.getStatus());
-    }
-
-    private static boolean isRejectedRequest(Request r) {
-        return REJECTED.equals(r.getStatus());
-    }
-
 }
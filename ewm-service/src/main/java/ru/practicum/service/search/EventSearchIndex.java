@@ -0,0 +1,31 @@
+package ru.practicum.service.search;
+
+import com.querydsl.core.types.Predicate;
+import ru.practicum.model.Event;
+
+import java.util.List;
+
+/**
+ * Полнотекстовый поиск опубликованных событий по аннотации и описанию, как прежний фильтр text
+ */
+public interface EventSearchIndex {
+    /**
+     * Обновить событие в индексе после его сохранения. Неопубликованные события из индекса удаляются.
+     */
+    void index(Event event);
+
+    /**
+     * Поиск опубликованных событий. Каждое слово запроса ищется как префикс слов текста,
+     * событие должно содержать все слова запроса.
+     * @param text текст запроса
+     * @return id событий по убыванию релевантности, не больше ewm.search.max-results
+     */
+    List<Long> search(String text);
+
+    /**
+     * Условие основного запроса событий для сортировок, отличных от релевантности:
+     * событие содержит все слова запроса, как в {@link #search}, но без ограничения ewm.search.max-results
+     * @param text текст запроса
+     */
+    Predicate getMatchPredicate(String text);
+}
@@ -0,0 +1,183 @@
+package ru.practicum.service.search;
+
+import com.querydsl.core.types.Predicate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.filter.EventPredicate;
+import ru.practicum.model.Event;
+import ru.practicum.repository.EventRepository;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import static ru.practicum.enums.EventState.PUBLISHED;
+import static ru.practicum.model.QEvent.event;
+
+/**
+ * Инвертированный индекс в памяти для профилей без PostgreSQL.<br>
+ * - слово хранит вес вхождений в событии: в аннотации 2, в описании 1; заголовок не индексируется<br>
+ * - слова отсортированы, поэтому поиск по префиксу - это диапазон ключей<br>
+ * - релевантность - сумма весов совпавших слов, умноженных на idf; точное совпадение весит вдвое больше префиксного
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "ewm.search.engine", havingValue = "memory", matchIfMissing = true)
+public class InMemoryEventSearchIndex implements EventSearchIndex {
+    private static final int ANNOTATION_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private final EventRepository eventRepository;
+    private final int maxResults;
+
+    private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Set<String>> documentTerms = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public InMemoryEventSearchIndex(EventRepository eventRepository,
+                                    @Value("${ewm.search.max-results:1000}") int maxResults) {
+        this.eventRepository = eventRepository;
+        this.maxResults = maxResults;
+    }
+
+    /**
+     * Загрузить в индекс все опубликованные события
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long afterId = 0;
+        int indexed = 0;
+        while (true) {
+            final List<Event> events = eventRepository.findAllWithLimit(
+                    event.state.eq(PUBLISHED).and(event.id.gt(afterId)), REBUILD_BATCH_SIZE, event.id.asc());
+            events.forEach(e -> replace(e.getId(), getTerms(e)));
+            indexed += events.size();
+            if (events.size() < REBUILD_BATCH_SIZE) break;
+            afterId = events.get(events.size() - 1).getId();
+        }
+        log.debug("Search index built for {} published events", indexed);
+    }
+
+    /**
+     * Внутри транзакции изменение применяется после ее фиксации
+     */
+    @Override
+    public void index(Event event) {
+        final long eventId = event.getId();
+        final Map<String, Integer> terms = PUBLISHED.equals(event.getState()) ? getTerms(event) : Map.of();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    replace(eventId, terms);
+                }
+            });
+        } else {
+            replace(eventId, terms);
+        }
+    }
+
+    @Override
+    public List<Long> search(String text) {
+        return match(text).entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(maxResults)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Predicate getMatchPredicate(String text) {
+        return EventPredicate.getIdIn(match(text).keySet());
+    }
+
+    /** Релевантность событий, содержащих все слова запроса */
+    private Map<Long, Double> match(String text) {
+        final Set<String> tokens = new LinkedHashSet<>(SearchTokenizer.tokenize(text));
+        if (tokens.isEmpty()) return Map.of();
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (String token : tokens) {
+                final Map<Long, Double> tokenScores = getScores(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    final Map<Long, Double> matched = new HashMap<>();
+                    for (Map.Entry<Long, Double> entry : tokenScores.entrySet()) {
+                        final Double previous = scores.get(entry.getKey());
+                        if (previous != null) {
+                            matched.put(entry.getKey(), previous + entry.getValue());
+                        }
+                    }
+                    scores = matched;
+                }
+                if (scores.isEmpty()) return Map.of();
+            }
+            return scores;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Релевантность событий, содержащих слово с префиксом token */
+    private Map<Long, Double> getScores(String token) {
+        final Map<Long, Double> scores = new HashMap<>();
+        final int documents = documentTerms.size();
+        postings.subMap(token, true, token + Character.MAX_VALUE, false).forEach((term, events) -> {
+            final double idf = Math.log(1 + (double) documents / events.size());
+            final double boost = term.equals(token) ? 1.0 : 0.5;
+            events.forEach((id, weight) -> scores.merge(id, weight * idf * boost, Double::sum));
+        });
+        return scores;
+    }
+
+    private void replace(long eventId, Map<String, Integer> terms) {
+        lock.writeLock().lock();
+        try {
+            final Set<String> previous = documentTerms.remove(eventId);
+            if (previous != null) {
+                for (String term : previous) {
+                    final Map<Long, Integer> events = postings.get(term);
+                    events.remove(eventId);
+                    if (events.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+            if (terms.isEmpty()) return;
+            terms.forEach((term, weight) -> postings.computeIfAbsent(term, key -> new HashMap<>()).put(eventId, weight));
+            documentTerms.put(eventId, new HashSet<>(terms.keySet()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static Map<String, Integer> getTerms(Event event) {
+        final Map<String, Integer> terms = new HashMap<>();
+        addTerms(terms, event.getAnnotation(), ANNOTATION_WEIGHT);
+        addTerms(terms, event.getDescription(), DESCRIPTION_WEIGHT);
+        return terms;
+    }
+
+    private static void addTerms(Map<String, Integer> terms, String text, int weight) {
+        SearchTokenizer.tokenize(text).forEach(token -> terms.merge(token, weight, Integer::sum));
+    }
+}
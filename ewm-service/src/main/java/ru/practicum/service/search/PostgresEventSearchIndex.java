@@ -0,0 +1,71 @@
+package ru.practicum.service.search;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.Expressions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.filter.EventPredicate;
+import ru.practicum.model.Event;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static ru.practicum.model.QEvent.event;
+
+/**
+ * Поиск по генерируемой колонке events.search_vector с GIN-индексом (миграция V3__events_search_vector.sql).
+ * Аннотация и описание имеют веса B и C, результаты упорядочены по ts_rank.
+ * Условие основного запроса - search_vector @@ tsquery через JPQL-функцию event_search_match ({@link SearchSqlFunctions}).
+ */
+@Component
+@ConditionalOnProperty(name = "ewm.search.engine", havingValue = "postgres")
+public class PostgresEventSearchIndex implements EventSearchIndex {
+    private static final String SEARCH_SQL = "SELECT id FROM events, to_tsquery('simple', :query) query "
+            + "WHERE state = 'PUBLISHED' AND search_vector @@ query "
+            + "ORDER BY ts_rank(search_vector, query) DESC, id LIMIT :limit";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final int maxResults;
+
+    public PostgresEventSearchIndex(NamedParameterJdbcTemplate jdbcTemplate,
+                                    @Value("${ewm.search.max-results:1000}") int maxResults) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxResults = maxResults;
+    }
+
+    /**
+     * search_vector пересчитывается базой данных при каждом изменении строки события
+     */
+    @Override
+    public void index(Event event) {
+    }
+
+    @Override
+    public List<Long> search(String text) {
+        final String query = toQuery(text);
+        if (query == null) return List.of();
+        final MapSqlParameterSource params = new MapSqlParameterSource("query", query)
+                .addValue("limit", maxResults);
+        return jdbcTemplate.queryForList(SEARCH_SQL, params, Long.class);
+    }
+
+    @Override
+    public Predicate getMatchPredicate(String text) {
+        final String query = toQuery(text);
+        if (query == null) return EventPredicate.getIdIn(List.of());
+        return Expressions.booleanTemplate("function('event_search_match', {0}, {1}) = true",
+                event.id, Expressions.constant(query));
+    }
+
+    /** Запрос tsquery: все слова текста как префиксы, null если слов нет */
+    private static String toQuery(String text) {
+        final List<String> tokens = SearchTokenizer.tokenize(text);
+        if (tokens.isEmpty()) return null;
+        return tokens.stream()
+                .map(token -> token + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+}
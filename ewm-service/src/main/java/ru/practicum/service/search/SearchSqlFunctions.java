@@ -0,0 +1,56 @@
+package ru.practicum.service.search;
+
+import org.hibernate.QueryException;
+import org.hibernate.boot.MetadataBuilder;
+import org.hibernate.boot.spi.MetadataBuilderContributor;
+import org.hibernate.dialect.function.SQLFunction;
+import org.hibernate.engine.spi.Mapping;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.type.StandardBasicTypes;
+import org.hibernate.type.Type;
+
+import java.util.List;
+
+/**
+ * Функции JPQL полнотекстового поиска (spring.jpa.properties.hibernate.metadata_builder_contributor).<br>
+ * event_search_match(e.id, query) выводится прямо в условие запроса как
+ * e.search_vector @@ to_tsquery('simple', query): колонка search_vector не отображается в сущность,
+ * поэтому берется у той же таблицы, что и переданный id, и условие обслуживается GIN-индексом
+ */
+public class SearchSqlFunctions implements MetadataBuilderContributor {
+    static final String EVENT_SEARCH_MATCH = "event_search_match";
+
+    @Override
+    public void contribute(MetadataBuilder metadataBuilder) {
+        metadataBuilder.applySqlFunction(EVENT_SEARCH_MATCH, new EventSearchMatch());
+    }
+
+    static class EventSearchMatch implements SQLFunction {
+        private static final String ID_COLUMN = ".id";
+
+        @Override
+        public boolean hasArguments() {
+            return true;
+        }
+
+        @Override
+        public boolean hasParenthesesIfNoArguments() {
+            return true;
+        }
+
+        @Override
+        public Type getReturnType(Type firstArgumentType, Mapping mapping) {
+            return StandardBasicTypes.BOOLEAN;
+        }
+
+        @Override
+        public String render(Type firstArgumentType, List arguments, SessionFactoryImplementor factory) {
+            final String id = arguments.size() == 2 ? String.valueOf(arguments.get(0)) : "";
+            if (!id.endsWith(ID_COLUMN)) {
+                throw new QueryException(EVENT_SEARCH_MATCH + " requires (event.id, query) arguments");
+            }
+            final String table = id.substring(0, id.length() - ID_COLUMN.length());
+            return "(" + table + ".search_vector @@ to_tsquery('simple', " + arguments.get(1) + "))";
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.service.search;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+class SearchTokenizer {
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * Слова текста в нижнем регистре. Все остальные символы считаются разделителями,
+     * поэтому слова безопасно подставлять в синтаксис запросов поискового движка.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null) return List.of();
+        return Arrays.stream(SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+                .filter(token -> !token.isEmpty())
+                .collect(Collectors.toList());
+    }
+}
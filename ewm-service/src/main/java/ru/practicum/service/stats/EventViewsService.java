@@ -0,0 +1,9 @@
+package ru.practicum.service.stats;
+
+public interface EventViewsService {
+    /**
+     * Обновить таблицу просмотров опубликованных событий из сервиса статистики
+     * @return количество обновленных событий
+     */
+    int refresh();
+}
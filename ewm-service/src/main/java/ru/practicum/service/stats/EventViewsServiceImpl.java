@@ -0,0 +1,91 @@
+package ru.practicum.service.stats;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.model.EventViews;
+import ru.practicum.repository.EventRepository;
+import ru.practicum.repository.EventViewsRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static ru.practicum.enums.EventState.PUBLISHED;
+import static ru.practicum.model.QEvent.event;
+
+/**
+ * Периодическая загрузка просмотров опубликованных событий в таблицу event_views
+ * для сортировки по просмотрам на стороне базы данных.
+ * События обходятся пачками по id, просмотры каждой пачки запрашиваются одним запросом.
+ */
+@Slf4j
+@Service
+public class EventViewsServiceImpl implements EventViewsService {
+    private final EventRepository eventRepository;
+    private final EventViewsRepository eventViewsRepository;
+    private final StatsService statsService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public EventViewsServiceImpl(EventRepository eventRepository,
+                                 EventViewsRepository eventViewsRepository,
+                                 StatsService statsService,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${ewm.views.index.batch-size:500}") int batchSize) {
+        this.eventRepository = eventRepository;
+        this.eventViewsRepository = eventViewsRepository;
+        this.statsService = statsService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${ewm.views.index.refresh-ms:60000}",
+            initialDelayString = "${ewm.views.index.refresh-ms:60000}")
+    public void scheduledRefresh() {
+        try {
+            final int updated = refresh();
+            log.debug("Views of {} published events refreshed", updated);
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh event views: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public int refresh() {
+        long afterId = 0;
+        int updated = 0;
+        while (true) {
+            final List<Long> ids = eventRepository.findIdsWithLimit(
+                    event.state.eq(PUBLISHED).and(event.id.gt(afterId)), batchSize);
+            if (ids.isEmpty()) break;
+
+            final Map<Long, Long> views = statsService.loadViews(ids, false);
+            transactionTemplate.executeWithoutResult(status -> save(ids, views));
+            updated += ids.size();
+            if (ids.size() < batchSize) break;
+            afterId = ids.get(ids.size() - 1);
+        }
+        return updated;
+    }
+
+    private void save(List<Long> ids, Map<Long, Long> views) {
+        final LocalDateTime now = LocalDateTime.now();
+        final Map<Long, EventViews> existing = eventViewsRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(EventViews::getEventId, Function.identity()));
+        final List<EventViews> rows = ids.stream()
+                .map(id -> {
+                    final EventViews row = existing.getOrDefault(id, EventViews.builder().eventId(id).build());
+                    row.setViews(views.getOrDefault(id, 0L));
+                    row.setUpdatedOn(now);
+                    return row;
+                })
+                .collect(Collectors.toList());
+        eventViewsRepository.saveAll(rows);
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.service.stats;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Предохранитель запросов к сервису статистики.<br>
+ * - после failure-threshold ошибок подряд размыкается, и запросы не отправляются open-ms<br>
+ * - затем пропускает один пробный запрос: успех замыкает предохранитель, ошибка снова размыкает
+ */
+@Slf4j
+@Component
+public class StatsCircuitBreaker {
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoTime;
+    private final Counter rejectedCounter;
+
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+
+    @Autowired
+    public StatsCircuitBreaker(MeterRegistry meterRegistry,
+                               @Value("${ewm-stats-server.circuit.failure-threshold:5}") int failureThreshold,
+                               @Value("${ewm-stats-server.circuit.open-ms:30000}") long openMs) {
+        this(meterRegistry, failureThreshold, openMs, System::nanoTime);
+    }
+
+    StatsCircuitBreaker(MeterRegistry meterRegistry, int failureThreshold, long openMs, LongSupplier nanoTime) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+        this.nanoTime = nanoTime;
+        this.rejectedCounter = meterRegistry.counter("ewm.stats.circuit.rejected");
+        Gauge.builder("ewm.stats.circuit.open", this, breaker -> breaker.getState() == State.CLOSED ? 0 : 1)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return false, если запрос отправлять нельзя
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && nanoTime.getAsLong() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+            return true;
+        }
+        if (state == State.CLOSED) return true;
+        rejectedCounter.increment();
+        return false;
+    }
+
+    public synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            log.info("Stats service is available again, circuit closed");
+        }
+        state = State.CLOSED;
+        failures = 0;
+    }
+
+    public synchronized void onFailure() {
+        failures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && failures >= failureThreshold)) {
+            log.warn("Stats service is unavailable, circuit opened after {} failures", failures);
+            state = State.OPEN;
+            openedAt = nanoTime.getAsLong();
+        }
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.service.stats;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.http.pool.PoolStats;
+import org.springframework.stereotype.Component;
+import ru.practicum.client.StatsClient;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Метрики пула соединений клиента статистики: занятые, свободные соединения,
+ * запросы в ожидании соединения и размер пула
+ */
+@Component
+public class StatsClientMetrics {
+
+    public StatsClientMetrics(StatsClient statsClient, MeterRegistry meterRegistry) {
+        register(meterRegistry, statsClient, "leased", PoolStats::getLeased);
+        register(meterRegistry, statsClient, "available", PoolStats::getAvailable);
+        register(meterRegistry, statsClient, "pending", PoolStats::getPending);
+        register(meterRegistry, statsClient, "max", PoolStats::getMax);
+    }
+
+    private static void register(MeterRegistry meterRegistry, StatsClient statsClient, String state,
+                                 ToDoubleFunction<PoolStats> value) {
+        Gauge.builder("ewm.stats.client.pool.connections", statsClient,
+                        client -> value.applyAsDouble(client.getPoolStats()))
+                .tag("state", state)
+                .register(meterRegistry);
+    }
+}
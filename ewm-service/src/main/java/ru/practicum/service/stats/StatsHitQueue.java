@@ -0,0 +1,318 @@
+package ru.practicum.service.stats;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.client.StatsClient;
+import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.enums.HitOverflowPolicy;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ограниченная очередь хитов статистики.<br>
+ * Поток запроса только кладет хит в очередь, фоновый поток забирает хиты пачками
+ * (не больше batch-size или по истечении linger-ms) и отправляет их в сервис статистики.
+ */
+@Slf4j
+@Component
+public class StatsHitQueue {
+    private static final long REPLAY_INTERVAL_MS = 10_000;
+    private static final long SHUTDOWN_TIMEOUT_MS = 5_000;
+
+    private final StatsClient statsClient;
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<QueuedHit> queue;
+    private final int batchSize;
+    private final long lingerMs;
+    private final HitOverflowPolicy overflowPolicy;
+    private final long blockTimeoutMs;
+    private final Path spillFile;
+    private final Object spillLock = new Object();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Counter sentCounter;
+    private final Counter droppedCounter;
+    private final Counter failedCounter;
+    private final Counter spilledCounter;
+    private final Counter unreadableCounter;
+
+    private volatile long sentSequence;
+    private volatile boolean running;
+    private Thread flusher;
+    private long lastReplay;
+
+    @Autowired
+    public StatsHitQueue(StatsClient statsClient,
+                         ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry,
+                         @Value("${ewm-stats-server.hits.queue-capacity:10000}") int capacity,
+                         @Value("${ewm-stats-server.hits.batch-size:100}") int batchSize,
+                         @Value("${ewm-stats-server.hits.linger-ms:200}") long lingerMs,
+                         @Value("${ewm-stats-server.hits.overflow-policy:DROP}") HitOverflowPolicy overflowPolicy,
+                         @Value("${ewm-stats-server.hits.block-timeout-ms:1000}") long blockTimeoutMs,
+                         @Value("${ewm-stats-server.hits.spill-file:stats-hits.spill}") String spillFile) {
+        this.statsClient = statsClient;
+        this.objectMapper = objectMapper;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.lingerMs = lingerMs;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutMs = blockTimeoutMs;
+        this.spillFile = Paths.get(spillFile);
+
+        Gauge.builder("ewm.stats.hits.queue.depth", queue, BlockingQueue::size)
+                .description("Hits waiting to be sent to the stats service")
+                .register(meterRegistry);
+        this.sentCounter = meterRegistry.counter("ewm.stats.hits.sent");
+        this.droppedCounter = meterRegistry.counter("ewm.stats.hits.dropped");
+        this.failedCounter = meterRegistry.counter("ewm.stats.hits.failed");
+        this.spilledCounter = meterRegistry.counter("ewm.stats.hits.spilled");
+        this.unreadableCounter = meterRegistry.counter("ewm.stats.hits.unreadable");
+    }
+
+    /**
+     * Поставить хит в очередь на отправку. Не обращается к сервису статистики.
+     * @return порядковый номер хита или -1, если хит не попал в очередь (отброшен или сброшен на диск)
+     */
+    public long offer(EndpointHitDto dto) {
+        final QueuedHit hit = new QueuedHit(sequence.incrementAndGet(), dto);
+        switch (overflowPolicy) {
+            case BLOCK:
+                return offerBlocking(hit) ? hit.seq : -1;
+            case SPILL:
+                if (!queue.offer(hit)) {
+                    spill(List.of(dto));
+                    return -1;
+                }
+                return hit.seq;
+            default:
+                if (!queue.offer(hit)) {
+                    droppedCounter.increment();
+                    return -1;
+                }
+                return hit.seq;
+        }
+    }
+
+    public int getDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Наибольший порядковый номер хита из успешно отправленной пачки.
+     * Хиты с номером не больше этого уже учтены сервисом статистики (или потеряны при неудачной отправке).
+     */
+    public long getSentSequence() {
+        return sentSequence;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        flusher = new Thread(this::runFlusher, "stats-hit-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (flusher == null) return;
+        try {
+            flusher.join(SHUTDOWN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (flusher.isAlive()) {
+            flusher.interrupt();
+        }
+    }
+
+    private boolean offerBlocking(QueuedHit hit) {
+        try {
+            if (queue.offer(hit, blockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        droppedCounter.increment();
+        return false;
+    }
+
+    private void runFlusher() {
+        final List<QueuedHit> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                final QueuedHit first = queue.poll(lingerMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    replaySpilled();
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(batch);
+                sendQueued(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("Unexpected error in stats hit flusher: {}", e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Добрать пачку до batch-size, ожидая новые хиты не дольше linger-ms с момента первого хита
+     */
+    private void fillBatch(List<QueuedHit> batch) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            final long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) return;
+
+            final QueuedHit next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) return;
+            batch.add(next);
+        }
+    }
+
+    private void sendQueued(List<QueuedHit> batch) {
+        final List<EndpointHitDto> dtos = new ArrayList<>(batch.size());
+        long maxSeq = sentSequence;
+        for (QueuedHit hit : batch) {
+            dtos.add(hit.dto);
+            maxSeq = Math.max(maxSeq, hit.seq);
+        }
+        if (send(dtos)) {
+            sentSequence = maxSeq;
+        }
+    }
+
+    /**
+     * @return true, если пачка принята сервисом статистики
+     */
+    private boolean send(List<EndpointHitDto> batch) {
+        try {
+            statsClient.saveHits(batch);
+            sentCounter.increment(batch.size());
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Failed to send {} hits to stats service: {}", batch.size(), e.getMessage());
+            if (overflowPolicy == HitOverflowPolicy.SPILL) {
+                spill(batch);
+            } else {
+                failedCounter.increment(batch.size());
+            }
+            return false;
+        }
+    }
+
+    private void spill(List<EndpointHitDto> hits) {
+        synchronized (spillLock) {
+            try (BufferedWriter writer = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (EndpointHitDto hit : hits) {
+                    writer.write(objectMapper.writeValueAsString(hit));
+                    writer.newLine();
+                }
+                spilledCounter.increment(hits.size());
+            } catch (IOException e) {
+                log.error("Failed to spill {} hits to {}: {}", hits.size(), spillFile, e.getMessage());
+                droppedCounter.increment(hits.size());
+            }
+        }
+    }
+
+    /**
+     * Повторная отправка хитов, сброшенных на диск. Выполняется, когда очередь пуста.<br>
+     * Файл .replay, оставшийся после прерванной повторной отправки, отправляется первым,
+     * файл сброса переносится на его место только в следующий раз. Нечитаемые строки пропускаются.
+     */
+    private void replaySpilled() {
+        final long now = System.currentTimeMillis();
+        if (now - lastReplay < REPLAY_INTERVAL_MS) return;
+        lastReplay = now;
+
+        final Path replayFile = spillFile.resolveSibling(spillFile.getFileName() + ".replay");
+        synchronized (spillLock) {
+            if (!Files.exists(replayFile)) {
+                if (!Files.exists(spillFile)) return;
+                try {
+                    Files.move(spillFile, replayFile);
+                } catch (IOException e) {
+                    log.error("Failed to move spill file {}: {}", spillFile, e.getMessage());
+                    return;
+                }
+            }
+        }
+
+        final List<EndpointHitDto> batch = new ArrayList<>(batchSize);
+        try (BufferedReader reader = Files.newBufferedReader(replayFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                final EndpointHitDto hit = readHit(line);
+                if (hit == null) continue;
+                batch.add(hit);
+                if (batch.size() == batchSize) {
+                    send(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                send(batch);
+            }
+            Files.delete(replayFile);
+        } catch (IOException e) {
+            log.error("Failed to replay spilled hits from {}: {}", replayFile, e.getMessage());
+        }
+    }
+
+    /**
+     * @return хит или null, если строка не читается
+     */
+    private EndpointHitDto readHit(String line) {
+        try {
+            return objectMapper.readValue(line, EndpointHitDto.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Skipping unreadable spilled hit: {}", e.getOriginalMessage());
+            unreadableCounter.increment();
+            return null;
+        }
+    }
+
+    private static class QueuedHit {
+        private final long seq;
+        private final EndpointHitDto dto;
+
+        private QueuedHit(long seq, EndpointHitDto dto) {
+            this.seq = seq;
+            this.dto = dto;
+        }
+    }
+}
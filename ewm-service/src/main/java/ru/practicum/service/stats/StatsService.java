@@ -15,4 +15,16 @@ public interface StatsService {
     Map<String, Long> getMap(HttpServletRequest request, List<Long> collect, LocalDateTime start, LocalDateTime end, boolean unique);
 
     Map<String, Long> getMap(HttpServletRequest request, boolean unique);
+
+    /**
+     * Количество просмотров событий за все время, через кэш просмотров
+     * @return просмотры по id события, для событий без просмотров - 0
+     */
+    Map<Long, Long> getViews(List<Long> eventIds, boolean unique);
+
+    /**
+     * Количество просмотров событий за все время, напрямую из сервиса статистики
+     * @return просмотры по id события, для событий без просмотров - 0
+     */
+    Map<Long, Long> loadViews(List<Long> eventIds, boolean unique);
 }
@@ -1,12 +1,10 @@
 package ru.practicum.service.stats;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import ru.practicum.client.StatsClient;
 import ru.practicum.dto.EndpointHitDto;
 import ru.practicum.dto.ViewStatsDto;
@@ -14,13 +12,13 @@ import ru.practicum.exception.ResponseException;
 
 import javax.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 import static ru.practicum.utils.Constants.END;
+import static ru.practicum.utils.Constants.EVENTS_URI;
 import static ru.practicum.utils.Constants.START;
 
 @Service
@@ -28,6 +26,9 @@ import static ru.practicum.utils.Constants.START;
 public class StatsServiceImpl implements StatsService {
     @Autowired
     private final StatsClient statsClient;
+    private final StatsHitQueue hitQueue;
+    private final ViewCountCache viewCountCache;
+    private final StatsCircuitBreaker circuitBreaker;
     @Value(value = "${app.name}")
     private String appName;
 
@@ -59,6 +60,23 @@ public class StatsServiceImpl implements StatsService {
         return getGroupedMap(viewStats);
     }
 
+    @Override
+    public Map<Long, Long> getViews(List<Long> eventIds, boolean unique) {
+        if (eventIds.isEmpty()) return new HashMap<>();
+        return viewCountCache.getViews(eventIds, unique, ids -> loadViews(ids, unique));
+    }
+
+    @Override
+    public Map<Long, Long> loadViews(List<Long> eventIds, boolean unique) {
+        final List<String> uris = eventIds.stream()
+                .map(id -> EVENTS_URI + "/" + id)
+                .collect(Collectors.toList());
+        final Map<String, Long> hits = getGroupedMap(getResponse(uris, START, END, unique));
+        final Map<Long, Long> views = new HashMap<>();
+        eventIds.forEach(id -> views.put(id, hits.getOrDefault(EVENTS_URI + "/" + id, 0L)));
+        return views;
+    }
+
     private Map<String, Long> getGroupedMap(List<ViewStatsDto> viewStats) {
         if (viewStats.isEmpty()) return new HashMap<>();
         return viewStats.stream()
@@ -67,32 +85,40 @@ public class StatsServiceImpl implements StatsService {
 
     private List<ViewStatsDto> get(HttpServletRequest request, List<Long> ids, LocalDateTime start, LocalDateTime end,
                                    boolean unique) {
-        final ObjectMapper objectMapper = new ObjectMapper();
         final String requestURI = request.getRequestURI();
-        final List<Object> response = (ids != null)
+        return (ids != null)
                 ? getResponse(requestURI, ids, start, end, unique)
                 : getResponse(List.of(requestURI), start, end, unique);
-        return (response != null)
-                ? response.stream()
-                .map(object -> objectMapper.convertValue(object, ViewStatsDto.class))
-                .filter(v -> v.getApp().equals(appName)).collect(Collectors.toList())
-                : Collections.emptyList();
     }
 
-
-    private List<Object> getResponse(String requestURI, List<Long> ids, LocalDateTime start, LocalDateTime end, boolean unique) {
+    private List<ViewStatsDto> getResponse(String requestURI, List<Long> ids, LocalDateTime start, LocalDateTime end,
+                                           boolean unique) {
         final List<String> idsList = ids.stream()
                 .map(id -> requestURI + "/" + id)
                 .collect(Collectors.toList());
         return getResponse(idsList, start, end, unique);
     }
 
-    private List<Object> getResponse(List<String> idsList, LocalDateTime start, LocalDateTime end, boolean unique) {
-        final ResponseEntity<Object> response = statsClient.getStats(start, end, idsList, unique);
-        if (response.getStatusCode() != HttpStatus.OK) {
+    /**
+     * Хиты только этого приложения: фильтр по app выполняет сервис статистики.<br>
+     * Пока предохранитель разомкнут, запрос не отправляется. Ошибка запроса (4xx) не считается отказом сервиса
+     */
+    private List<ViewStatsDto> getResponse(List<String> idsList, LocalDateTime start, LocalDateTime end,
+                                           boolean unique) {
+        if (!circuitBreaker.tryAcquire()) {
+            throw new ResponseException("Stats service is unavailable.");
+        }
+        try {
+            final List<ViewStatsDto> stats = statsClient.getStats(start, end, appName, idsList, unique);
+            circuitBreaker.onSuccess();
+            return stats;
+        } catch (HttpClientErrorException e) {
+            circuitBreaker.onSuccess();
+            throw new ResponseException("Failed to get data from stats service.");
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
             throw new ResponseException("Failed to get data from stats service.");
         }
-        return (List<Object>) response.getBody();
     }
 
     private void saveHit(String ip, String uri) {
@@ -102,9 +128,21 @@ public class StatsServiceImpl implements StatsService {
                 .uri(uri)
                 .timestamp(LocalDateTime.now())
                 .build();
-        final ResponseEntity<Object> response = statsClient.saveHit(dto);
-        if (response.getStatusCode() != HttpStatus.CREATED) {
-            throw new ResponseException("Failed to save data to stats service.");
+        final long seq = hitQueue.offer(dto);
+        final Long eventId = getEventId(uri);
+        if (seq > 0 && eventId != null) {
+            viewCountCache.recordHit(eventId, ip, seq);
+        }
+    }
+
+    /** id события из uri вида /events/{id} */
+    private static Long getEventId(String uri) {
+        final String prefix = EVENTS_URI + "/";
+        if (uri == null || !uri.startsWith(prefix)) return null;
+        try {
+            return Long.parseLong(uri.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return null;
         }
     }
 }
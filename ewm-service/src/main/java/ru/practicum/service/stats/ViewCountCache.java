@@ -0,0 +1,274 @@
+package ru.practicum.service.stats;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.exception.ResponseException;
+import ru.practicum.utils.TtlCache;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Кэш количества просмотров событий.<br>
+ * - запись свежая в течение ttl, устаревшая запись еще staleness отдается сразу и обновляется в фоне<br>
+ * - отсутствующие записи всех событий страницы загружаются одним запросом<br>
+ * - хиты, отправленные этим сервисом после загрузки значения, учитываются локально до следующей загрузки,
+ * чтобы пользователь видел свой просмотр, не дожидаясь отправки хита в сервис статистики<br>
+ * - если сервис статистики недоступен, отдаются последние известные значения или 0, в кэш они не записываются
+ */
+@Slf4j
+@Component
+public class ViewCountCache {
+    private static final int MAX_LOCAL_HITS = 256;
+
+    private final TtlCache<ViewKey, ViewCount> cache;
+    private final StatsHitQueue hitQueue;
+    private final ThreadPoolExecutor refresher;
+    private final Set<ViewKey> refreshing = ConcurrentHashMap.newKeySet();
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter staleCounter;
+    private final Counter degradedCounter;
+
+    @Autowired
+    public ViewCountCache(StatsHitQueue hitQueue,
+                          MeterRegistry meterRegistry,
+                          @Value("${ewm.views.cache.max-size:10000}") int maxSize,
+                          @Value("${ewm.views.cache.ttl-ms:10000}") long ttlMs,
+                          @Value("${ewm.views.cache.staleness-ms:30000}") long stalenessMs,
+                          @Value("${ewm.views.cache.refresh-threads:1}") int refreshThreads) {
+        this(hitQueue, meterRegistry, new TtlCache<>(maxSize, Duration.ofMillis(ttlMs), Duration.ofMillis(stalenessMs)),
+                refreshThreads);
+    }
+
+    ViewCountCache(StatsHitQueue hitQueue, MeterRegistry meterRegistry, TtlCache<ViewKey, ViewCount> cache,
+                   int refreshThreads) {
+        this.hitQueue = hitQueue;
+        this.cache = cache;
+        this.refresher = new ThreadPoolExecutor(refreshThreads, refreshThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(100), runnable -> {
+                    final Thread thread = new Thread(runnable, "view-count-refresh");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        this.hitCounter = meterRegistry.counter("ewm.views.cache.requests", "result", "hit");
+        this.missCounter = meterRegistry.counter("ewm.views.cache.requests", "result", "miss");
+        this.staleCounter = meterRegistry.counter("ewm.views.cache.requests", "result", "stale");
+        this.degradedCounter = meterRegistry.counter("ewm.views.cache.degraded");
+        Gauge.builder("ewm.views.cache.size", cache, TtlCache::size).register(meterRegistry);
+        FunctionCounter.builder("ewm.views.cache.evictions", cache, TtlCache::getEvictions).register(meterRegistry);
+    }
+
+    /**
+     * Просмотры событий. Отсутствующие в кэше значения загружаются одним вызовом loader,
+     * устаревшие отдаются из кэша и обновляются в фоне.
+     * @param loader загрузка просмотров по списку id событий
+     * @return просмотры по id события
+     */
+    public Map<Long, Long> getViews(Collection<Long> eventIds, boolean unique,
+                                    Function<List<Long>, Map<Long, Long>> loader) {
+        final Map<Long, Long> result = new HashMap<>();
+        final List<Long> missing = new ArrayList<>();
+        final List<Long> stale = new ArrayList<>();
+        for (Long eventId : eventIds) {
+            final TtlCache.Lookup<ViewCount> lookup = cache.get(new ViewKey(eventId, unique));
+            if (lookup == null || !lookup.getValue().isLoaded()) {
+                missCounter.increment();
+                missing.add(eventId);
+                continue;
+            }
+            if (lookup.isStale()) {
+                staleCounter.increment();
+                stale.add(eventId);
+            } else {
+                hitCounter.increment();
+            }
+            result.put(eventId, lookup.getValue().getViews(unique));
+        }
+
+        if (!missing.isEmpty()) {
+            result.putAll(load(missing, unique, loader));
+        }
+        if (!stale.isEmpty()) {
+            refreshAsync(stale, unique, loader);
+        }
+        return result;
+    }
+
+    /**
+     * Учесть хит, поставленный в очередь на отправку
+     * @param seq порядковый номер хита в очереди
+     */
+    public void recordHit(long eventId, String ip, long seq) {
+        for (boolean unique : new boolean[]{false, true}) {
+            cache.merge(new ViewKey(eventId, unique), ViewCount.notLoaded().withLocalHit(ip, seq),
+                    count -> count.withLocalHit(ip, seq));
+        }
+    }
+
+    public void invalidate(long eventId) {
+        cache.invalidate(new ViewKey(eventId, false));
+        cache.invalidate(new ViewKey(eventId, true));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private Map<Long, Long> load(List<Long> eventIds, boolean unique, Function<List<Long>, Map<Long, Long>> loader) {
+        // хиты с номером не больше sentSeq уже будут учтены в загруженном значении
+        final long sentSeq = hitQueue.getSentSequence();
+        final Map<Long, Long> loaded;
+        try {
+            loaded = loader.apply(eventIds);
+        } catch (ResponseException e) {
+            log.debug("Views of events {} are degraded: {}", eventIds, e.getMessage());
+            degradedCounter.increment(eventIds.size());
+            return getLastKnown(eventIds, unique);
+        }
+        final Map<Long, Long> result = new HashMap<>();
+        for (Long eventId : eventIds) {
+            // локальные хиты переносятся атомарно: хит, учтенный во время загрузки, не затирается
+            final ViewCount count = cache.compute(new ViewKey(eventId, unique),
+                    previous -> ViewCount.loaded(loaded.getOrDefault(eventId, 0L), sentSeq, previous));
+            result.put(eventId, count.getViews(unique));
+        }
+        return result;
+    }
+
+    /** Последние загруженные значения с локальными хитами, без загрузки - только локальные хиты */
+    private Map<Long, Long> getLastKnown(List<Long> eventIds, boolean unique) {
+        final Map<Long, Long> result = new HashMap<>();
+        for (Long eventId : eventIds) {
+            final ViewCount previous = cache.peek(new ViewKey(eventId, unique));
+            result.put(eventId, previous == null ? 0L : previous.getViews(unique));
+        }
+        return result;
+    }
+
+    private void refreshAsync(List<Long> eventIds, boolean unique, Function<List<Long>, Map<Long, Long>> loader) {
+        final List<Long> toRefresh = eventIds.stream()
+                .filter(id -> refreshing.add(new ViewKey(id, unique)))
+                .collect(Collectors.toList());
+        if (toRefresh.isEmpty()) return;
+        try {
+            refresher.execute(() -> {
+                try {
+                    load(toRefresh, unique, loader);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to refresh views of events {}: {}", toRefresh, e.getMessage());
+                } finally {
+                    toRefresh.forEach(id -> refreshing.remove(new ViewKey(id, unique)));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            toRefresh.forEach(id -> refreshing.remove(new ViewKey(id, unique)));
+        }
+    }
+
+    static final class ViewKey {
+        private final long eventId;
+        private final boolean unique;
+
+        ViewKey(long eventId, boolean unique) {
+            this.eventId = eventId;
+            this.unique = unique;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ViewKey)) return false;
+            final ViewKey other = (ViewKey) o;
+            return eventId == other.eventId && unique == other.unique;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(eventId, unique);
+        }
+    }
+
+    /**
+     * Загруженное из сервиса статистики значение и локальные хиты, еще не учтенные в нем
+     */
+    static final class ViewCount {
+        private final boolean loaded;
+        private final long views;
+        private final long loadedSeq;
+        private final List<LocalHit> localHits;
+
+        private ViewCount(boolean loaded, long views, long loadedSeq, List<LocalHit> localHits) {
+            this.loaded = loaded;
+            this.views = views;
+            this.loadedSeq = loadedSeq;
+            this.localHits = localHits;
+        }
+
+        static ViewCount notLoaded() {
+            return new ViewCount(false, 0, 0, List.of());
+        }
+
+        static ViewCount loaded(long views, long sentSeq, ViewCount previous) {
+            final List<LocalHit> pending = previous == null
+                    ? List.of()
+                    : previous.localHits.stream().filter(hit -> hit.seq > sentSeq).collect(Collectors.toList());
+            return new ViewCount(true, views, sentSeq, pending);
+        }
+
+        boolean isLoaded() {
+            return loaded;
+        }
+
+        ViewCount withLocalHit(String ip, long seq) {
+            if (seq <= loadedSeq || localHits.size() >= MAX_LOCAL_HITS) return this;
+            final List<LocalHit> hits = new ArrayList<>(localHits);
+            hits.add(new LocalHit(seq, ip));
+            return new ViewCount(loaded, views, loadedSeq, hits);
+        }
+
+        /**
+         * Для уникальных просмотров нельзя знать, учтен ли уже ip, поэтому берется нижняя оценка
+         */
+        long getViews(boolean unique) {
+            if (unique) {
+                final long localIps = localHits.stream().map(hit -> hit.ip).distinct().count();
+                return Math.max(views, localIps);
+            }
+            return views + localHits.size();
+        }
+    }
+
+    private static final class LocalHit {
+        private final long seq;
+        private final String ip;
+
+        private LocalHit(long seq, String ip) {
+            this.seq = seq;
+            this.ip = ip;
+        }
+    }
+}
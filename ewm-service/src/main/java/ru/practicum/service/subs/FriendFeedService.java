@@ -0,0 +1,26 @@
+package ru.practicum.service.subs;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface FriendFeedService {
+    void addEvent(long eventId);
+
+    void updateEventDate(long eventId, LocalDateTime eventDate);
+
+    void addParticipations(Collection<Long> requestIds);
+
+    void removeParticipations(Collection<Long> requestIds);
+
+    void addFriendships(Collection<Long> friendshipIds);
+
+    void removeFriendships(Collection<Long> friendshipIds);
+
+    /**
+     * Выполнить добавления, поставленные в очередь после фиксации транзакций
+     * @return количество выполненных повторов
+     */
+    int repeatCommitted();
+
+    int prune();
+}
@@ -0,0 +1,133 @@
+package ru.practicum.service.subs;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.repository.FriendFeedRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Поддержка ленты друзей при записи (fan-out on write).<br>
+ * - публикация события добавляет его в ленты подписчиков инициатора<br>
+ * - подтверждение публичной заявки добавляет участие в ленты подписчиков ее автора, отмена и скрытие удаляют<br>
+ * - одобрение дружбы добавляет подписчику будущие события и участие друга, отклонение и удаление дружбы удаляют<br>
+ * - события, до начала которых осталось меньше двух часов, в ленту не попадают и периодически удаляются<br>
+ * - добавление повторяется после фиксации транзакции: при READ COMMITTED параллельные публикация и одобрение
+ * дружбы не видят друг друга, но повтор той из них, что зафиксирована позже, видит изменения другой, и запись
+ * ленты не теряется; уже добавленные записи пропускаются<br>
+ * - повторы копятся в очереди и выполняются по расписанию, поток запроса не занимает второе соединение пула
+ */
+@Slf4j
+@Service
+public class FriendFeedServiceImpl implements FriendFeedService {
+    static final int FEED_HOURS_BEFORE_EVENT = 2;
+
+    private final FriendFeedRepository friendFeedRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Queue<Runnable> repeats = new ConcurrentLinkedQueue<>();
+
+    public FriendFeedServiceImpl(FriendFeedRepository friendFeedRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.friendFeedRepository = friendFeedRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void addEvent(long eventId) {
+        friendFeedRepository.insertEvent(eventId);
+        repeatAfterCommit(() -> friendFeedRepository.insertEvent(eventId));
+    }
+
+    @Override
+    public void updateEventDate(long eventId, LocalDateTime eventDate) {
+        friendFeedRepository.updateEventDate(eventId, eventDate);
+    }
+
+    @Override
+    public void addParticipations(Collection<Long> requestIds) {
+        if (requestIds.isEmpty()) return;
+        friendFeedRepository.insertParticipations(requestIds);
+        repeatAfterCommit(() -> friendFeedRepository.insertParticipations(requestIds));
+    }
+
+    @Override
+    public void removeParticipations(Collection<Long> requestIds) {
+        if (requestIds.isEmpty()) return;
+        friendFeedRepository.deleteParticipations(requestIds);
+    }
+
+    @Override
+    public void addFriendships(Collection<Long> friendshipIds) {
+        if (friendshipIds.isEmpty()) return;
+        insertFriendships(friendshipIds);
+        repeatAfterCommit(() -> insertFriendships(friendshipIds));
+    }
+
+    @Override
+    public void removeFriendships(Collection<Long> friendshipIds) {
+        if (friendshipIds.isEmpty()) return;
+        friendFeedRepository.deleteFriendships(friendshipIds);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${ewm.friends.feed.repeat-ms:1000}")
+    public int repeatCommitted() {
+        int repeated = 0;
+        Runnable insert;
+        while ((insert = repeats.poll()) != null) {
+            final Runnable next = insert;
+            try {
+                transactionTemplate.executeWithoutResult(status -> next.run());
+                repeated++;
+            } catch (RuntimeException e) {
+                log.warn("Friend feed repeat failed", e);
+            }
+        }
+        return repeated;
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${ewm.friends.feed.prune-ms:600000}",
+            initialDelayString = "${ewm.friends.feed.prune-ms:600000}")
+    public int prune() {
+        final int deleted = friendFeedRepository.deleteByEventDateBefore(getFeedStart());
+        log.debug("{} friend feed items pruned", deleted);
+        return deleted;
+    }
+
+    private void insertFriendships(Collection<Long> friendshipIds) {
+        final LocalDateTime after = getFeedStart();
+        friendFeedRepository.insertFriendEvents(friendshipIds, after);
+        friendFeedRepository.insertFriendParticipations(friendshipIds, after);
+    }
+
+    /**
+     * Поставить добавление в очередь повторов после фиксации текущей транзакции
+     */
+    private void repeatAfterCommit(Runnable insert) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                repeats.add(insert);
+            }
+        });
+    }
+
+    /**
+     * Лента содержит события, которые начнутся позже возвращаемого момента
+     */
+    static LocalDateTime getFeedStart() {
+        return LocalDateTime.now().plusHours(FEED_HOURS_BEFORE_EVENT);
+    }
+}
@@ -2,35 +2,44 @@ package ru.practicum.service.subs;
 
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.dto.event.EventShortDto;
 import ru.practicum.dto.user.UserDto;
-import ru.practicum.enums.EventState;
-import ru.practicum.enums.RequestStatus;
+import ru.practicum.enums.FriendFeedType;
 import ru.practicum.mapper.EventMapper;
 import ru.practicum.mapper.UserMapper;
-import ru.practicum.model.Event;
-import ru.practicum.model.QUser;
 import ru.practicum.model.User;
+import ru.practicum.service.category.CategoryCache;
 import ru.practicum.service.user.UserService;
 
 import javax.persistence.EntityManager;
-import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
-import static ru.practicum.enums.FriendshipState.APPROVED;
 import static ru.practicum.model.QEvent.event;
-import static ru.practicum.model.QFriendship.friendship;
-import static ru.practicum.model.QRequest.request;
+import static ru.practicum.model.QFriendFeedItem.friendFeedItem;
+import static ru.practicum.model.QUser.user;
 
 @Service
 
 public class FriendServiceImpl implements FriendService {
     private final UserService userService;
+    private final CategoryCache categoryCache;
+    private final FriendshipGraph friendshipGraph;
     private final JPAQueryFactory queryFactory;
 
     public FriendServiceImpl(UserService userService,
+                             CategoryCache categoryCache,
+                             FriendshipGraph friendshipGraph,
                              EntityManager em) {
         this.userService = userService;
+        this.categoryCache = categoryCache;
+        this.friendshipGraph = friendshipGraph;
         this.queryFactory = new JPAQueryFactory(em);
     }
 
@@ -38,65 +47,82 @@ public class FriendServiceImpl implements FriendService {
      * Получение списка друзей
      */
     @Override
+    @Transactional(readOnly = true)
     public List<UserDto> getFriends(long userId) {
         userService.checkExistById(userId);
-        final List<User> fiends = getUserList(friendship.friend, friendship.follower, userId);
-        return UserMapper.toDto(fiends);
+        return getUsers(friendshipGraph.getFriendIds(userId));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<UserDto> getFollowers(long userId) {
         userService.checkExistById(userId);
-        final List<User> fiends = getUserList(friendship.follower, friendship.friend, userId);
-        return UserMapper.toDto(fiends);
+        return getUsers(friendshipGraph.getFollowerIds(userId));
     }
 
     /**
      * Получить список событий в которых примут участие друзья
      */
     @Override
+    @Transactional(readOnly = true)
     public List<EventShortDto> getParticipateEvents(long followerId, int from, int size) {
         userService.checkExistById(followerId);
-        final List<Event> events =
-                queryFactory
-                        .selectDistinct(request.event)
-                        .from(request)
-                        .innerJoin(friendship).on(friendship.friend.eq(request.requester))
-                        .where(friendship.follower.id.eq(followerId)
-                                .and(request.isPrivate.isFalse())
-                                .and(request.status.eq(RequestStatus.CONFIRMED))
-                                .and(request.event.eventDate.after(LocalDateTime.now().plusHours(2))))
-                        .offset(from)
-                        .limit(size)
-                        .fetch();
-
-
-        return EventMapper.toDto(events);
+        return getFeed(followerId, FriendFeedType.PARTICIPATION, from, size);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<EventShortDto> getFriendEvents(long followerId, int from, int size) {
         userService.checkExistById(followerId);
-        final List<Event> events =
-                queryFactory
-                        .selectDistinct(event)
-                        .from(event)
-                        .innerJoin(friendship).on(friendship.friend.eq(event.initiator))
-                        .where(friendship.follower.id.eq(followerId)
-                                .and(event.state.eq(EventState.PUBLISHED))
-                                .and(event.eventDate.after(LocalDateTime.now().plusHours(2))))
-                        .offset(from)
-                        .limit(size)
-                        .fetch();
+        return getFeed(followerId, FriendFeedType.EVENT, from, size);
+    }
+
+    /**
+     * Страница ленты по индексу (follower_id, item_type, event_date, event_id), затем события страницы по id.
+     * События упорядочены по дате и id
+     */
+    private List<EventShortDto> getFeed(long followerId, FriendFeedType type, int from, int size) {
+        final List<Long> eventIds = queryFactory
+                .select(friendFeedItem.eventId, friendFeedItem.eventDate)
+                .distinct()
+                .from(friendFeedItem)
+                .where(friendFeedItem.followerId.eq(followerId)
+                        .and(friendFeedItem.type.eq(type))
+                        .and(friendFeedItem.eventDate.after(FriendFeedServiceImpl.getFeedStart())))
+                .orderBy(friendFeedItem.eventDate.asc(), friendFeedItem.eventId.asc())
+                .offset(from)
+                .limit(size)
+                .fetch()
+                .stream()
+                .map(tuple -> tuple.get(friendFeedItem.eventId))
+                .collect(Collectors.toList());
+        if (eventIds.isEmpty()) return Collections.emptyList();
 
-        return EventMapper.toDto(events);
+        final Map<Long, EventShortDto> events = queryFactory
+                .select(EventMapper.toShortDto(event, user))
+                .from(event)
+                .innerJoin(event.initiator, user)
+                .where(event.id.in(eventIds))
+                .fetch()
+                .stream()
+                .collect(Collectors.toMap(EventShortDto::getId, Function.identity()));
+        final List<EventShortDto> page = eventIds.stream()
+                .map(events::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return EventMapper.withCategoryNames(page, categoryCache::find);
     }
 
-    private List<User> getUserList(QUser friend, QUser user, long userId) {
-        return queryFactory
-                .select(friend)
-                .from(friendship)
-                .where(user.id.eq(userId).and(friendship.state.eq(APPROVED)))
+    /**
+     * Пользователи по id из графа дружб, по возрастанию id
+     */
+    private List<UserDto> getUsers(long[] ids) {
+        if (ids.length == 0) return Collections.emptyList();
+        final List<User> users = queryFactory
+                .selectFrom(user)
+                .where(user.id.in(LongStream.of(ids).boxed().collect(Collectors.toList())))
+                .orderBy(user.id.asc())
                 .fetch();
+        return UserMapper.toDto(users);
     }
 }
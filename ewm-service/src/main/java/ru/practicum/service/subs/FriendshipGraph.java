@@ -0,0 +1,197 @@
+package ru.practicum.service.subs;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.repository.FriendshipRepository;
+import ru.practicum.utils.LongHashSet;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import static ru.practicum.enums.FriendshipState.APPROVED;
+
+/**
+ * Граф одобренных дружб в памяти: для каждого пользователя множества id его друзей и подписчиков.<br>
+ * - загружается из таблицы friendship при старте приложения и перестраивается каждые rebuild-ms:
+ * дружбы, измененные другими экземплярами приложения, видны не позже следующей перестройки<br>
+ * - до первой загрузки ответы читаются из базы<br>
+ * - изменения дружб внутри транзакции применяются после ее фиксации; изменения, примененные во время
+ * перестройки, повторяются на новом графе<br>
+ * - id хранятся в {@link LongHashSet} без упаковки в Long
+ */
+@Slf4j
+@Component
+public class FriendshipGraph {
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final long[] EMPTY = new long[0];
+
+    private final FriendshipRepository friendshipRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Adjacency adjacency = new Adjacency();
+    private volatile boolean loaded;
+    /**
+     * Изменения, примененные во время перестройки; null вне перестройки
+     */
+    private List<Consumer<Adjacency>> changedDuringRebuild;
+
+    public FriendshipGraph(FriendshipRepository friendshipRepository) {
+        this.friendshipRepository = friendshipRepository;
+    }
+
+    /**
+     * Загрузить все одобренные дружбы в новый граф и заменить им текущий
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${ewm.friends.graph.rebuild-ms:60000}",
+            initialDelayString = "${ewm.friends.graph.rebuild-ms:60000}")
+    public synchronized void rebuild() {
+        setChangedDuringRebuild(new ArrayList<>());
+        try {
+            final Adjacency rebuilt = new Adjacency();
+            long afterId = 0;
+            int loadedEdges = 0;
+            while (true) {
+                final List<FriendshipRepository.Edge> edges = friendshipRepository.findEdges(APPROVED, afterId,
+                        PageRequest.of(0, REBUILD_BATCH_SIZE));
+                edges.forEach(edge -> rebuilt.link(edge.getFollowerId(), edge.getFriendId()));
+                loadedEdges += edges.size();
+                if (edges.size() < REBUILD_BATCH_SIZE) break;
+                afterId = edges.get(edges.size() - 1).getId();
+            }
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild.forEach(change -> change.accept(rebuilt));
+                adjacency = rebuilt;
+                loaded = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.debug("Friendship graph built for {} approved friendships", loadedEdges);
+        } finally {
+            setChangedDuringRebuild(null);
+        }
+    }
+
+    public void addFriendship(long followerId, long friendId) {
+        afterCommit(() -> change(graph -> graph.link(followerId, friendId)));
+    }
+
+    public void removeFriendship(long followerId, long friendId) {
+        afterCommit(() -> change(graph -> graph.unlink(followerId, friendId)));
+    }
+
+    public boolean isFriend(long followerId, long friendId) {
+        if (!loaded) {
+            return friendshipRepository.existsByFollowerIdAndFriendIdAndState(followerId, friendId, APPROVED);
+        }
+        lock.readLock().lock();
+        try {
+            final LongHashSet ids = adjacency.friends.get(followerId);
+            return ids != null && ids.contains(friendId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return id пользователей, на которых подписан followerId, по возрастанию
+     */
+    public long[] getFriendIds(long followerId) {
+        if (!loaded) {
+            return toArray(friendshipRepository.findFriendIds(followerId, APPROVED));
+        }
+        return getIds(true, followerId);
+    }
+
+    /**
+     * @return id подписчиков пользователя, по возрастанию
+     */
+    public long[] getFollowerIds(long userId) {
+        if (!loaded) {
+            return toArray(friendshipRepository.findFollowerIds(userId, APPROVED));
+        }
+        return getIds(false, userId);
+    }
+
+    private long[] getIds(boolean friends, long userId) {
+        lock.readLock().lock();
+        try {
+            final LongHashSet ids = (friends ? adjacency.friends : adjacency.followers).get(userId);
+            return ids == null ? EMPTY : ids.toSortedArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void change(Consumer<Adjacency> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(adjacency);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void setChangedDuringRebuild(List<Consumer<Adjacency>> changes) {
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = changes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static long[] toArray(List<Long> ids) {
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private static class Adjacency {
+        private final Map<Long, LongHashSet> friends = new HashMap<>();
+        private final Map<Long, LongHashSet> followers = new HashMap<>();
+
+        void link(long followerId, long friendId) {
+            friends.computeIfAbsent(followerId, id -> new LongHashSet()).add(friendId);
+            followers.computeIfAbsent(friendId, id -> new LongHashSet()).add(followerId);
+        }
+
+        void unlink(long followerId, long friendId) {
+            unlink(friends, followerId, friendId);
+            unlink(followers, friendId, followerId);
+        }
+
+        private static void unlink(Map<Long, LongHashSet> adjacency, long from, long to) {
+            final LongHashSet ids = adjacency.get(from);
+            if (ids != null && ids.remove(to) && ids.isEmpty()) {
+                adjacency.remove(from);
+            }
+        }
+    }
+}
@@ -33,6 +33,8 @@ public class FriendshipServiceImpl implements FriendshipService {
     private final FriendshipRepository friendshipRepository;
 
     private final UserService userService;
+    private final FriendFeedService friendFeedService;
+    private final FriendshipGraph friendshipGraph;
 
     /**
      * Создать запрос на дружбу
@@ -42,6 +44,7 @@ public class FriendshipServiceImpl implements FriendshipService {
      * @return
      */
     @Override
+    @Transactional
     public FriendshipDto requestFriendship(long followerId, long userId) {
         if (followerId == userId) {
             throw new ConflictException("You can't follow yourself.");
@@ -57,6 +60,10 @@ public class FriendshipServiceImpl implements FriendshipService {
                 .createdOn(LocalDateTime.now())
                 .build();
         final Friendship friendship = friendshipRepository.save(friendshipRequest);
+        if (APPROVED.equals(friendship.getState())) {
+            friendFeedService.addFriendships(List.of(friendship.getId()));
+            friendshipGraph.addFriendship(followerId, userId);
+        }
         return FriendshipMapper.toDto(friendship);
     }
 
@@ -68,6 +75,7 @@ public class FriendshipServiceImpl implements FriendshipService {
      * @return пользователь со списком принятых запросов
      */
     @Override
+    @Transactional
     public List<FriendshipShortDto> approveFriendship(long userId, List<Long> ids) {
         final List<Friendship> subList = friendshipRepository.findAllById(ids);
 
@@ -77,6 +85,8 @@ public class FriendshipServiceImpl implements FriendshipService {
 
         subList.forEach(FriendshipServiceImpl::approveFriendship);
         final List<Friendship> saved = friendshipRepository.saveAll(subList);
+        friendFeedService.addFriendships(ids);
+        saved.forEach(f -> friendshipGraph.addFriendship(f.getFollower().getId(), f.getFriend().getId()));
         return saved.stream().map(FriendshipMapper::toShortDto).collect(Collectors.toList());
     }
 
@@ -84,6 +94,7 @@ public class FriendshipServiceImpl implements FriendshipService {
      * Отклонение запроса на дружбу
      */
     @Override
+    @Transactional
     public List<FriendshipShortDto> rejectFriendship(long userId, List<Long> ids) {
         final List<Friendship> subList = friendshipRepository.findAllById(ids);
 
@@ -91,8 +102,13 @@ public class FriendshipServiceImpl implements FriendshipService {
         confirmUser(userId, subList);
         confirmFriendshipRequest(subList, Set.of(PENDING, APPROVED));
 
+        // лента и граф содержат только одобренные дружбы
+        final List<Friendship> approved = subList.stream()
+                .filter(f -> APPROVED.equals(f.getState()))
+                .collect(Collectors.toList());
         subList.forEach(FriendshipServiceImpl::rejectFriendship);
         final List<Friendship> saved = friendshipRepository.saveAll(subList);
+        removeApproved(approved);
         return saved.stream().map(FriendshipMapper::toShortDto).collect(Collectors.toList());
     }
 
@@ -123,13 +139,26 @@ public class FriendshipServiceImpl implements FriendshipService {
     @Transactional
     public void deleteFriendshipRequest(long followerId, long subsId) {
         userService.checkExistById(followerId);
-        if (!friendshipRepository.existsByIdAndFollowerId(subsId, followerId)) {
-            throw new NotFoundException("Friendship request no exist.");
-        }
+        final Friendship subs = friendshipRepository.findByIdAndFollowerId(subsId, followerId)
+                .orElseThrow(() -> new NotFoundException("Friendship request no exist."));
 
+        if (APPROVED.equals(subs.getState())) {
+            removeApproved(List.of(subs));
+        }
         friendshipRepository.deleteByFollowerIdAndId(followerId, subsId);
     }
 
+    /**
+     * Убрать одобренные дружбы из лент подписчиков и графа дружб
+     */
+    private void removeApproved(List<Friendship> approved) {
+        if (approved.isEmpty()) return;
+        friendFeedService.removeFriendships(approved.stream()
+                .map(Friendship::getId)
+                .collect(Collectors.toList()));
+        approved.forEach(f -> friendshipGraph.removeFriendship(f.getFollower().getId(), f.getFriend().getId()));
+    }
+
     private List<FriendshipShortDto> getRequestByFilter(String filter, QUser user, long userId) {
         final List<Predicate> eq = ("ALL".equalsIgnoreCase(filter))
                 ? List.of(user.id.eq(userId))
@@ -162,7 +191,9 @@ public class FriendshipServiceImpl implements FriendshipService {
     }
 
     private void throwWhenFriendshipExist(long userId, long friendId) {
-        if (friendshipRepository.existsByFollowerIdAndFriendIdAndStateNot(userId, friendId, REJECTED)) {
+        // одобренная дружба проверяется по графу, запросом остается только поиск заявки в ожидании
+        if (friendshipGraph.isFriend(userId, friendId)
+                || friendshipRepository.existsByFollowerIdAndFriendIdAndState(userId, friendId, PENDING)) {
             throw new ConflictException("Already friends.");
         }
     }
@@ -0,0 +1,9 @@
+package ru.practicum.service.subs;
+
+import ru.practicum.dto.event.EventShortDto;
+
+import java.util.List;
+
+public interface RecommendationService {
+    List<EventShortDto> getRecommendations(long userId, int from, int size);
+}
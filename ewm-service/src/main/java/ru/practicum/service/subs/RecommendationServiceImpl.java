@@ -0,0 +1,205 @@
+package ru.practicum.service.subs;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.dto.event.EventShortDto;
+import ru.practicum.enums.FriendFeedType;
+import ru.practicum.enums.RequestStatus;
+import ru.practicum.model.FriendFeedItem;
+import ru.practicum.repository.EventRepository;
+import ru.practicum.repository.FriendFeedRepository;
+import ru.practicum.repository.RequestRepository;
+import ru.practicum.service.event.EventService;
+import ru.practicum.service.stats.StatsService;
+import ru.practicum.service.user.UserService;
+import ru.practicum.utils.LongHashSet;
+import ru.practicum.utils.TtlCache;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Рекомендации предстоящих событий по участию друзей и друзей друзей.<br>
+ * - участие друзей уже разложено по лентам подписчиков (friend_feed), друзья берутся из {@link FriendshipGraph},
+ * поэтому расчет - одно чтение лент пользователя и его друзей по индексу без соединений<br>
+ * - каждый участник учитывается в событии один раз: друг с весом 2, друг друга с весом 1<br>
+ * - социальный вес умножается на 1 + ln(1 + просмотры)<br>
+ * - не рекомендуются события пользователя и события, в которых он уже участвует<br>
+ * - объем расчета ограничен: max-friends друзей, max-rows записей лент о ближайших событиях,
+ * max-candidates событий для просмотров<br>
+ * - оценки не поддерживаются инкрементально: top-k результата хранится ttl-ms, страницы отдаются
+ * из сохраненного списка, после истечения срока расчет выполняется заново
+ */
+@Slf4j
+@Service
+public class RecommendationServiceImpl implements RecommendationService {
+    static final int FRIEND_WEIGHT = 2;
+    static final int FRIEND_OF_FRIEND_WEIGHT = 1;
+
+    private final UserService userService;
+    private final EventService eventService;
+    private final StatsService statsService;
+    private final FriendshipGraph friendshipGraph;
+    private final FriendFeedRepository friendFeedRepository;
+    private final EventRepository eventRepository;
+    private final RequestRepository requestRepository;
+    private final TtlCache<Long, long[]> cache;
+    private final int topK;
+    private final int maxFriends;
+    private final int maxRows;
+    private final int maxCandidates;
+
+    public RecommendationServiceImpl(UserService userService,
+                                     EventService eventService,
+                                     StatsService statsService,
+                                     FriendshipGraph friendshipGraph,
+                                     FriendFeedRepository friendFeedRepository,
+                                     EventRepository eventRepository,
+                                     RequestRepository requestRepository,
+                                     @Value("${ewm.recommendations.cache.max-size:10000}") int cacheSize,
+                                     @Value("${ewm.recommendations.cache.ttl-ms:300000}") long ttlMs,
+                                     @Value("${ewm.recommendations.top-k:50}") int topK,
+                                     @Value("${ewm.recommendations.max-friends:200}") int maxFriends,
+                                     @Value("${ewm.recommendations.max-rows:20000}") int maxRows,
+                                     @Value("${ewm.recommendations.max-candidates:200}") int maxCandidates) {
+        this.userService = userService;
+        this.eventService = eventService;
+        this.statsService = statsService;
+        this.friendshipGraph = friendshipGraph;
+        this.friendFeedRepository = friendFeedRepository;
+        this.eventRepository = eventRepository;
+        this.requestRepository = requestRepository;
+        this.cache = new TtlCache<>(cacheSize, Duration.ofMillis(ttlMs), Duration.ZERO);
+        this.topK = topK;
+        this.maxFriends = maxFriends;
+        this.maxRows = maxRows;
+        this.maxCandidates = maxCandidates;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EventShortDto> getRecommendations(long userId, int from, int size) {
+        userService.checkExistById(userId);
+        final long[] ranked = getRanked(userId);
+        if (from >= ranked.length) return Collections.emptyList();
+
+        final List<Long> ids = LongStream.of(ranked)
+                .skip(from)
+                .limit(size)
+                .boxed()
+                .collect(Collectors.toList());
+        final Map<Long, EventShortDto> events = eventService.findShortEventsByIds(ids).stream()
+                .collect(Collectors.toMap(EventShortDto::getId, Function.identity()));
+        // список мог устареть за время жизни: событие могло начаться
+        final LocalDateTime start = FriendFeedServiceImpl.getFeedStart();
+        final List<EventShortDto> page = ids.stream()
+                .map(events::get)
+                .filter(Objects::nonNull)
+                .filter(event -> event.getEventDate().isAfter(start))
+                .collect(Collectors.toList());
+        return eventService.withViews(page);
+    }
+
+    private long[] getRanked(long userId) {
+        final TtlCache.Lookup<long[]> lookup = cache.get(userId);
+        if (lookup != null) return lookup.getValue();
+
+        final long[] ranked = rank(userId);
+        cache.put(userId, ranked);
+        return ranked;
+    }
+
+    /**
+     * @return id событий по убыванию оценки, не больше top-k
+     */
+    long[] rank(long userId) {
+        final long[] friends = friendshipGraph.getFriendIds(userId);
+        final LongHashSet direct = new LongHashSet(friends.length);
+        final List<Long> followers = new ArrayList<>(Math.min(friends.length, maxFriends) + 1);
+        followers.add(userId);
+        for (long friendId : friends) {
+            direct.add(friendId);
+            if (followers.size() <= maxFriends) {
+                followers.add(friendId);
+            }
+        }
+
+        // лента пользователя - участие друзей, ленты друзей - участие друзей друзей
+        final LocalDateTime after = FriendFeedServiceImpl.getFeedStart();
+        final List<FriendFeedItem> items = friendFeedRepository.findByFollowers(FriendFeedType.PARTICIPATION,
+                followers, after, PageRequest.of(0, maxRows));
+        final Map<Long, Score> scores = new HashMap<>();
+        for (FriendFeedItem item : items) {
+            final long participantId = item.getFriendId();
+            if (participantId == userId) continue;
+            final int weight = direct.contains(participantId) ? FRIEND_WEIGHT : FRIEND_OF_FRIEND_WEIGHT;
+            scores.computeIfAbsent(item.getEventId(), Score::new).add(participantId, weight);
+        }
+        // собственное участие берется из заявок: в лентах друзей его нет, если на пользователя не подписаны,
+        // и нет приватных заявок
+        requestRepository.findEventIdsByRequesterIdAndStatus(userId, RequestStatus.CONFIRMED, after)
+                .forEach(scores::remove);
+        if (scores.isEmpty()) return new long[0];
+
+        final List<Score> candidates = scores.values().stream()
+                .sorted(Comparator.comparingInt(Score::getSocial).reversed().thenComparingLong(Score::getEventId))
+                .limit(maxCandidates)
+                .collect(Collectors.toList());
+        final List<Long> candidateIds = candidates.stream()
+                .map(Score::getEventId)
+                .collect(Collectors.toList());
+        eventRepository.findIdsByInitiator(candidateIds, userId).forEach(scores::remove);
+
+        final Map<Long, Long> views = statsService.getViews(candidateIds, false);
+        final long[] ranked = candidates.stream()
+                .filter(score -> scores.containsKey(score.getEventId()))
+                .sorted(Comparator.comparingDouble((Score score) -> score.getRank(views)).reversed()
+                        .thenComparingLong(Score::getEventId))
+                .limit(topK)
+                .mapToLong(Score::getEventId)
+                .toArray();
+        log.debug("Recommendations for user {}: {} events from {} feed items", userId, ranked.length, items.size());
+        return ranked;
+    }
+
+    private static final class Score {
+        private final long eventId;
+        private final LongHashSet participants = new LongHashSet();
+        private int social;
+
+        private Score(long eventId) {
+            this.eventId = eventId;
+        }
+
+        private void add(long participantId, int weight) {
+            if (participants.add(participantId)) {
+                social += weight;
+            }
+        }
+
+        private long getEventId() {
+            return eventId;
+        }
+
+        private int getSocial() {
+            return social;
+        }
+
+        private double getRank(Map<Long, Long> views) {
+            return social * (1 + Math.log1p(views.getOrDefault(eventId, 0L)));
+        }
+    }
+}
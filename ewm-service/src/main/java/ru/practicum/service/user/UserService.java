@@ -3,6 +3,7 @@ package ru.practicum.service.user;
 import ru.practicum.dto.user.NewUserRequest;
 import ru.practicum.dto.user.UserDto;
 import ru.practicum.model.User;
+import ru.practicum.utils.CursorPage;
 
 import java.util.List;
 
@@ -30,6 +31,16 @@ public interface UserService {
      */
     List<UserDto> getUsers(List<Long> ids, Integer from, Integer size);
 
+    /**
+     * Пользователи с постраничной выборкой по курсору, упорядоченные по id
+     *
+     * @param ids    id пользователей
+     * @param cursor курсор из предыдущей страницы, null или пустая строка - первая страница
+     * @param size   количество элементов в наборе
+     * @return пользователи и курсор следующей страницы
+     */
+    CursorPage<UserDto> getUsers(List<Long> ids, String cursor, Integer size);
+
     /**
      * Удаление пользователя
      *
@@ -3,7 +3,9 @@ package ru.practicum.service.user;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.dto.user.NewUserRequest;
 import ru.practicum.dto.user.UserDto;
 import ru.practicum.exception.ConflictException;
@@ -14,6 +16,9 @@ import ru.practicum.repository.EventRepository;
 import ru.practicum.repository.RequestRepository;
 import ru.practicum.repository.UserRepository;
 import ru.practicum.utils.Constants;
+import ru.practicum.utils.CursorPage;
+import ru.practicum.utils.OffsetPageRequest;
+import ru.practicum.utils.PageCursor;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -42,8 +47,9 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<UserDto> getUsers(List<Long> ids, Integer from, Integer size) {
-        final PageRequest page = PageRequest.of(from / size, size);
+        final PageRequest page = OffsetPageRequest.of(from, size);
         final List<User> users = (ids == null || ids.isEmpty())
                 ? userRepository.findAll(page).getContent()
                 : userRepository.findAllByIdIn(ids, page).getContent();
@@ -52,6 +58,19 @@ public class UserServiceImpl implements UserService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<UserDto> getUsers(List<Long> ids, String cursor, Integer size) {
+        final PageCursor after = PageCursor.decode(cursor, PageCursor.BY_ID);
+        final long afterId = (after == null) ? 0 : after.getId();
+        final PageRequest page = PageRequest.of(0, size + 1, Sort.by("id"));
+        final List<User> users = (ids == null || ids.isEmpty())
+                ? userRepository.findAllByIdGreaterThan(afterId, page)
+                : userRepository.findAllByIdInAndIdGreaterThan(ids, afterId, page);
+        return CursorPage.of(users, size, user -> PageCursor.ofId(user.getId()))
+                .map(UserMapper::toDto);
+    }
+
 
     @Override
     public void delete(long userId) {
@@ -17,6 +17,10 @@ public class Constants {
     public static final String FOR_THE_REQUESTED_OPERATION_THE_CONDITIONS_ARE_NOT_MET = "For the requested operation the conditions are not met.";
     public static final String IMPOSSIBLE_S_WHEN_EVENT_STATUS_ONE_OF_S_CURRENT_STATUS_S = "Impossible %s, when event status one of: %s. Current status: %s";
 
+    public static final String EVENTS_URI = "/events";
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     public static final String FROM = "0";
     public static final String PAGE_SIZE = "10";
     public static final LocalDateTime START = LocalDateTime.of(1900, 1, 1, 0, 0, 0);
@@ -0,0 +1,36 @@
+package ru.practicum.utils;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Страница выборки по курсору
+ */
+@Value
+public class CursorPage<T> {
+    List<T> content;
+    /**
+     * Курсор следующей страницы, null - страница последняя
+     */
+    String nextCursor;
+
+    /**
+     * Страница из выборки размером до size + 1: лишний элемент означает, что есть следующая страница
+     * @param rows выборка, упорядоченная по ключу курсора
+     * @param cursor ключ курсора элемента
+     */
+    public static <E> CursorPage<E> of(List<E> rows, int size, Function<E, PageCursor> cursor) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        final List<E> content = rows.subList(0, size);
+        return new CursorPage<>(content, cursor.apply(content.get(size - 1)).encode());
+    }
+
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return new CursorPage<>(content.stream().map(mapper).collect(Collectors.toList()), nextCursor);
+    }
+}
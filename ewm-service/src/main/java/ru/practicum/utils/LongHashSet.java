@@ -0,0 +1,167 @@
+package ru.practicum.utils;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Множество long без упаковки в Long: открытая адресация с линейным пробированием.<br>
+ * Пустая ячейка обозначается 0, поэтому наличие самого 0 хранится отдельным флагом.
+ * Удаление сдвигает следующие элементы цепочки назад, без отметок удаленных ячеек.
+ * Не потокобезопасно
+ */
+public class LongHashSet {
+    private static final int MIN_CAPACITY = 4;
+
+    private long[] keys;
+    private int mask;
+    private int size;
+    private boolean hasZero;
+
+    public LongHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongHashSet(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    public boolean contains(long key) {
+        if (key == 0) return hasZero;
+        for (int i = index(key); keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return false, если элемент уже был в множестве
+     */
+    public boolean add(long key) {
+        if (key == 0) {
+            if (hasZero) return false;
+            hasZero = true;
+            size++;
+            return true;
+        }
+        int i = index(key);
+        while (keys[i] != 0) {
+            if (keys[i] == key) return false;
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        size++;
+        // заполнение не больше половины таблицы держит цепочки короткими
+        if (size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * @return false, если элемента не было в множестве
+     */
+    public boolean remove(long key) {
+        if (key == 0) {
+            if (!hasZero) return false;
+            hasZero = false;
+            size--;
+            return true;
+        }
+        int i = index(key);
+        while (keys[i] != key) {
+            if (keys[i] == 0) return false;
+            i = (i + 1) & mask;
+        }
+        keys[i] = 0;
+        size--;
+        shiftBack(i);
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void forEach(LongConsumer action) {
+        if (hasZero) {
+            action.accept(0);
+        }
+        for (long key : keys) {
+            if (key != 0) {
+                action.accept(key);
+            }
+        }
+    }
+
+    /**
+     * Элементы по возрастанию
+     */
+    public long[] toSortedArray() {
+        final long[] result = new long[size];
+        int i = 0;
+        if (hasZero) {
+            result[i++] = 0;
+        }
+        for (long key : keys) {
+            if (key != 0) {
+                result[i++] = key;
+            }
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Сдвинуть назад элементы цепочки после освобожденной ячейки free,
+     * чтобы поиск не останавливался на образовавшейся дыре
+     */
+    private void shiftBack(int free) {
+        int i = (free + 1) & mask;
+        while (keys[i] != 0) {
+            final int home = index(keys[i]);
+            // элемент можно перенести в free, если free лежит на пути от home до i
+            if (((i - home) & mask) >= ((i - free) & mask)) {
+                keys[free] = keys[i];
+                keys[i] = 0;
+                free = i;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    private void rehash(int capacity) {
+        final long[] old = keys;
+        allocate(capacity);
+        for (long key : old) {
+            if (key != 0) {
+                int i = index(key);
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    private int index(long key) {
+        final long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,63 @@
+package ru.practicum.utils;
+
+import lombok.Value;
+import ru.practicum.exception.ValidateException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Курсор постраничной выборки по ключу (keyset pagination).<br>
+ * Хранит ключ сортировки последнего элемента страницы: дату события и id либо только id.
+ * Клиенту отдается непрозрачной строкой base64url.
+ */
+@Value
+public class PageCursor {
+    public static final String BY_ID = "id";
+    public static final String BY_EVENT_DATE = "eventDate";
+    private static final String SEPARATOR = "|";
+
+    String sort;
+    LocalDateTime eventDate;
+    long id;
+
+    public static PageCursor ofId(long id) {
+        return new PageCursor(BY_ID, null, id);
+    }
+
+    public static PageCursor ofEventDate(LocalDateTime eventDate, long id) {
+        return new PageCursor(BY_EVENT_DATE, eventDate, id);
+    }
+
+    public String encode() {
+        final String value = sort + SEPARATOR + (eventDate == null ? "" : eventDate) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor строка курсора, пустая строка - первая страница
+     * @param sort ожидаемый ключ сортировки
+     * @return курсор или null для первой страницы
+     */
+    public static PageCursor decode(String cursor, String sort) {
+        if (cursor == null || cursor.isBlank()) return null;
+        final PageCursor result;
+        try {
+            final String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            final String[] parts = value.split("\\|", -1);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException(value);
+            }
+            final LocalDateTime eventDate = parts[1].isEmpty() ? null : LocalDateTime.parse(parts[1]);
+            result = new PageCursor(parts[0], eventDate, Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ValidateException(String.format("Invalid cursor '%s'", cursor));
+        }
+        if (!result.sort.equals(sort) || (BY_EVENT_DATE.equals(sort) && result.eventDate == null)) {
+            throw new ValidateException(String.format("Cursor '%s' does not match sort by %s", cursor, sort));
+        }
+        return result;
+    }
+}
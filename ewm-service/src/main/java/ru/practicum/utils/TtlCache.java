@@ -0,0 +1,147 @@
+package ru.practicum.utils;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Ограниченный по размеру LRU-кэш с временем жизни записей.<br>
+ * Запись свежая в течение ttl, затем еще staleness считается устаревшей (отдается, но требует обновления),
+ * после этого отсутствует. При превышении maxSize вытесняется давно не использованная запись.
+ */
+public class TtlCache<K, V> {
+    private final int maxSize;
+    private final long ttlNanos;
+    private final long stalenessNanos;
+    private final LongSupplier nanoTime;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private long evictions;
+
+    public TtlCache(int maxSize, Duration ttl, Duration staleness) {
+        this(maxSize, ttl, staleness, System::nanoTime);
+    }
+
+    public TtlCache(int maxSize, Duration ttl, Duration staleness, LongSupplier nanoTime) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.stalenessNanos = staleness.toNanos();
+        this.nanoTime = nanoTime;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > TtlCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return значение с признаком устаревания или null, если записи нет или она просрочена
+     */
+    public synchronized Lookup<V> get(K key) {
+        final Entry<V> entry = entries.get(key);
+        if (entry == null) return null;
+        final long age = nanoTime.getAsLong() - entry.createdAt;
+        if (age >= ttlNanos + stalenessNanos) {
+            entries.remove(key);
+            return null;
+        }
+        return new Lookup<>(entry.value, age >= ttlNanos);
+    }
+
+    /**
+     * Значение без учета времени жизни и без изменения порядка вытеснения
+     */
+    public synchronized V peek(K key) {
+        final Entry<V> entry = entries.get(key);
+        return entry == null ? null : entry.value;
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, nanoTime.getAsLong()));
+    }
+
+    /**
+     * Записать значение, вычисленное из текущего (null, если записи нет) без учета времени жизни.
+     * Запись получает новое время создания
+     * @return записанное значение
+     */
+    public synchronized V compute(K key, UnaryOperator<V> function) {
+        final Entry<V> entry = entries.get(key);
+        final V value = function.apply(entry == null ? null : entry.value);
+        entries.put(key, new Entry<>(value, nanoTime.getAsLong()));
+        return value;
+    }
+
+    /**
+     * Добавить значение, если записи нет, иначе изменить существующую запись, не продлевая ее время жизни
+     */
+    public synchronized void merge(K key, V value, UnaryOperator<V> function) {
+        if (!update(key, function)) {
+            put(key, value);
+        }
+    }
+
+    /**
+     * Изменить значение существующей записи, не продлевая ее время жизни
+     * @return false, если записи нет
+     */
+    public synchronized boolean update(K key, UnaryOperator<V> function) {
+        final Entry<V> entry = entries.get(key);
+        if (entry == null) return false;
+        entries.put(key, new Entry<>(function.apply(entry.value), entry.createdAt));
+        return true;
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public static class Lookup<V> {
+        private final V value;
+        private final boolean stale;
+
+        private Lookup(V value, boolean stale) {
+            this.value = value;
+            this.stale = stale;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        public boolean isStale() {
+            return stale;
+        }
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long createdAt;
+
+        private Entry(V value, long createdAt) {
+            this.value = value;
+            this.createdAt = createdAt;
+        }
+    }
+}
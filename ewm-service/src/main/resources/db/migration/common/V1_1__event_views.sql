@@ -0,0 +1,8 @@
+-- просмотры событий; отдельная миграция: на существующей базе V1 пропускается при baseline
+CREATE TABLE IF NOT EXISTS event_views (
+  event_id BIGINT PRIMARY KEY REFERENCES events (id) ON DELETE CASCADE,
+  views BIGINT NOT NULL DEFAULT 0,
+  updated_on TIMESTAMP WITHOUT TIME ZONE
+);
+
+CREATE INDEX IF NOT EXISTS ix_event_views_views ON event_views (views DESC, event_id);
@@ -0,0 +1,34 @@
+-- findAllByInitiatorId, existsByInitiatorId, события друзей
+CREATE INDEX IF NOT EXISTS ix_events_initiator ON events (initiator_id, id);
+-- existsByCategoryId, фильтр по категориям
+CREATE INDEX IF NOT EXISTS ix_events_category ON events (category_id);
+-- публичный поиск: state = PUBLISHED и диапазон event_date, курсор по (event_date, id)
+CREATE INDEX IF NOT EXISTS ix_events_state_event_date ON events (state, event_date, id);
+
+-- existsByEventIdAndRequesterId: пользователь может подать только одну заявку на событие.
+-- В базах до миграции проверка в приложении не защищала от гонки, поэтому из повторных заявок
+-- остается одна: подтвержденная, иначе ожидающая, иначе любая; при равенстве - самая ранняя
+DELETE FROM requests r
+WHERE EXISTS (
+  SELECT 1 FROM requests d
+  WHERE d.event_id = r.event_id AND d.requester_id = r.requester_id
+    AND (CASE d.status WHEN 'CONFIRMED' THEN 0 WHEN 'PENDING' THEN 1 ELSE 2 END, d.id)
+      < (CASE r.status WHEN 'CONFIRMED' THEN 0 WHEN 'PENDING' THEN 1 ELSE 2 END, r.id)
+);
+-- удаленные повторные подтвержденные заявки учитывались в счетчике занятых мест
+UPDATE events e
+SET confirmed_requests = (SELECT COUNT(*) FROM requests r WHERE r.event_id = e.id AND r.status = 'CONFIRMED')
+WHERE e.confirmed_requests <> (SELECT COUNT(*) FROM requests r WHERE r.event_id = e.id AND r.status = 'CONFIRMED');
+CREATE UNIQUE INDEX IF NOT EXISTS ux_requests_event_requester ON requests (event_id, requester_id);
+-- findAllByRequesterId, existsByRequesterId, подтвержденные заявки друзей
+CREATE INDEX IF NOT EXISTS ix_requests_requester_status ON requests (requester_id, status);
+
+-- existsByFollowerIdAndFriendIdAndStateNot, друзья пользователя
+CREATE INDEX IF NOT EXISTS ix_friendship_follower_friend ON friendship (follower_id, friend_id);
+-- подписчики пользователя
+CREATE INDEX IF NOT EXISTS ix_friendship_friend_state ON friendship (friend_id, state);
+
+-- подборки, в которые входит событие
+CREATE INDEX IF NOT EXISTS ix_compilation_events_event ON compilation_events (event_id);
+-- findAllByPinned
+CREATE INDEX IF NOT EXISTS ix_compilation_pinned ON compilation (pinned);
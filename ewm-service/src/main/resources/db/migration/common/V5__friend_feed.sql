@@ -0,0 +1,32 @@
+-- лента друзей: события друзей (EVENT) и их публичное участие в событиях (PARTICIPATION)
+CREATE TABLE IF NOT EXISTS friend_feed (
+  follower_id BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+  item_type VARCHAR(20) NOT NULL,
+  event_id BIGINT NOT NULL REFERENCES events (id) ON DELETE CASCADE,
+  friend_id BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+  event_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  PRIMARY KEY (follower_id, item_type, event_id, friend_id)
+);
+
+-- страница ленты подписчика по дате события
+CREATE INDEX IF NOT EXISTS ix_friend_feed_follower_date ON friend_feed (follower_id, item_type, event_date, event_id);
+-- отмена и скрытие участия друга в событии
+CREATE INDEX IF NOT EXISTS ix_friend_feed_friend_event ON friend_feed (friend_id, event_id);
+-- изменение даты события
+CREATE INDEX IF NOT EXISTS ix_friend_feed_event ON friend_feed (event_id);
+-- удаление прошедших событий
+CREATE INDEX IF NOT EXISTS ix_friend_feed_event_date ON friend_feed (event_date);
+
+INSERT INTO friend_feed (follower_id, item_type, event_id, friend_id, event_date)
+SELECT DISTINCT f.follower_id, 'EVENT', e.id, e.initiator_id, e.event_date
+FROM friendship f
+JOIN events e ON e.initiator_id = f.friend_id
+WHERE f.state = 'APPROVED' AND e.state = 'PUBLISHED' AND e.event_date > CURRENT_TIMESTAMP;
+
+INSERT INTO friend_feed (follower_id, item_type, event_id, friend_id, event_date)
+SELECT DISTINCT f.follower_id, 'PARTICIPATION', r.event_id, r.requester_id, e.event_date
+FROM friendship f
+JOIN requests r ON r.requester_id = f.friend_id
+JOIN events e ON e.id = r.event_id
+WHERE f.state = 'APPROVED' AND r.status = 'CONFIRMED' AND r.private = false
+  AND e.event_date > CURRENT_TIMESTAMP;
@@ -0,0 +1,3 @@
+-- сортировка по просмотрам: ORDER BY views DESC NULLS LAST, id после left join с событиями
+DROP INDEX IF EXISTS ix_event_views_views;
+CREATE INDEX IF NOT EXISTS ix_event_views_views ON event_views (views DESC NULLS LAST, event_id);
@@ -0,0 +1,7 @@
+-- Полнотекстовый поиск событий (PostgresEventSearchIndex): аннотация и описание, как прежний фильтр text
+ALTER TABLE events ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+  setweight(to_tsvector('simple', coalesce(annotation, '')), 'B') ||
+  setweight(to_tsvector('simple', coalesce(description, '')), 'C')
+) STORED;
+
+CREATE INDEX IF NOT EXISTS ix_events_search_vector ON events USING GIN (search_vector);
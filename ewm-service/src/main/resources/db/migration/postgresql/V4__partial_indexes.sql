@@ -0,0 +1,7 @@
+-- публичный поиск и курсор по (event_date, id) только среди опубликованных событий
+CREATE INDEX IF NOT EXISTS ix_events_published_event_date ON events (event_date, id) WHERE state = 'PUBLISHED';
+-- подтвержденные заявки на событие
+CREATE INDEX IF NOT EXISTS ix_requests_event_confirmed ON requests (event_id) WHERE status = 'CONFIRMED';
+-- подтвержденные публичные заявки для ленты участия друзей
+CREATE INDEX IF NOT EXISTS ix_requests_requester_confirmed_public ON requests (requester_id, event_id)
+  WHERE status = 'CONFIRMED' AND private = false;
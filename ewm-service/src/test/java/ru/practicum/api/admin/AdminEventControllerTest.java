@@ -12,6 +12,8 @@ import ru.practicum.dto.category.CategoryDto;
 import ru.practicum.dto.event.EventFullDto;
 import ru.practicum.dto.event.UpdateEventAdminRequest;
 import ru.practicum.dto.user.UserDto;
+import ru.practicum.enums.ExportFormat;
+import ru.practicum.exception.ValidateException;
 import ru.practicum.mapper.EventMapper;
 import ru.practicum.service.event.EventService;
 
@@ -25,9 +27,15 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.utils.TestInitDataUtil.getCategoryList;
@@ -109,4 +117,33 @@ class AdminEventControllerTest {
                 .andExpect(jsonPath("$.id", is(eventFullDto.getId()), Long.class))
                 .andExpect(jsonPath("$.description", is(eventFullDto.getDescription())));
     }
-}
\ No newline at end of file
+
+    @Test
+    void exportEventsByAdmin() throws Exception {
+        mvc.perform(get("/admin/events/export")
+                        .param("users", "1", "2")
+                        .param("format", "CSV"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"events.csv\""));
+
+        verify(eventService).exportEventsByAdmin(eq(List.of(1L, 2L)), any(), any(), any(), any(),
+                eq(ExportFormat.CSV), any());
+    }
+
+    @Test
+    void exportEventsByAdmin_RangeStartAfterRangeEnd_BadRequest() throws Exception {
+        doThrow(new ValidateException("'rangeStart' must be before 'rangeEnd'"))
+                .when(eventService).validateExportRange(any(), any());
+
+        mvc.perform(get("/admin/events/export")
+                        .param("rangeStart", "2030-01-02 00:00:00")
+                        .param("rangeEnd", "2030-01-01 00:00:00")
+                        .param("format", "CSV"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(header().doesNotExist("Content-Disposition"));
+
+        verify(eventService, never()).exportEventsByAdmin(any(), any(), any(), any(), any(), any(), any());
+    }
+}
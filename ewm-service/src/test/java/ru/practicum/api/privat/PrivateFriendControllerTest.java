@@ -12,6 +12,7 @@ import ru.practicum.dto.user.UserDto;
 import ru.practicum.mapper.EventMapper;
 import ru.practicum.model.Event;
 import ru.practicum.service.subs.FriendService;
+import ru.practicum.service.subs.RecommendationService;
 import ru.practicum.utils.TestInitDataUtil;
 
 import java.nio.charset.StandardCharsets;
@@ -20,6 +21,7 @@ import java.util.stream.Collectors;
 
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -28,6 +30,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 class PrivateFriendControllerTest {
     @MockBean
     private FriendService service;
+    @MockBean
+    private RecommendationService recommendationService;
     @Autowired
     private MockMvc mvc;
     private UserDto userDto;
@@ -91,4 +95,18 @@ class PrivateFriendControllerTest {
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getRecommendations() throws Exception {
+        when(recommendationService.getRecommendations(anyLong(), anyInt(), anyInt())).thenReturn(eventShortDtoList);
+
+        mvc.perform(get("/users/{userId}/friends/recommendations", 1)
+                        .param("from", "0")
+                        .param("size", "5")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        verify(recommendationService).getRecommendations(1L, 0, 5);
+    }
+}
@@ -0,0 +1,161 @@
+package ru.practicum.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplicaRoutingDataSourceTest {
+    private static final String NODE_QUERY = "SELECT name FROM node";
+    private static final String LAG_QUERY = "SELECT lag_ms FROM replica_lag";
+    private static final long PIN_MS = 6000;
+
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replica;
+    private ReplicaLagMonitor lagMonitor;
+    private final AtomicLong time = new AtomicLong();
+    private ReplicaSessionPinning sessionPinning;
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+    private TransactionTemplate readOnlyTransaction;
+    private TransactionTemplate transaction;
+
+    @BeforeEach
+    void setUp() {
+        primary = createDatabase("primary");
+        replica = createDatabase("replica");
+        new JdbcTemplate(replica).execute("CREATE TABLE replica_lag (lag_ms BIGINT)");
+        setReplicaLag(0);
+
+        lagMonitor = new ReplicaLagMonitor(replica, LAG_QUERY, 1000);
+        lagMonitor.check();
+        sessionPinning = new ReplicaSessionPinning(PIN_MS, time::get);
+        final DataSource dataSource = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, replica, lagMonitor, sessionPinning));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        transaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        primary.shutdown();
+        replica.shutdown();
+    }
+
+    @Test
+    void readOnlyTransaction_routesToReplica() {
+        assertTrue(lagMonitor.isAvailable());
+        assertEquals("replica", readOnlyTransaction.execute(status -> getNode()));
+    }
+
+    @Test
+    void transaction_routesToPrimary() {
+        assertEquals("primary", transaction.execute(status -> getNode()));
+    }
+
+    @Test
+    void withoutTransaction_routesToPrimary() {
+        assertEquals("primary", getNode());
+    }
+
+    @Test
+    void readOnlyTransaction_routesToPrimary_whenReplicaLags() {
+        setReplicaLag(5000);
+        lagMonitor.check();
+
+        assertFalse(lagMonitor.isAvailable());
+        assertEquals("primary", readOnlyTransaction.execute(status -> getNode()));
+
+        setReplicaLag(200);
+        lagMonitor.check();
+
+        assertEquals("replica", readOnlyTransaction.execute(status -> getNode()));
+    }
+
+    @Test
+    void readOnlyTransaction_routesToPrimary_whenReplicaUnavailable() {
+        replica.shutdown();
+        lagMonitor.check();
+
+        assertFalse(lagMonitor.isAvailable());
+        assertEquals("primary", readOnlyTransaction.execute(status -> getNode()));
+    }
+
+    @Test
+    void readOnlyTransaction_routesToPrimary_afterWriteInSession() {
+        final MockHttpServletRequest write = request("PATCH", "1");
+        assertEquals("primary", inRequest(write));
+
+        assertEquals("primary", inRequest(request("GET", "1")));
+        assertEquals("replica", inRequest(request("GET", "2")));
+
+        time.set(PIN_MS);
+        sessionPinning.evictExpired();
+        assertEquals("replica", inRequest(request("GET", "1")));
+    }
+
+    @Test
+    void primaryReader_insideReadOnlyTransaction_routesToPrimary() {
+        final PrimaryReader primaryReader = new PrimaryReader(transactionManager, "jdbc:h2:mem:replica");
+
+        assertEquals("primary", readOnlyTransaction.execute(status -> primaryReader.read(this::getNode)));
+        assertEquals("replica", readOnlyTransaction.execute(status -> getNode()));
+    }
+
+    private String inRequest(MockHttpServletRequest request) {
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        sessionPinning.preHandle(request, response, null);
+        try {
+            return readOnlyTransaction.execute(status -> getNode());
+        } finally {
+            sessionPinning.afterCompletion(request, response, null, null);
+        }
+    }
+
+    private static MockHttpServletRequest request(String method, String userId) {
+        final MockHttpServletRequest request = new MockHttpServletRequest(method, "/users/" + userId + "/events");
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("userId", userId));
+        return request;
+    }
+
+    private String getNode() {
+        return jdbcTemplate.queryForObject(NODE_QUERY, String.class);
+    }
+
+    private void setReplicaLag(long lagMs) {
+        final JdbcTemplate replicaTemplate = new JdbcTemplate(replica);
+        replicaTemplate.update("DELETE FROM replica_lag");
+        replicaTemplate.update("INSERT INTO replica_lag (lag_ms) VALUES (?)", lagMs);
+    }
+
+    private static EmbeddedDatabase createDatabase(String name) {
+        final EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        final JdbcTemplate template = new JdbcTemplate(database);
+        template.execute("CREATE TABLE node (name VARCHAR(16))");
+        template.update("INSERT INTO node (name) VALUES (?)", name);
+        return database;
+    }
+}
@@ -11,6 +11,8 @@ import ru.practicum.model.Event;
 import ru.practicum.model.User;
 
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -42,21 +44,22 @@ class CompilationRepositoryTest {
         categoryList = getCategoryList(categoryRepository);
         eventList = getEventList(eventRepository, locationRepository, categoryList, userList);
 
-        repository.save(Compilation.builder()
-                .title("Compilation1")
-                .events(eventList)
-                .pinned(true)
-                .build());
-        repository.save(Compilation.builder()
-                .title("Compilation2")
-                .events(eventList)
-                .pinned(false)
-                .build());
-        repository.save(Compilation.builder()
-                .title("Compilation3")
-                .events(eventList)
-                .pinned(true)
-                .build());
+        compilations = List.of(
+                repository.save(Compilation.builder()
+                        .title("Compilation1")
+                        .events(eventList)
+                        .pinned(true)
+                        .build()),
+                repository.save(Compilation.builder()
+                        .title("Compilation2")
+                        .events(eventList.subList(0, 1))
+                        .pinned(false)
+                        .build()),
+                repository.save(Compilation.builder()
+                        .title("Compilation3")
+                        .events(List.of())
+                        .pinned(true)
+                        .build()));
     }
 
     @Test
@@ -77,4 +80,23 @@ class CompilationRepositoryTest {
         assertEquals(1, actualList.size());
         assertEquals("Compilation2", actualList.get(0).getTitle());
     }
-}
\ No newline at end of file
+
+    @Test
+    void findEventIds() {
+        final List<Long> compIds = compilations.stream().map(Compilation::getId).collect(Collectors.toList());
+        final List<Long> eventIds = eventList.stream().map(Event::getId).sorted().collect(Collectors.toList());
+
+        final Map<Long, List<Long>> actual = repository.findEventIds(compIds);
+
+        assertEquals(Map.of(compIds.get(0), eventIds, compIds.get(1), eventIds.subList(0, 1)), actual);
+    }
+
+    @Test
+    void findIdsByEventId() {
+        final List<Long> actualFirst = repository.findIdsByEventId(eventList.get(0).getId());
+        final List<Long> actualLast = repository.findIdsByEventId(eventList.get(eventList.size() - 1).getId());
+
+        assertEquals(2, actualFirst.size());
+        assertEquals(List.of(compilations.get(0).getId()), actualLast);
+    }
+}
@@ -0,0 +1,115 @@
+package ru.practicum.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.practicum.enums.EventState;
+import ru.practicum.mapper.EventMapper;
+import ru.practicum.model.Event;
+import ru.practicum.model.User;
+import ru.practicum.utils.OffsetPageRequest;
+import ru.practicum.utils.SqlStatementCounter;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static ru.practicum.model.QEvent.event;
+import static ru.practicum.utils.TestInitDataUtil.getCategoryList;
+import static ru.practicum.utils.TestInitDataUtil.getEventList;
+import static ru.practicum.utils.TestInitDataUtil.getUserList;
+
+/**
+ * Количество запросов на страницу событий вместе с преобразованием EventMapper:
+ * категория, инициатор и локация не должны догружаться по одной на событие
+ */
+@DataJpaTest
+class EventRepositoryStatementCountTest {
+    @Autowired
+    private EventRepository repository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private LocationRepository locationRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+    private SqlStatementCounter counter;
+    private List<Event> eventList;
+    private List<User> userList;
+
+    @BeforeEach
+    void setUp() {
+        userList = getUserList(userRepository);
+        eventList = getEventList(repository, locationRepository, getCategoryList(categoryRepository), userList);
+        entityManager.flush();
+        entityManager.clear();
+        counter = new SqlStatementCounter(entityManager.getEntityManager());
+    }
+
+    /** GET /admin/events без фильтров: страница и количество */
+    @Test
+    void findAll_page() {
+        final long statements = counter.count(() -> toFullDto(
+                repository.findAll(OffsetPageRequest.of(0, 10)).getContent()));
+        assertEquals(1, statements);
+    }
+
+    /** GET /admin/events, GET /events: страница и запрос количества без соединений */
+    @Test
+    void findAll_predicatePage() {
+        final long statements = counter.count(() -> toFullDto(
+                repository.findAll(event.state.eq(EventState.PENDING), OffsetPageRequest.of(1, 1)).getContent()));
+        assertEquals(2, statements);
+    }
+
+    /** GET /users/{userId}/events */
+    @Test
+    void findAllByInitiatorId() {
+        final long userId = userList.get(0).getId();
+        final long statements = counter.count(() -> toFullDto(
+                repository.findAllByInitiatorId(userId, OffsetPageRequest.of(0, 10)).getContent()));
+        assertEquals(1, statements);
+    }
+
+    /** GET /events и GET /admin/events с курсором */
+    @Test
+    void findAllWithLimit() {
+        final long statements = counter.count(() -> toFullDto(
+                repository.findAllWithLimit(null, 10, event.id.asc())));
+        assertEquals(1, statements);
+    }
+
+    /** GET /events с текстом, подборки */
+    @Test
+    void findAllById() {
+        final List<Long> ids = eventList.stream().map(Event::getId).collect(Collectors.toList());
+        final long statements = counter.count(() -> toFullDto(repository.findAllById(ids)));
+        assertEquals(1, statements);
+    }
+
+    /** GET /events/{id} */
+    @Test
+    void findByIdAndState() {
+        final long eventId = eventList.get(0).getId();
+        final long statements = counter.count(() -> EventMapper.toFullDto(
+                repository.findByIdAndState(eventId, EventState.PENDING).orElseThrow()));
+        assertEquals(1, statements);
+    }
+
+    /** GET /users/{userId}/events/{eventId} */
+    @Test
+    void findByIdAndInitiatorId() {
+        final Event expected = eventList.get(1);
+        final long statements = counter.count(() -> EventMapper.toFullDto(
+                repository.findByIdAndInitiatorId(expected.getId(), expected.getInitiator().getId()).orElseThrow()));
+        assertEquals(1, statements);
+    }
+
+    private static void toFullDto(List<Event> events) {
+        assertEquals(events.size(), events.stream().map(EventMapper::toFullDto).collect(Collectors.toList()).size());
+    }
+}
@@ -6,13 +6,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import ru.practicum.dto.event.EventShortDto;
 import ru.practicum.enums.EventState;
+import ru.practicum.filter.EventPredicate;
 import ru.practicum.model.Category;
 import ru.practicum.model.Event;
+import ru.practicum.model.EventViews;
 import ru.practicum.model.User;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -32,6 +37,8 @@ class EventRepositoryTest {
     private CategoryRepository categoryRepository;
     @Autowired
     private LocationRepository locationRepository;
+    @Autowired
+    private EventViewsRepository eventViewsRepository;
     private List<Event> eventList;
     private List<User> userList;
     private List<Category> categoryList;
@@ -82,4 +89,48 @@ class EventRepositoryTest {
         final Optional<Event> eventOptional = repository.findByIdAndState(id, EventState.PENDING);
         assertEquals(event, eventOptional.get());
     }
-}
\ No newline at end of file
+
+    @Test
+    void forEachWithDetails() {
+        final List<String> exported = new ArrayList<>();
+        final long count = repository.forEachWithDetails(null, 1, event ->
+                exported.add(event.getId() + ":" + event.getCategory().getName() + ":" + event.getInitiator().getName()));
+
+        final List<String> expected = eventList.stream()
+                .sorted((e1, e2) -> Long.compare(e1.getId(), e2.getId()))
+                .map(event -> event.getId() + ":" + event.getCategory().getName() + ":" + event.getInitiator().getName())
+                .collect(Collectors.toList());
+        assertEquals(expected.size(), count);
+        assertEquals(expected, exported);
+    }
+
+    @Test
+    void forEachWithDetails_withPredicate() {
+        final Event event = eventList.get(0);
+        final List<Long> exported = new ArrayList<>();
+        final long count = repository.forEachWithDetails(EventPredicate.getIdIn(List.of(event.getId())), 10,
+                found -> exported.add(found.getId()));
+
+        assertEquals(1, count);
+        assertEquals(List.of(event.getId()), exported);
+    }
+
+    @Test
+    void findShortOrderByViews_withoutViewsLast() {
+        final Event first = eventList.get(2);
+        final Event second = eventList.get(0);
+        eventViewsRepository.save(EventViews.builder().eventId(first.getId()).views(10L).build());
+        eventViewsRepository.save(EventViews.builder().eventId(second.getId()).views(3L).build());
+
+        final List<Long> ids = repository.findShortOrderByViews(null, 0, 10).stream()
+                .map(EventShortDto::getId)
+                .collect(Collectors.toList());
+
+        assertEquals(List.of(first.getId(), second.getId(), eventList.get(1).getId()), ids);
+    }
+
+    @Test
+    void findIdsWithLimit_emptyIdIn() {
+        assertTrue(repository.findIdsWithLimit(EventPredicate.getIdIn(List.of()), 10).isEmpty());
+    }
+}
@@ -0,0 +1,160 @@
+package ru.practicum.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.enums.EventState;
+import ru.practicum.enums.FriendFeedType;
+import ru.practicum.enums.FriendshipState;
+import ru.practicum.enums.RequestStatus;
+import ru.practicum.model.Category;
+import ru.practicum.model.Event;
+import ru.practicum.model.FriendFeedItem;
+import ru.practicum.model.Friendship;
+import ru.practicum.model.Request;
+import ru.practicum.model.User;
+import ru.practicum.utils.TestInitDataUtil;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+class FriendFeedRepositoryTest {
+    @Autowired
+    private FriendFeedRepository repository;
+    @Autowired
+    private FriendshipRepository friendshipRepository;
+    @Autowired
+    private RequestRepository requestRepository;
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private LocationRepository locationRepository;
+    private List<User> users;
+    private List<Event> events;
+    private Friendship friendship;
+    private LocalDateTime eventDate;
+
+    @BeforeEach
+    void beforeEach() {
+        users = TestInitDataUtil.getUserList(userRepository);
+        final List<Category> categories = TestInitDataUtil.getCategoryList(categoryRepository);
+        events = TestInitDataUtil.getEventList(eventRepository, locationRepository, categories, users);
+        eventDate = LocalDateTime.now().plusDays(1).withNano(0);
+        events.forEach(event -> {
+            event.setState(EventState.PUBLISHED);
+            event.setEventDate(eventDate);
+        });
+        eventRepository.saveAll(events);
+        // users[0] подписан на users[1]
+        friendship = friendshipRepository.save(Friendship.builder()
+                .follower(users.get(0))
+                .friend(users.get(1))
+                .state(FriendshipState.APPROVED)
+                .createdOn(LocalDateTime.now())
+                .build());
+    }
+
+    @Test
+    void insertEvent_toApprovedFollowersOnce() {
+        final long eventId = events.get(1).getId();
+
+        assertEquals(1, repository.insertEvent(eventId));
+        assertEquals(0, repository.insertEvent(eventId));
+        assertEquals(0, repository.insertEvent(events.get(2).getId()));
+
+        assertEquals(List.of(item(FriendFeedType.EVENT, events.get(1), users.get(1))), repository.findAll());
+    }
+
+    @Test
+    void insertEvent_notPublished() {
+        final Event event = events.get(1);
+        event.setState(EventState.PENDING);
+        eventRepository.save(event);
+
+        assertEquals(0, repository.insertEvent(event.getId()));
+    }
+
+    @Test
+    void insertParticipations_onlyConfirmedPublic() {
+        final Request confirmed = addRequest(users.get(1), events.get(2), RequestStatus.CONFIRMED, false);
+        final Request hidden = addRequest(users.get(1), events.get(0), RequestStatus.CONFIRMED, true);
+        final Request pending = addRequest(users.get(2), events.get(0), RequestStatus.PENDING, false);
+
+        assertEquals(1, repository.insertParticipations(List.of(confirmed.getId(), hidden.getId(), pending.getId())));
+        assertEquals(List.of(item(FriendFeedType.PARTICIPATION, events.get(2), users.get(1))), repository.findAll());
+
+        assertEquals(1, repository.deleteParticipations(List.of(confirmed.getId())));
+        assertTrue(repository.findAll().isEmpty());
+    }
+
+    @Test
+    void insertFriendEventsAndParticipations_onlyFutureEvents() {
+        final Event past = events.get(1);
+        past.setEventDate(LocalDateTime.now().plusHours(1));
+        eventRepository.save(past);
+        addRequest(users.get(1), events.get(2), RequestStatus.CONFIRMED, false);
+        final List<Long> ids = List.of(friendship.getId());
+        final LocalDateTime after = LocalDateTime.now().plusHours(2);
+
+        assertEquals(0, repository.insertFriendEvents(ids, after));
+        assertEquals(1, repository.insertFriendParticipations(ids, after));
+        assertEquals(0, repository.insertFriendParticipations(ids, after));
+
+        assertEquals(1, repository.deleteFriendships(ids));
+        assertTrue(repository.findAll().isEmpty());
+    }
+
+    @Test
+    void updateEventDateAndPrune() {
+        final long eventId = events.get(1).getId();
+        repository.insertEvent(eventId);
+
+        assertEquals(1, repository.updateEventDate(eventId, eventDate.plusDays(1)));
+        assertEquals(0, repository.deleteByEventDateBefore(eventDate.plusHours(1)));
+        assertEquals(1, repository.deleteByEventDateBefore(eventDate.plusDays(1)));
+    }
+
+    @Test
+    void findByFollowers_soonestEventsFirst() {
+        events.get(2).setEventDate(eventDate.plusHours(1));
+        eventRepository.save(events.get(2));
+        addRequest(users.get(1), events.get(0), RequestStatus.CONFIRMED, false);
+        addRequest(users.get(1), events.get(2), RequestStatus.CONFIRMED, false);
+        repository.insertFriendParticipations(List.of(friendship.getId()), eventDate.minusHours(1));
+
+        final List<FriendFeedItem> items = repository.findByFollowers(FriendFeedType.PARTICIPATION,
+                List.of(users.get(0).getId()), eventDate.minusHours(1), PageRequest.of(0, 1));
+
+        assertEquals(List.of(item(FriendFeedType.PARTICIPATION, events.get(0), users.get(1))), items);
+    }
+
+    private Request addRequest(User requester, Event event, RequestStatus status, boolean isPrivate) {
+        return requestRepository.save(Request.builder()
+                .requester(requester)
+                .event(event)
+                .created(LocalDateTime.now())
+                .status(status)
+                .isPrivate(isPrivate)
+                .build());
+    }
+
+    private FriendFeedItem item(FriendFeedType type, Event event, User friend) {
+        return FriendFeedItem.builder()
+                .followerId(users.get(0).getId())
+                .type(type)
+                .eventId(event.getId())
+                .friendId(friend.getId())
+                .eventDate(eventDate)
+                .build();
+    }
+}
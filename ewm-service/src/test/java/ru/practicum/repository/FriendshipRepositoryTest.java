@@ -0,0 +1,70 @@
+package ru.practicum.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.enums.FriendshipState;
+import ru.practicum.model.Friendship;
+import ru.practicum.model.User;
+import ru.practicum.utils.TestInitDataUtil;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static ru.practicum.enums.FriendshipState.APPROVED;
+import static ru.practicum.enums.FriendshipState.PENDING;
+
+@DataJpaTest
+class FriendshipRepositoryTest {
+    @Autowired
+    private FriendshipRepository repository;
+    @Autowired
+    private UserRepository userRepository;
+    private List<User> users;
+    private List<Friendship> friendships;
+
+    @BeforeEach
+    void beforeEach() {
+        users = TestInitDataUtil.getUserList(userRepository);
+        friendships = List.of(
+                addFriendship(users.get(0), users.get(1), APPROVED),
+                addFriendship(users.get(1), users.get(2), PENDING),
+                addFriendship(users.get(2), users.get(0), APPROVED));
+    }
+
+    @Test
+    void findEdges_approvedAfterId() {
+        final List<FriendshipRepository.Edge> edges = repository.findEdges(APPROVED, 0, PageRequest.of(0, 10));
+
+        assertEquals(2, edges.size());
+        assertEquals(friendships.get(0).getId(), edges.get(0).getId());
+        assertEquals(users.get(0).getId(), edges.get(0).getFollowerId());
+        assertEquals(users.get(1).getId(), edges.get(0).getFriendId());
+        assertEquals(friendships.get(2).getId(), edges.get(1).getId());
+
+        final List<FriendshipRepository.Edge> next = repository.findEdges(APPROVED, edges.get(0).getId(),
+                PageRequest.of(0, 1));
+        assertEquals(1, next.size());
+        assertEquals(users.get(2).getId(), next.get(0).getFollowerId());
+    }
+
+    @Test
+    void findFriendIdsAndFollowerIds_approvedOnly() {
+        assertEquals(List.of(users.get(1).getId()), repository.findFriendIds(users.get(0).getId(), APPROVED));
+        assertEquals(List.of(), repository.findFriendIds(users.get(1).getId(), APPROVED));
+        assertEquals(List.of(users.get(2).getId()), repository.findFollowerIds(users.get(0).getId(), APPROVED));
+        assertEquals(List.of(), repository.findFollowerIds(users.get(2).getId(), APPROVED));
+    }
+
+    private Friendship addFriendship(User follower, User friend, FriendshipState state) {
+        return repository.save(Friendship.builder()
+                .follower(follower)
+                .friend(friend)
+                .state(state)
+                .createdOn(LocalDateTime.now())
+                .build());
+    }
+}
@@ -0,0 +1,75 @@
+package ru.practicum.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Миграции на базе с данными, записанными до их появления
+ */
+class MigrationTest {
+
+    @Test
+    void queryIndexes_duplicateRequests_keepOnePerRequesterAndRecountSeats() {
+        final DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:migration;DB_CLOSE_DELAY=-1", "test", "test");
+        final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        migrate(dataSource, "1");
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (1, 'John', 'john@mail.com'), "
+                + "(2, 'Jane', 'jane@mail.com')");
+        jdbcTemplate.update("INSERT INTO events (id, initiator_id, state, created_on, event_date, confirmed_requests) "
+                + "VALUES (1, 1, 'PUBLISHED', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 2)");
+        jdbcTemplate.update("INSERT INTO requests (id, status, event_id, requester_id, created) VALUES "
+                + "(1, 'PENDING', 1, 1, CURRENT_TIMESTAMP), "
+                + "(2, 'CONFIRMED', 1, 1, CURRENT_TIMESTAMP), "
+                + "(3, 'CONFIRMED', 1, 1, CURRENT_TIMESTAMP), "
+                + "(4, 'REJECTED', 1, 2, CURRENT_TIMESTAMP), "
+                + "(5, 'PENDING', 1, 2, CURRENT_TIMESTAMP)");
+
+        migrate(dataSource, "2");
+
+        final List<Map<String, Object>> requests = jdbcTemplate.queryForList(
+                "SELECT id, status FROM requests ORDER BY id");
+        assertEquals(List.of(Map.of("ID", 2L, "STATUS", "CONFIRMED"), Map.of("ID", 5L, "STATUS", "PENDING")),
+                requests);
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT confirmed_requests FROM events WHERE id = 1",
+                Integer.class));
+    }
+
+    @Test
+    void existingSchema_baselined_createLaterTables() {
+        final DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:baseline;DB_CLOSE_DELAY=-1", "test", "test");
+        final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        // база, созданная прежним schema.sql, без истории Flyway; V1 - его копия
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/common/V1__init_schema.sql"))
+                .execute(dataSource);
+
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common")
+                .baselineOnMigrate(true)
+                .load()
+                .migrate();
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM event_views", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM friend_feed", Integer.class));
+    }
+
+    private static void migrate(DriverManagerDataSource dataSource, String target) {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common")
+                .target(target)
+                .load()
+                .migrate();
+    }
+}
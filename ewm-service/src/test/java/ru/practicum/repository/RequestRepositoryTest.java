@@ -4,6 +4,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import ru.practicum.dto.request.ParticipationRequestDto;
 import ru.practicum.enums.RequestStatus;
 import ru.practicum.model.Category;
 import ru.practicum.utils.TestInitDataUtil;
@@ -14,6 +15,7 @@ import ru.practicum.model.User;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -66,6 +68,51 @@ class RequestRepositoryTest {
         assertEquals(List.of(requestList.get(1)), actualRequests);
     }
 
+    @Test
+    void findEventIdsByRequesterIdAndStatus_onlyLaterEvents() {
+        final long userId = users.get(1).getId();
+        final Event event = events.get(0);
+
+        assertEquals(List.of(event.getId()), repository.findEventIdsByRequesterIdAndStatus(userId,
+                RequestStatus.CONFIRMED, event.getEventDate().minusDays(1)));
+        assertEquals(List.of(), repository.findEventIdsByRequesterIdAndStatus(userId,
+                RequestStatus.CONFIRMED, event.getEventDate().plusSeconds(1)));
+        assertEquals(List.of(), repository.findEventIdsByRequesterIdAndStatus(userId,
+                RequestStatus.PENDING, event.getEventDate().minusDays(1)));
+    }
+
+    @Test
+    void updateStatus_onlyPendingRequestsOfEvent() {
+        final Long id1 = requestList.get(0).getId();
+        final Long id2 = requestList.get(1).getId();
+        final Long id3 = requestList.get(2).getId();
+        final long eventId = events.get(1).getId();
+
+        final int updated = repository.updateStatus(List.of(id1, id2, id3), eventId,
+                RequestStatus.PENDING, RequestStatus.REJECTED);
+        assertEquals(1, updated);
+
+        final List<ParticipationRequestDto> actualRequests = repository.findDtoByIdIn(List.of(id3, id2, id1));
+        assertEquals(List.of(id1, id2, id3), actualRequests.stream()
+                .map(ParticipationRequestDto::getId)
+                .collect(Collectors.toList()));
+        assertEquals(List.of(RequestStatus.REJECTED, RequestStatus.CONFIRMED, RequestStatus.PENDING),
+                actualRequests.stream()
+                        .map(ParticipationRequestDto::getStatus)
+                        .collect(Collectors.toList()));
+        assertEquals(eventId, actualRequests.get(0).getEvent());
+    }
+
+    @Test
+    void countByIdInAndEventIdAndStatus() {
+        final Long id1 = requestList.get(0).getId();
+        final Long id3 = requestList.get(2).getId();
+        final long eventId = events.get(1).getId();
+
+        assertEquals(1, repository.countByIdInAndEventIdAndStatus(List.of(id1, id3), eventId, RequestStatus.PENDING));
+        assertEquals(0, repository.countByIdInAndEventIdAndStatus(List.of(id1), eventId, RequestStatus.CONFIRMED));
+    }
+
     @Test
     void findAllByInitiatorIdAndEventId() {
         final Long userId = users.get(1).getId();
@@ -0,0 +1,88 @@
+package ru.practicum.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверка по плану запроса (EXPLAIN), что горячие запросы репозиториев используют индексы миграций
+ */
+@DataJpaTest
+class SchemaIndexTest {
+    private static final String TABLE_SCAN = "tableScan";
+
+    @Autowired
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void beforeEach() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void publishedEventsByEventDate_useStateEventDateIndex() {
+        final String plan = explain("SELECT id FROM events WHERE state = 'PUBLISHED' " +
+                "AND event_date > TIMESTAMP '2023-01-01 00:00:00' ORDER BY event_date, id");
+        assertUsesIndex(plan, "ix_events_state_event_date");
+    }
+
+    @Test
+    void existsByEventIdAndRequesterId_useUniqueIndex() {
+        final String plan = explain("SELECT id FROM requests WHERE event_id = 1 AND requester_id = 2");
+        assertUsesIndex(plan, "ux_requests_event_requester");
+    }
+
+    @Test
+    void friendshipByFollowerAndFriend_useIndex() {
+        final String plan = explain("SELECT id FROM friendship WHERE follower_id = 1 AND friend_id = 2");
+        assertUsesIndex(plan, "ix_friendship_follower_friend");
+    }
+
+    @Test
+    void findAllByInitiatorId_withoutTableScan() {
+        assertNoTableScan(explain("SELECT id FROM events WHERE initiator_id = 1 ORDER BY id"));
+    }
+
+    @Test
+    void existsByCategoryId_withoutTableScan() {
+        assertNoTableScan(explain("SELECT id FROM events WHERE category_id = 1"));
+    }
+
+    @Test
+    void findAllByRequesterId_withoutTableScan() {
+        assertNoTableScan(explain("SELECT id FROM requests WHERE requester_id = 1 AND status = 'CONFIRMED'"));
+    }
+
+    @Test
+    void friendFeedPage_useFollowerDateIndex() {
+        final String plan = explain("SELECT DISTINCT event_id, event_date FROM friend_feed " +
+                "WHERE follower_id = 1 AND item_type = 'EVENT' " +
+                "AND event_date > TIMESTAMP '2023-01-01 00:00:00' ORDER BY event_date, event_id");
+        assertUsesIndex(plan, "ix_friend_feed_follower_date");
+    }
+
+    @Test
+    void compilationsByEvent_withoutTableScan() {
+        assertNoTableScan(explain("SELECT compilation_id FROM compilation_events WHERE event_id = 1"));
+    }
+
+    private String explain(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+    }
+
+    private static void assertUsesIndex(String plan, String index) {
+        assertTrue(plan.toLowerCase().contains(index), plan);
+    }
+
+    private static void assertNoTableScan(String plan) {
+        assertFalse(plan.contains(TABLE_SCAN), plan);
+    }
+}
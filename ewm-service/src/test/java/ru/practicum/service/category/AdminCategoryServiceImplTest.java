@@ -37,6 +37,8 @@ class AdminCategoryServiceImplTest {
     private CategoryRepository repository;
     @Mock
     private EventRepository eventRepository;
+    @Mock
+    private CategoryCache categoryCache;
     @InjectMocks
     private CategoryServiceImpl categoryService;
     private NewCategoryDto body;
@@ -62,6 +64,7 @@ class AdminCategoryServiceImplTest {
 
         final CategoryDto actualNewUser = categoryService.saveCategory(body);
         assertEquals(dto, actualNewUser);
+        verify(categoryCache, times(1)).invalidate();
     }
 
     @Test
@@ -72,6 +75,7 @@ class AdminCategoryServiceImplTest {
                 assertThrows(ConflictException.class, () -> categoryService.saveCategory(body));
 
         assertEquals("Category with name='Category' already exists", asserted.getMessage());
+        verify(categoryCache, never()).invalidate();
     }
 
     @Test
@@ -85,6 +89,7 @@ class AdminCategoryServiceImplTest {
         verify(repository, times(1)).deleteById(catId);
         verify(repository, times(1)).existsById(catId);
         verify(eventRepository, times(1)).existsByCategoryId(catId);
+        verify(categoryCache, times(1)).invalidate();
     }
 
     @Test
@@ -119,15 +124,16 @@ class AdminCategoryServiceImplTest {
     @Test
     void updateCategory() {
         when(repository.existsByIdNotAndName(anyLong(), anyString())).thenReturn(false);
-        when(repository.findById(anyLong())).thenReturn(Optional.of(category));
+        when(categoryCache.find(anyLong())).thenReturn(Optional.of(dto));
         when(repository.save(any())).thenReturn(newCategory);
 
         final CategoryDto actualCategory = categoryService.updateCategory(newCategoryDto, catId);
         assertEquals(newCategoryDto, actualCategory);
 
         verify(repository, times(1)).existsByIdNotAndName(catId, "NewCategory");
-        verify(repository, times(1)).findById(catId);
+        verify(categoryCache, times(1)).find(catId);
         verify(repository, times(1)).save(newCategory);
+        verify(categoryCache, times(1)).invalidate();
     }
 
     @Test
@@ -140,14 +146,14 @@ class AdminCategoryServiceImplTest {
                 conflictException.getMessage());
 
         verify(repository, times(1)).existsByIdNotAndName(catId, "NewCategory");
-        verify(repository, never()).findById(catId);
+        verify(categoryCache, never()).find(catId);
         verify(repository, never()).save(newCategory);
     }
 
     @Test
     void updateCategory_whenCategoryNotExist() {
         when(repository.existsByIdNotAndName(anyLong(), anyString())).thenReturn(false);
-        when(repository.findById(anyLong())).thenReturn(Optional.empty());
+        when(categoryCache.find(anyLong())).thenReturn(Optional.empty());
 
         final NotFoundException conflictException = assertThrows(NotFoundException.class,
                 () -> categoryService.updateCategory(newCategoryDto, catId));
@@ -155,7 +161,7 @@ class AdminCategoryServiceImplTest {
                 conflictException.getMessage());
 
         verify(repository, times(1)).existsByIdNotAndName(catId, "NewCategory");
-        verify(repository, times(1)).findById(catId);
+        verify(categoryCache, times(1)).find(catId);
         verify(repository, never()).save(newCategory);
     }
 }
\ No newline at end of file
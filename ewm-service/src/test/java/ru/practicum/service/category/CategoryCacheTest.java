@@ -0,0 +1,94 @@
+package ru.practicum.service.category;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.config.PrimaryReader;
+import ru.practicum.dto.category.CategoryDto;
+import ru.practicum.model.Category;
+import ru.practicum.repository.CategoryRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CategoryCacheTest {
+    private final CategoryRepository repository = mock(CategoryRepository.class);
+    private final AtomicLong time = new AtomicLong();
+    private CategoryCache categoryCache;
+
+    @BeforeEach
+    void setUp() {
+        when(repository.findAll(any(Sort.class))).thenReturn(List.of(
+                new Category(1L, "Concerts"), new Category(2L, "Films"), new Category(3L, "Theatre")));
+        categoryCache = new CategoryCache(repository, new PrimaryReader(mock(PlatformTransactionManager.class), ""),
+                1000, time::get);
+    }
+
+    @Test
+    void find_LoadSnapshotOnce() {
+        assertEquals(Optional.of(new CategoryDto(1L, "Concerts")), categoryCache.find(1L));
+        assertEquals(Optional.of(new CategoryDto(2L, "Films")), categoryCache.find(2L));
+        assertEquals(3, categoryCache.getAll().size());
+
+        verify(repository, times(1)).findAll(any(Sort.class));
+        verify(repository, never()).findById(any());
+    }
+
+    @Test
+    void find_NotInSnapshot_ReadFromRepository() {
+        when(repository.findById(4L)).thenReturn(Optional.of(new Category(4L, "Lectures")));
+
+        assertEquals(Optional.of(new CategoryDto(4L, "Lectures")), categoryCache.find(4L));
+        assertTrue(categoryCache.find(5L).isEmpty());
+
+        verify(repository, times(1)).findById(4L);
+        verify(repository, times(1)).findById(5L);
+    }
+
+    @Test
+    void getAll_ReloadAfterTtl() {
+        categoryCache.getAll();
+        time.set(999);
+        categoryCache.getAll();
+        verify(repository, times(1)).findAll(any(Sort.class));
+
+        time.set(1000);
+        categoryCache.getAll();
+        verify(repository, times(2)).findAll(any(Sort.class));
+    }
+
+    @Test
+    void invalidate_ReloadOnNextRead() {
+        categoryCache.getAll();
+        categoryCache.invalidate();
+        categoryCache.getAll();
+
+        verify(repository, times(2)).findAll(any(Sort.class));
+    }
+
+    @Test
+    void getAfter() {
+        assertEquals(List.of(new CategoryDto(2L, "Films")), categoryCache.getAfter(1L, 1));
+        assertEquals(List.of(new CategoryDto(2L, "Films"), new CategoryDto(3L, "Theatre")),
+                categoryCache.getAfter(1L, 10));
+        assertTrue(categoryCache.getAfter(3L, 10).isEmpty());
+    }
+
+    @Test
+    void getAll_ReturnCopies() {
+        categoryCache.getAll().get(0).setName("Changed");
+
+        assertEquals(Optional.of(new CategoryDto(1L, "Concerts")), categoryCache.find(1L));
+    }
+}
@@ -5,9 +5,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.dto.category.CategoryDto;
 import ru.practicum.exception.NotFoundException;
 import ru.practicum.model.Category;
-import ru.practicum.repository.CategoryRepository;
 import ru.practicum.utils.Constants;
 
 import java.util.Optional;
@@ -22,7 +22,7 @@ import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 class CategoryServiceImplTest {
     @Mock
-    private CategoryRepository repository;
+    private CategoryCache categoryCache;
     @InjectMocks
     private CategoryServiceImpl categoryService;
     private final long catId = 1L;
@@ -30,22 +30,22 @@ class CategoryServiceImplTest {
     @Test
     void findCategoryById() {
         Category expectedCategory = new Category(catId, "Category");
-        when(repository.findById(anyLong())).thenReturn(Optional.of(expectedCategory));
+        when(categoryCache.find(anyLong())).thenReturn(Optional.of(new CategoryDto(catId, "Category")));
 
         final Category actualCategory = categoryService.findCategoryById(catId);
         assertEquals(expectedCategory, actualCategory);
 
-        verify(repository, times(1)).findById(catId);
+        verify(categoryCache, times(1)).find(catId);
     }
 
     @Test
     void findCategoryById_whenNotExist() {
-        when(repository.findById(anyLong())).thenReturn(Optional.empty());
+        when(categoryCache.find(anyLong())).thenReturn(Optional.empty());
 
         final NotFoundException exception = assertThrows(NotFoundException.class,
                 () -> categoryService.findCategoryById(catId));
         assertEquals(String.format(Constants.CATEGORY_WITH_ID_D_WAS_NOT_FOUND, catId), exception.getMessage());
 
-        verify(repository, times(1)).findById(catId);
+        verify(categoryCache, times(1)).find(catId);
     }
 }
\ No newline at end of file
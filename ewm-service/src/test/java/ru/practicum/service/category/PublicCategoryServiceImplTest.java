@@ -6,14 +6,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
 import ru.practicum.dto.category.CategoryDto;
 import ru.practicum.exception.NotFoundException;
 import ru.practicum.mapper.CategoryMapper;
 import ru.practicum.model.Category;
-import ru.practicum.repository.CategoryRepository;
 import ru.practicum.utils.Constants;
+import ru.practicum.utils.CursorPage;
+import ru.practicum.utils.PageCursor;
 import ru.practicum.utils.TestInitDataUtil;
 
 import java.util.List;
@@ -22,14 +21,13 @@ import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class PublicCategoryServiceImplTest {
     @Mock
-    private CategoryRepository repository;
+    private CategoryCache categoryCache;
     @InjectMocks
     private CategoryServiceImpl categoryService;
     private List<Category> categoryList;
@@ -48,18 +46,38 @@ class PublicCategoryServiceImplTest {
     void getCategories() {
         final int from = 0;
         final int size = 10;
-        when(repository.findAll(any(PageRequest.class))).thenReturn(new PageImpl<>(categoryList));
+        when(categoryCache.getAll()).thenReturn(categoryDtoList);
 
         final List<CategoryDto> actualCategories = categoryService.getCategories(from, size);
 
         assertEquals(categoryDtoList, actualCategories);
     }
 
+    @Test
+    void getCategories_withOffset() {
+        when(categoryCache.getAll()).thenReturn(categoryDtoList);
+
+        final List<CategoryDto> actualCategories = categoryService.getCategories(1, 1);
+
+        assertEquals(categoryDtoList.subList(1, 2), actualCategories);
+    }
+
+    @Test
+    void getCategories_withCursor() {
+        final String cursor = PageCursor.ofId(1L).encode();
+        when(categoryCache.getAfter(1L, categoryList.size())).thenReturn(categoryDtoList);
+
+        final CursorPage<CategoryDto> page = categoryService.getCategories(cursor, categoryList.size() - 1);
+
+        assertEquals(categoryDtoList.subList(0, categoryList.size() - 1), page.getContent());
+        assertEquals(PageCursor.ofId(categoryList.get(categoryList.size() - 2).getId()).encode(),
+                page.getNextCursor());
+    }
+
     @Test
     void getCategory() {
-        final Category category = new Category(1L, "Category");
         final CategoryDto expectedDto = new CategoryDto(1L, "Category");
-        when(repository.findById(anyLong())).thenReturn(Optional.of(category));
+        when(categoryCache.find(anyLong())).thenReturn(Optional.of(expectedDto));
 
         final CategoryDto actualCategory = categoryService.getCategory(catId);
 
@@ -68,7 +86,7 @@ class PublicCategoryServiceImplTest {
 
     @Test
     void getCategory_ThrowException() {
-        when(repository.findById(anyLong())).thenReturn(Optional.empty());
+        when(categoryCache.find(anyLong())).thenReturn(Optional.empty());
 
         final NotFoundException exception = assertThrows(NotFoundException.class,
                 () -> categoryService.getCategory(catId));
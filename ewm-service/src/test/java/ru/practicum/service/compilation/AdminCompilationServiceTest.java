@@ -46,6 +46,8 @@ class AdminCompilationServiceTest {
     private CompilationRepository repository;
     @Mock
     private EventService eventService;
+    @Mock
+    private CompilationCache compilationCache;
     @InjectMocks
     private CompilationServiceImpl compilationService;
 
@@ -100,6 +102,7 @@ class AdminCompilationServiceTest {
 
         verify(eventService, times(1)).findEventsByIds(eventIds);
         verify(repository, times(1)).save(compilation);
+        verify(compilationCache, times(1)).invalidatePages();
     }
 
     @Test
@@ -148,6 +151,7 @@ class AdminCompilationServiceTest {
         verify(repository, times(1)).findById(compId);
         verify(eventService, never()).findEventsByIds(eventIds);
         verify(repository, times(1)).save(compilation);
+        verify(compilationCache, times(1)).invalidate(compId);
     }
 
     @Test
@@ -200,6 +204,7 @@ class AdminCompilationServiceTest {
         verify(repository, times(1)).findById(compId);
         verify(eventService, never()).findEventsByIds(eventIds);
         verify(repository, never()).save(compilation);
+        verify(compilationCache, never()).invalidate(compId);
     }
 
 
@@ -211,6 +216,7 @@ class AdminCompilationServiceTest {
         compilationService.delete(compId);
         verify(repository, times(1)).existsById(compId);
         verify(repository, times(1)).deleteById(compId);
+        verify(compilationCache, times(1)).invalidate(compId);
     }
 
     @Test
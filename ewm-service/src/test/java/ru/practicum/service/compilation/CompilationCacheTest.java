@@ -0,0 +1,130 @@
+package ru.practicum.service.compilation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.config.PrimaryReader;
+import ru.practicum.dto.compilation.CompilationDto;
+import ru.practicum.dto.event.EventShortDto;
+import ru.practicum.repository.CompilationRepository;
+import ru.practicum.utils.TtlCache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CompilationCacheTest {
+    private final CompilationRepository repository = mock(CompilationRepository.class);
+    private final AtomicLong time = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private CompilationCache compilationCache;
+
+    @BeforeEach
+    void setUp() {
+        compilationCache = new CompilationCache(repository,
+                new PrimaryReader(mock(PlatformTransactionManager.class), ""),
+                new TtlCache<>(10, Duration.ofSeconds(60), Duration.ZERO, time::get),
+                new TtlCache<>(10, Duration.ofSeconds(60), Duration.ZERO, time::get));
+    }
+
+    @Test
+    void getPage_LoadOnce() {
+        compilationCache.getPage(true, 0, 10, loader(1L, 10L));
+        final List<CompilationDto> actual = compilationCache.getPage(true, 0, 10, loader(1L, 10L));
+
+        assertEquals(List.of(compilation(1L, 10L)), actual);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void getPage_KeyedByPinnedAndPage() {
+        compilationCache.getPage(true, 0, 10, loader(1L, 10L));
+        compilationCache.getPage(null, 0, 10, loader(1L, 10L));
+        compilationCache.getPage(true, 10, 10, loader(1L, 10L));
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void getPage_ReturnCopies() {
+        compilationCache.getPage(true, 0, 10, loader(1L, 10L)).get(0).getEvents().get(0).setViews(100L);
+
+        final List<CompilationDto> actual = compilationCache.getPage(true, 0, 10, loader(1L, 10L));
+        assertEquals(0L, actual.get(0).getEvents().get(0).getViews());
+    }
+
+    @Test
+    void get_ReloadAfterTtl() {
+        compilationCache.get(1L, () -> compilationLoader(1L, 10L));
+        time.set(Duration.ofSeconds(60).toNanos());
+        compilationCache.get(1L, () -> compilationLoader(1L, 10L));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidate_ResetCompilationAndPages() {
+        compilationCache.get(1L, () -> compilationLoader(1L, 10L));
+        compilationCache.get(2L, () -> compilationLoader(2L, 20L));
+        compilationCache.getPage(true, 0, 10, loader(1L, 10L));
+
+        compilationCache.invalidate(1L);
+        compilationCache.get(1L, () -> compilationLoader(1L, 10L));
+        compilationCache.get(2L, () -> compilationLoader(2L, 20L));
+        compilationCache.getPage(true, 0, 10, loader(1L, 10L));
+
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    void invalidateEvent_ResetCompilationsWithEvent() {
+        when(repository.findIdsByEventId(10L)).thenReturn(List.of(1L));
+        when(repository.findIdsByEventId(30L)).thenReturn(List.of());
+        compilationCache.get(1L, () -> compilationLoader(1L, 10L));
+        compilationCache.get(2L, () -> compilationLoader(2L, 20L));
+
+        compilationCache.invalidateEvent(30L);
+        compilationCache.get(1L, () -> compilationLoader(1L, 10L));
+        assertEquals(2, loads.get());
+
+        compilationCache.invalidateEvent(10L);
+        compilationCache.get(1L, () -> compilationLoader(1L, 10L));
+        compilationCache.get(2L, () -> compilationLoader(2L, 20L));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void getPage_LoadStartedBeforeInvalidate_NotCached() {
+        compilationCache.getPage(true, 0, 10, () -> {
+            compilationCache.invalidatePages();
+            return loader(1L, 10L).get();
+        });
+        compilationCache.getPage(true, 0, 10, loader(1L, 10L));
+
+        assertEquals(2, loads.get());
+    }
+
+    private Supplier<List<CompilationDto>> loader(long compId, long eventId) {
+        return () -> List.of(compilationLoader(compId, eventId));
+    }
+
+    private CompilationDto compilationLoader(long compId, long eventId) {
+        loads.incrementAndGet();
+        return compilation(compId, eventId);
+    }
+
+    private static CompilationDto compilation(long compId, long eventId) {
+        return CompilationDto.builder()
+                .id(compId)
+                .title("Compilation" + compId)
+                .pinned(true)
+                .events(List.of(EventShortDto.builder().id(eventId).title("Event" + eventId).views(0L).build()))
+                .build();
+    }
+}
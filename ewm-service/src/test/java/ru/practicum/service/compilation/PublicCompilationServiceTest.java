@@ -10,29 +10,43 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import ru.practicum.dto.compilation.CompilationDto;
 import ru.practicum.dto.compilation.NewCompilationDto;
+import ru.practicum.dto.event.EventShortDto;
 import ru.practicum.exception.NotFoundException;
 import ru.practicum.mapper.CompilationMapper;
+import ru.practicum.mapper.EventMapper;
 import ru.practicum.model.Compilation;
 import ru.practicum.model.Event;
 import ru.practicum.repository.CompilationRepository;
+import ru.practicum.service.event.EventService;
 import ru.practicum.utils.Constants;
 import ru.practicum.utils.TestInitDataUtil;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class PublicCompilationServiceTest {
     @Mock
     private CompilationRepository repository;
+    @Mock
+    private EventService eventService;
+    @Mock
+    private CompilationCache compilationCache;
     @InjectMocks
     private CompilationServiceImpl service;
     private final long compId = 1L;
@@ -51,18 +65,37 @@ class PublicCompilationServiceTest {
         body = NewCompilationDto.builder().title("Compilation").pinned(true).events(eventIds).build();
 
         compilation = CompilationMapper.fromDto(body, eventList);
+        compilation.setId(compId);
     }
 
     @Test
     void getCompilation() {
+        whenCacheMissLoad();
         when(repository.findById(anyLong())).thenReturn(Optional.of(compilation));
+        whenLoadEvents();
 
         final CompilationDto actualCompilation = service.getCompilation(compId);
         assertEquals(CompilationMapper.toDto(compilation), actualCompilation);
+
+        verify(repository, times(1)).findEventIds(List.of(compId));
+        verify(eventService, times(1)).withViews(actualCompilation.getEvents());
+    }
+
+    @Test
+    void getCompilation_fromCache() {
+        final CompilationDto cached = CompilationMapper.toDto(compilation);
+        when(compilationCache.get(anyLong(), any())).thenReturn(cached);
+
+        final CompilationDto actualCompilation = service.getCompilation(compId);
+        assertEquals(cached, actualCompilation);
+
+        verify(repository, never()).findById(anyLong());
+        verify(eventService, times(1)).withViews(cached.getEvents());
     }
 
     @Test
     void getCompilation_NotExpected() {
+        whenCacheMissLoad();
         when(repository.findById(anyLong())).thenReturn(Optional.empty());
 
         final NotFoundException exception = assertThrows(NotFoundException.class,
@@ -76,8 +109,10 @@ class PublicCompilationServiceTest {
         final List<Compilation> compilations = List.of(compilation);
         final List<CompilationDto> expectedList = compilations.stream()
                 .map(CompilationMapper::toDto).collect(Collectors.toList());
+        whenPageMissLoad();
         when(repository.findAllByPinned(anyBoolean(), any(PageRequest.class)))
                 .thenReturn(new PageImpl<>(compilations));
+        whenLoadEvents();
 
         final List<CompilationDto> actualList = service.getCompilations(true, from, size);
         assertEquals(expectedList, actualList);
@@ -88,9 +123,39 @@ class PublicCompilationServiceTest {
         final List<Compilation> compilations = List.of(compilation);
         final List<CompilationDto> expectedList = compilations.stream()
                 .map(CompilationMapper::toDto).collect(Collectors.toList());
+        whenPageMissLoad();
         when(repository.findAll(any(PageRequest.class))).thenReturn(new PageImpl<>(compilations));
+        whenLoadEvents();
 
         final List<CompilationDto> actualList = service.getCompilations(null, from, size);
         assertEquals(expectedList, actualList);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getCompilations_fromCache() {
+        final List<CompilationDto> cached = List.of(CompilationMapper.toDto(compilation));
+        when(compilationCache.getPage(isNull(), anyInt(), anyInt(), any())).thenReturn(cached);
+
+        final List<CompilationDto> actualList = service.getCompilations(null, from, size);
+        assertEquals(cached, actualList);
+
+        verify(repository, never()).findAll(any(PageRequest.class));
+        verify(eventService, times(1)).withViews(cached.get(0).getEvents());
+    }
+
+    private void whenCacheMissLoad() {
+        when(compilationCache.get(anyLong(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<CompilationDto>>getArgument(1).get());
+    }
+
+    private void whenPageMissLoad() {
+        when(compilationCache.getPage(any(), anyInt(), anyInt(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<List<CompilationDto>>>getArgument(3).get());
+    }
+
+    private void whenLoadEvents() {
+        final List<EventShortDto> events = EventMapper.toDto(eventList);
+        when(repository.findEventIds(any())).thenReturn(Map.of(compId, eventIds));
+        when(eventService.findShortEventsByIds(any())).thenReturn(events);
+    }
+}
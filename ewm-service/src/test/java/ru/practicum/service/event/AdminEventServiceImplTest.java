@@ -1,5 +1,7 @@
 package ru.practicum.service.event;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.querydsl.core.types.Predicate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,15 +10,18 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import ru.practicum.dto.category.CategoryDto;
 import ru.practicum.dto.event.EventFullDto;
 import ru.practicum.dto.event.NewEventDto;
 import ru.practicum.dto.event.UpdateEventAdminRequest;
 import ru.practicum.dto.location.LocationDto;
 import ru.practicum.enums.EventState;
 import ru.practicum.enums.EventStateAction;
+import ru.practicum.enums.ExportFormat;
 import ru.practicum.exception.ConflictException;
 import ru.practicum.exception.NotFoundException;
 import ru.practicum.exception.ValidateException;
@@ -27,21 +32,30 @@ import ru.practicum.model.Event;
 import ru.practicum.model.Location;
 import ru.practicum.model.User;
 import ru.practicum.repository.EventRepository;
+import ru.practicum.service.category.CategoryCache;
 import ru.practicum.service.category.CategoryService;
+import ru.practicum.service.compilation.CompilationCache;
 import ru.practicum.service.location.LocationService;
+import ru.practicum.service.search.EventSearchIndex;
+import ru.practicum.service.subs.FriendFeedService;
 import ru.practicum.utils.Constants;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
@@ -69,6 +83,16 @@ class AdminEventServiceImplTest {
     private CategoryService categoryService;
     @Mock
     private LocationService locationService;
+    @Mock
+    private EventSearchIndex searchIndex;
+    @Mock
+    private CompilationCache compilationCache;
+    @Mock
+    private CategoryCache categoryCache;
+    @Mock
+    private FriendFeedService friendFeedService;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
     @InjectMocks
     private EventServiceImpl adminService;
 
@@ -138,6 +162,19 @@ class AdminEventServiceImplTest {
         assertEquals(eventFullDtos, actualList);
     }
 
+    @Test
+    void getEventsByAdmin_CategoryFromCache() {
+        final Event event = eventList.get(0);
+        final CategoryDto cached = new CategoryDto(event.getCategory().getId(), "Renamed");
+        when(repository.findAll(any(PageRequest.class))).thenReturn(new PageImpl<>(List.of(event)));
+        when(categoryCache.find(event.getCategory().getId())).thenReturn(Optional.of(cached));
+
+        final List<EventFullDto> actualList = adminService
+                .getEventsByAdmin(null, null, null, null, null, from, size);
+
+        assertEquals(cached, actualList.get(0).getCategory());
+    }
+
     @Test
     void getEvents2_WrongDates() {
         final LocalDateTime rangeStart = LocalDateTime.MAX;
@@ -162,6 +199,52 @@ class AdminEventServiceImplTest {
         assertEquals("Unknown event state: EventState", actualException.getMessage());
     }
 
+    @Test
+    void exportEventsByAdmin_Ndjson() throws Exception {
+        mockForEachWithDetails();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        final long count = adminService.exportEventsByAdmin(userIdList, null, catIdList, null, null,
+                ExportFormat.NDJSON, out);
+
+        final String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(eventList.size(), count);
+        assertEquals(eventList.size(), lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            assertEquals(eventFullDtos.get(i).getId(), objectMapper.readTree(lines[i]).get("id").asLong());
+        }
+    }
+
+    @Test
+    void exportEventsByAdmin_Csv() throws Exception {
+        eventList.get(0).setTitle("Title, with \"quotes\"");
+        mockForEachWithDetails();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        adminService.exportEventsByAdmin(null, null, null, null, null, ExportFormat.CSV, out);
+
+        final String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(eventList.size() + 1, lines.length);
+        assertEquals(EventExportWriter.CSV_HEADER, lines[0]);
+        assertTrue(lines[1].startsWith(eventList.get(0).getId() + ",\"Title, with \"\"quotes\"\"\","));
+    }
+
+    @Test
+    void exportEventsByAdmin_WrongDates() {
+        assertThrows(ValidateException.class, () -> adminService.exportEventsByAdmin(null, null, null,
+                LocalDateTime.MAX, LocalDateTime.MIN, ExportFormat.CSV, new ByteArrayOutputStream()));
+
+        verify(repository, never()).forEachWithDetails(any(), anyInt(), any());
+    }
+
+    private void mockForEachWithDetails() {
+        when(repository.forEachWithDetails(any(), anyInt(), any())).thenAnswer(invocation -> {
+            final Consumer<Event> action = invocation.getArgument(2);
+            eventList.forEach(action);
+            return (long) eventList.size();
+        });
+    }
+
     @ParameterizedTest
     @CsvSource(value = {
             "           ;                ;                 ;         ;       ;                 ;          ;              ;                     ",
@@ -238,6 +321,7 @@ class AdminEventServiceImplTest {
 
         verify(repository, times(1)).findById(eventId);
         verify(repository, times(1)).save(updatedEvent);
+        verify(friendFeedService, times(stateAction == EventStateAction.PUBLISH_EVENT ? 1 : 0)).addEvent(eventId);
     }
 
     @ParameterizedTest
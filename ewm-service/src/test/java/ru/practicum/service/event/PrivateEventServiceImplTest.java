@@ -26,8 +26,11 @@ import ru.practicum.model.Event;
 import ru.practicum.model.Location;
 import ru.practicum.model.User;
 import ru.practicum.repository.EventRepository;
+import ru.practicum.service.category.CategoryCache;
 import ru.practicum.service.category.CategoryService;
+import ru.practicum.service.compilation.CompilationCache;
 import ru.practicum.service.location.LocationService;
+import ru.practicum.service.search.EventSearchIndex;
 import ru.practicum.service.user.UserService;
 
 import java.time.LocalDateTime;
@@ -65,6 +68,12 @@ class PrivateEventServiceImplTest {
     private CategoryService categoryService;
     @Mock
     private LocationService locationService;
+    @Mock
+    private EventSearchIndex searchIndex;
+    @Mock
+    private CompilationCache compilationCache;
+    @Mock
+    private CategoryCache categoryCache;
     @InjectMocks
     private EventServiceImpl service;
 
@@ -6,22 +6,27 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
 import ru.practicum.dto.event.EventFullDto;
 import ru.practicum.dto.event.EventShortDto;
 import ru.practicum.enums.EventState;
 import ru.practicum.enums.SortType;
 import ru.practicum.exception.NotFoundException;
+import ru.practicum.exception.ValidateException;
+import ru.practicum.filter.EventPredicate;
 import ru.practicum.mapper.EventMapper;
 import ru.practicum.model.Category;
 import ru.practicum.model.Event;
 import ru.practicum.model.User;
 import ru.practicum.repository.EventRepository;
+import ru.practicum.service.category.CategoryCache;
+import ru.practicum.service.search.EventSearchIndex;
 import ru.practicum.service.stats.StatsService;
+import ru.practicum.utils.CursorPage;
+import ru.practicum.utils.PageCursor;
 
 import javax.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
@@ -33,11 +38,14 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -55,6 +63,10 @@ class PublicEventServiceImplTest {
     @Mock
     private StatsService statsService;
     @Mock
+    private EventSearchIndex searchIndex;
+    @Mock
+    private CategoryCache categoryCache;
+    @Mock
     private HttpServletRequest httpServletRequest;
     @InjectMocks
     private EventServiceImpl service;
@@ -69,7 +81,7 @@ class PublicEventServiceImplTest {
     private LocalDateTime rangeStart;
     private LocalDateTime rangeEnd;
     private List<Long> ids;
-    private Map<String, Long> mapViewStats;
+    private Map<Long, Long> mapViewStats;
 
 
     @BeforeEach
@@ -80,10 +92,10 @@ class PublicEventServiceImplTest {
         catIdList = categories.stream().map(Category::getId).collect(Collectors.toList());
 
         mapViewStats = Map.of(
-                "/events/1", 1L,
-                "/events/2", 5L,
-                "/events/4", 2L,
-                "/events/6", 2L);
+                1L, 1L,
+                2L, 5L,
+                4L, 2L,
+                6L, 2L);
 
         rangeStart = LocalDateTime.MIN;
         rangeEnd = LocalDateTime.MAX;
@@ -94,16 +106,15 @@ class PublicEventServiceImplTest {
     void getPublishedEvent() {
         final Event publishedEvents = eventList.get(0).toBuilder().state(EventState.PUBLISHED).build();
 
-        when(httpServletRequest.getRequestURI()).thenReturn("/events" + publishedEvents.getId());
         when(repository.findByIdAndState(anyLong(), any(EventState.class))).thenReturn(Optional.of(publishedEvents));
         doNothing().when(statsService).save(httpServletRequest);
-        when(statsService.getMap(any(HttpServletRequest.class), anyBoolean())).thenReturn(mapViewStats);
+        when(statsService.getViews(anyList(), anyBoolean())).thenReturn(mapViewStats);
 
         final EventFullDto actualEvent = service.getPublishedEvent(eventId, httpServletRequest);
-        assertEquals(EventMapper.toFullDto(publishedEvents, 0), actualEvent);
+        assertEquals(EventMapper.toFullDto(publishedEvents, 1), actualEvent);
 
         verify(repository, times(1)).findByIdAndState(eventId, EventState.PUBLISHED);
-        verify(statsService, times(1)).getMap(httpServletRequest, true);
+        verify(statsService, times(1)).getViews(List.of(eventId), true);
     }
 
     @Test
@@ -115,14 +126,13 @@ class PublicEventServiceImplTest {
         assertEquals(String.format(EVENT_WITH_ID_D_WAS_NOT_FOUND, eventId), exception.getMessage());
 
         verify(repository, times(1)).findByIdAndState(eventId, EventState.PUBLISHED);
-        verify(statsService, never()).getMap(httpServletRequest, List.of(), true);
+        verify(statsService, never()).getViews(anyList(), anyBoolean());
     }
 
     @ParameterizedTest
     @CsvSource({
             "text search,EVENT_DATE,true",
-            "'',VIEWS     ,false",
-            "  ,VIEWS     ,",
+            "''         ,EVENT_DATE,false",
             "  ,     ,"
     })
     void getPublishedEvents_withSort(String text, String sort, Boolean onlyAvailable) {
@@ -137,16 +147,16 @@ class PublicEventServiceImplTest {
         collect.get(2).setViews(2L);
         collect.get(3).setViews(2L);
         if (sort != null) {
-            if (sort.equals("EVENT_DATE")) collect.sort(Comparator.comparing(EventShortDto::getEventDate));
-            if (sort.equals("VIEWS")) collect.sort(Comparator.comparing(EventShortDto::getViews));
+            collect.sort(Comparator.comparing(EventShortDto::getEventDate));
         }
 
-        when(httpServletRequest.getRequestURI()).thenReturn("/events");
-        when(repository.findAll(any(Predicate.class), any(PageRequest.class)))
-                .thenReturn(new PageImpl<>(publishedEventList));
+        if (text != null && !text.isBlank()) {
+            when(searchIndex.getMatchPredicate(text)).thenReturn(EventPredicate.getIdIn(ids));
+        }
+        when(repository.findShortWithLimit(any(Predicate.class), eq(0L), eq(10L), any()))
+                .thenReturn(toShortDto(publishedEventList));
         doNothing().when(statsService).save(any(HttpServletRequest.class));
-        when(statsService.getMap(any(HttpServletRequest.class), anyList(), any(), any(), anyBoolean()))
-                .thenReturn(mapViewStats);
+        when(statsService.getViews(anyList(), anyBoolean())).thenReturn(mapViewStats);
 
         final List<EventShortDto> alist = service.getPublishedEvents(
                 text, catIdList, true, rangeStart, rangeEnd, onlyAvailable, SortType.from(sort),
@@ -155,6 +165,74 @@ class PublicEventServiceImplTest {
         assertEquals(collect, alist);
     }
 
+    @Test
+    void getPublishedEvents_sortByViews() {
+        final List<Event> publishedEventList = eventList.stream()
+                .filter(f -> f.getState().equals(EventState.PUBLISHED))
+                .collect(Collectors.toList());
+        final List<EventShortDto> expected = publishedEventList.stream()
+                .map(event -> EventMapper.toShortDto(event, mapViewStats.get(event.getId())))
+                .collect(Collectors.toList());
+
+        when(repository.findShortOrderByViews(any(Predicate.class), eq(0L), eq(10L)))
+                .thenReturn(toShortDto(publishedEventList));
+        when(statsService.getViews(anyList(), anyBoolean())).thenReturn(mapViewStats);
+
+        final List<EventShortDto> alist = service.getPublishedEvents(null, null, null,
+                null, null, false, SortType.VIEWS, from, size, httpServletRequest);
+
+        assertEquals(expected, alist);
+        verify(repository, never()).findShortWithLimit(any(Predicate.class), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void getPublishedEvents_orderByRelevance() {
+        final Map<Long, Event> events = eventList.stream()
+                .collect(Collectors.toMap(Event::getId, event -> event));
+        final List<Event> expectedEvents = List.of(events.get(6L), events.get(1L));
+
+        when(searchIndex.search("title")).thenReturn(List.of(6L, 3L, 1L, 2L));
+        when(repository.findIdsWithLimit(any(Predicate.class), eq(4L))).thenReturn(List.of(1L, 2L, 6L));
+        when(repository.findShortWithLimit(any(Predicate.class), eq(0L), eq(2L)))
+                .thenReturn(toShortDto(List.of(events.get(1L), events.get(6L))));
+        when(statsService.getViews(anyList(), anyBoolean())).thenReturn(mapViewStats);
+
+        final List<EventShortDto> alist = service.getPublishedEvents("title", null, null,
+                null, null, false, null, 0, 2, httpServletRequest);
+
+        assertEquals(expectedEvents.stream()
+                .map(event -> EventMapper.toShortDto(event, mapViewStats.get(event.getId())))
+                .collect(Collectors.toList()), alist);
+    }
+
+    @Test
+    void getPublishedEvents_sortByEventDateWithText_MatchInQuery() {
+        final Predicate match = EventPredicate.getIdIn(List.of(1L, 2L));
+        when(searchIndex.getMatchPredicate("title")).thenReturn(match);
+        when(repository.findShortWithLimit(any(Predicate.class), eq(0L), eq(10L), any()))
+                .thenReturn(Collections.emptyList());
+
+        service.getPublishedEvents("title", null, null, null, null, false, SortType.EVENT_DATE,
+                from, size, httpServletRequest);
+
+        final ArgumentCaptor<Predicate> predicate = ArgumentCaptor.forClass(Predicate.class);
+        verify(repository).findShortWithLimit(predicate.capture(), eq(0L), eq(10L), any());
+        assertTrue(predicate.getValue().toString().contains(match.toString()));
+        verify(searchIndex, never()).search(any());
+    }
+
+    @Test
+    void getPublishedEvents_whenTextNotFound() {
+        when(searchIndex.search("missing")).thenReturn(Collections.emptyList());
+
+        final List<EventShortDto> alist = service.getPublishedEvents("missing", null, null,
+                null, null, false, null, from, size, httpServletRequest);
+
+        assertEquals(Collections.emptyList(), alist);
+        verify(repository, never()).findIdsWithLimit(any(), anyLong());
+        verify(statsService, times(1)).save(httpServletRequest);
+    }
+
     @Test
     void getPublishedEvents_EmptyQueryParams() {
         final List<Event> publishedEventList = eventList.stream()
@@ -170,12 +248,10 @@ class PublicEventServiceImplTest {
         collect.get(2).setViews(2L);
         collect.get(3).setViews(2L);
 
-        when(httpServletRequest.getRequestURI()).thenReturn("/events");
-        when(repository.findAll(any(Predicate.class), any(PageRequest.class)))
-                .thenReturn(new PageImpl<>(publishedEventList));
+        when(repository.findShortWithLimit(any(Predicate.class), eq(0L), eq(10L), any()))
+                .thenReturn(toShortDto(publishedEventList));
         doNothing().when(statsService).save(any());
-        when(statsService.getMap(any(HttpServletRequest.class), any(), any(), any(), anyBoolean()))
-                .thenReturn(mapViewStats);
+        when(statsService.getViews(anyList(), anyBoolean())).thenReturn(mapViewStats);
 
 
         final List<EventShortDto> alist = service.getPublishedEvents(null, null, null,
@@ -185,7 +261,8 @@ class PublicEventServiceImplTest {
 
     @Test
     void getPublishedEvents_whenReturnEmptyList() {
-        when(repository.findAll(any(Predicate.class), any(PageRequest.class))).thenReturn(new PageImpl<>(Collections.emptyList()));
+        when(repository.findShortWithLimit(any(Predicate.class), eq(0L), eq(10L), any()))
+                .thenReturn(Collections.emptyList());
 
         final List<EventShortDto> alist = service.getPublishedEvents(
                 null, null, null, null,
@@ -194,6 +271,54 @@ class PublicEventServiceImplTest {
         assertEquals(Collections.emptyList(), alist);
 
         verify(statsService, times(1)).save(httpServletRequest);
-        verify(statsService, never()).getMap(httpServletRequest, ids, false);
+        verify(statsService, never()).getViews(ids, false);
+    }
+
+    @Test
+    void getPublishedEvents_withCursor() {
+        final List<Event> publishedEventList = eventList.stream()
+                .filter(f -> f.getState().equals(EventState.PUBLISHED))
+                .limit(3)
+                .collect(Collectors.toList());
+        final Event last = publishedEventList.get(1);
+        final String cursor = PageCursor.ofEventDate(LocalDateTime.of(2023, 1, 1, 0, 0), 1L).encode();
+
+        when(repository.findShortWithLimit(any(Predicate.class), eq(0L), eq(3L), any()))
+                .thenReturn(toShortDto(publishedEventList));
+        when(statsService.getViews(anyList(), anyBoolean())).thenReturn(mapViewStats);
+
+        final CursorPage<EventShortDto> page = service.getPublishedEvents(null, null, null,
+                null, null, false, SortType.EVENT_DATE, cursor, 2, httpServletRequest);
+
+        assertEquals(2, page.getContent().size());
+        assertEquals(PageCursor.ofEventDate(last.getEventDate(), last.getId()).encode(), page.getNextCursor());
+        verify(statsService, times(1)).save(httpServletRequest);
+        verify(statsService, times(1)).getViews(List.of(publishedEventList.get(0).getId(), last.getId()), false);
+    }
+
+    @Test
+    void getPublishedEvents_withCursor_LastPage() {
+        when(repository.findShortWithLimit(any(Predicate.class), eq(0L), eq(11L), any()))
+                .thenReturn(Collections.emptyList());
+
+        final CursorPage<EventShortDto> page = service.getPublishedEvents(null, null, null,
+                null, null, false, null, "", size, httpServletRequest);
+
+        assertEquals(Collections.emptyList(), page.getContent());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getPublishedEvents_withCursor_throwException_whenSortByViews() {
+        assertThrows(ValidateException.class, () -> service.getPublishedEvents(null, null, null,
+                null, null, false, SortType.VIEWS, "", size, httpServletRequest));
+
+        verify(statsService, never()).save(any());
+    }
+
+    private static List<EventShortDto> toShortDto(List<Event> events) {
+        return events.stream()
+                .map(EventMapper::toShortDto)
+                .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+}
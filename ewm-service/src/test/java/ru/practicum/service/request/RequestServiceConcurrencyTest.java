@@ -0,0 +1,207 @@
+package ru.practicum.service.request;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.dto.request.EventRequestStatusUpdateRequest;
+import ru.practicum.dto.request.EventRequestStatusUpdateResult;
+import ru.practicum.dto.request.ParticipationRequestDto;
+import ru.practicum.enums.EventState;
+import ru.practicum.exception.ConflictException;
+import ru.practicum.model.Category;
+import ru.practicum.model.Event;
+import ru.practicum.model.Location;
+import ru.practicum.model.Request;
+import ru.practicum.model.User;
+import ru.practicum.repository.CategoryRepository;
+import ru.practicum.repository.EventRepository;
+import ru.practicum.repository.LocationRepository;
+import ru.practicum.repository.RequestRepository;
+import ru.practicum.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.practicum.enums.RequestStatus.CONFIRMED;
+
+/**
+ * Параллельные заявки и подтверждения не превышают лимит участников события
+ */
+@SpringBootTest
+class RequestServiceConcurrencyTest {
+    private static final int REQUESTERS = 300;
+    private static final int THREADS = 64;
+
+    @Autowired
+    private RequestService requestService;
+    @Autowired
+    private RequestRepository requestRepository;
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private LocationRepository locationRepository;
+
+    private User initiator;
+    private Category category;
+    private List<User> requesters;
+
+    @BeforeEach
+    void setUp() {
+        initiator = userRepository.save(User.builder().name("Initiator").email("initiator@mail.ru").build());
+        category = categoryRepository.save(Category.builder().name("Concurrency").build());
+        requesters = new ArrayList<>();
+        for (int i = 0; i < REQUESTERS; i++) {
+            requesters.add(userRepository.save(User.builder()
+                    .name("Requester" + i)
+                    .email("requester" + i + "@mail.ru")
+                    .build()));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        requestRepository.deleteAllInBatch();
+        eventRepository.deleteAllInBatch();
+        locationRepository.deleteAllInBatch();
+        categoryRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void addParticipationRequest_WithoutModeration_NoOversubscription() throws InterruptedException {
+        final int limit = 10;
+        final Event event = addEvent(limit, false);
+        final AtomicInteger confirmed = new AtomicInteger();
+        final AtomicInteger rejected = new AtomicInteger();
+
+        final List<Callable<Void>> tasks = requesters.stream()
+                .map(requester -> (Callable<Void>) () -> {
+                    try {
+                        requestService.addParticipationRequest(requester.getId(), event.getId());
+                        confirmed.incrementAndGet();
+                    } catch (ConflictException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                })
+                .collect(Collectors.toList());
+        final Queue<Throwable> errors = runConcurrently(tasks);
+
+        assertTrue(errors.isEmpty(), () -> "Unexpected errors: " + errors);
+        assertEquals(limit, confirmed.get());
+        assertEquals(REQUESTERS - limit, rejected.get());
+        assertEquals(limit, countConfirmed(event));
+        assertEquals(limit, eventRepository.findById(event.getId()).orElseThrow().getConfirmedRequests());
+    }
+
+    @Test
+    void changeRequestStatus_ConcurrentConfirmations_NoOversubscription() throws InterruptedException {
+        final int limit = 50;
+        final int batchSize = 10;
+        final Event event = addEvent(limit, true);
+        final List<Long> requestIds = requesters.stream()
+                .map(requester -> requestService.addParticipationRequest(requester.getId(), event.getId()))
+                .map(ParticipationRequestDto::getId)
+                .collect(Collectors.toList());
+        final AtomicInteger confirmed = new AtomicInteger();
+
+        final List<Callable<Void>> tasks = new ArrayList<>();
+        for (int from = 0; from < requestIds.size(); from += batchSize) {
+            final EventRequestStatusUpdateRequest body = EventRequestStatusUpdateRequest.builder()
+                    .requestIds(requestIds.subList(from, from + batchSize))
+                    .status(CONFIRMED)
+                    .build();
+            tasks.add(() -> {
+                try {
+                    final EventRequestStatusUpdateResult result =
+                            requestService.changeRequestStatus(body, initiator.getId(), event.getId());
+                    confirmed.addAndGet(result.getConfirmedRequests().size());
+                } catch (ConflictException e) {
+                    // лимит уже исчерпан к началу подтверждения
+                }
+                return null;
+            });
+        }
+        final Queue<Throwable> errors = runConcurrently(tasks);
+
+        assertTrue(errors.isEmpty(), () -> "Unexpected errors: " + errors);
+        assertEquals(limit, confirmed.get());
+        assertEquals(limit, countConfirmed(event));
+        assertEquals(limit, eventRepository.findById(event.getId()).orElseThrow().getConfirmedRequests());
+    }
+
+    /**
+     * Запустить задачи одновременно и дождаться их завершения
+     * @return исключения задач
+     */
+    private Queue<Throwable> runConcurrently(List<Callable<Void>> tasks) throws InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(tasks.size());
+        final Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        try {
+            for (Callable<Void> task : tasks) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                        task.call();
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            start.countDown();
+            assertTrue(done.await(60, TimeUnit.SECONDS), "Requests did not finish in time");
+        } finally {
+            executor.shutdownNow();
+        }
+        return errors;
+    }
+
+    private long countConfirmed(Event event) {
+        return requestRepository.findAllByEvent_InitiatorIdAndEventId(initiator.getId(), event.getId()).stream()
+                .map(Request::getStatus)
+                .filter(status -> status == CONFIRMED)
+                .count();
+    }
+
+    private Event addEvent(int participantLimit, boolean requestModeration) {
+        final Location location = locationRepository.save(Location.builder().lat(55.75f).lon(37.61f).build());
+        return eventRepository.save(Event.builder()
+                .title("Popular event")
+                .annotation("Annotation")
+                .description("Description")
+                .eventDate(LocalDateTime.now().plusDays(7))
+                .createdOn(LocalDateTime.now())
+                .publishedOn(LocalDateTime.now())
+                .category(category)
+                .initiator(initiator)
+                .location(location)
+                .paid(false)
+                .participantLimit(participantLimit)
+                .confirmedRequests(0)
+                .requestModeration(requestModeration)
+                .state(EventState.PUBLISHED)
+                .build());
+    }
+}
@@ -20,11 +20,12 @@ import ru.practicum.model.Request;
 import ru.practicum.model.User;
 import ru.practicum.repository.EventRepository;
 import ru.practicum.repository.RequestRepository;
+import ru.practicum.service.compilation.CompilationCache;
 import ru.practicum.service.event.EventService;
+import ru.practicum.service.subs.FriendFeedService;
 import ru.practicum.service.user.UserService;
 
 import java.time.LocalDateTime;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -32,6 +33,7 @@ import java.util.stream.Collectors;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
@@ -58,6 +60,10 @@ class RequestServiceTest {
     private UserService userService;
     @Mock
     private EventService eventService;
+    @Mock
+    private FriendFeedService friendFeedService;
+    @Mock
+    private CompilationCache compilationCache;
     @InjectMocks
     private RequestServiceImpl service;
     private final long eventId = 1L;
@@ -124,6 +130,7 @@ class RequestServiceTest {
         verify(repository, times(1)).existsByEventIdAndRequesterId(eventId, userId2);
         verify(eventService, times(1)).findEventById(eventId);
         verify(userService, times(1)).findUserById(userId2);
+        verify(friendFeedService, never()).addParticipations(any());
     }
 
     @Test
@@ -154,6 +161,7 @@ class RequestServiceTest {
         final User requester = userList.get(2);
         final Long requesterId = requester.getId();
         final Request newRequest = Request.builder()
+                .id(3L)
                 .requester(requester)
                 .event(currentEvent)
                 .created(LocalDateTime.now())
@@ -161,6 +169,7 @@ class RequestServiceTest {
         when(repository.existsByEventIdAndRequesterId(anyLong(), anyLong())).thenReturn(false);
         when(eventService.findEventById(anyLong())).thenReturn(currentEvent);
         when(userService.findUserById(anyLong())).thenReturn(user);
+        when(eventRepository.reserveSeats(anyLong(), anyInt())).thenReturn(1);
         when(repository.save(any())).thenReturn(newRequest);
 
         final ParticipationRequestDto actualRequest = service.addParticipationRequest(requesterId, eventId);
@@ -168,6 +177,9 @@ class RequestServiceTest {
 
         verify(repository, times(1)).existsByEventIdAndRequesterId(eventId, requesterId);
         verify(eventService, times(1)).findEventById(eventId);
+        verify(eventRepository, times(1)).reserveSeats(eventId, 1);
+        verify(friendFeedService, times(1)).addParticipations(List.of(3L));
+        verify(compilationCache, times(1)).invalidateEvent(eventId);
         verify(userService, times(1)).findUserById(requesterId);
     }
 
@@ -179,6 +191,7 @@ class RequestServiceTest {
         final Long requesterId = requester.getId();
 
         final Request newRequest = Request.builder()
+                .id(3L)
                 .requester(requester)
                 .event(currentEvent)
                 .created(LocalDateTime.now())
@@ -187,6 +200,7 @@ class RequestServiceTest {
         when(repository.existsByEventIdAndRequesterId(anyLong(), anyLong())).thenReturn(false);
         when(eventService.findEventById(anyLong())).thenReturn(currentEvent);
         when(userService.findUserById(anyLong())).thenReturn(user);
+        when(eventRepository.reserveSeats(anyLong(), anyInt())).thenReturn(1);
         when(repository.save(any())).thenReturn(newRequest);
 
         final ParticipationRequestDto actualRequest = service.addParticipationRequest(requesterId, eventId);
@@ -194,6 +208,8 @@ class RequestServiceTest {
 
         verify(repository, times(1)).existsByEventIdAndRequesterId(eventId, requesterId);
         verify(eventService, times(1)).findEventById(eventId);
+        verify(eventRepository, times(1)).reserveSeats(eventId, 1);
+        verify(friendFeedService, times(1)).addParticipations(List.of(3L));
         verify(userService, times(1)).findUserById(requesterId);
     }
 
@@ -289,6 +305,25 @@ class RequestServiceTest {
         verify(repository, never()).save(request);
     }
 
+    @Test
+    @DisplayName("addParticipationRequest - последнее место занято параллельной заявкой")
+    void addParticipationRequest_ParticipantLimitReachedConcurrently() {
+        final Event currentEvent = eventList.get(3);
+        final Long eventId = currentEvent.getId();
+        final Long requesterId = userList.get(2).getId();
+        when(repository.existsByEventIdAndRequesterId(anyLong(), anyLong())).thenReturn(false);
+        when(eventService.findEventById(anyLong())).thenReturn(currentEvent);
+        when(userService.findUserById(anyLong())).thenReturn(user);
+        when(eventRepository.reserveSeats(anyLong(), anyInt())).thenReturn(0);
+
+        final ConflictException exception = assertThrows(ConflictException.class,
+                () -> service.addParticipationRequest(requesterId, eventId));
+
+        assertEquals("Event confirmed limit reached.", exception.getMessage());
+        verify(eventRepository, times(1)).reserveSeats(eventId, 1);
+        verify(repository, never()).save(any());
+    }
+
     @Test
     void addParticipationRequest_UserNotExist() {
         when(repository.existsByEventIdAndRequesterId(anyLong(), anyLong())).thenReturn(false);
@@ -347,25 +382,34 @@ class RequestServiceTest {
 
         doNothing().when(userService).checkExistById(1L);
         when(eventService.findEventById(anyLong())).thenReturn(event);
-        when(repository.findAllByIdInAndStatus(any(), any())).thenReturn(requestList);
-        when(eventRepository.save(any())).thenReturn(event);
-        when(repository.saveAll(any())).thenReturn(requestList);
+        when(repository.countByIdInAndEventIdAndStatus(List.of(1L), eventId, PENDING)).thenReturn(1L);
+        when(eventRepository.reserveSeats(eventId, 1)).thenReturn(1);
+        when(repository.updateStatus(List.of(1L), eventId, PENDING, CONFIRMED)).thenReturn(1);
+        when(eventRepository.findFreeSeats(eventId)).thenReturn(2);
+        when(repository.findDtoByIdIn(List.of(1L))).thenReturn(dtoRequestListConfirmed);
 
         final EventRequestStatusUpdateResult updatedRequest = service.changeRequestStatus(updateRequest, 1L, eventId);
         assertEquals(expectedRequest, updatedRequest);
+
+        verify(repository, never()).findIdsByEventIdAndStatus(anyLong(), any());
+        verify(repository, never()).saveAll(any());
+        verify(friendFeedService, times(1)).addParticipations(List.of(1L));
+        verify(compilationCache, times(1)).invalidateEvent(eventId);
     }
 
     @Test
+    @DisplayName("changeRequestStatus - при исчерпании лимита оставшиеся заявки в ожидании отклоняются")
     void changeRequestStatus_setCONFIRMED2_whenParticipantLimitNot_0() {
-        final List<Request> requestListById = List.of(request1, request2);
-
         final EventRequestStatusUpdateRequest updateRequest = EventRequestStatusUpdateRequest.builder()
                 .requestIds(List.of(1L, 2L))
                 .status(CONFIRMED)
                 .build();
 
+        final ParticipationRequestDto autoRejected = RequestMapper.toDto(Request.builder()
+                .id(5L).requester(userList.get(1)).event(event).created(LocalDateTime.now()).status(REJECTED)
+                .build());
         final EventRequestStatusUpdateResult expectedRequest = EventRequestStatusUpdateResult.builder()
-                .rejectedRequests(dtoRequestListRejected)
+                .rejectedRequests(List.of(dtoRequestListRejected.get(0), autoRejected))
                 .confirmedRequests(dtoRequestListConfirmed)
                 .build();
 
@@ -373,12 +417,52 @@ class RequestServiceTest {
 
         doNothing().when(userService).checkExistById(1L);
         when(eventService.findEventById(anyLong())).thenReturn(event);
-        when(repository.findAllByIdInAndStatus(any(), any())).thenReturn(requestListById);
-        when(eventRepository.save(any())).thenReturn(event);
-        when(repository.saveAll(any())).thenReturn(requestListById);
+        when(repository.countByIdInAndEventIdAndStatus(List.of(1L, 2L), eventId, PENDING)).thenReturn(2L);
+        when(eventRepository.reserveSeats(eventId, 1)).thenReturn(1);
+        when(repository.updateStatus(List.of(1L), eventId, PENDING, CONFIRMED)).thenReturn(1);
+        when(repository.updateStatus(List.of(2L), eventId, PENDING, REJECTED)).thenReturn(1);
+        when(eventRepository.findFreeSeats(eventId)).thenReturn(0);
+        when(repository.findIdsByEventIdAndStatus(eventId, PENDING)).thenReturn(List.of(5L));
+        when(repository.updateStatus(List.of(5L), eventId, PENDING, REJECTED)).thenReturn(1);
+        when(repository.findDtoByIdIn(List.of(1L, 2L, 5L)))
+                .thenReturn(List.of(dtoRequestListConfirmed.get(0), dtoRequestListRejected.get(0), autoRejected));
 
         final EventRequestStatusUpdateResult updatedRequest = service.changeRequestStatus(updateRequest, 1L, eventId);
         assertEquals(expectedRequest, updatedRequest);
+
+        verify(repository, times(1)).updateStatus(List.of(5L), eventId, PENDING, REJECTED);
+    }
+
+    @Test
+    @DisplayName("changeRequestStatus - часть мест занята параллельным подтверждением")
+    void changeRequestStatus_setCONFIRMED_whenSeatsTakenConcurrently() {
+        final EventRequestStatusUpdateRequest updateRequest = EventRequestStatusUpdateRequest.builder()
+                .requestIds(List.of(1L, 2L))
+                .status(CONFIRMED)
+                .build();
+
+        final EventRequestStatusUpdateResult expectedRequest = EventRequestStatusUpdateResult.builder()
+                .rejectedRequests(dtoRequestListRejected)
+                .confirmedRequests(dtoRequestListConfirmed)
+                .build();
+
+        doNothing().when(userService).checkExistById(1L);
+        when(eventService.findEventById(anyLong())).thenReturn(event);
+        when(repository.countByIdInAndEventIdAndStatus(List.of(1L, 2L), eventId, PENDING)).thenReturn(2L);
+        when(eventRepository.reserveSeats(eventId, 2)).thenReturn(0);
+        when(eventRepository.findFreeSeats(eventId)).thenReturn(1, 0);
+        when(eventRepository.reserveSeats(eventId, 1)).thenReturn(1);
+        when(repository.updateStatus(List.of(1L), eventId, PENDING, CONFIRMED)).thenReturn(1);
+        when(repository.updateStatus(List.of(2L), eventId, PENDING, REJECTED)).thenReturn(1);
+        when(repository.findIdsByEventIdAndStatus(eventId, PENDING)).thenReturn(List.of());
+        when(repository.findDtoByIdIn(List.of(1L, 2L)))
+                .thenReturn(List.of(dtoRequestListConfirmed.get(0), dtoRequestListRejected.get(0)));
+
+        final EventRequestStatusUpdateResult updatedRequest = service.changeRequestStatus(updateRequest, 1L, eventId);
+        assertEquals(expectedRequest, updatedRequest);
+
+        verify(eventRepository, times(2)).findFreeSeats(eventId);
+        verify(repository, times(1)).findIdsByEventIdAndStatus(eventId, PENDING);
     }
 
     @Test
@@ -390,15 +474,14 @@ class RequestServiceTest {
 
         doNothing().when(userService).checkExistById(1L);
         when(eventService.findEventById(anyLong())).thenReturn(event);
-        when(repository.findAllByIdInAndStatus(any(), any())).thenReturn(requestList);
 
         final ConflictException exception = assertThrows(ConflictException.class,
                 () -> service.changeRequestStatus(updateRequest, 1L, eventId));
         assertEquals("Wrong status. Status should be one of: [CONFIRMED, REJECTED]",
                 exception.getMessage());
 
-        verify(eventRepository, never()).save(event);
-        verify(repository, never()).saveAll(requestList);
+        verify(eventRepository, never()).reserveSeats(anyLong(), anyInt());
+        verify(repository, never()).updateStatus(any(), anyLong(), any(), any());
     }
 
     @Test
@@ -421,7 +504,7 @@ class RequestServiceTest {
     @Test
     void changeRequestStatus_setREJECTED_whenParticipantLimitNot_0() {
         final EventRequestStatusUpdateRequest updateRequest = EventRequestStatusUpdateRequest.builder()
-                .requestIds(List.of(1L))
+                .requestIds(List.of(2L))
                 .status(REJECTED)
                 .build();
 
@@ -432,13 +515,32 @@ class RequestServiceTest {
 
         doNothing().when(userService).checkExistById(1L);
         when(eventService.findEventById(anyLong())).thenReturn(event);
-        when(repository.findAllByIdInAndStatus(any(), any())).thenReturn(regectList);
-        when(repository.saveAll(any())).thenReturn(regectList);
+        when(repository.updateStatus(List.of(2L), eventId, PENDING, REJECTED)).thenReturn(1);
+        when(repository.findDtoByIdIn(List.of(2L))).thenReturn(dtoRequestListRejected);
 
         final EventRequestStatusUpdateResult updatedRequest = service.changeRequestStatus(updateRequest, 1L, eventId);
         assertEquals(expectedRequest, updatedRequest);
 
-        verify(eventRepository, never()).save(new Event());
+        verify(eventRepository, never()).reserveSeats(anyLong(), anyInt());
+        verify(repository, never()).findIdsByEventIdAndStatus(anyLong(), any());
+    }
+
+    @Test
+    void changeRequestStatus_setREJECTED_throwException_whenNotAllRequestsPending() {
+        final EventRequestStatusUpdateRequest updateRequest = EventRequestStatusUpdateRequest.builder()
+                .requestIds(List.of(1L, 2L))
+                .status(REJECTED)
+                .build();
+
+        doNothing().when(userService).checkExistById(1L);
+        when(eventService.findEventById(anyLong())).thenReturn(event);
+        when(repository.updateStatus(List.of(1L, 2L), eventId, PENDING, REJECTED)).thenReturn(1);
+
+        final ConflictException exception = assertThrows(ConflictException.class,
+                () -> service.changeRequestStatus(updateRequest, 1L, eventId));
+        assertEquals("Status change is only possible for requests with state='PENDING'", exception.getMessage());
+
+        verify(repository, never()).findDtoByIdIn(any());
     }
 
     @Test
@@ -456,7 +558,7 @@ class RequestServiceTest {
         assertEquals(String.format("User(id=%d) is not the initiator of the event(id=%d).", userId2, eventId),
                 exception.getMessage());
 
-        verify(eventRepository, never()).save(new Event());
+        verify(repository, never()).updateStatus(any(), anyLong(), any(), any());
     }
 
     @Test
@@ -475,13 +577,16 @@ class RequestServiceTest {
 
         doNothing().when(userService).checkExistById(2L);
         when(eventService.findEventById(anyLong())).thenReturn(currentEvent);
-        when(repository.findAllByIdInAndStatus(any(), any())).thenReturn(requestList);
-        when(repository.saveAll(any())).thenReturn(requestList);
+        when(repository.countByIdInAndEventIdAndStatus(List.of(1L), 1L, PENDING)).thenReturn(1L);
+        when(eventRepository.reserveSeats(1L, 1)).thenReturn(1);
+        when(repository.updateStatus(List.of(1L), 1L, PENDING, CONFIRMED)).thenReturn(1);
+        when(repository.findDtoByIdIn(List.of(1L))).thenReturn(dtoRequestListConfirmed);
 
         final EventRequestStatusUpdateResult updatedRequest = service.changeRequestStatus(updateRequest, 2L, 1L);
         assertEquals(expectedRequest, updatedRequest);
 
-        verify(eventRepository, never()).save(new Event());
+        verify(eventRepository, never()).findFreeSeats(anyLong());
+        verify(repository, never()).findIdsByEventIdAndStatus(anyLong(), any());
     }
 
     @Test
@@ -501,8 +606,11 @@ class RequestServiceTest {
 
         doNothing().when(userService).checkExistById(1L);
         when(eventService.findEventById(anyLong())).thenReturn(currentEvent);
-        when(repository.findAllByIdInAndStatus(any(), any())).thenReturn(requestList);
-        when(repository.saveAll(any())).thenReturn(requestList);
+        when(repository.countByIdInAndEventIdAndStatus(List.of(1L), 1L, PENDING)).thenReturn(1L);
+        when(eventRepository.reserveSeats(1L, 1)).thenReturn(1);
+        when(repository.updateStatus(List.of(1L), 1L, PENDING, CONFIRMED)).thenReturn(1);
+        when(eventRepository.findFreeSeats(1L)).thenReturn(2);
+        when(repository.findDtoByIdIn(List.of(1L))).thenReturn(dtoRequestListConfirmed);
 
         final EventRequestStatusUpdateResult updatedRequest = service.changeRequestStatus(updateRequest, 1L, 1L);
         assertEquals(expectedRequest, updatedRequest);
@@ -525,9 +633,9 @@ class RequestServiceTest {
                 () -> service.changeRequestStatus(updateRequest, userId2, eventId));
         assertEquals(String.format(EVENT_WITH_ID_D_WAS_NOT_FOUND, eventId), exception.getMessage());
 
-        verify(repository, never()).findAllByIdInAndStatus(List.of(), PENDING);
-        verify(eventRepository, never()).save(event);
-        verify(repository, never()).saveAll(Collections.emptyList());
+        verify(repository, never()).countByIdInAndEventIdAndStatus(any(), anyLong(), any());
+        verify(eventRepository, never()).reserveSeats(anyLong(), anyInt());
+        verify(repository, never()).updateStatus(any(), anyLong(), any(), any());
     }
 
     @Test
@@ -539,7 +647,7 @@ class RequestServiceTest {
 
         doNothing().when(userService).checkExistById(anyLong());
         when(eventService.findEventById(anyLong())).thenReturn(event);
-        when(repository.findAllByIdInAndStatus(any(), any())).thenReturn(requestList);
+        when(repository.countByIdInAndEventIdAndStatus(any(), anyLong(), any())).thenReturn(1L);
 
         final ConflictException exception = assertThrows(ConflictException.class,
                 () -> service.changeRequestStatus(updateRequest, 1L, eventId));
@@ -547,9 +655,9 @@ class RequestServiceTest {
 
         verify(userService, times(1)).checkExistById(1L);
         verify(eventService, times(1)).findEventById(eventId);
-        verify(repository, times(1)).findAllByIdInAndStatus(List.of(1L, 3L), PENDING);
-        verify(eventRepository, never()).save(event);
-        verify(repository, never()).saveAll(Collections.emptyList());
+        verify(repository, times(1)).countByIdInAndEventIdAndStatus(List.of(1L, 3L), eventId, PENDING);
+        verify(eventRepository, never()).reserveSeats(anyLong(), anyInt());
+        verify(repository, never()).updateStatus(any(), anyLong(), any(), any());
     }
 
     @Test
@@ -587,6 +695,7 @@ class RequestServiceTest {
 
         final long requestId = 1L;
         service.cancelRequest(userId2, requestId);
+        verify(friendFeedService, times(1)).removeParticipations(List.of(requestId));
     }
 
     @Test
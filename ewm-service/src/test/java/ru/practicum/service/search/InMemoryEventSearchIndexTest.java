@@ -0,0 +1,103 @@
+package ru.practicum.service.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.enums.EventState;
+import ru.practicum.filter.EventPredicate;
+import ru.practicum.model.Event;
+import ru.practicum.repository.EventRepository;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryEventSearchIndexTest {
+    @Mock
+    private EventRepository eventRepository;
+
+    private InMemoryEventSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InMemoryEventSearchIndex(eventRepository, 100);
+        index.index(makeEvent(1L, "Концерт", "Джазовый вечер", "Музыка до утра", EventState.PUBLISHED));
+        index.index(makeEvent(2L, "Выставка", "Картины и музыка", "Современное искусство", EventState.PUBLISHED));
+        index.index(makeEvent(3L, "Jazz night", "Концерт под открытым небом", "Jazz", EventState.PENDING));
+    }
+
+    @Test
+    void search_ByPrefix() {
+        assertEquals(List.of(1L), index.search("джаз"));
+        assertEquals(List.of(2L), index.search("совр иск"));
+    }
+
+    @Test
+    void search_RankByRelevance() {
+        index.index(makeEvent(4L, "Лекция", "Про музыку", "Музыка", EventState.PUBLISHED));
+
+        assertEquals(List.of(4L, 2L, 1L), index.search("МУЗЫК"));
+        assertEquals(List.of(2L, 1L, 4L), index.search("музыка"));
+    }
+
+    @Test
+    void search_AllWordsRequired() {
+        assertEquals(List.of(1L), index.search("музыка, джаз!"));
+        assertTrue(index.search("музыка кино").isEmpty());
+        assertTrue(index.search("  ,.  ").isEmpty());
+    }
+
+    @Test
+    void search_TitleNotIndexed() {
+        assertTrue(index.search("выставка").isEmpty());
+        assertTrue(index.search("концерт").isEmpty());
+    }
+
+    @Test
+    void getMatchPredicate_NotLimitedByMaxResults() {
+        final InMemoryEventSearchIndex limited = new InMemoryEventSearchIndex(eventRepository, 1);
+        limited.index(makeEvent(1L, "Концерт", "Джазовый вечер", "Музыка до утра", EventState.PUBLISHED));
+        limited.index(makeEvent(2L, "Выставка", "Картины и музыка", "Современное искусство", EventState.PUBLISHED));
+
+        assertEquals(List.of(2L), limited.search("музыка"));
+        assertEquals(EventPredicate.getIdIn(Set.of(1L, 2L)), limited.getMatchPredicate("музыка"));
+        assertEquals(EventPredicate.getIdIn(Set.of()), limited.getMatchPredicate("кино"));
+    }
+
+    @Test
+    void index_RemoveUnpublished() {
+        index.index(makeEvent(1L, "Концерт", "Джазовый вечер", "Музыка до утра", EventState.CANCELED));
+        index.index(makeEvent(3L, "Jazz night", "Концерт под открытым небом", "Jazz", EventState.PUBLISHED));
+
+        assertEquals(List.of(3L), index.search("концерт"));
+        assertEquals(List.of(3L), index.search("jazz"));
+    }
+
+    @Test
+    void rebuild() {
+        when(eventRepository.findAllWithLimit(any(), anyLong(), any()))
+                .thenReturn(List.of(makeEvent(5L, "", "Фестиваль", "", EventState.PUBLISHED)));
+
+        index.rebuild();
+
+        assertEquals(List.of(5L), index.search("фест"));
+    }
+
+    private static Event makeEvent(long id, String title, String annotation, String description, EventState state) {
+        return Event.builder()
+                .id(id)
+                .title(title)
+                .annotation(annotation)
+                .description(description)
+                .state(state)
+                .build();
+    }
+}
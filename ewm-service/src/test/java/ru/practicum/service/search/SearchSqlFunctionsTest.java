@@ -0,0 +1,25 @@
+package ru.practicum.service.search;
+
+import org.hibernate.QueryException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SearchSqlFunctionsTest {
+    private final SearchSqlFunctions.EventSearchMatch function = new SearchSqlFunctions.EventSearchMatch();
+
+    @Test
+    void eventSearchMatch_renderSearchVectorOfSameTable() {
+        assertEquals("(event0_.search_vector @@ to_tsquery('simple', ?))",
+                function.render(null, List.of("event0_.id", "?"), null));
+    }
+
+    @Test
+    void eventSearchMatch_throwWhenNotIdColumn() {
+        assertThrows(QueryException.class, () -> function.render(null, List.of("event0_.title", "?"), null));
+        assertThrows(QueryException.class, () -> function.render(null, List.of("?"), null));
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.service.stats;
+
+import com.querydsl.core.types.Predicate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.model.EventViews;
+import ru.practicum.repository.EventRepository;
+import ru.practicum.repository.EventViewsRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EventViewsServiceTest {
+    @Mock
+    private EventRepository eventRepository;
+    @Mock
+    private EventViewsRepository eventViewsRepository;
+    @Mock
+    private StatsService statsService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private EventViewsServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new EventViewsServiceImpl(eventRepository, eventViewsRepository, statsService,
+                transactionManager, 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void refresh() {
+        final EventViews existing = new EventViews(1L, 3L, LocalDateTime.now().minusHours(1));
+        when(eventRepository.findIdsWithLimit(any(Predicate.class), eq(2L)))
+                .thenReturn(List.of(1L, 2L), List.of(5L));
+        when(statsService.loadViews(List.of(1L, 2L), false)).thenReturn(Map.of(1L, 7L));
+        when(statsService.loadViews(List.of(5L), false)).thenReturn(Map.of(5L, 1L));
+        when(eventViewsRepository.findAllById(anyList())).thenReturn(List.of(existing), Collections.emptyList());
+
+        final int updated = service.refresh();
+
+        assertEquals(3, updated);
+        final ArgumentCaptor<List<EventViews>> captor = ArgumentCaptor.forClass(List.class);
+        verify(eventViewsRepository, times(2)).saveAll(captor.capture());
+        final List<EventViews> firstBatch = captor.getAllValues().get(0);
+        assertEquals(existing, firstBatch.get(0));
+        assertEquals(7L, firstBatch.get(0).getViews());
+        assertEquals(0L, firstBatch.get(1).getViews());
+        assertEquals(1L, captor.getAllValues().get(1).get(0).getViews());
+    }
+
+    @Test
+    void refresh_NoPublishedEvents() {
+        when(eventRepository.findIdsWithLimit(any(Predicate.class), eq(2L))).thenReturn(Collections.emptyList());
+
+        assertEquals(0, service.refresh());
+        verify(statsService, never()).loadViews(anyList(), anyBoolean());
+        verify(eventViewsRepository, never()).saveAll(anyList());
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.service.stats;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StatsCircuitBreakerTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong time = new AtomicLong();
+    private StatsCircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreaker = new StatsCircuitBreaker(meterRegistry, 3, 1000, time::get);
+    }
+
+    @Test
+    void onFailure_OpenAfterThreshold() {
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        assertTrue(circuitBreaker.tryAcquire());
+
+        circuitBreaker.onFailure();
+
+        assertEquals(StatsCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquire());
+        assertEquals(1.0, meterRegistry.counter("ewm.stats.circuit.rejected").count());
+        assertEquals(1.0, meterRegistry.get("ewm.stats.circuit.open").gauge().value());
+    }
+
+    @Test
+    void onSuccess_ResetFailures() {
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        circuitBreaker.onSuccess();
+        circuitBreaker.onFailure();
+
+        assertEquals(StatsCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void tryAcquire_HalfOpenAfterCooldown() {
+        open();
+        time.addAndGet(Duration.ofMillis(999).toNanos());
+        assertFalse(circuitBreaker.tryAcquire());
+
+        time.addAndGet(Duration.ofMillis(1).toNanos());
+        assertTrue(circuitBreaker.tryAcquire());
+        assertEquals(StatsCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquire());
+
+        circuitBreaker.onSuccess();
+        assertEquals(StatsCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0.0, meterRegistry.get("ewm.stats.circuit.open").gauge().value());
+    }
+
+    @Test
+    void onFailure_HalfOpenOpenedAgain() {
+        open();
+        time.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertTrue(circuitBreaker.tryAcquire());
+
+        circuitBreaker.onFailure();
+
+        assertEquals(StatsCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquire());
+    }
+
+    private void open() {
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.onFailure();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package ru.practicum.service.stats;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.client.StatsClient;
+import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.enums.HitOverflowPolicy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StatsHitQueueTest {
+    private final StatsClient statsClient = mock(StatsClient.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final AtomicInteger received = new AtomicInteger();
+    private StatsHitQueue queue;
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        when(statsClient.saveHits(anyList())).thenAnswer(invocation -> {
+            final List<EndpointHitDto> hits = invocation.getArgument(0);
+            received.addAndGet(hits.size());
+            return ResponseEntity.status(HttpStatus.CREATED).build();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (queue != null) queue.stop();
+    }
+
+    @Test
+    void offer_SentInBackground() {
+        queue = create(10, HitOverflowPolicy.DROP);
+        queue.start();
+
+        queue.offer(getHit(1));
+        queue.offer(getHit(2));
+
+        verify(statsClient, timeout(2000).atLeastOnce()).saveHits(anyList());
+        queue.stop();
+        assertEquals(2, received.get());
+        assertEquals(2.0, meterRegistry.counter("ewm.stats.hits.sent").count());
+        verify(statsClient, never()).saveHit(any());
+    }
+
+    @Test
+    void offer_Drop() {
+        queue = create(1, HitOverflowPolicy.DROP);
+
+        queue.offer(getHit(1));
+        queue.offer(getHit(2));
+
+        assertEquals(1, queue.getDepth());
+        assertEquals(1.0, meterRegistry.counter("ewm.stats.hits.dropped").count());
+        assertEquals(1.0, meterRegistry.get("ewm.stats.hits.queue.depth").gauge().value());
+        verify(statsClient, never()).saveHits(anyList());
+    }
+
+    @Test
+    void offer_Block() {
+        queue = create(1, HitOverflowPolicy.BLOCK);
+
+        queue.offer(getHit(1));
+        queue.offer(getHit(2));
+
+        assertEquals(1, queue.getDepth());
+        assertEquals(1.0, meterRegistry.counter("ewm.stats.hits.dropped").count());
+    }
+
+    @Test
+    void offer_Spill() throws Exception {
+        queue = create(1, HitOverflowPolicy.SPILL);
+
+        assertEquals(1, queue.offer(getHit(1)));
+        assertEquals(-1, queue.offer(getHit(2)));
+
+        final List<String> lines = Files.readAllLines(tempDir.resolve("hits.spill"));
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).contains("/events/2"));
+        assertEquals(1.0, meterRegistry.counter("ewm.stats.hits.spilled").count());
+    }
+
+    @Test
+    void send_Failed() {
+        when(statsClient.saveHits(anyList())).thenThrow(new RuntimeException("Connection refused"));
+        queue = create(10, HitOverflowPolicy.DROP);
+        queue.start();
+
+        queue.offer(getHit(1));
+
+        verify(statsClient, timeout(2000).times(1)).saveHits(anyList());
+        queue.stop();
+        assertEquals(1.0, meterRegistry.counter("ewm.stats.hits.failed").count());
+        assertEquals(0, queue.getSentSequence());
+    }
+
+    @Test
+    void send_Succeeded_AdvanceSentSequence() {
+        queue = create(10, HitOverflowPolicy.DROP);
+        final long seq = queue.offer(getHit(1));
+
+        queue.start();
+        queue.stop();
+
+        assertEquals(seq, queue.getSentSequence());
+    }
+
+    @Test
+    void replay_LeftoverReplayFileFirst_SkipUnreadable() throws Exception {
+        final Path spillFile = tempDir.resolve("hits.spill");
+        final Path replayFile = tempDir.resolve("hits.spill.replay");
+        Files.write(replayFile, List.of(objectMapper.writeValueAsString(getHit(1)), "{broken",
+                objectMapper.writeValueAsString(getHit(2))));
+        Files.write(spillFile, List.of(objectMapper.writeValueAsString(getHit(3))));
+        queue = create(10, HitOverflowPolicy.SPILL);
+
+        queue.start();
+        verify(statsClient, timeout(2000).atLeastOnce()).saveHits(anyList());
+        queue.stop();
+
+        assertEquals(2, received.get());
+        assertEquals(1.0, meterRegistry.counter("ewm.stats.hits.unreadable").count());
+        assertFalse(Files.exists(replayFile));
+        final List<String> spilled = Files.readAllLines(spillFile);
+        assertEquals(1, spilled.size());
+        assertTrue(spilled.get(0).contains("/events/3"));
+    }
+
+    @Test
+    void stop_DrainQueue() {
+        queue = create(10, HitOverflowPolicy.DROP);
+        queue.offer(getHit(1));
+        queue.offer(getHit(2));
+        queue.offer(getHit(3));
+
+        queue.start();
+        queue.stop();
+
+        assertEquals(3, received.get());
+        assertEquals(0, queue.getDepth());
+    }
+
+    private StatsHitQueue create(int capacity, HitOverflowPolicy policy) {
+        return new StatsHitQueue(statsClient, objectMapper, meterRegistry, capacity, 2, 50, policy, 10,
+                tempDir.resolve("hits.spill").toString());
+    }
+
+    private EndpointHitDto getHit(long id) {
+        return EndpointHitDto.builder()
+                .app("ewm-main-service")
+                .uri("/events/" + id)
+                .ip("127.0.0.1")
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+}
@@ -3,29 +3,35 @@ package ru.practicum.service.stats;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpStatus;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import ru.practicum.client.StatsClient;
+import ru.practicum.dto.EndpointHitDto;
 import ru.practicum.dto.ViewStatsDto;
 import ru.practicum.exception.ResponseException;
 
 import javax.servlet.http.HttpServletRequest;
-import java.net.URI;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -36,6 +42,12 @@ class StatsServiceTest {
     @Mock
     private StatsClient statsClient;
     @Mock
+    private StatsHitQueue hitQueue;
+    @Mock
+    private ViewCountCache viewCountCache;
+    @Mock
+    private StatsCircuitBreaker circuitBreaker;
+    @Mock
     private HttpServletRequest request;
     @InjectMocks
     private StatsServiceImpl service;
@@ -48,6 +60,7 @@ class StatsServiceTest {
     void setUp() {
         final String appName = "main-service";
         ReflectionTestUtils.setField(service, "appName", appName);
+        when(circuitBreaker.tryAcquire()).thenReturn(true);
 
         viewStatsDto1 = ViewStatsDto.builder().app(appName).uri(uri).hits(1).build();
         viewStatsDto2 = ViewStatsDto.builder().app(appName).uri("/events/2").hits(1).build();
@@ -55,51 +68,95 @@ class StatsServiceTest {
 
     @Test
     void save() {
-        final ResponseEntity<Object> response = ResponseEntity.created(URI.create(ip)).build();
-
         when(request.getRequestURI()).thenReturn(uri);
         when(request.getRemoteAddr()).thenReturn(ip);
-        when(statsClient.saveHit(any())).thenReturn(response);
 
         service.save(request);
         verify(request, times(1)).getRequestURI();
         verify(request, times(1)).getRemoteAddr();
+
+        final ArgumentCaptor<EndpointHitDto> captor = ArgumentCaptor.forClass(EndpointHitDto.class);
+        verify(hitQueue, times(1)).offer(captor.capture());
+        assertEquals("main-service", captor.getValue().getApp());
+        assertEquals(uri, captor.getValue().getUri());
+        assertEquals(ip, captor.getValue().getIp());
     }
 
     @Test
     void save_List() {
-        final ResponseEntity<Object> response = ResponseEntity.created(URI.create(ip)).build();
-
         when(request.getRequestURI()).thenReturn("/events");
         when(request.getRemoteAddr()).thenReturn(ip);
-        when(statsClient.saveHit(any())).thenReturn(response);
 
         service.save(request, List.of(1L, 2L));
 
         verify(request, atLeast(1)).getRequestURI();
         verify(request, atLeast(1)).getRemoteAddr();
+        verify(hitQueue, times(2)).offer(any());
     }
 
     @Test
-    void save_BadRequest() {
-        final ResponseEntity<Object> response = ResponseEntity.badRequest().build();
+    void save_RecordEventHit() {
+        when(request.getRequestURI()).thenReturn(uri);
+        when(request.getRemoteAddr()).thenReturn(ip);
+        when(hitQueue.offer(any())).thenReturn(5L);
 
+        service.save(request);
+
+        verify(viewCountCache, times(1)).recordHit(1L, ip, 5L);
+    }
+
+    @Test
+    void save_NotRecordDroppedHit() {
         when(request.getRequestURI()).thenReturn(uri);
         when(request.getRemoteAddr()).thenReturn(ip);
-        when(statsClient.saveHit(any())).thenReturn(response);
+        when(hitQueue.offer(any())).thenReturn(-1L);
+
+        service.save(request);
+
+        verify(viewCountCache, never()).recordHit(anyLong(), any(), anyLong());
+    }
 
-        final ResponseException exception = assertThrows(ResponseException.class, () -> service.save(request));
-        assertEquals("Failed to save data to stats service.", exception.getMessage());
+    @Test
+    void getViews() {
+        final List<ViewStatsDto> response = List.of(viewStatsDto1, viewStatsDto2);
+        when(statsClient.getStats(any(), any(), any(), ArgumentMatchers.anyList(), anyBoolean())).thenReturn(response);
+        when(viewCountCache.getViews(ArgumentMatchers.anyCollection(), anyBoolean(), any()))
+                .thenAnswer(invocation -> {
+                    final Function<List<Long>, Map<Long, Long>> loader = invocation.getArgument(2);
+                    return loader.apply(invocation.getArgument(0));
+                });
+
+        final Map<Long, Long> views = service.getViews(List.of(1L, 2L, 3L), false);
+
+        assertEquals(Map.of(1L, 1L, 2L, 1L, 3L, 0L), views);
+        verify(statsClient, times(1)).getStats(any(), any(), ArgumentMatchers.eq("main-service"),
+                ArgumentMatchers.eq(List.of("/events/1", "/events/2", "/events/3")), ArgumentMatchers.eq(false));
+    }
+
+    @Test
+    void getViews_EmptyList() {
+        assertEquals(Map.of(), service.getViews(List.of(), true));
+        verify(viewCountCache, never()).getViews(ArgumentMatchers.anyCollection(), anyBoolean(), any());
+    }
+
+    @Test
+    void save_NotCallStatsClient() {
+        when(request.getRequestURI()).thenReturn(uri);
+        when(request.getRemoteAddr()).thenReturn(ip);
+
+        service.save(request);
+
+        verify(statsClient, never()).saveHit(any());
     }
 
     @Test
     void getMap() {
-        final ResponseEntity<Object> response = ResponseEntity.ok(List.of(viewStatsDto1));
+        final List<ViewStatsDto> response = List.of(viewStatsDto1);
         final Map<String, Long> expected = Map.of("/events/1", 1L);
 
         when(request.getRemoteAddr()).thenReturn(ip);
         when(request.getRequestURI()).thenReturn(uri);
-        when(statsClient.getStats(any(), any(), ArgumentMatchers.anyList(), anyBoolean())).thenReturn(response);
+        when(statsClient.getStats(any(), any(), any(), ArgumentMatchers.anyList(), anyBoolean())).thenReturn(response);
 
         final Map<String, Long> actualViewStatsDto = service.getMap(request, true);
         assertEquals(expected, actualViewStatsDto);
@@ -107,7 +164,7 @@ class StatsServiceTest {
 
     @Test
     void getMap2() {
-        final ResponseEntity<Object> response = ResponseEntity.ok(List.of(viewStatsDto1, viewStatsDto2));
+        final List<ViewStatsDto> response = List.of(viewStatsDto1, viewStatsDto2);
         final Map<String, Long> expected = Map.of(
                 "/events/1", 1L,
                 "/events/2", 1L
@@ -115,7 +172,7 @@ class StatsServiceTest {
 
         when(request.getRemoteAddr()).thenReturn(ip);
         when(request.getRequestURI()).thenReturn(uri);
-        when(statsClient.getStats(any(), any(), ArgumentMatchers.anyList(), anyBoolean())).thenReturn(response);
+        when(statsClient.getStats(any(), any(), any(), ArgumentMatchers.anyList(), anyBoolean())).thenReturn(response);
 
         final Map<String, Long> actualViewStatsDto = service.getMap(request, List.of(1L, 2L), true);
         assertEquals(expected, actualViewStatsDto);
@@ -123,7 +180,7 @@ class StatsServiceTest {
 
     @Test
     void getMap3() {
-        final ResponseEntity<Object> response = ResponseEntity.ok(List.of(viewStatsDto1, viewStatsDto2));
+        final List<ViewStatsDto> response = List.of(viewStatsDto1, viewStatsDto2);
         final Map<String, Long> expected = Map.of(
                 "/events/1", 1L,
                 "/events/2", 1L
@@ -131,7 +188,7 @@ class StatsServiceTest {
 
         when(request.getRemoteAddr()).thenReturn(ip);
         when(request.getRequestURI()).thenReturn(uri);
-        when(statsClient.getStats(any(), any(), ArgumentMatchers.anyList(), anyBoolean())).thenReturn(response);
+        when(statsClient.getStats(any(), any(), any(), ArgumentMatchers.anyList(), anyBoolean())).thenReturn(response);
 
         final LocalDateTime start = LocalDateTime.MIN;
         final LocalDateTime end = LocalDateTime.MAX;
@@ -141,14 +198,36 @@ class StatsServiceTest {
 
     @Test
     void get_BadRequest() {
-        final ResponseEntity<Object> response = ResponseEntity.badRequest().build();
-
         when(request.getRemoteAddr()).thenReturn(ip);
         when(request.getRequestURI()).thenReturn(uri);
-        when(statsClient.getStats(any(), any(), ArgumentMatchers.anyList(), anyBoolean())).thenReturn(response);
+        when(statsClient.getStats(any(), any(), any(), ArgumentMatchers.anyList(), anyBoolean()))
+                .thenThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST));
 
         final ResponseException exception = assertThrows(ResponseException.class,
                 () -> service.getMap(request, true));
         assertEquals("Failed to get data from stats service.", exception.getMessage());
+        verify(circuitBreaker, times(1)).onSuccess();
+        verify(circuitBreaker, never()).onFailure();
+    }
+
+    @Test
+    void loadViews_ServiceUnavailable() {
+        when(statsClient.getStats(any(), any(), any(), ArgumentMatchers.anyList(), anyBoolean()))
+                .thenThrow(new ResourceAccessException("Read timed out"));
+
+        final ResponseException exception = assertThrows(ResponseException.class,
+                () -> service.loadViews(List.of(1L), false));
+        assertEquals("Failed to get data from stats service.", exception.getMessage());
+        verify(circuitBreaker, times(1)).onFailure();
+    }
+
+    @Test
+    void loadViews_CircuitOpen() {
+        when(circuitBreaker.tryAcquire()).thenReturn(false);
+
+        final ResponseException exception = assertThrows(ResponseException.class,
+                () -> service.loadViews(List.of(1L), false));
+        assertEquals("Stats service is unavailable.", exception.getMessage());
+        verify(statsClient, never()).getStats(any(), any(), any(), ArgumentMatchers.anyList(), anyBoolean());
     }
 }
\ No newline at end of file
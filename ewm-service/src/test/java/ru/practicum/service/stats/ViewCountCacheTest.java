@@ -0,0 +1,169 @@
+package ru.practicum.service.stats;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.exception.ResponseException;
+import ru.practicum.utils.TtlCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ViewCountCacheTest {
+    private final StatsHitQueue hitQueue = mock(StatsHitQueue.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong time = new AtomicLong();
+    private final List<List<Long>> loads = new ArrayList<>();
+    private ViewCountCache viewCountCache;
+
+    @BeforeEach
+    void setUp() {
+        final TtlCache<ViewCountCache.ViewKey, ViewCountCache.ViewCount> cache =
+                new TtlCache<>(100, Duration.ofSeconds(10), Duration.ofSeconds(30), time::get);
+        viewCountCache = new ViewCountCache(hitQueue, meterRegistry, cache, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        viewCountCache.shutdown();
+    }
+
+    @Test
+    void getViews_LoadMissingInOneCall() {
+        final Map<Long, Long> views = viewCountCache.getViews(List.of(1L, 2L, 3L), false, loader(5L));
+
+        assertEquals(Map.of(1L, 5L, 2L, 5L, 3L, 5L), views);
+        assertEquals(List.of(List.of(1L, 2L, 3L)), loads);
+        assertEquals(3.0, meterRegistry.counter("ewm.views.cache.requests", "result", "miss").count());
+    }
+
+    @Test
+    void getViews_FromCache() {
+        viewCountCache.getViews(List.of(1L, 2L), false, loader(5L));
+        final Map<Long, Long> views = viewCountCache.getViews(List.of(1L, 2L, 3L), false, loader(7L));
+
+        assertEquals(Map.of(1L, 5L, 2L, 5L, 3L, 7L), views);
+        assertEquals(List.of(List.of(1L, 2L), List.of(3L)), loads);
+        assertEquals(2.0, meterRegistry.counter("ewm.views.cache.requests", "result", "hit").count());
+    }
+
+    @Test
+    void getViews_UniqueAndNotUniqueCachedSeparately() {
+        viewCountCache.getViews(List.of(1L), false, loader(5L));
+        final Map<Long, Long> views = viewCountCache.getViews(List.of(1L), true, loader(2L));
+
+        assertEquals(Map.of(1L, 2L), views);
+        assertEquals(2, loads.size());
+    }
+
+    @Test
+    void getViews_StaleRefreshedInBackground() {
+        viewCountCache.getViews(List.of(1L), false, loader(5L));
+        time.addAndGet(Duration.ofSeconds(15).toNanos());
+
+        final Function<List<Long>, Map<Long, Long>> refreshLoader = mock(Function.class);
+        when(refreshLoader.apply(List.of(1L))).thenReturn(Map.of(1L, 8L));
+
+        assertEquals(Map.of(1L, 5L), viewCountCache.getViews(List.of(1L), false, refreshLoader));
+        verify(refreshLoader, timeout(2000).times(1)).apply(List.of(1L));
+        assertEquals(1.0, meterRegistry.counter("ewm.views.cache.requests", "result", "stale").count());
+    }
+
+    @Test
+    void getViews_ExpiredLoadedAgain() {
+        viewCountCache.getViews(List.of(1L), false, loader(5L));
+        time.addAndGet(Duration.ofSeconds(41).toNanos());
+
+        assertEquals(Map.of(1L, 9L), viewCountCache.getViews(List.of(1L), false, loader(9L)));
+        assertEquals(2, loads.size());
+    }
+
+    @Test
+    void recordHit_CountedUntilSent() {
+        viewCountCache.getViews(List.of(1L), false, loader(5L));
+        viewCountCache.recordHit(1L, "127.0.0.1", 1);
+        viewCountCache.recordHit(1L, "127.0.0.1", 2);
+
+        assertEquals(Map.of(1L, 7L), viewCountCache.getViews(List.of(1L), false, loader(0L)));
+
+        when(hitQueue.getSentSequence()).thenReturn(2L);
+        time.addAndGet(Duration.ofSeconds(41).toNanos());
+        assertEquals(Map.of(1L, 7L), viewCountCache.getViews(List.of(1L), false, loader(7L)));
+    }
+
+    @Test
+    void recordHit_DuringLoad_Kept() {
+        final TtlCache<ViewCountCache.ViewKey, ViewCountCache.ViewCount> cache =
+                new TtlCache<>(100, Duration.ofSeconds(10), Duration.ofSeconds(30), time::get) {
+                    @Override
+                    public synchronized ViewCountCache.ViewCount compute(
+                            ViewCountCache.ViewKey key,
+                            UnaryOperator<ViewCountCache.ViewCount> function) {
+                        // хит пишется между загрузкой значения и его записью в кэш
+                        merge(key, ViewCountCache.ViewCount.notLoaded().withLocalHit("127.0.0.1", 1),
+                                count -> count.withLocalHit("127.0.0.1", 1));
+                        return super.compute(key, function);
+                    }
+                };
+        final ViewCountCache racyCache = new ViewCountCache(hitQueue, meterRegistry, cache, 1);
+        try {
+            assertEquals(Map.of(1L, 6L), racyCache.getViews(List.of(1L), false, loader(5L)));
+        } finally {
+            racyCache.shutdown();
+        }
+    }
+
+    @Test
+    void recordHit_UniqueIsLowerBound() {
+        viewCountCache.recordHit(1L, "127.0.0.1", 1);
+        viewCountCache.recordHit(1L, "127.0.0.1", 2);
+
+        assertEquals(Map.of(1L, 1L), viewCountCache.getViews(List.of(1L), true, loader(0L)));
+        assertEquals(Map.of(1L, 1L), viewCountCache.getViews(List.of(1L), true, loader(0L)));
+        verify(hitQueue, times(1)).getSentSequence();
+    }
+
+    @Test
+    void getViews_StatsUnavailableNotCached() {
+        assertEquals(Map.of(1L, 0L, 2L, 0L), viewCountCache.getViews(List.of(1L, 2L), false, failingLoader()));
+        assertEquals(2.0, meterRegistry.counter("ewm.views.cache.degraded").count());
+
+        assertEquals(Map.of(1L, 9L, 2L, 9L), viewCountCache.getViews(List.of(1L, 2L), false, loader(9L)));
+    }
+
+    @Test
+    void getViews_StatsUnavailableKeepsStale() {
+        viewCountCache.getViews(List.of(1L), false, loader(5L));
+        time.addAndGet(Duration.ofSeconds(11).toNanos());
+
+        assertEquals(Map.of(1L, 5L), viewCountCache.getViews(List.of(1L), false, failingLoader()));
+        assertEquals(Map.of(1L, 5L), viewCountCache.getViews(List.of(1L), false, loader(9L)));
+    }
+
+    private Function<List<Long>, Map<Long, Long>> failingLoader() {
+        return ids -> {
+            throw new ResponseException("Stats service is unavailable.");
+        };
+    }
+
+    private Function<List<Long>, Map<Long, Long>> loader(long views) {
+        return ids -> {
+            loads.add(ids);
+            return ids.stream().collect(Collectors.toMap(id -> id, id -> views));
+        };
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.service.subs;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.repository.FriendFeedRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class FriendFeedServiceTest {
+    private final FriendFeedRepository friendFeedRepository = mock(FriendFeedRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final FriendFeedServiceImpl service = new FriendFeedServiceImpl(friendFeedRepository, transactionManager);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void addFriendships_repeatedAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        service.addFriendships(List.of(1L));
+        verify(friendFeedRepository, times(1)).insertFriendEvents(eq(List.of(1L)), any());
+        verify(transactionManager, never()).getTransaction(any());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(transactionManager, never()).getTransaction(any());
+
+        assertEquals(1, service.repeatCommitted());
+        assertEquals(0, service.repeatCommitted());
+        verify(friendFeedRepository, times(2)).insertFriendEvents(eq(List.of(1L)), any());
+        verify(friendFeedRepository, times(2)).insertFriendParticipations(eq(List.of(1L)), any());
+        verify(transactionManager, times(1)).getTransaction(any());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void addEvent_withoutTransaction_notRepeated() {
+        service.addEvent(1L);
+
+        verify(friendFeedRepository, times(1)).insertEvent(1L);
+        verify(transactionManager, never()).getTransaction(any());
+        assertEquals(0, service.repeatCommitted());
+    }
+}
@@ -0,0 +1,106 @@
+package ru.practicum.service.subs;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.repository.FriendshipRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static ru.practicum.enums.FriendshipState.APPROVED;
+
+class FriendshipGraphTest {
+    private final FriendshipRepository friendshipRepository = mock(FriendshipRepository.class);
+    private FriendshipGraph graph;
+
+    @BeforeEach
+    void setUp() {
+        graph = new FriendshipGraph(friendshipRepository);
+    }
+
+    @Test
+    void rebuild_LoadApprovedEdges() {
+        when(friendshipRepository.findEdges(eq(APPROVED), eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(edge(1, 10, 20), edge(2, 11, 20), edge(3, 10, 21)));
+
+        graph.rebuild();
+
+        assertArrayEquals(new long[]{20, 21}, graph.getFriendIds(10));
+        assertArrayEquals(new long[]{10, 11}, graph.getFollowerIds(20));
+        assertTrue(graph.isFriend(11, 20));
+        assertFalse(graph.isFriend(20, 11));
+    }
+
+    @Test
+    void notLoaded_ReadFromDatabase() {
+        when(friendshipRepository.existsByFollowerIdAndFriendIdAndState(1, 2, APPROVED)).thenReturn(true);
+        when(friendshipRepository.findFriendIds(1, APPROVED)).thenReturn(List.of(2L, 3L));
+        when(friendshipRepository.findFollowerIds(2, APPROVED)).thenReturn(List.of(1L));
+
+        assertTrue(graph.isFriend(1, 2));
+        assertArrayEquals(new long[]{2, 3}, graph.getFriendIds(1));
+        assertArrayEquals(new long[]{1}, graph.getFollowerIds(2));
+
+        graph.rebuild();
+
+        assertFalse(graph.isFriend(1, 2));
+        verify(friendshipRepository, times(1)).existsByFollowerIdAndFriendIdAndState(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void rebuild_ReplaceGraphAndKeepChangesMadeDuringRebuild() {
+        when(friendshipRepository.findEdges(eq(APPROVED), eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(edge(1, 10, 20), edge(2, 11, 20)));
+        graph.rebuild();
+
+        when(friendshipRepository.findEdges(eq(APPROVED), eq(0L), any(Pageable.class))).thenAnswer(invocation -> {
+            graph.addFriendship(12, 20);
+            return List.of(edge(1, 10, 20));
+        });
+        graph.rebuild();
+
+        assertArrayEquals(new long[]{10, 12}, graph.getFollowerIds(20));
+        assertFalse(graph.isFriend(11, 20));
+    }
+
+    @Test
+    void addRemoveFriendship() {
+        graph.rebuild();
+        graph.addFriendship(1, 2);
+        graph.addFriendship(3, 2);
+        graph.removeFriendship(1, 2);
+
+        assertArrayEquals(new long[0], graph.getFriendIds(1));
+        assertArrayEquals(new long[]{3}, graph.getFollowerIds(2));
+        assertFalse(graph.isFriend(1, 2));
+    }
+
+    private static FriendshipRepository.Edge edge(long id, long followerId, long friendId) {
+        return new FriendshipRepository.Edge() {
+            @Override
+            public long getId() {
+                return id;
+            }
+
+            @Override
+            public long getFollowerId() {
+                return followerId;
+            }
+
+            @Override
+            public long getFriendId() {
+                return friendId;
+            }
+        };
+    }
+}
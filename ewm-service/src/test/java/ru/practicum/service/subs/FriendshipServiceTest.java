@@ -22,12 +22,16 @@ import ru.practicum.service.user.UserService;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static ru.practicum.enums.FriendshipState.APPROVED;
 import static ru.practicum.enums.FriendshipState.PENDING;
@@ -39,6 +43,10 @@ class FriendshipServiceTest {
     private FriendshipRepository friendshipRepository;
     @Mock
     private UserService userService;
+    @Mock
+    private FriendFeedService friendFeedService;
+    @Mock
+    private FriendshipGraph friendshipGraph;
     @InjectMocks
     private FriendshipServiceImpl service;
     private List<FriendshipShortDto> allDto;
@@ -79,6 +87,7 @@ class FriendshipServiceTest {
         final User follower = new User(1L, "User1", "user1@m.ru", false);
         final User friend = new User(2L, "User2", "user2@m.ru", isAutoSubscribe);
         final Friendship friendshipRequest = Friendship.builder()
+                .id(1L)
                 .follower(follower)
                 .friend(friend)
                 .state(friend.isAutoSubscribe() ? APPROVED : PENDING)
@@ -92,6 +101,8 @@ class FriendshipServiceTest {
         final FriendshipDto friendshipDto = service.requestFriendship(1L, 2L);
 
         assertEquals(FriendshipMapper.toDto(friendshipRequest), friendshipDto);
+        verify(friendFeedService, times(isAutoSubscribe ? 1 : 0)).addFriendships(List.of(1L));
+        verify(friendshipGraph, times(isAutoSubscribe ? 1 : 0)).addFriendship(1L, 2L);
     }
 
     @Test
@@ -119,6 +130,9 @@ class FriendshipServiceTest {
 
         final List<FriendshipShortDto> friendshipShortDtos = service.approveFriendship(1L, List.of(2L, 3L));
         assertEquals(FriendshipMapper.toShortDto(saved), friendshipShortDtos);
+        verify(friendFeedService, times(1)).addFriendships(List.of(2L, 3L));
+        verify(friendshipGraph, times(1)).addFriendship(2L, 1L);
+        verify(friendshipGraph, times(1)).addFriendship(3L, 1L);
     }
 
     @Test
@@ -156,25 +170,53 @@ class FriendshipServiceTest {
 
         final List<FriendshipShortDto> friendshipShortDtos = service.rejectFriendship(1L, List.of(2L, 3L));
         assertEquals(FriendshipMapper.toShortDto(saved), friendshipShortDtos);
+        verify(friendFeedService, never()).removeFriendships(any());
+        verify(friendshipGraph, never()).removeFriendship(anyLong(), anyLong());
+    }
+
+    @Test
+    void rejectFriendship_removeApproved() {
+        final User user1 = new User(1L, "User1", "user1@m.ru", false);
+        final User follower1 = new User(2L, "Follower1", "follower1@m.ru", false);
+        final User follower2 = new User(3L, "Follower2", "follower2@m.ru", false);
+        final Friendship f1 = Friendship.builder().id(2L).friend(user1).follower(follower1).state(PENDING).build();
+        final Friendship f2 = Friendship.builder().id(3L).friend(user1).follower(follower2).state(APPROVED).build();
+
+        when(friendshipRepository.findAllById(any())).thenReturn(List.of(f1, f2));
+        when(friendshipRepository.saveAll(any())).thenReturn(List.of(f1, f2));
+
+        service.rejectFriendship(1L, List.of(2L, 3L));
+        verify(friendFeedService, times(1)).removeFriendships(List.of(3L));
+        verify(friendshipGraph, times(1)).removeFriendship(3L, 1L);
+        verify(friendshipGraph, never()).removeFriendship(2L, 1L);
     }
 
     @Test
     void deleteFriendshipRequest() {
+        final Friendship friendship = Friendship.builder().id(2L)
+                .follower(new User(1L, "User1", "user1@m.ru", false))
+                .friend(new User(3L, "User3", "user3@m.ru", false))
+                .state(APPROVED)
+                .build();
         doNothing().when(userService).checkExistById(anyLong());
-        when(friendshipRepository.existsByIdAndFollowerId(anyLong(), anyLong())).thenReturn(true);
+        when(friendshipRepository.findByIdAndFollowerId(anyLong(), anyLong())).thenReturn(Optional.of(friendship));
 
         service.deleteFriendshipRequest(1L, 2L);
+        verify(friendshipRepository, times(1)).deleteByFollowerIdAndId(1L, 2L);
+        verify(friendFeedService, times(1)).removeFriendships(List.of(2L));
+        verify(friendshipGraph, times(1)).removeFriendship(1L, 3L);
     }
 
     @Test
     void deleteFriendshipRequest_throwException() {
         doNothing().when(userService).checkExistById(anyLong());
-        when(friendshipRepository.existsByIdAndFollowerId(anyLong(), anyLong())).thenReturn(false);
+        when(friendshipRepository.findByIdAndFollowerId(anyLong(), anyLong())).thenReturn(Optional.empty());
 
         final NotFoundException exception = assertThrows(NotFoundException.class,
                 () -> service.deleteFriendshipRequest(1L, 2L));
 
         assertEquals("Friendship request no exist.", exception.getMessage());
+        verify(friendFeedService, never()).removeFriendships(any());
     }
 
     @ParameterizedTest
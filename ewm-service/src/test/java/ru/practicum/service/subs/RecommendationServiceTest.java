@@ -0,0 +1,123 @@
+package ru.practicum.service.subs;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.dto.event.EventShortDto;
+import ru.practicum.dto.user.UserShortDto;
+import ru.practicum.enums.FriendFeedType;
+import ru.practicum.model.FriendFeedItem;
+import ru.practicum.repository.EventRepository;
+import ru.practicum.repository.FriendFeedRepository;
+import ru.practicum.repository.FriendshipRepository;
+import ru.practicum.repository.RequestRepository;
+import ru.practicum.service.event.EventService;
+import ru.practicum.service.stats.StatsService;
+import ru.practicum.service.user.UserService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static ru.practicum.enums.RequestStatus.CONFIRMED;
+
+@ExtendWith(MockitoExtension.class)
+class RecommendationServiceTest {
+    private static final long USER = 1;
+    private static final long FRIEND = 2;
+    private static final long FRIEND2 = 3;
+    private static final long FRIEND_OF_FRIEND = 4;
+
+    @Mock
+    private UserService userService;
+    @Mock
+    private EventService eventService;
+    @Mock
+    private StatsService statsService;
+    @Mock
+    private FriendFeedRepository friendFeedRepository;
+    @Mock
+    private EventRepository eventRepository;
+    @Mock
+    private RequestRepository requestRepository;
+    private RecommendationServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        final FriendshipGraph graph = new FriendshipGraph(mock(FriendshipRepository.class));
+        graph.rebuild();
+        graph.addFriendship(USER, FRIEND);
+        graph.addFriendship(USER, FRIEND2);
+        graph.addFriendship(FRIEND, FRIEND_OF_FRIEND);
+        service = new RecommendationServiceImpl(userService, eventService, statsService, graph,
+                friendFeedRepository, eventRepository, requestRepository, 100, 60000, 2, 10, 1000, 10);
+    }
+
+    @Test
+    void rank_FriendsWeightedAboveFriendsOfFriends() {
+        when(friendFeedRepository.findByFollowers(eq(FriendFeedType.PARTICIPATION),
+                eq(List.of(USER, FRIEND, FRIEND2)), any(), any())).thenReturn(List.of(
+                item(USER, 10, FRIEND),
+                item(FRIEND, 11, FRIEND_OF_FRIEND),
+                item(USER, 12, FRIEND),
+                item(USER, 12, FRIEND2),
+                // друг виден и в ленте другого друга - учитывается один раз
+                item(FRIEND2, 12, FRIEND),
+                // пользователь уже участвует
+                item(USER, 13, FRIEND2)));
+        when(requestRepository.findEventIdsByRequesterIdAndStatus(eq(USER), eq(CONFIRMED), any()))
+                .thenReturn(List.of(13L));
+        when(statsService.getViews(List.of(12L, 10L, 11L), false)).thenReturn(Map.of(10L, 100L));
+
+        // 12: 2 + 2, 10: 2 * (1 + ln 101), 11: 1
+        assertArrayEquals(new long[]{10, 12}, service.rank(USER));
+    }
+
+    @Test
+    void rank_ExcludeOwnEvents() {
+        when(friendFeedRepository.findByFollowers(any(), any(), any(), any())).thenReturn(List.of(
+                item(USER, 10, FRIEND),
+                item(USER, 11, FRIEND2)));
+        when(eventRepository.findIdsByInitiator(List.of(10L, 11L), USER)).thenReturn(List.of(10L));
+        when(statsService.getViews(List.of(10L, 11L), false)).thenReturn(Map.of());
+
+        assertArrayEquals(new long[]{11}, service.rank(USER));
+    }
+
+    @Test
+    void getRecommendations_CachedTopK() {
+        final EventShortDto event = new EventShortDto(10L, "title", "annotation", 1L, 0,
+                LocalDateTime.now().plusDays(1), new UserShortDto(FRIEND, "friend"), false);
+        when(friendFeedRepository.findByFollowers(any(), any(), any(), any()))
+                .thenReturn(List.of(item(USER, 10, FRIEND)));
+        when(statsService.getViews(List.of(10L), false)).thenReturn(Map.of());
+        when(eventService.findShortEventsByIds(List.of(10L))).thenReturn(List.of(event));
+        when(eventService.withViews(List.of(event))).thenReturn(List.of(event));
+
+        assertEquals(List.of(event), service.getRecommendations(USER, 0, 10));
+        assertEquals(List.of(event), service.getRecommendations(USER, 0, 10));
+        assertEquals(List.of(), service.getRecommendations(USER, 1, 10));
+
+        verify(friendFeedRepository, times(1)).findByFollowers(any(), any(), any(), any());
+    }
+
+    private static FriendFeedItem item(long followerId, long eventId, long friendId) {
+        return FriendFeedItem.builder()
+                .followerId(followerId)
+                .type(FriendFeedType.PARTICIPATION)
+                .eventId(eventId)
+                .friendId(friendId)
+                .eventDate(LocalDateTime.now().plusDays(1))
+                .build();
+    }
+}
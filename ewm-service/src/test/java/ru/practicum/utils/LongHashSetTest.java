@@ -0,0 +1,62 @@
+package ru.practicum.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongHashSetTest {
+    private final LongHashSet set = new LongHashSet();
+
+    @Test
+    void add_ContainsAndSize() {
+        assertTrue(set.add(5));
+        assertTrue(set.add(0));
+        assertTrue(set.add(-7));
+        assertFalse(set.add(5));
+
+        assertEquals(3, set.size());
+        assertTrue(set.contains(0));
+        assertFalse(set.contains(6));
+        assertArrayEquals(new long[]{-7, 0, 5}, set.toSortedArray());
+    }
+
+    @Test
+    void remove_KeepOtherKeysReachable() {
+        for (long i = 1; i <= 100; i++) {
+            set.add(i * 16);
+        }
+        for (long i = 1; i <= 100; i += 2) {
+            assertTrue(set.remove(i * 16));
+        }
+        assertFalse(set.remove(16));
+
+        assertEquals(50, set.size());
+        for (long i = 1; i <= 100; i++) {
+            assertEquals(i % 2 == 0, set.contains(i * 16));
+        }
+    }
+
+    @Test
+    void addRemove_SameAsHashSet() {
+        final Random random = new Random(42);
+        final Set<Long> expected = new HashSet<>();
+        for (int i = 0; i < 10000; i++) {
+            final long key = random.nextInt(500);
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(key), set.add(key));
+            } else {
+                assertEquals(expected.remove(key), set.remove(key));
+            }
+        }
+
+        assertEquals(expected.size(), set.size());
+        assertArrayEquals(expected.stream().mapToLong(Long::longValue).sorted().toArray(), set.toSortedArray());
+    }
+}
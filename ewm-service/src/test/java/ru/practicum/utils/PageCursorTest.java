@@ -0,0 +1,51 @@
+package ru.practicum.utils;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.exception.ValidateException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PageCursorTest {
+
+    @Test
+    void decode_EncodedCursor() {
+        final PageCursor byDate = PageCursor.ofEventDate(LocalDateTime.of(2024, 1, 2, 3, 4, 5), 15L);
+        final PageCursor byId = PageCursor.ofId(7L);
+
+        assertEquals(byDate, PageCursor.decode(byDate.encode(), PageCursor.BY_EVENT_DATE));
+        assertEquals(byId, PageCursor.decode(byId.encode(), PageCursor.BY_ID));
+    }
+
+    @Test
+    void decode_FirstPage() {
+        assertNull(PageCursor.decode(null, PageCursor.BY_ID));
+        assertNull(PageCursor.decode("", PageCursor.BY_ID));
+    }
+
+    @Test
+    void decode_ThrowException_whenInvalidCursor() {
+        assertThrows(ValidateException.class, () -> PageCursor.decode("not a cursor", PageCursor.BY_ID));
+        assertThrows(ValidateException.class, () -> PageCursor.decode("aWR8fGFiYw", PageCursor.BY_ID));
+    }
+
+    @Test
+    void decode_ThrowException_whenOtherSort() {
+        final String cursor = PageCursor.ofId(7L).encode();
+
+        assertThrows(ValidateException.class, () -> PageCursor.decode(cursor, PageCursor.BY_EVENT_DATE));
+    }
+
+    @Test
+    void cursorPage_NextCursorFromLastElement() {
+        final CursorPage<Long> page = CursorPage.of(List.of(1L, 2L, 3L), 2, PageCursor::ofId);
+
+        assertEquals(List.of(1L, 2L), page.getContent());
+        assertEquals(PageCursor.ofId(2L).encode(), page.getNextCursor());
+        assertNull(CursorPage.of(List.of(1L, 2L), 2, PageCursor::ofId).getNextCursor());
+    }
+}
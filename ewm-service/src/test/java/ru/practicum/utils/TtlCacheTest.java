@@ -0,0 +1,87 @@
+package ru.practicum.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TtlCacheTest {
+    private final AtomicLong time = new AtomicLong();
+    private final TtlCache<String, Long> cache =
+            new TtlCache<>(2, Duration.ofSeconds(10), Duration.ofSeconds(5), time::get);
+
+    @Test
+    void get_FreshStaleExpired() {
+        cache.put("a", 1L);
+        assertFalse(cache.get("a").isStale());
+
+        time.set(Duration.ofSeconds(12).toNanos());
+        assertTrue(cache.get("a").isStale());
+        assertEquals(1L, cache.get("a").getValue());
+
+        time.set(Duration.ofSeconds(15).toNanos());
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void put_EvictLeastRecentlyUsed() {
+        cache.put("a", 1L);
+        cache.put("b", 2L);
+        cache.get("a");
+        cache.put("c", 3L);
+
+        assertNull(cache.get("b"));
+        assertEquals(1L, cache.get("a").getValue());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    void update_KeepCreationTime() {
+        cache.put("a", 1L);
+        time.set(Duration.ofSeconds(8).toNanos());
+
+        assertTrue(cache.update("a", v -> v + 1));
+        assertFalse(cache.update("b", v -> v + 1));
+
+        time.set(Duration.ofSeconds(11).toNanos());
+        assertEquals(2L, cache.get("a").getValue());
+        assertTrue(cache.get("a").isStale());
+    }
+
+    @Test
+    void compute_FromCurrentValue() {
+        assertEquals(1L, cache.compute("a", v -> v == null ? 1L : v + 1));
+        time.set(Duration.ofSeconds(20).toNanos());
+
+        assertEquals(2L, cache.compute("a", v -> v == null ? 1L : v + 1));
+        assertFalse(cache.get("a").isStale());
+    }
+
+    @Test
+    void merge_PutOrUpdate() {
+        cache.merge("a", 1L, v -> v + 10);
+        assertEquals(1L, cache.get("a").getValue());
+
+        time.set(Duration.ofSeconds(11).toNanos());
+        cache.merge("a", 1L, v -> v + 10);
+        assertEquals(11L, cache.get("a").getValue());
+        assertTrue(cache.get("a").isStale());
+    }
+
+    @Test
+    void invalidate() {
+        cache.put("a", 1L);
+        cache.put("b", 2L);
+        cache.invalidate("a");
+        assertNull(cache.get("a"));
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+    }
+}
@@ -1,36 +1,120 @@
 package ru.practicum.client;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.dto.HitBatchAckDto;
+import ru.practicum.dto.ViewStatsDto;
 
+import javax.annotation.PreDestroy;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static ru.practicum.Constants.FORMATTER;
+import static ru.practicum.Constants.HIT_BATCH_ENDPOINT;
 import static ru.practicum.Constants.HIT_ENDPOINT;
 import static ru.practicum.Constants.STATS_ENDPOINT;
 
+/**
+ * Клиент сервиса статистики поверх пула соединений Apache HttpClient.<br>
+ * - соединения переиспользуются (keep-alive) не дольше keep-alive-ms или срока, заданного сервером<br>
+ * - ожидание соединения из пула, установка соединения и чтение ответа ограничены таймаутами,
+ * поэтому медленный сервис статистики не занимает потоки запросов бесконечно
+ */
 @Service
 @Slf4j
 public class StatsClient {
+    /** Общий для всех запросов reader: ответ /stats разбирается из потока сразу в ViewStatsDto */
+    private static final ObjectReader VIEW_STATS_READER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .readerForListOf(ViewStatsDto.class);
+
     private final String serverUrl;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
     private final RestTemplate restTemplate;
 
+    public StatsClient(String serverUrl) {
+        this(serverUrl, 50, 20, 1000, 2000, 500, 30000);
+    }
+
     @Autowired
-    public StatsClient(@Value("${ewm-stats-server.url}") String serverUrl) {
+    public StatsClient(@Value("${ewm-stats-server.url}") String serverUrl,
+                       @Value("${ewm-stats-server.http.max-connections:50}") int maxConnections,
+                       @Value("${ewm-stats-server.http.max-connections-per-route:20}") int maxConnectionsPerRoute,
+                       @Value("${ewm-stats-server.http.connect-timeout-ms:1000}") int connectTimeoutMs,
+                       @Value("${ewm-stats-server.http.read-timeout-ms:2000}") int readTimeoutMs,
+                       @Value("${ewm-stats-server.http.pool-timeout-ms:500}") int poolTimeoutMs,
+                       @Value("${ewm-stats-server.http.keep-alive-ms:30000}") long keepAliveMs) {
         this.serverUrl = serverUrl;
-        this.restTemplate = new RestTemplate();
+        this.connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        // соединение, простоявшее в пуле дольше секунды, проверяется перед отправкой запроса
+        connectionManager.setValidateAfterInactivity(1000);
+
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(connectTimeoutMs)
+                        .setSocketTimeout(readTimeoutMs)
+                        .setConnectionRequestTimeout(poolTimeoutMs)
+                        .build())
+                .setKeepAliveStrategy((response, context) -> {
+                    final long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE
+                            .getKeepAliveDuration(response, context);
+                    return (serverKeepAlive > 0) ? Math.min(serverKeepAlive, keepAliveMs) : keepAliveMs;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(keepAliveMs, TimeUnit.MILLISECONDS)
+                .build();
+        this.restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+    }
+
+    /**
+     * Состояние пула соединений: занятые, свободные, ожидающие соединения запросы и размер пула
+     */
+    public PoolStats getPoolStats() {
+        return connectionManager.getTotalStats();
     }
 
-    public ResponseEntity<Object> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique) {
+    @PreDestroy
+    public void close() {
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            log.warn("Failed to close stats client: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Статистика по uri
+     * @param app только хиты этого приложения, null - всех приложений
+     * @throws org.springframework.web.client.RestClientException если сервис статистики недоступен или ответил ошибкой
+     */
+    public List<ViewStatsDto> getStats(LocalDateTime start, LocalDateTime end, String app, List<String> uris,
+                                       boolean unique) {
         final List<String> path = new ArrayList<>();
         final Map<String, Object> parameters = new HashMap<>();
 
@@ -42,6 +126,10 @@ public class StatsClient {
             parameters.put("end", end.format(FORMATTER));
             path.add("end={end}");
         }
+        if (app != null) {
+            parameters.put("app", app);
+            path.add("app={app}");
+        }
         if (uris != null && !uris.isEmpty()) {
             parameters.put("uris", String.join(",", uris));
             path.add("uris={uris}");
@@ -51,10 +139,18 @@ public class StatsClient {
         path.add("unique={unique}");
 
         final String url = serverUrl + STATS_ENDPOINT + "?" + String.join("&", path);
-        return restTemplate.getForEntity(url, Object.class, parameters);
+        final List<ViewStatsDto> stats = restTemplate.execute(url, HttpMethod.GET,
+                request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON)),
+                response -> VIEW_STATS_READER.readValue(response.getBody()),
+                parameters);
+        return (stats != null) ? stats : List.of();
     }
 
     public ResponseEntity<Object> saveHit(EndpointHitDto dto) {
         return restTemplate.postForEntity(serverUrl + HIT_ENDPOINT, dto, Object.class);
     }
+
+    public ResponseEntity<HitBatchAckDto> saveHits(List<EndpointHitDto> hits) {
+        return restTemplate.postForEntity(serverUrl + HIT_BATCH_ENDPOINT, hits, HitBatchAckDto.class);
+    }
 }
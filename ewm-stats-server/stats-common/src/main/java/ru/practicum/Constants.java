@@ -9,6 +9,9 @@ import java.time.format.DateTimeFormatter;
 public class Constants {
     public static final String STATS_ENDPOINT = "/stats";
     public static final String HIT_ENDPOINT = "/hit";
+    public static final String HIT_BATCH_ENDPOINT = "/hit/batch";
+    public static final String HITS_EXPORT_ENDPOINT = "/hits/export";
+    public static final String HITS_IMPORT_ENDPOINT = "/hits/import";
     public static final String YYYY_MM_DD_HH_MM_SS = "yyyy-MM-dd HH:mm:ss";
     public static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(YYYY_MM_DD_HH_MM_SS);
 }
\ No newline at end of file
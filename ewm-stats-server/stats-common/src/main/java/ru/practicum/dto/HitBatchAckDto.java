@@ -0,0 +1,18 @@
+package ru.practicum.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Подтверждение приема пачки хитов
+ */
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class HitBatchAckDto {
+    private int received;
+    private int saved;
+}
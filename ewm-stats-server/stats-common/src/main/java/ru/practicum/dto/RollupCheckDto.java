@@ -0,0 +1,30 @@
+package ru.practicum.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static ru.practicum.Constants.YYYY_MM_DD_HH_MM_SS;
+
+/**
+ * Результат сверки агрегатов с сырой таблицей хитов
+ */
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RollupCheckDto {
+    private String granularity;
+    @JsonFormat(pattern = YYYY_MM_DD_HH_MM_SS)
+    private LocalDateTime start;
+    @JsonFormat(pattern = YYYY_MM_DD_HH_MM_SS)
+    private LocalDateTime end;
+    private long watermark;
+    private int checked;
+    private List<RollupMismatchDto> mismatches;
+}
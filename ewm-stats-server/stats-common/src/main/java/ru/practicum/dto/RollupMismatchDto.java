@@ -0,0 +1,17 @@
+package ru.practicum.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RollupMismatchDto {
+    private String app;
+    private String uri;
+    private long rollupHits;
+    private long rawHits;
+}
@@ -0,0 +1,76 @@
+package ru.practicum.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.dto.HitBatchAckDto;
+import ru.practicum.model.HitDumpFormat;
+import ru.practicum.service.HitDumpService;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
+
+import static ru.practicum.Constants.HITS_EXPORT_ENDPOINT;
+import static ru.practicum.Constants.HITS_IMPORT_ENDPOINT;
+import static ru.practicum.Constants.YYYY_MM_DD_HH_MM_SS;
+
+/**
+ * Выгрузка сырых хитов для анализа вне сервиса и загрузка такой выгрузки обратно
+ */
+@RestController
+@RequestMapping(path = "/")
+@RequiredArgsConstructor
+@Slf4j
+public class HitDumpController {
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final HitDumpService hitDumpService;
+
+    @GetMapping(HITS_EXPORT_ENDPOINT)
+    public void exportHits(@RequestParam(name = "start", required = false)
+                           @DateTimeFormat(pattern = YYYY_MM_DD_HH_MM_SS)
+                           LocalDateTime start,
+                           @RequestParam(name = "end", required = false)
+                           @DateTimeFormat(pattern = YYYY_MM_DD_HH_MM_SS)
+                           LocalDateTime end,
+                           @RequestParam(name = "app", required = false) String app,
+                           @RequestParam(name = "afterId", defaultValue = "0") long afterId,
+                           @RequestParam(name = "limit", defaultValue = "0") long limit,
+                           @RequestParam(name = "format", defaultValue = "NDJSON") String format,
+                           @RequestParam(name = "gzip", defaultValue = "false") boolean gzip,
+                           HttpServletResponse response) throws IOException {
+        log.debug("Request received GET '{}?start={}&end={}&app={}&afterId={}&limit={}&format={}&gzip={}'",
+                HITS_EXPORT_ENDPOINT, start, end, app, afterId, limit, format, gzip);
+        final HitDumpFormat dumpFormat = HitDumpFormat.from(format);
+        hitDumpService.validateRange(start, end);
+        final String fileName = "hits." + dumpFormat.getExtension() + (gzip ? ".gz" : "");
+        response.setContentType(gzip ? "application/gzip" : dumpFormat.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+        if (gzip) {
+            final GZIPOutputStream out = new GZIPOutputStream(response.getOutputStream(), GZIP_BUFFER_SIZE);
+            hitDumpService.exportHits(start, end, app, afterId, limit, dumpFormat, out);
+            out.finish();
+        } else {
+            hitDumpService.exportHits(start, end, app, afterId, limit, dumpFormat, response.getOutputStream());
+        }
+    }
+
+    @PostMapping(HITS_IMPORT_ENDPOINT)
+    @ResponseStatus(HttpStatus.CREATED)
+    public HitBatchAckDto importHits(@RequestParam(name = "format", defaultValue = "NDJSON") String format,
+                                     InputStream dump) {
+        log.debug("Request received POST '{}?format={}'", HITS_IMPORT_ENDPOINT, format);
+        return hitDumpService.importHits(HitDumpFormat.from(format), dump);
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.dto.RollupBackfillDto;
+import ru.practicum.dto.RollupCheckDto;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.service.RollupService;
+
+import java.time.LocalDateTime;
+
+import static ru.practicum.Constants.YYYY_MM_DD_HH_MM_SS;
+
+@RestController
+@RequestMapping(path = "/admin/rollups")
+@RequiredArgsConstructor
+@Slf4j
+public class RollupController {
+    private final RollupService rollupService;
+
+    @PostMapping("/backfill")
+    public RollupBackfillDto backfill() {
+        log.debug("Request received POST '/admin/rollups/backfill'");
+        return rollupService.backfill();
+    }
+
+    @GetMapping("/check")
+    public RollupCheckDto check(@RequestParam(name = "granularity", defaultValue = "HOUR") String granularity,
+                                @RequestParam(name = "start")
+                                @DateTimeFormat(pattern = YYYY_MM_DD_HH_MM_SS)
+                                LocalDateTime start,
+                                @RequestParam(name = "end")
+                                @DateTimeFormat(pattern = YYYY_MM_DD_HH_MM_SS)
+                                LocalDateTime end) {
+        log.debug("Request received GET '/admin/rollups/check?granularity={}&start={}&end={}'",
+                granularity, start, end);
+        return rollupService.check(RollupGranularity.from(granularity), start, end);
+    }
+}
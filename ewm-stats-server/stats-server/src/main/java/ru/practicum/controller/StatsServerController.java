@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -13,16 +14,19 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.dto.HitBatchAckDto;
 import ru.practicum.dto.ViewStatsDto;
 import ru.practicum.service.StatsService;
 
 import javax.validation.Valid;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import static ru.practicum.Constants.FORMATTER;
+import static ru.practicum.Constants.HIT_BATCH_ENDPOINT;
 import static ru.practicum.Constants.HIT_ENDPOINT;
 import static ru.practicum.Constants.STATS_ENDPOINT;
 import static ru.practicum.Constants.YYYY_MM_DD_HH_MM_SS;
@@ -42,6 +46,20 @@ public class StatsServerController {
         statsService.saveHit(dto);
     }
 
+    @PostMapping(value = HIT_BATCH_ENDPOINT, consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public HitBatchAckDto saveHits(@RequestBody List<EndpointHitDto> hits) {
+        log.debug("Request received POST '{}' : {} hits", HIT_BATCH_ENDPOINT, hits.size());
+        return statsService.saveHits(hits);
+    }
+
+    @PostMapping(value = HIT_BATCH_ENDPOINT, consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public HitBatchAckDto saveHits(InputStream ndjson) {
+        log.debug("Request received POST '{}' : NDJSON stream", HIT_BATCH_ENDPOINT);
+        return statsService.saveHits(ndjson);
+    }
+
     @GetMapping(STATS_ENDPOINT)
     public List<ViewStatsDto> getStats(@RequestParam(name = "start")
                                        @DateTimeFormat(pattern = YYYY_MM_DD_HH_MM_SS)
@@ -50,22 +68,27 @@ public class StatsServerController {
                                        @DateTimeFormat(pattern = YYYY_MM_DD_HH_MM_SS)
                                        LocalDateTime end,
                                        @RequestParam(name = "uris") String[] uris,
-                                       @RequestParam(name = "unique", defaultValue = "false") boolean unique
+                                       @RequestParam(name = "app", required = false) String app,
+                                       @RequestParam(name = "unique", defaultValue = "false") boolean unique,
+                                       @RequestParam(name = "exact", defaultValue = "false") boolean exact
     ) {
-        final String pathStr = getPathStr(start, end, uris, unique);
+        final String pathStr = getPathStr(start, end, app, uris, unique, exact);
         log.debug("Request received GET '{}?{}'", STATS_ENDPOINT, pathStr);
 
-        return statsService.getStats(start, end, uris, unique)
+        return statsService.getStats(start, end, app, uris, unique, exact)
                 .stream().sorted()
                 .collect(Collectors.toList());
     }
 
-    private String getPathStr(LocalDateTime start, LocalDateTime end, String[] uris, boolean unique) {
+    private String getPathStr(LocalDateTime start, LocalDateTime end, String app, String[] uris, boolean unique,
+                              boolean exact) {
         final List<String> path = new ArrayList<>();
         if (start != null) path.add("start=" + start.format(FORMATTER));
         if (end != null) path.add("end=" + end.format(FORMATTER));
+        if (app != null) path.add("app=" + app);
         if (uris != null) path.add("uris=" + String.join("&uris=", uris));
         path.add("unique=" + unique);
+        path.add("exact=" + exact);
 
         return String.join("&", path);
     }
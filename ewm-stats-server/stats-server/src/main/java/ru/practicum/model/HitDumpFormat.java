@@ -0,0 +1,38 @@
+package ru.practicum.model;
+
+import ru.practicum.exeption.ValidateException;
+
+/**
+ * Формат выгрузки сырых хитов.<br>
+ * - NDJSON: один хит в строке, {"id", "app", "uri", "ip", "timestamp"}<br>
+ * - BINARY: колоночные блоки, см. {@link ru.practicum.utils.HitColumnarWriter}
+ */
+public enum HitDumpFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    BINARY("application/octet-stream", "ewmh");
+
+    private final String contentType;
+    private final String extension;
+
+    HitDumpFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static HitDumpFormat from(String name) {
+        for (HitDumpFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new ValidateException("Unknown dump format: " + name);
+    }
+}
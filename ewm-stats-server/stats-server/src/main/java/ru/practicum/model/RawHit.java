@@ -0,0 +1,14 @@
+package ru.practicum.model;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+public class RawHit {
+    long id;
+    String app;
+    String uri;
+    String ip;
+    LocalDateTime created;
+}
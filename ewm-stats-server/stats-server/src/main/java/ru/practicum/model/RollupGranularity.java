@@ -0,0 +1,45 @@
+package ru.practicum.model;
+
+import ru.practicum.exeption.ValidateException;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Размер бакета агрегированной статистики
+ */
+public enum RollupGranularity {
+    MINUTE(ChronoUnit.MINUTES),
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    RollupGranularity(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    /**
+     * Начало бакета, в который попадает время
+     */
+    public LocalDateTime truncate(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    /**
+     * Начало ближайшего бакета, не раньше указанного времени
+     */
+    public LocalDateTime ceil(LocalDateTime time) {
+        final LocalDateTime truncated = truncate(time);
+        return truncated.equals(time) ? time : truncated.plus(1, unit);
+    }
+
+    public static RollupGranularity from(String name) {
+        for (RollupGranularity granularity : values()) {
+            if (granularity.name().equalsIgnoreCase(name)) {
+                return granularity;
+            }
+        }
+        throw new ValidateException("Unknown granularity: " + name);
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.model;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+public class RollupKey {
+    RollupGranularity granularity;
+    LocalDateTime bucketStart;
+    String app;
+    String uri;
+}
@@ -0,0 +1,15 @@
+package ru.practicum.model;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Интервал [from, to), покрытый целыми бакетами одного размера
+ */
+@Value
+public class RollupSegment {
+    RollupGranularity granularity;
+    LocalDateTime from;
+    LocalDateTime to;
+}
@@ -0,0 +1,10 @@
+package ru.practicum.model;
+
+import lombok.Value;
+
+@Value
+public class UriSketch {
+    String app;
+    String uri;
+    byte[] registers;
+}
@@ -0,0 +1,41 @@
+package ru.practicum.service;
+
+import ru.practicum.dto.HitBatchAckDto;
+import ru.practicum.model.HitDumpFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+public interface HitDumpService {
+    /**
+     * Write raw hits to stream ordered by id, without loading them into memory
+     * @param start start time (inclusive), null - no lower bound
+     * @param end end time (exclusive), null - no upper bound
+     * @param app application name, null for all applications
+     * @param afterId only hits with greater id are written, to resume interrupted export
+     * @param limit max count of hits, 0 - no limit
+     * @param format NDJSON or BINARY
+     * @param out output stream, not closed
+     * @return count of written hits
+     */
+    long exportHits(LocalDateTime start, LocalDateTime end, String app, long afterId, long limit,
+                    HitDumpFormat format, OutputStream out) throws IOException;
+
+    /**
+     * Check export interval before the response is committed
+     * @throws ru.practicum.exeption.ValidateException if start is after end
+     */
+    void validateRange(LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Load hits from dump by chunks, gzip-compressed dump is detected automatically.
+     * Each chunk is committed in its own transaction, so a failed import stays partially applied:
+     * the error message reports the count of saved hits. Hits get new ids
+     * @param format NDJSON or BINARY
+     * @param in dump stream
+     * @return acknowledgement with count of received and saved hits
+     */
+    HitBatchAckDto importHits(HitDumpFormat format, InputStream in);
+}
@@ -0,0 +1,188 @@
+package ru.practicum.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.dto.HitBatchAckDto;
+import ru.practicum.exeption.ValidateException;
+import ru.practicum.model.HitDumpFormat;
+import ru.practicum.model.RawHit;
+import ru.practicum.storage.EndpointHitDumpRepository;
+import ru.practicum.utils.HitColumnarReader;
+import ru.practicum.utils.HitColumnarWriter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static ru.practicum.Constants.FORMATTER;
+
+/**
+ * Импорт фиксирует каждую порцию import-chunk-size в отдельной транзакции: транзакция на весь поток держала бы
+ * блокировки до его конца, а выданные id оставались бы незафиксированными дольше, чем ждет агрегация хитов.
+ * Прерванный импорт остается частично загруженным.
+ */
+@Service
+@Slf4j
+public class HitDumpServiceImpl implements HitDumpService {
+    private static final int GZIP_MAGIC = 0x8b1f;
+
+    private final EndpointHitDumpRepository dumpRepository;
+    private final HitValidator hitValidator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public HitDumpServiceImpl(EndpointHitDumpRepository dumpRepository,
+                              HitValidator hitValidator,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${stats.dump.import-chunk-size:5000}") int chunkSize) {
+        this.dumpRepository = dumpRepository;
+        this.hitValidator = hitValidator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportHits(LocalDateTime start, LocalDateTime end, String app, long afterId, long limit,
+                           HitDumpFormat format, OutputStream out) throws IOException {
+        validateRange(start, end);
+        final long[] count = new long[1];
+        if (format == HitDumpFormat.BINARY) {
+            final HitColumnarWriter writer = new HitColumnarWriter(out);
+            dumpRepository.forEachHit(start, end, app, afterId, limit, unchecked(hit -> {
+                writer.write(hit);
+                count[0]++;
+            }));
+            writer.finish();
+        } else {
+            final JsonGenerator generator = objectMapper.getFactory()
+                    .createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            dumpRepository.forEachHit(start, end, app, afterId, limit, unchecked(hit -> {
+                writeJson(generator, hit);
+                count[0]++;
+            }));
+            generator.flush();
+        }
+        log.debug("Exported {} hits after id {}", count[0], afterId);
+        return count[0];
+    }
+
+    @Override
+    public void validateRange(LocalDateTime start, LocalDateTime end) {
+        if (start != null && end != null && start.isAfter(end)) {
+            throw new ValidateException("Start time must be before end");
+        }
+    }
+
+    @Override
+    public HitBatchAckDto importHits(HitDumpFormat format, InputStream in) {
+        final List<EndpointHitDto> chunk = new ArrayList<>(chunkSize);
+        int received = 0;
+        int saved = 0;
+        try {
+            final HitSource source = (format == HitDumpFormat.BINARY)
+                    ? new HitColumnarReader(decompress(in))::next
+                    : ndjson(decompress(in));
+            EndpointHitDto hit;
+            while ((hit = source.next()) != null) {
+                received++;
+                hitValidator.validate(hit, received);
+                chunk.add(hit);
+                if (chunk.size() == chunkSize) {
+                    saved += saveChunk(chunk);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new ValidateException(String.format("Failed to read hits dump: %s, %d hits saved",
+                    e.getMessage(), saved));
+        } catch (ValidateException e) {
+            throw new ValidateException(String.format("%s, %d hits saved", e.getMessage(), saved));
+        }
+        saved += saveChunk(chunk);
+        log.debug("Imported {} of {} hits", saved, received);
+        return new HitBatchAckDto(received, saved);
+    }
+
+    private int saveChunk(List<EndpointHitDto> chunk) {
+        if (chunk.isEmpty()) return 0;
+        final Integer saved = transactionTemplate.execute(status -> dumpRepository.saveAll(chunk));
+        return saved == null ? 0 : saved;
+    }
+
+    private HitSource ndjson(InputStream in) {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        final long[] number = new long[1];
+        return () -> {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                return hitValidator.parse(line, ++number[0]);
+            }
+            return null;
+        };
+    }
+
+    private static void writeJson(JsonGenerator generator, RawHit hit) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", hit.getId());
+        generator.writeStringField("app", hit.getApp());
+        generator.writeStringField("uri", hit.getUri());
+        generator.writeStringField("ip", hit.getIp());
+        generator.writeStringField("timestamp", FORMATTER.format(hit.getCreated()));
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    /**
+     * Распаковать поток, если он начинается с заголовка gzip
+     */
+    private static InputStream decompress(InputStream in) throws IOException {
+        final BufferedInputStream buffered = new BufferedInputStream(in);
+        buffered.mark(2);
+        final int magic = buffered.read() | (buffered.read() << 8);
+        buffered.reset();
+        return (magic == GZIP_MAGIC) ? new GZIPInputStream(buffered) : buffered;
+    }
+
+    private static Consumer<RawHit> unchecked(HitConsumer consumer) {
+        return hit -> {
+            try {
+                consumer.accept(hit);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    @FunctionalInterface
+    private interface HitSource {
+        EndpointHitDto next() throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface HitConsumer {
+        void accept(RawHit hit) throws IOException;
+    }
+}
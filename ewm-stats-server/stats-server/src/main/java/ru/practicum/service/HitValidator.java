@@ -0,0 +1,48 @@
+package ru.practicum.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.exeption.ValidateException;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Разбор и проверка хитов из потоков: ошибка указывает номер хита в потоке
+ */
+@Component
+@RequiredArgsConstructor
+public class HitValidator {
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    /**
+     * Разобрать хит из строки NDJSON без проверки полей
+     */
+    public EndpointHitDto parse(String line, long number) {
+        try {
+            return objectMapper.readValue(line, EndpointHitDto.class);
+        } catch (JsonProcessingException e) {
+            throw new ValidateException(String.format("Hit #%d is malformed: %s", number, e.getOriginalMessage()));
+        }
+    }
+
+    public void validate(EndpointHitDto hit, long number) {
+        if (hit == null) {
+            throw new ValidateException(String.format("Hit #%d cannot be null", number));
+        }
+        final Set<ConstraintViolation<EndpointHitDto>> violations = validator.validate(hit);
+        if (!violations.isEmpty()) {
+            final String message = violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+            throw new ValidateException(String.format("Hit #%d is invalid: %s", number, message));
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package ru.practicum.service;
+
+public interface PartitionService {
+    /**
+     * Create endpoint_hit partitions for the current and upcoming months, moving their hits out of the default
+     * partition, and purge hits, rollups and sketches older than the retention period
+     */
+    void maintain();
+}
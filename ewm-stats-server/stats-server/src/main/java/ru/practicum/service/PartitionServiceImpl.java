@@ -0,0 +1,98 @@
+package ru.practicum.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.storage.EndpointHitPartitionRepository;
+import ru.practicum.storage.EndpointHitRollupRepository;
+
+import java.time.YearMonth;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Обслуживание помесячных партиций endpoint_hit.<br>
+ * Партиции создаются заранее на months-ahead месяцев вперед, чтобы хиты не попадали в партицию по умолчанию.
+ * Если хиты месяца уже попали туда (например, импорт истории), партиция по умолчанию на время создания
+ * отсоединяется, а хиты месяца переносятся в новую партицию - всё в одной транзакции.<br>
+ * Месяцы старше retention-months удаляются целиком, без DELETE по строкам. В том же прогоне из партиции
+ * по умолчанию удаляются хиты этих месяцев, а также агрегаты и скетчи их бакетов, чтобы сверка агрегатов
+ * с сырой таблицей оставалась точной.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "stats.partitions.enabled", havingValue = "true")
+public class PartitionServiceImpl implements PartitionService {
+    private final EndpointHitPartitionRepository partitionRepository;
+    private final EndpointHitRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    public PartitionServiceImpl(EndpointHitPartitionRepository partitionRepository,
+                                EndpointHitRollupRepository rollupRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${stats.partitions.months-ahead:2}") int monthsAhead,
+                                @Value("${stats.partitions.retention-months:12}") int retentionMonths) {
+        this.partitionRepository = partitionRepository;
+        this.rollupRepository = rollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${stats.partitions.check-ms:3600000}")
+    public void scheduledMaintain() {
+        try {
+            maintain();
+        } catch (RuntimeException e) {
+            log.error("Failed to maintain hit partitions: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void maintain() {
+        final YearMonth current = YearMonth.now();
+        final Set<YearMonth> existing = new HashSet<>(partitionRepository.findPartitions());
+        for (int i = 0; i <= monthsAhead; i++) {
+            final YearMonth month = current.plusMonths(i);
+            if (!existing.contains(month)) {
+                transactionTemplate.executeWithoutResult(status -> createPartition(month));
+            }
+        }
+        if (retentionMonths <= 0) return;
+        final YearMonth oldest = current.minusMonths(retentionMonths);
+        transactionTemplate.executeWithoutResult(status -> purge(existing, oldest));
+    }
+
+    private void createPartition(YearMonth month) {
+        if (!partitionRepository.hasDefaultRows(month)) {
+            partitionRepository.createPartition(month);
+            log.info("Created hit partition for {}", month);
+            return;
+        }
+        partitionRepository.detachDefault();
+        partitionRepository.createPartition(month);
+        final int moved = partitionRepository.moveDefaultRows(month);
+        partitionRepository.attachDefault();
+        log.info("Created hit partition for {}, {} hits moved from default partition", month, moved);
+    }
+
+    private void purge(Set<YearMonth> existing, YearMonth oldest) {
+        for (YearMonth month : existing) {
+            if (month.isBefore(oldest)) {
+                partitionRepository.dropPartition(month);
+                log.info("Dropped hit partition for {}, retention {} months", month, retentionMonths);
+            }
+        }
+        final int deleted = partitionRepository.deleteDefaultRowsBefore(oldest);
+        if (deleted > 0) {
+            log.info("Deleted {} hits before {} from default partition", deleted, oldest);
+        }
+        rollupRepository.deleteBefore(oldest.atDay(1).atStartOfDay());
+    }
+}
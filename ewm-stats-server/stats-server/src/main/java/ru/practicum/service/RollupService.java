@@ -0,0 +1,54 @@
+package ru.practicum.service;
+
+import ru.practicum.dto.RollupBackfillDto;
+import ru.practicum.dto.RollupCheckDto;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.model.RollupGranularity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface RollupService {
+    /**
+     * Roll up hits added since the last run, up to the commit-safe horizon
+     * @return number of processed hits
+     */
+    long rollUp();
+
+    /**
+     * Rebuild rollups from the whole raw table
+     * @return number of processed hits and new watermark
+     */
+    RollupBackfillDto backfill();
+
+    /**
+     * get non-unique stats: full buckets from rollups, edges and not rolled up hits from raw table.
+     * Must be called within a repeatable read transaction
+     * @param start start time for filter statistic (exclusive)
+     * @param end end time for filter statistic (exclusive)
+     * @param app application name for filter statistic, null for all applications
+     * @param uris list or uri for filter statistic
+     * @return stats list in ViewStatsDto format
+     */
+    List<ViewStatsDto> getHits(LocalDateTime start, LocalDateTime end, String app, String[] uris);
+
+    /**
+     * get approximate unique-ip stats: HyperLogLog sketches of full hours and days merged with
+     * sketches built from raw edges and not rolled up hits. Must be called within a repeatable read transaction
+     * @param start start time for filter statistic (exclusive)
+     * @param end end time for filter statistic (exclusive)
+     * @param app application name for filter statistic, null for all applications
+     * @param uris list or uri for filter statistic
+     * @return stats list in ViewStatsDto format
+     */
+    List<ViewStatsDto> getUniqueHits(LocalDateTime start, LocalDateTime end, String app, String[] uris);
+
+    /**
+     * Compare rollups with raw table
+     * @param granularity bucket size to check
+     * @param start start of checked interval (aligned down to bucket)
+     * @param end end of checked interval (aligned up to bucket)
+     * @return check result with mismatched (app, uri)
+     */
+    RollupCheckDto check(RollupGranularity granularity, LocalDateTime start, LocalDateTime end);
+}
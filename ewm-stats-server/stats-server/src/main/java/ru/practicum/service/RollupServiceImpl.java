@@ -0,0 +1,392 @@
+package ru.practicum.service;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.dto.RollupBackfillDto;
+import ru.practicum.dto.RollupCheckDto;
+import ru.practicum.dto.RollupMismatchDto;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.exeption.ValidateException;
+import ru.practicum.model.RawHit;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.model.RollupKey;
+import ru.practicum.model.RollupSegment;
+import ru.practicum.storage.EndpointHitRollupRepository;
+import ru.practicum.utils.HyperLogLog;
+import ru.practicum.utils.QPredicate;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+import static ru.practicum.model.QEndpointHit.endpointHit;
+import static ru.practicum.model.RollupGranularity.DAY;
+import static ru.practicum.model.RollupGranularity.HOUR;
+import static ru.practicum.model.RollupGranularity.MINUTE;
+
+/**
+ * Инкрементальная агрегация хитов.<br>
+ * Хиты с id не больше водяного знака учтены в агрегатах, остальные читаются из сырой таблицы.
+ * Водяной знак, агрегаты и скетчи уникальных ip меняются в одной транзакции, поэтому запрос
+ * в repeatable read видит согласованное состояние.<br>
+ * Id выдаются до фиксации транзакции, поэтому хит с меньшим id может появиться позже хита с большим.
+ * Водяной знак двигается только до границы фиксации: максимального id, замеченного не меньше commit-lag-ms назад.
+ * Транзакции записи хитов (в том числе пачки /hit/batch и /hits/import) должны укладываться в этот интервал.
+ */
+@Service
+@Slf4j
+public class RollupServiceImpl implements RollupService {
+    private static final String HITS_WATERMARK = "hits";
+    private static final RollupGranularity[] HIT_LEVELS = {DAY, HOUR, MINUTE};
+    private static final RollupGranularity[] SKETCH_LEVELS = {DAY, HOUR};
+
+    private final EndpointHitRollupRepository rollupRepository;
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final boolean sketchEnabled;
+    private final int sketchPrecision;
+    private final long commitLagMs;
+    private final LongSupplier currentTimeMillis;
+    private final Lock rollupLock = new ReentrantLock();
+    // под rollupLock
+    private Horizon pendingHorizon;
+    private long committedHorizon;
+
+    @Autowired
+    public RollupServiceImpl(EndpointHitRollupRepository rollupRepository,
+                             EntityManager em,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${stats.rollup.enabled:true}") boolean enabled,
+                             @Value("${stats.rollup.batch-size:10000}") int batchSize,
+                             @Value("${stats.rollup.commit-lag-ms:60000}") long commitLagMs,
+                             @Value("${stats.sketch.enabled:true}") boolean sketchEnabled,
+                             @Value("${stats.sketch.error:0.02}") double sketchError) {
+        this(rollupRepository, em, transactionManager, enabled, batchSize, commitLagMs, sketchEnabled, sketchError,
+                System::currentTimeMillis);
+    }
+
+    RollupServiceImpl(EndpointHitRollupRepository rollupRepository,
+                      EntityManager em,
+                      PlatformTransactionManager transactionManager,
+                      boolean enabled,
+                      int batchSize,
+                      long commitLagMs,
+                      boolean sketchEnabled,
+                      double sketchError,
+                      LongSupplier currentTimeMillis) {
+        this.rollupRepository = rollupRepository;
+        this.queryFactory = new JPAQueryFactory(em);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.sketchEnabled = sketchEnabled;
+        this.sketchPrecision = HyperLogLog.precisionForError(sketchError);
+        this.commitLagMs = commitLagMs;
+        this.currentTimeMillis = currentTimeMillis;
+        log.info("Unique ip sketches: precision {}, standard error {}", sketchPrecision,
+                HyperLogLog.standardError(sketchPrecision));
+    }
+
+    @Scheduled(fixedDelayString = "${stats.rollup.delay-ms:5000}")
+    public void scheduledRollUp() {
+        if (!enabled) return;
+        try {
+            rollUp();
+        } catch (RuntimeException e) {
+            log.error("Failed to roll up hits: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public long rollUp() {
+        if (!rollupLock.tryLock()) return 0;
+        try {
+            return rollUpAll(advanceHorizon());
+        } finally {
+            rollupLock.unlock();
+        }
+    }
+
+    @Override
+    public RollupBackfillDto backfill() {
+        rollupLock.lock();
+        try {
+            // прежний водяной знак тоже был границей фиксации
+            final long horizon = Math.max(committedHorizon, rollupRepository.getWatermark(HITS_WATERMARK));
+            transactionTemplate.executeWithoutResult(status -> {
+                rollupRepository.deleteAll();
+                rollupRepository.setWatermark(HITS_WATERMARK, 0);
+            });
+            final long processed = rollUpAll(horizon);
+            final long watermark = rollupRepository.getWatermark(HITS_WATERMARK);
+            log.info("Rollups rebuilt: {} hits processed, watermark {}", processed, watermark);
+            return new RollupBackfillDto(processed, watermark);
+        } finally {
+            rollupLock.unlock();
+        }
+    }
+
+    @Override
+    public List<ViewStatsDto> getHits(LocalDateTime start, LocalDateTime end, String app, String[] uris) {
+        final long watermark = rollupRepository.getWatermark(HITS_WATERMARK);
+        final LocalDateTime alignedStart = MINUTE.truncate(start).plusMinutes(1);
+        final LocalDateTime alignedEnd = MINUTE.truncate(end);
+        if (!alignedStart.isBefore(alignedEnd)) {
+            return getRawHits(endpointHit.timestamp.after(start).and(endpointHit.timestamp.before(end)), app, uris);
+        }
+
+        final Map<List<String>, Long> hits = new LinkedHashMap<>();
+        for (RollupSegment segment : getSegments(alignedStart, alignedEnd, HIT_LEVELS)) {
+            merge(hits, rollupRepository.sumHits(segment.getGranularity(), segment.getFrom(), segment.getTo(), app,
+                    uris));
+        }
+
+        final BooleanExpression head = endpointHit.timestamp.after(start)
+                .and(endpointHit.timestamp.before(alignedStart));
+        final BooleanExpression tail = endpointHit.timestamp.goe(alignedEnd)
+                .and(endpointHit.timestamp.before(end));
+        final BooleanExpression notRolledUp = endpointHit.id.gt(watermark)
+                .and(endpointHit.timestamp.goe(alignedStart))
+                .and(endpointHit.timestamp.before(alignedEnd));
+        merge(hits, getRawHits(head.or(tail).or(notRolledUp), app, uris));
+
+        return hits.entrySet().stream()
+                .map(e -> new ViewStatsDto(e.getKey().get(0), e.getKey().get(1), e.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<ViewStatsDto> getUniqueHits(LocalDateTime start, LocalDateTime end, String app, String[] uris) {
+        final long watermark = rollupRepository.getWatermark(HITS_WATERMARK);
+        final LocalDateTime alignedStart = HOUR.truncate(start).plusHours(1);
+        final LocalDateTime alignedEnd = HOUR.truncate(end);
+        final Map<List<String>, HyperLogLog> sketches = new LinkedHashMap<>();
+        final Predicate rawPredicate;
+        if (alignedStart.isBefore(alignedEnd)) {
+            for (RollupSegment segment : getSegments(alignedStart, alignedEnd, SKETCH_LEVELS)) {
+                rollupRepository.findSketches(segment.getGranularity(), segment.getFrom(), segment.getTo(), app, uris)
+                        .forEach(sketch -> sketches.merge(Arrays.asList(sketch.getApp(), sketch.getUri()),
+                                HyperLogLog.fromBytes(sketch.getRegisters()), HyperLogLog::merge));
+            }
+            final BooleanExpression head = endpointHit.timestamp.after(start)
+                    .and(endpointHit.timestamp.before(alignedStart));
+            final BooleanExpression tail = endpointHit.timestamp.goe(alignedEnd)
+                    .and(endpointHit.timestamp.before(end));
+            final BooleanExpression notRolledUp = endpointHit.id.gt(watermark)
+                    .and(endpointHit.timestamp.goe(alignedStart))
+                    .and(endpointHit.timestamp.before(alignedEnd));
+            rawPredicate = head.or(tail).or(notRolledUp);
+        } else {
+            rawPredicate = endpointHit.timestamp.after(start).and(endpointHit.timestamp.before(end));
+        }
+
+        final Predicate predicate = QPredicate.builder()
+                .add(app, endpointHit.app::eq)
+                .add(uris, endpointHit.uri::in)
+                .add(rawPredicate, p -> p)
+                .buildAnd();
+        final List<Tuple> rawIps = queryFactory.from(endpointHit)
+                .select(endpointHit.app, endpointHit.uri, endpointHit.ip)
+                .distinct()
+                .where(predicate)
+                .fetch();
+        for (Tuple tuple : rawIps) {
+            sketches.computeIfAbsent(Arrays.asList(tuple.get(endpointHit.app), tuple.get(endpointHit.uri)),
+                    key -> new HyperLogLog(sketchPrecision)).add(tuple.get(endpointHit.ip));
+        }
+
+        return sketches.entrySet().stream()
+                .map(e -> new ViewStatsDto(e.getKey().get(0), e.getKey().get(1), e.getValue().estimate()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public RollupCheckDto check(RollupGranularity granularity, LocalDateTime start, LocalDateTime end) {
+        if (start.isAfter(end)) {
+            throw new ValidateException("Start time must be before end end");
+        }
+        final LocalDateTime from = granularity.truncate(start);
+        final LocalDateTime to = granularity.ceil(end);
+        final long watermark = rollupRepository.getWatermark(HITS_WATERMARK);
+
+        final Map<List<String>, Long> rollup = new HashMap<>();
+        merge(rollup, rollupRepository.sumHits(granularity, from, to, null, null));
+        final Map<List<String>, Long> raw = new HashMap<>();
+        merge(raw, rollupRepository.countRawHits(from, to, watermark));
+
+        final Set<List<String>> keys = new HashSet<>(rollup.keySet());
+        keys.addAll(raw.keySet());
+        final List<RollupMismatchDto> mismatches = keys.stream()
+                .filter(key -> !rollup.getOrDefault(key, 0L).equals(raw.getOrDefault(key, 0L)))
+                .map(key -> new RollupMismatchDto(key.get(0), key.get(1),
+                        rollup.getOrDefault(key, 0L), raw.getOrDefault(key, 0L)))
+                .collect(Collectors.toList());
+        if (!mismatches.isEmpty()) {
+            log.warn("Rollup check {} [{}, {}): {} mismatches", granularity, from, to, mismatches.size());
+        }
+        return RollupCheckDto.builder()
+                .granularity(granularity.name())
+                .start(from)
+                .end(to)
+                .watermark(watermark)
+                .checked(keys.size())
+                .mismatches(mismatches)
+                .build();
+    }
+
+    /**
+     * Граница фиксации: id, до которого все транзакции записи хитов уже завершились.<br>
+     * Максимальный id запоминается и становится границей, когда с его замера пройдет commit-lag-ms:
+     * к этому времени транзакции, взявшие меньшие id, зафиксированы или откачены.
+     */
+    private long advanceHorizon() {
+        final long now = currentTimeMillis.getAsLong();
+        if (pendingHorizon == null || now - pendingHorizon.observedAt >= commitLagMs) {
+            if (pendingHorizon != null) {
+                committedHorizon = Math.max(committedHorizon, pendingHorizon.id);
+            }
+            pendingHorizon = new Horizon(rollupRepository.getMaxHitId(), now);
+        }
+        return committedHorizon;
+    }
+
+    private long rollUpAll(long horizon) {
+        long processed = 0;
+        int batch;
+        do {
+            batch = rollUpBatch(horizon);
+            processed += batch;
+        } while (batch == batchSize);
+        if (processed > 0) {
+            log.debug("Rolled up {} hits", processed);
+        }
+        return processed;
+    }
+
+    private int rollUpBatch(long horizon) {
+        final Integer processed = transactionTemplate.execute(status -> {
+            final long watermark = rollupRepository.getWatermark(HITS_WATERMARK);
+            if (watermark >= horizon) return 0;
+            final List<RawHit> rawHits = rollupRepository.findHitsAfter(watermark, horizon, batchSize);
+            if (rawHits.isEmpty()) return 0;
+
+            final Map<RollupKey, Long> hits = new HashMap<>();
+            final Map<RollupKey, HyperLogLog> sketches = new HashMap<>();
+            long lastId = watermark;
+            for (RawHit hit : rawHits) {
+                lastId = Math.max(lastId, hit.getId());
+                for (RollupGranularity granularity : RollupGranularity.values()) {
+                    final RollupKey key = new RollupKey(granularity, granularity.truncate(hit.getCreated()),
+                            hit.getApp(), hit.getUri());
+                    hits.merge(key, 1L, Long::sum);
+                    if (sketchEnabled && granularity != MINUTE) {
+                        sketches.computeIfAbsent(key, k -> new HyperLogLog(sketchPrecision)).add(hit.getIp());
+                    }
+                }
+            }
+            rollupRepository.addHits(hits);
+            saveSketches(sketches);
+            rollupRepository.setWatermark(HITS_WATERMARK, lastId);
+            return rawHits.size();
+        });
+        return processed == null ? 0 : processed;
+    }
+
+    /**
+     * Слить скетчи пачки с сохраненными скетчами тех же бакетов, сохраненные читаются одним запросом
+     */
+    private void saveSketches(Map<RollupKey, HyperLogLog> sketches) {
+        if (sketches.isEmpty()) return;
+        final Map<RollupKey, byte[]> stored = rollupRepository.findSketches(sketches.keySet());
+        final Map<RollupKey, byte[]> merged = new HashMap<>();
+        sketches.forEach((key, sketch) -> {
+            final byte[] registers = stored.get(key);
+            final HyperLogLog result = registers == null ? sketch : HyperLogLog.fromBytes(registers).merge(sketch);
+            merged.put(key, result.toBytes());
+        });
+        rollupRepository.saveSketches(merged);
+    }
+
+    /**
+     * Разбить выровненный по младшему уровню интервал на наименьшее число отрезков из целых бакетов
+     * @param levels размеры бакетов от большего к меньшему
+     */
+    private static List<RollupSegment> getSegments(LocalDateTime from, LocalDateTime to, RollupGranularity[] levels) {
+        final List<RollupSegment> segments = new ArrayList<>();
+        addSegments(from, to, levels, 0, segments);
+        return segments;
+    }
+
+    private static void addSegments(LocalDateTime from, LocalDateTime to, RollupGranularity[] levels, int level,
+                                    List<RollupSegment> segments) {
+        if (!from.isBefore(to)) return;
+        final RollupGranularity granularity = levels[level];
+        if (level == levels.length - 1) {
+            segments.add(new RollupSegment(granularity, from, to));
+            return;
+        }
+        final LocalDateTime first = granularity.ceil(from);
+        final LocalDateTime last = granularity.truncate(to);
+        if (first.isBefore(last)) {
+            addSegments(from, first, levels, level + 1, segments);
+            segments.add(new RollupSegment(granularity, first, last));
+            addSegments(last, to, levels, level + 1, segments);
+        } else {
+            addSegments(from, to, levels, level + 1, segments);
+        }
+    }
+
+    private List<ViewStatsDto> getRawHits(Predicate timePredicate, String app, String[] uris) {
+        final Predicate predicate = QPredicate.builder()
+                .add(app, endpointHit.app::eq)
+                .add(uris, endpointHit.uri::in)
+                .add(timePredicate, p -> p)
+                .buildAnd();
+        return queryFactory.from(endpointHit)
+                .select(Projections.constructor(ViewStatsDto.class, endpointHit.app, endpointHit.uri,
+                        endpointHit.count()))
+                .where(predicate)
+                .groupBy(endpointHit.app, endpointHit.uri)
+                .fetch();
+    }
+
+    private void merge(Map<List<String>, Long> hits, List<ViewStatsDto> stats) {
+        stats.forEach(s -> hits.merge(Arrays.asList(s.getApp(), s.getUri()), s.getHits(), Long::sum));
+    }
+
+    private static class Horizon {
+        private final long id;
+        private final long observedAt;
+
+        private Horizon(long id, long observedAt) {
+            this.id = id;
+            this.observedAt = observedAt;
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package ru.practicum.service;
 
 import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.dto.HitBatchAckDto;
 import ru.practicum.dto.ViewStatsDto;
 
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -13,13 +15,31 @@ public interface StatsService {
      */
     void saveHit(EndpointHitDto dto);
 
+    /**
+     * Add endpoints to storage with jdbc batch inserts, committing each chunk separately
+     * @param hits input data
+     * @return acknowledgement with count of received and saved hits
+     */
+    HitBatchAckDto saveHits(List<EndpointHitDto> hits);
+
+    /**
+     * Add endpoints to storage from NDJSON stream (one hit per line), committing each chunk separately.
+     * On error chunks before the failing line stay saved
+     * @param ndjson input stream
+     * @return acknowledgement with count of received and saved hits
+     */
+    HitBatchAckDto saveHits(InputStream ndjson);
+
     /**
      * get stats from storage
      * @param start start time for filter statistic
      * @param end end time for filter statistic
+     * @param app application name for filter statistic, null for all applications
      * @param uris list or uri for filter statistic
      * @param unique true or false(if true get unique records by ip)
+     * @param exact true for exact unique count by raw table, false for HyperLogLog estimate
      * @return stats list in ViewStatsDto format
      */
-    List<ViewStatsDto> getStats(LocalDateTime start, LocalDateTime end, String[] uris, Boolean unique);
+    List<ViewStatsDto> getStats(LocalDateTime start, LocalDateTime end, String app, String[] uris, Boolean unique,
+                                boolean exact);
 }
\ No newline at end of file
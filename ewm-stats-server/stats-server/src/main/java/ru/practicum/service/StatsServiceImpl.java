@@ -5,34 +5,74 @@ import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.Projections;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.dto.HitBatchAckDto;
 import ru.practicum.dto.ViewStatsDto;
 import ru.practicum.exeption.ValidateException;
 import ru.practicum.model.EndpointHit;
 import ru.practicum.model.EndpointHitFilter;
 import ru.practicum.model.EndpointHitMapper;
+import ru.practicum.storage.EndpointHitsBatchRepository;
 import ru.practicum.storage.EndpointHitsRepository;
 import ru.practicum.utils.QPredicate;
 
 import javax.persistence.EntityManager;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static ru.practicum.model.QEndpointHit.endpointHit;
 
+/**
+ * Пачки хитов пишутся частями по batch-size, каждая часть в своей транзакции: длинная транзакция держала бы
+ * блокировки и откладывала агрегацию хитов (RollupServiceImpl). Ошибка посреди пачки оставляет записанными
+ * части до нее, в сообщении об ошибке указано, сколько хитов сохранено.
+ */
 @Service
 @Slf4j
 @Transactional(readOnly = true)
 public class StatsServiceImpl implements StatsService {
 
     private final EndpointHitsRepository repository;
+    private final EndpointHitsBatchRepository batchRepository;
+    private final RollupService rollupService;
     private final JPAQueryFactory queryFactory;
+    private final HitValidator hitValidator;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final boolean rollupEnabled;
+    private final boolean sketchEnabled;
 
-    public StatsServiceImpl(EndpointHitsRepository repository, EntityManager em) {
+    public StatsServiceImpl(EndpointHitsRepository repository,
+                            EndpointHitsBatchRepository batchRepository,
+                            RollupService rollupService,
+                            EntityManager em,
+                            HitValidator hitValidator,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${stats.hits.batch-size:500}") int batchSize,
+                            @Value("${stats.rollup.enabled:true}") boolean rollupEnabled,
+                            @Value("${stats.sketch.enabled:true}") boolean sketchEnabled) {
         this.repository = repository;
+        this.batchRepository = batchRepository;
+        this.rollupService = rollupService;
         this.queryFactory = new JPAQueryFactory(em);
+        this.hitValidator = hitValidator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.rollupEnabled = rollupEnabled;
+        this.sketchEnabled = sketchEnabled;
     }
 
     @Override
@@ -43,13 +83,64 @@ public class StatsServiceImpl implements StatsService {
     }
 
     @Override
-    public List<ViewStatsDto> getStats(LocalDateTime start, LocalDateTime end, String[] uris, Boolean unique) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public HitBatchAckDto saveHits(List<EndpointHitDto> hits) {
+        for (int i = 0; i < hits.size(); i++) {
+            hitValidator.validate(hits.get(i), i + 1);
+        }
+        int saved = 0;
+        for (int from = 0; from < hits.size(); from += batchSize) {
+            saved += saveChunk(hits.subList(from, Math.min(from + batchSize, hits.size())));
+        }
+        log.debug("Saved {} of {} hits", saved, hits.size());
+        return new HitBatchAckDto(hits.size(), saved);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public HitBatchAckDto saveHits(InputStream ndjson) {
+        final List<EndpointHitDto> chunk = new ArrayList<>(batchSize);
+        int received = 0;
+        int saved = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                received++;
+                chunk.add(readHit(line, received, saved));
+                if (chunk.size() == batchSize) {
+                    saved += saveChunk(chunk);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new ValidateException(String.format("Failed to read hits stream: %s, %d hits saved",
+                    e.getMessage(), saved));
+        }
+        saved += saveChunk(chunk);
+        log.debug("Saved {} of {} hits from stream", saved, received);
+        return new HitBatchAckDto(received, saved);
+    }
+
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public List<ViewStatsDto> getStats(LocalDateTime start, LocalDateTime end, String app, String[] uris,
+                                       Boolean unique, boolean exact) {
         if (start != null && end != null && start.isAfter(end)) {
             throw new ValidateException("Start time must be before end end");
         }
+        if (rollupEnabled && start != null && end != null) {
+            if (!Boolean.TRUE.equals(unique)) {
+                return rollupService.getHits(start, end, app, uris);
+            }
+            if (sketchEnabled && !exact) {
+                return rollupService.getUniqueHits(start, end, app, uris);
+            }
+        }
         final EndpointHitFilter filter = EndpointHitFilter.builder()
                 .timestampAfter(start)
                 .timestampBefore(end)
+                .app(app)
                 .uris(uris)
                 .build();
 
@@ -74,6 +165,22 @@ public class StatsServiceImpl implements StatsService {
                 .fetch();
     }
 
+    private int saveChunk(List<EndpointHitDto> chunk) {
+        if (chunk.isEmpty()) return 0;
+        final Integer saved = transactionTemplate.execute(status -> batchRepository.saveAll(chunk));
+        return saved == null ? 0 : saved;
+    }
+
+    private EndpointHitDto readHit(String line, int number, int saved) {
+        try {
+            final EndpointHitDto hit = hitValidator.parse(line, number);
+            hitValidator.validate(hit, number);
+            return hit;
+        } catch (ValidateException e) {
+            throw new ValidateException(String.format("%s, %d hits saved", e.getMessage(), saved));
+        }
+    }
+
     private Predicate getEndpointHitPredicate(EndpointHitFilter filter) {
         return QPredicate.builder()
                 .add(filter.getIp(), endpointHit.ip::eq)
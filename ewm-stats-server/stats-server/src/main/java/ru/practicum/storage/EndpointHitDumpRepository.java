@@ -0,0 +1,115 @@
+package ru.practicum.storage;
+
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.model.RawHit;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static ru.practicum.Constants.FORMATTER;
+
+/**
+ * Выгрузка и загрузка сырых хитов без загрузки всей выборки в память.<br>
+ * - чтение курсором: драйвер получает строки порциями fetch-size (PostgreSQL - только внутри транзакции)<br>
+ * - запись на PostgreSQL через COPY FROM STDIN, на остальных базах пакетными вставками
+ */
+@Repository
+public class EndpointHitDumpRepository {
+    private static final String SELECT_HITS_SQL = "SELECT id, app, uri, ip, created FROM endpoint_hit WHERE id > :afterId";
+    private static final String COPY_SQL = "COPY endpoint_hit (app, uri, ip, created) FROM STDIN WITH (FORMAT csv)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final EndpointHitsBatchRepository batchRepository;
+
+    public EndpointHitDumpRepository(DataSource dataSource,
+                                     EndpointHitsBatchRepository batchRepository,
+                                     @Value("${stats.dump.fetch-size:1000}") int fetchSize) {
+        final JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.setFetchSize(fetchSize);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(template);
+        this.batchRepository = batchRepository;
+    }
+
+    /**
+     * Обойти хиты по возрастанию id
+     * @param start начало периода включительно, может быть null
+     * @param end конец периода не включительно, может быть null
+     * @param app приложение, null - все
+     * @param afterId выгружаются хиты с id больше указанного: продолжение прерванной выгрузки
+     * @param limit максимальное количество хитов, 0 - без ограничения
+     */
+    public void forEachHit(LocalDateTime start, LocalDateTime end, String app, long afterId, long limit,
+                           Consumer<RawHit> action) {
+        final StringBuilder sql = new StringBuilder(SELECT_HITS_SQL);
+        final MapSqlParameterSource params = new MapSqlParameterSource("afterId", afterId);
+        if (start != null) {
+            sql.append(" AND created >= :start");
+            params.addValue("start", start);
+        }
+        if (end != null) {
+            sql.append(" AND created < :end");
+            params.addValue("end", end);
+        }
+        if (app != null) {
+            sql.append(" AND app = :app");
+            params.addValue("app", app);
+        }
+        sql.append(" ORDER BY id");
+        if (limit > 0) {
+            sql.append(" LIMIT :limit");
+            params.addValue("limit", limit);
+        }
+        jdbcTemplate.query(sql.toString(), params, (RowCallbackHandler) rs -> action.accept(new RawHit(
+                rs.getLong("id"),
+                rs.getString("app"),
+                rs.getString("uri"),
+                rs.getString("ip"),
+                rs.getTimestamp("created").toLocalDateTime())));
+    }
+
+    /**
+     * Записать хиты, id выдаются заново
+     * @return количество записанных строк
+     */
+    public int saveAll(List<EndpointHitDto> hits) {
+        if (hits.isEmpty()) return 0;
+        final Long copied = jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<Long>) connection -> {
+            if (!connection.isWrapperFor(PGConnection.class)) return null;
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyIn(COPY_SQL, new StringReader(toCsv(hits)));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return (copied == null) ? batchRepository.saveAll(hits) : copied.intValue();
+    }
+
+    private static String toCsv(List<EndpointHitDto> hits) {
+        final StringBuilder csv = new StringBuilder(hits.size() * 64);
+        for (EndpointHitDto hit : hits) {
+            appendQuoted(csv, hit.getApp()).append(',');
+            appendQuoted(csv, hit.getUri()).append(',');
+            appendQuoted(csv, hit.getIp()).append(',');
+            csv.append(FORMATTER.format(hit.getTimestamp())).append('\n');
+        }
+        return csv.toString();
+    }
+
+    private static StringBuilder appendQuoted(StringBuilder csv, String value) {
+        return csv.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
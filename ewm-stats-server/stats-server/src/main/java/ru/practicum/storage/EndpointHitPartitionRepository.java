@@ -0,0 +1,101 @@
+package ru.practicum.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Помесячные партиции endpoint_hit (только PostgreSQL).<br>
+ * Партиция месяца называется endpoint_hit_pYYYY_MM, хиты вне созданных месяцев попадают в endpoint_hit_default.
+ * Партицию месяца нельзя создать, пока в партиции по умолчанию есть его хиты: их переносит
+ * {@link #moveDefaultRows} между {@link #detachDefault} и {@link #attachDefault}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EndpointHitPartitionRepository {
+    private static final String PARTITION_PREFIX = "endpoint_hit_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("uuuu_MM");
+    private static final String SELECT_PARTITIONS_SQL = "SELECT c.relname FROM pg_inherits i "
+            + "JOIN pg_class c ON c.oid = i.inhrelid "
+            + "JOIN pg_class p ON p.oid = i.inhparent "
+            + "WHERE p.relname = 'endpoint_hit'";
+    private static final String CREATE_PARTITION_SQL = "CREATE TABLE IF NOT EXISTS %s PARTITION OF endpoint_hit "
+            + "FOR VALUES FROM ('%s') TO ('%s')";
+    private static final String DEFAULT_PARTITION = "endpoint_hit_default";
+    private static final String HAS_DEFAULT_ROWS_SQL = "SELECT EXISTS (SELECT 1 FROM " + DEFAULT_PARTITION
+            + " WHERE created >= ? AND created < ?)";
+    private static final String MOVE_DEFAULT_ROWS_SQL = "WITH moved AS (DELETE FROM " + DEFAULT_PARTITION
+            + " WHERE created >= ? AND created < ? RETURNING id, app, uri, ip, created) "
+            + "INSERT INTO endpoint_hit (id, app, uri, ip, created) SELECT id, app, uri, ip, created FROM moved";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Месяцы, для которых есть партиции, по возрастанию
+     */
+    public List<YearMonth> findPartitions() {
+        return jdbcTemplate.queryForList(SELECT_PARTITIONS_SQL, String.class).stream()
+                .filter(name -> name.startsWith(PARTITION_PREFIX))
+                .map(name -> YearMonth.parse(name.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    public void createPartition(YearMonth month) {
+        jdbcTemplate.execute(String.format(CREATE_PARTITION_SQL, getName(month),
+                month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay()));
+    }
+
+    public void dropPartition(YearMonth month) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + getName(month));
+    }
+
+    /**
+     * Есть ли в партиции по умолчанию хиты месяца
+     */
+    public boolean hasDefaultRows(YearMonth month) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(HAS_DEFAULT_ROWS_SQL, Boolean.class,
+                start(month), start(month.plusMonths(1))));
+    }
+
+    /**
+     * Отсоединить партицию по умолчанию. Блокирует endpoint_hit до конца транзакции
+     */
+    public void detachDefault() {
+        jdbcTemplate.execute("ALTER TABLE endpoint_hit DETACH PARTITION " + DEFAULT_PARTITION);
+    }
+
+    public void attachDefault() {
+        jdbcTemplate.execute("ALTER TABLE endpoint_hit ATTACH PARTITION " + DEFAULT_PARTITION + " DEFAULT");
+    }
+
+    /**
+     * Перенести хиты месяца из отсоединенной партиции по умолчанию в endpoint_hit
+     * @return количество перенесенных хитов
+     */
+    public int moveDefaultRows(YearMonth month) {
+        return jdbcTemplate.update(MOVE_DEFAULT_ROWS_SQL, start(month), start(month.plusMonths(1)));
+    }
+
+    /**
+     * Удалить из партиции по умолчанию хиты до начала месяца
+     * @return количество удаленных хитов
+     */
+    public int deleteDefaultRowsBefore(YearMonth month) {
+        return jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE created < ?", start(month));
+    }
+
+    private static Timestamp start(YearMonth month) {
+        return Timestamp.valueOf(month.atDay(1).atStartOfDay());
+    }
+
+    private static String getName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+}
@@ -0,0 +1,232 @@
+package ru.practicum.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.model.RawHit;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.model.RollupKey;
+import ru.practicum.model.UriSketch;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Агрегаты хитов по бакетам (минута, час, день), скетчи уникальных ip (час, день)
+ * и водяной знак - id последнего учтенного хита.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EndpointHitRollupRepository {
+    private static final String SELECT_HITS_SQL = "SELECT id, app, uri, ip, created FROM endpoint_hit "
+            + "WHERE id > :id AND id <= :maxId ORDER BY id LIMIT :limit";
+    private static final String UPDATE_ROLLUP_SQL = "UPDATE endpoint_hit_rollup SET hits = hits + :hits "
+            + "WHERE granularity = :granularity AND bucket_start = :bucketStart AND app = :app AND uri = :uri";
+    private static final String INSERT_ROLLUP_SQL = "INSERT INTO endpoint_hit_rollup "
+            + "(granularity, bucket_start, app, uri, hits) VALUES (:granularity, :bucketStart, :app, :uri, :hits)";
+    private static final String SUM_ROLLUP_SQL = "SELECT app, uri, SUM(hits) AS hits FROM endpoint_hit_rollup "
+            + "WHERE granularity = :granularity AND bucket_start >= :from AND bucket_start < :to";
+    private static final String SELECT_SKETCHES_BY_KEYS_SQL = "SELECT granularity, bucket_start, app, uri, registers "
+            + "FROM endpoint_hit_sketch WHERE (granularity, bucket_start, app, uri) IN (:keys)";
+    /** Ключей в одном запросе скетчей: 4 параметра на ключ */
+    private static final int KEYS_PER_QUERY = 500;
+    private static final String UPDATE_SKETCH_SQL = "UPDATE endpoint_hit_sketch SET registers = :registers "
+            + "WHERE granularity = :granularity AND bucket_start = :bucketStart AND app = :app AND uri = :uri";
+    private static final String INSERT_SKETCH_SQL = "INSERT INTO endpoint_hit_sketch "
+            + "(granularity, bucket_start, app, uri, registers) "
+            + "VALUES (:granularity, :bucketStart, :app, :uri, :registers)";
+    private static final String SELECT_SKETCHES_SQL = "SELECT app, uri, registers FROM endpoint_hit_sketch "
+            + "WHERE granularity = :granularity AND bucket_start >= :from AND bucket_start < :to";
+    private static final String COUNT_RAW_SQL = "SELECT app, uri, COUNT(*) AS hits FROM endpoint_hit "
+            + "WHERE created >= :from AND created < :to AND id <= :id GROUP BY app, uri";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public long getWatermark(String name) {
+        final List<Long> result = jdbcTemplate.queryForList(
+                "SELECT last_hit_id FROM stats_rollup_state WHERE name = :name",
+                new MapSqlParameterSource("name", name), Long.class);
+        return result.isEmpty() ? 0 : result.get(0);
+    }
+
+    public void setWatermark(String name, long id) {
+        final MapSqlParameterSource params = new MapSqlParameterSource("name", name).addValue("id", id);
+        final int updated = jdbcTemplate.update("UPDATE stats_rollup_state SET last_hit_id = :id WHERE name = :name",
+                params);
+        if (updated == 0) {
+            jdbcTemplate.update("INSERT INTO stats_rollup_state (name, last_hit_id) VALUES (:name, :id)", params);
+        }
+    }
+
+    /**
+     * Наибольший id среди зафиксированных хитов, 0 - хитов нет
+     */
+    public long getMaxHitId() {
+        final Long id = jdbcTemplate.getJdbcTemplate().queryForObject("SELECT MAX(id) FROM endpoint_hit", Long.class);
+        return id == null ? 0 : id;
+    }
+
+    /**
+     * Хиты с id в (id, maxId], по возрастанию id
+     */
+    public List<RawHit> findHitsAfter(long id, long maxId, int limit) {
+        final MapSqlParameterSource params = new MapSqlParameterSource("id", id)
+                .addValue("maxId", maxId)
+                .addValue("limit", limit);
+        return jdbcTemplate.query(SELECT_HITS_SQL, params, (rs, rowNum) -> new RawHit(
+                rs.getLong("id"),
+                rs.getString("app"),
+                rs.getString("uri"),
+                rs.getString("ip"),
+                rs.getTimestamp("created").toLocalDateTime()));
+    }
+
+    /**
+     * Прибавить хиты к агрегатам. Переносимый upsert: сначала update, затем insert для отсутствующих строк.
+     */
+    public void addHits(Map<RollupKey, Long> hits) {
+        if (hits.isEmpty()) return;
+        final List<RollupKey> keys = new ArrayList<>(hits.keySet());
+        final MapSqlParameterSource[] params = keys.stream()
+                .map(key -> getParams(key).addValue("hits", hits.get(key)))
+                .toArray(MapSqlParameterSource[]::new);
+
+        final int[] updated = jdbcTemplate.batchUpdate(UPDATE_ROLLUP_SQL, params);
+        final List<MapSqlParameterSource> inserts = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                inserts.add(params[i]);
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ROLLUP_SQL, inserts.toArray(MapSqlParameterSource[]::new));
+        }
+    }
+
+    /**
+     * Сохраненные скетчи уникальных ip бакетов, запросами по {@link #KEYS_PER_QUERY} ключей
+     * @return скетчи найденных бакетов
+     */
+    public Map<RollupKey, byte[]> findSketches(Collection<RollupKey> keys) {
+        final Map<RollupKey, byte[]> sketches = new HashMap<>();
+        final List<Object[]> values = keys.stream()
+                .map(key -> new Object[]{key.getGranularity().name(), Timestamp.valueOf(key.getBucketStart()),
+                        key.getApp(), key.getUri()})
+                .collect(Collectors.toList());
+        for (int from = 0; from < values.size(); from += KEYS_PER_QUERY) {
+            final List<Object[]> part = values.subList(from, Math.min(from + KEYS_PER_QUERY, values.size()));
+            jdbcTemplate.query(SELECT_SKETCHES_BY_KEYS_SQL, new MapSqlParameterSource("keys", part),
+                    (RowCallbackHandler) rs -> sketches.put(new RollupKey(
+                            RollupGranularity.valueOf(rs.getString("granularity")),
+                            rs.getTimestamp("bucket_start").toLocalDateTime(),
+                            rs.getString("app"),
+                            rs.getString("uri")), rs.getBytes("registers")));
+        }
+        return sketches;
+    }
+
+    /**
+     * Записать скетчи бакетов, заменяя существующие
+     */
+    public void saveSketches(Map<RollupKey, byte[]> sketches) {
+        if (sketches.isEmpty()) return;
+        final MapSqlParameterSource[] params = sketches.entrySet().stream()
+                .map(e -> getParams(e.getKey()).addValue("registers", e.getValue()))
+                .toArray(MapSqlParameterSource[]::new);
+
+        final int[] updated = jdbcTemplate.batchUpdate(UPDATE_SKETCH_SQL, params);
+        final List<MapSqlParameterSource> inserts = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                inserts.add(params[i]);
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SKETCH_SQL, inserts.toArray(MapSqlParameterSource[]::new));
+        }
+    }
+
+    /**
+     * Скетчи бакетов [from, to) указанного размера
+     */
+    public List<UriSketch> findSketches(RollupGranularity granularity, LocalDateTime from, LocalDateTime to,
+                                        String app, String[] uris) {
+        final MapSqlParameterSource params = new MapSqlParameterSource("granularity", granularity.name())
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to));
+        String sql = SELECT_SKETCHES_SQL;
+        if (app != null) {
+            sql += " AND app = :app";
+            params.addValue("app", app);
+        }
+        if (uris != null) {
+            sql += " AND uri IN (:uris)";
+            params.addValue("uris", Arrays.asList(uris));
+        }
+        return jdbcTemplate.query(sql, params, (rs, rowNum) ->
+                new UriSketch(rs.getString("app"), rs.getString("uri"), rs.getBytes("registers")));
+    }
+
+    /**
+     * Удалить агрегаты и скетчи бакетов, начавшихся раньше указанного времени
+     */
+    public void deleteBefore(LocalDateTime time) {
+        final MapSqlParameterSource params = new MapSqlParameterSource("time", Timestamp.valueOf(time));
+        jdbcTemplate.update("DELETE FROM endpoint_hit_rollup WHERE bucket_start < :time", params);
+        jdbcTemplate.update("DELETE FROM endpoint_hit_sketch WHERE bucket_start < :time", params);
+    }
+
+    public void deleteAll() {
+        jdbcTemplate.getJdbcTemplate().update("DELETE FROM endpoint_hit_rollup");
+        jdbcTemplate.getJdbcTemplate().update("DELETE FROM endpoint_hit_sketch");
+    }
+
+    /**
+     * Сумма хитов по (app, uri) в бакетах [from, to) указанного размера
+     */
+    public List<ViewStatsDto> sumHits(RollupGranularity granularity, LocalDateTime from, LocalDateTime to,
+                                      String app, String[] uris) {
+        final MapSqlParameterSource params = new MapSqlParameterSource("granularity", granularity.name())
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to));
+        String sql = SUM_ROLLUP_SQL;
+        if (app != null) {
+            sql += " AND app = :app";
+            params.addValue("app", app);
+        }
+        if (uris != null) {
+            sql += " AND uri IN (:uris)";
+            params.addValue("uris", Arrays.asList(uris));
+        }
+        return jdbcTemplate.query(sql + " GROUP BY app, uri", params, (rs, rowNum) ->
+                new ViewStatsDto(rs.getString("app"), rs.getString("uri"), rs.getLong("hits")));
+    }
+
+    /**
+     * Количество хитов по (app, uri) в сырой таблице в интервале [from, to) с id не больше указанного
+     */
+    public List<ViewStatsDto> countRawHits(LocalDateTime from, LocalDateTime to, long maxId) {
+        final MapSqlParameterSource params = new MapSqlParameterSource("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to))
+                .addValue("id", maxId);
+        return jdbcTemplate.query(COUNT_RAW_SQL, params, (rs, rowNum) ->
+                new ViewStatsDto(rs.getString("app"), rs.getString("uri"), rs.getLong("hits")));
+    }
+
+    private MapSqlParameterSource getParams(RollupKey key) {
+        return new MapSqlParameterSource("granularity", key.getGranularity().name())
+                .addValue("bucketStart", Timestamp.valueOf(key.getBucketStart()))
+                .addValue("app", key.getApp())
+                .addValue("uri", key.getUri());
+    }
+}
@@ -0,0 +1,43 @@
+package ru.practicum.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.dto.EndpointHitDto;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Пакетная запись хитов через JDBC. Hibernate не умеет группировать вставки при IDENTITY-ключе,
+ * поэтому хиты пишутся напрямую одним batch на пачку.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EndpointHitsBatchRepository {
+    private static final String INSERT_SQL = "INSERT INTO endpoint_hit (app, uri, ip, created) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param hits хиты для записи
+     * @return количество записанных строк
+     */
+    public int saveAll(List<EndpointHitDto> hits) {
+        if (hits.isEmpty()) return 0;
+        final int[][] result = jdbcTemplate.batchUpdate(INSERT_SQL, hits, hits.size(), (ps, hit) -> {
+            ps.setString(1, hit.getApp());
+            ps.setString(2, hit.getUri());
+            ps.setString(3, hit.getIp());
+            ps.setTimestamp(4, Timestamp.valueOf(hit.getTimestamp()));
+        });
+        int saved = 0;
+        for (int[] batch : result) {
+            for (int rows : batch) {
+                // драйвер может не сообщать точное число строк (SUCCESS_NO_INFO = -2)
+                saved += rows < 0 ? 1 : rows;
+            }
+        }
+        return saved;
+    }
+}
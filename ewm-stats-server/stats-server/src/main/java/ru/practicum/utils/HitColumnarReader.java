@@ -0,0 +1,124 @@
+package ru.practicum.utils;
+
+import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.exeption.ValidateException;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Чтение формата {@link HitColumnarWriter} по одному блоку. id хитов не возвращаются: при импорте выдаются новые
+ */
+public class HitColumnarReader {
+    /** Ограничение длины строки, чтобы поврежденный поток не приводил к выделению огромного массива */
+    private static final int MAX_STRING_BYTES = 64 * 1024;
+
+    private final DataInputStream in;
+    private final long[] created = new long[HitColumnarWriter.BLOCK_ROWS];
+    private final int[] apps = new int[HitColumnarWriter.BLOCK_ROWS];
+    private final int[] uris = new int[HitColumnarWriter.BLOCK_ROWS];
+    private final String[] ips = new String[HitColumnarWriter.BLOCK_ROWS];
+    private String[] appDictionary;
+    private String[] uriDictionary;
+    private int size;
+    private int position;
+    private boolean finished;
+
+    public HitColumnarReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(in);
+        final byte[] magic = new byte[HitColumnarWriter.MAGIC.length];
+        this.in.readFully(magic);
+        if (!Arrays.equals(magic, HitColumnarWriter.MAGIC)) {
+            throw new ValidateException("Not a binary hits dump");
+        }
+        final int version = this.in.readUnsignedByte();
+        if (version != HitColumnarWriter.VERSION) {
+            throw new ValidateException("Unsupported binary hits dump version: " + version);
+        }
+    }
+
+    /**
+     * @return следующий хит или null в конце потока
+     */
+    public EndpointHitDto next() throws IOException {
+        if (position == size) {
+            if (finished || !readBlock()) return null;
+        }
+        final int i = position++;
+        return new EndpointHitDto(appDictionary[apps[i]], uriDictionary[uris[i]], ips[i],
+                LocalDateTime.ofEpochSecond(created[i], 0, ZoneOffset.UTC));
+    }
+
+    private boolean readBlock() throws IOException {
+        try {
+            size = readLength(HitColumnarWriter.BLOCK_ROWS);
+            position = 0;
+            if (size == 0) {
+                finished = true;
+                return false;
+            }
+            for (int i = 0; i < size; i++) {
+                // id пропускаются
+                readVarLong();
+            }
+            long previous = 0;
+            for (int i = 0; i < size; i++) {
+                previous += unzigzag(readVarLong());
+                created[i] = previous;
+            }
+            appDictionary = readDictionary(apps);
+            uriDictionary = readDictionary(uris);
+            for (int i = 0; i < size; i++) {
+                ips[i] = readString();
+            }
+            return true;
+        } catch (EOFException e) {
+            throw new ValidateException("Binary hits dump is truncated");
+        }
+    }
+
+    private String[] readDictionary(int[] indexes) throws IOException {
+        final String[] dictionary = new String[readLength(size)];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = readString();
+        }
+        for (int i = 0; i < size; i++) {
+            indexes[i] = readLength(dictionary.length - 1);
+        }
+        return dictionary;
+    }
+
+    private String readString() throws IOException {
+        final byte[] bytes = new byte[readLength(MAX_STRING_BYTES)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int readLength(int max) throws IOException {
+        final long value = readVarLong();
+        if (value < 0 || value > max) {
+            throw new ValidateException("Binary hits dump is corrupted");
+        }
+        return (int) value;
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new ValidateException("Binary hits dump is corrupted");
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,118 @@
+package ru.practicum.utils;
+
+import ru.practicum.model.RawHit;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Колоночный двоичный формат сырых хитов.<br>
+ * Заголовок: "EWMH" и версия (1 байт). Далее блоки до {@link #BLOCK_ROWS} хитов, блок с 0 хитов завершает поток:<br>
+ * - varint количество хитов<br>
+ * - id: разности с предыдущим id, zigzag varlong<br>
+ * - created: разности секунд эпохи UTC с предыдущим хитом, zigzag varlong<br>
+ * - app, uri: словарь блока (varint размер, строки) и varint номер в словаре на каждый хит<br>
+ * - ip: строки<br>
+ * Строки - varint длина в байтах и UTF-8. В памяти держится только текущий блок
+ */
+public class HitColumnarWriter {
+    static final byte[] MAGIC = {'E', 'W', 'M', 'H'};
+    static final int VERSION = 1;
+    static final int BLOCK_ROWS = 4096;
+
+    private final DataOutputStream out;
+    private final long[] ids = new long[BLOCK_ROWS];
+    private final long[] created = new long[BLOCK_ROWS];
+    private final int[] apps = new int[BLOCK_ROWS];
+    private final int[] uris = new int[BLOCK_ROWS];
+    private final String[] ips = new String[BLOCK_ROWS];
+    private final Map<String, Integer> appDictionary = new HashMap<>();
+    private final Map<String, Integer> uriDictionary = new HashMap<>();
+    private int size;
+
+    public HitColumnarWriter(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.out.write(MAGIC);
+        this.out.writeByte(VERSION);
+    }
+
+    public void write(RawHit hit) throws IOException {
+        ids[size] = hit.getId();
+        created[size] = hit.getCreated().toEpochSecond(ZoneOffset.UTC);
+        apps[size] = appDictionary.computeIfAbsent(hit.getApp(), key -> appDictionary.size());
+        uris[size] = uriDictionary.computeIfAbsent(hit.getUri(), key -> uriDictionary.size());
+        ips[size] = hit.getIp();
+        if (++size == BLOCK_ROWS) {
+            writeBlock();
+        }
+    }
+
+    /**
+     * Записать неполный блок и признак конца потока. Поток не закрывается
+     */
+    public void finish() throws IOException {
+        if (size > 0) {
+            writeBlock();
+        }
+        writeVarLong(0);
+        out.flush();
+    }
+
+    private void writeBlock() throws IOException {
+        writeVarLong(size);
+        long previous = 0;
+        for (int i = 0; i < size; i++) {
+            writeVarLong(zigzag(ids[i] - previous));
+            previous = ids[i];
+        }
+        previous = 0;
+        for (int i = 0; i < size; i++) {
+            writeVarLong(zigzag(created[i] - previous));
+            previous = created[i];
+        }
+        writeDictionary(appDictionary, apps);
+        writeDictionary(uriDictionary, uris);
+        for (int i = 0; i < size; i++) {
+            writeString(ips[i]);
+            ips[i] = null;
+        }
+        appDictionary.clear();
+        uriDictionary.clear();
+        size = 0;
+    }
+
+    private void writeDictionary(Map<String, Integer> dictionary, int[] indexes) throws IOException {
+        final String[] values = new String[dictionary.size()];
+        dictionary.forEach((value, index) -> values[index] = value);
+        writeVarLong(values.length);
+        for (String value : values) {
+            writeString(value);
+        }
+        for (int i = 0; i < size; i++) {
+            writeVarLong(indexes[i]);
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length);
+        out.write(bytes);
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+}
@@ -0,0 +1,175 @@
+package ru.practicum.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog - вероятностная оценка количества уникальных значений.<br>
+ * Скетчи одной точности объединяются без потери точности (максимум по регистрам),
+ * скетч большей точности перед объединением сворачивается до меньшей.
+ * Стандартная ошибка оценки 1.04 / sqrt(2^precision).
+ */
+public class HyperLogLog {
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 16;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        this(precision, new byte[1 << checkPrecision(precision)]);
+    }
+
+    private HyperLogLog(int precision, byte[] registers) {
+        this.precision = precision;
+        this.registers = registers;
+    }
+
+    /**
+     * Минимальная точность, при которой стандартная ошибка не превышает заданную
+     */
+    public static int precisionForError(double error) {
+        if (error <= 0 || error >= 1) {
+            throw new IllegalArgumentException("Error must be in (0, 1): " + error);
+        }
+        final double registers = Math.pow(1.04 / error, 2);
+        final int precision = (int) Math.ceil(Math.log(registers) / Math.log(2));
+        return Math.max(MIN_PRECISION, Math.min(MAX_PRECISION, precision));
+    }
+
+    public static double standardError(int precision) {
+        return 1.04 / Math.sqrt(1 << precision);
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public void add(String value) {
+        addHash(hash(value));
+    }
+
+    /**
+     * Объединить скетчи. Результат имеет меньшую из двух точностей, исходные скетчи не меняются.
+     */
+    public HyperLogLog merge(HyperLogLog other) {
+        final int target = Math.min(precision, other.precision);
+        final HyperLogLog result = fold(target);
+        final HyperLogLog folded = other.fold(target);
+        for (int i = 0; i < result.registers.length; i++) {
+            if (folded.registers[i] > result.registers[i]) {
+                result.registers[i] = folded.registers[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Свернуть скетч до меньшей точности. Младшие биты индекса регистра становятся старшими битами хэша.
+     */
+    public HyperLogLog fold(int target) {
+        if (target == precision) return new HyperLogLog(precision, registers.clone());
+        if (target > precision) {
+            throw new IllegalArgumentException("Cannot fold sketch to higher precision: " + target);
+        }
+        final int shift = precision - target;
+        final int mask = (1 << shift) - 1;
+        final byte[] result = new byte[1 << checkPrecision(target)];
+        for (int i = 0; i < registers.length; i++) {
+            if (registers[i] == 0) continue;
+            final int bits = i & mask;
+            final int rank = bits != 0
+                    ? Integer.numberOfLeadingZeros(bits) - (Integer.SIZE - shift) + 1
+                    : shift + registers[i];
+            final int index = i >>> shift;
+            if (rank > result[index]) {
+                result[index] = (byte) rank;
+            }
+        }
+        return new HyperLogLog(target, result);
+    }
+
+    public long estimate() {
+        final int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) zeros++;
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // linear counting для малых кардинальностей
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Сериализация: первый байт - точность, далее регистры
+     */
+    public byte[] toBytes() {
+        final byte[] bytes = new byte[registers.length + 1];
+        bytes[0] = (byte) precision;
+        System.arraycopy(registers, 0, bytes, 1, registers.length);
+        return bytes;
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length < 1) {
+            throw new IllegalArgumentException("Empty sketch");
+        }
+        final int precision = checkPrecision(bytes[0]);
+        if (bytes.length != (1 << precision) + 1) {
+            throw new IllegalArgumentException("Sketch size does not match precision " + precision);
+        }
+        return new HyperLogLog(precision, Arrays.copyOfRange(bytes, 1, bytes.length));
+    }
+
+    private void addHash(long hash) {
+        final int index = (int) (hash >>> (Long.SIZE - precision));
+        final int maxRank = Long.SIZE - precision + 1;
+        final int rank = Math.min(Long.numberOfLeadingZeros(hash << precision) + 1, maxRank);
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+
+    /**
+     * FNV-1a с финальным перемешиванием из MurmurHash3 для равномерного распределения старших бит
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static int checkPrecision(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Precision must be between " + MIN_PRECISION + " and "
+                    + MAX_PRECISION + ": " + precision);
+        }
+        return precision;
+    }
+}
@@ -0,0 +1,16 @@
+-- агрегаты хитов по интервалам и позиция свертки; отдельная миграция: на существующей базе V1 пропускается при baseline
+CREATE TABLE IF NOT EXISTS endpoint_hit_rollup (
+  granularity VARCHAR(8) NOT NULL,
+  bucket_start TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  app VARCHAR(64) NOT NULL,
+  uri VARCHAR NOT NULL,
+  hits BIGINT NOT NULL,
+  CONSTRAINT pk_endpoint_hit_rollup PRIMARY KEY (granularity, bucket_start, app, uri)
+);
+
+CREATE TABLE IF NOT EXISTS stats_rollup_state (
+  name VARCHAR(32) PRIMARY KEY,
+  last_hit_id BIGINT NOT NULL
+);
+
+INSERT INTO stats_rollup_state (name, last_hit_id) VALUES ('hits', 0);
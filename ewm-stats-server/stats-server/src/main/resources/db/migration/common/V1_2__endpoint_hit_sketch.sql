@@ -0,0 +1,9 @@
+-- HyperLogLog-регистры уникальных ip по интервалам
+CREATE TABLE IF NOT EXISTS endpoint_hit_sketch (
+  granularity VARCHAR(8) NOT NULL,
+  bucket_start TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  app VARCHAR(64) NOT NULL,
+  uri VARCHAR NOT NULL,
+  registers BYTEA NOT NULL,
+  CONSTRAINT pk_endpoint_hit_sketch PRIMARY KEY (granularity, bucket_start, app, uri)
+);
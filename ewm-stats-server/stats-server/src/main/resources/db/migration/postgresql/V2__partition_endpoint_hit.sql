@@ -0,0 +1,43 @@
+-- endpoint_hit разбивается на помесячные партиции по created: запросы /stats отсекают лишние месяцы
+-- при планировании, а устаревшие месяцы удаляются целой партицией (PartitionServiceImpl).
+-- Ключ партиционирования входит в первичный ключ, id выдается последовательностью:
+-- identity-колонки на партиционированных таблицах не поддерживаются.
+ALTER TABLE endpoint_hit RENAME TO endpoint_hit_unpartitioned;
+
+CREATE SEQUENCE IF NOT EXISTS endpoint_hit_id_seq;
+
+CREATE TABLE endpoint_hit (
+  id BIGINT NOT NULL DEFAULT nextval('endpoint_hit_id_seq'),
+  app VARCHAR(64) NOT NULL,
+  uri VARCHAR NOT NULL,
+  ip VARCHAR(16) NOT NULL,
+  created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  CONSTRAINT pk_endpoint_hit PRIMARY KEY (id, created)
+) PARTITION BY RANGE (created);
+
+ALTER SEQUENCE endpoint_hit_id_seq OWNED BY endpoint_hit.id;
+
+CREATE INDEX ix_endpoint_hit_created ON endpoint_hit (created);
+
+-- хиты вне созданных месяцев, например импорт старой истории
+CREATE TABLE endpoint_hit_default PARTITION OF endpoint_hit DEFAULT;
+
+DO $$
+DECLARE
+  partition_start TIMESTAMP := date_trunc('month',
+      COALESCE((SELECT MIN(created) FROM endpoint_hit_unpartitioned), now()));
+BEGIN
+  WHILE partition_start <= date_trunc('month', now()) + INTERVAL '1 month' LOOP
+    EXECUTE format('CREATE TABLE %I PARTITION OF endpoint_hit FOR VALUES FROM (%L) TO (%L)',
+        'endpoint_hit_p' || to_char(partition_start, 'YYYY_MM'),
+        partition_start, partition_start + INTERVAL '1 month');
+    partition_start := partition_start + INTERVAL '1 month';
+  END LOOP;
+END $$;
+
+INSERT INTO endpoint_hit (id, app, uri, ip, created)
+SELECT id, app, uri, ip, created FROM endpoint_hit_unpartitioned;
+
+SELECT setval('endpoint_hit_id_seq', COALESCE((SELECT MAX(id) FROM endpoint_hit), 0) + 1, false);
+
+DROP TABLE endpoint_hit_unpartitioned;
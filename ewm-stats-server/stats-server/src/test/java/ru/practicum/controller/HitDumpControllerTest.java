@@ -0,0 +1,94 @@
+package ru.practicum.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.Constants.HITS_EXPORT_ENDPOINT;
+import static ru.practicum.Constants.HITS_IMPORT_ENDPOINT;
+
+@SpringBootTest(properties = {"stats.dump.import-chunk-size=2", "stats.rollup.enabled=false"})
+@AutoConfigureMockMvc
+class HitDumpControllerTest {
+    private static final String HIT = "{\"app\":\"ewm-main-service\",\"uri\":\"/events/%d\",\"ip\":\"192.168.0.1\","
+            + "\"timestamp\":\"2026-01-01 10:15:00\"}";
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM endpoint_hit");
+    }
+
+    @Test
+    void exportHits_StartAfterEnd_BadRequest() throws Exception {
+        mvc.perform(get(HITS_EXPORT_ENDPOINT)
+                        .param("start", "2026-01-02 00:00:00")
+                        .param("end", "2026-01-01 00:00:00"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_DISPOSITION))
+                .andExpect(jsonPath("$.error", is("Start time must be before end")));
+    }
+
+    @Test
+    void exportAndImportHits() throws Exception {
+        final String dump = String.join("\n", line(1), line(2), line(3)) + "\n";
+        mvc.perform(post(HITS_IMPORT_ENDPOINT).content(dump))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.received", is(3)))
+                .andExpect(jsonPath("$.saved", is(3)));
+
+        final byte[] binary = mvc.perform(get(HITS_EXPORT_ENDPOINT).param("format", "BINARY"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"hits.ewmh\""))
+                .andReturn().getResponse().getContentAsByteArray();
+        mvc.perform(post(HITS_IMPORT_ENDPOINT).param("format", "BINARY").content(binary))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.saved", is(3)));
+
+        assertEquals(6, countHits());
+    }
+
+    @Test
+    void importHits_InvalidHit_ChunksBeforeSaved() throws Exception {
+        final String dump = String.join("\n", line(1), line(2), line(3), "{\"app\":\"ewm-main-service\"}", line(5));
+
+        final String error = mvc.perform(post(HITS_IMPORT_ENDPOINT).content(dump))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        assertTrue(error.contains("Hit #4 is invalid"));
+        assertTrue(error.contains("2 hits saved"));
+        assertEquals(2, countHits());
+    }
+
+    private int countHits() {
+        final Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM endpoint_hit", Integer.class);
+        return count == null ? 0 : count;
+    }
+
+    private static String line(int number) {
+        return String.format(HIT, number);
+    }
+}
@@ -0,0 +1,123 @@
+package ru.practicum.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.dto.EndpointHitDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.Constants.HIT_BATCH_ENDPOINT;
+
+@SpringBootTest(properties = {"stats.hits.batch-size=2", "stats.rollup.enabled=false"})
+@AutoConfigureMockMvc
+class StatsServerControllerTest {
+    private static final String HIT = "{\"app\":\"ewm-main-service\",\"uri\":\"/events/%d\",\"ip\":\"192.168.0.1\","
+            + "\"timestamp\":\"2026-01-01 10:15:00\"}";
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper mapper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM endpoint_hit");
+    }
+
+    @Test
+    void saveHits_Json() throws Exception {
+        final List<EndpointHitDto> hits = List.of(getHit(1), getHit(2), getHit(3));
+
+        mvc.perform(post(HIT_BATCH_ENDPOINT)
+                        .content(mapper.writeValueAsString(hits))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.received", is(3)))
+                .andExpect(jsonPath("$.saved", is(3)));
+        assertEquals(3, countHits());
+    }
+
+    @Test
+    void saveHits_Json_InvalidHit_NothingSaved() throws Exception {
+        final EndpointHitDto invalid = getHit(2);
+        invalid.setIp(null);
+        final List<EndpointHitDto> hits = List.of(getHit(1), invalid, getHit(3));
+
+        mvc.perform(post(HIT_BATCH_ENDPOINT)
+                        .content(mapper.writeValueAsString(hits))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Hit #2 is invalid: Ip cannot be empty or null")));
+        assertEquals(0, countHits());
+    }
+
+    @Test
+    void saveHits_Ndjson() throws Exception {
+        final String body = String.join("\n", line(1), line(2), "", line(3), line(4), line(5)) + "\n";
+
+        mvc.perform(post(HIT_BATCH_ENDPOINT)
+                        .content(body)
+                        .contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.received", is(5)))
+                .andExpect(jsonPath("$.saved", is(5)));
+        assertEquals(5, countHits());
+    }
+
+    @Test
+    void saveHits_Ndjson_MalformedLine_ChunksBeforeSaved() throws Exception {
+        final String body = String.join("\n", line(1), line(2), "{\"app\":", line(4));
+
+        mvc.perform(post(HIT_BATCH_ENDPOINT)
+                        .content(body)
+                        .contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value(startsWith("Hit #3 is malformed")))
+                .andExpect(jsonPath("$.error").value(endsWith(", 2 hits saved")));
+        assertEquals(2, countHits());
+    }
+
+    @Test
+    void saveHits_Ndjson_InvalidHit_Position() throws Exception {
+        final String invalid = "{\"uri\":\"/events/5\",\"ip\":\"192.168.0.1\",\"timestamp\":\"2026-01-01 10:15:00\"}";
+        final String body = String.join("\n", line(1), line(2), line(3), line(4), invalid, line(6));
+
+        mvc.perform(post(HIT_BATCH_ENDPOINT)
+                        .content(body)
+                        .contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Hit #5 is invalid: App cannot be empty or null, 4 hits saved")));
+        assertEquals(4, countHits());
+    }
+
+    private int countHits() {
+        final Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM endpoint_hit", Integer.class);
+        return count == null ? 0 : count;
+    }
+
+    private static String line(int number) {
+        return String.format(HIT, number);
+    }
+
+    private static EndpointHitDto getHit(int number) {
+        return new EndpointHitDto("ewm-main-service", "/events/" + number, "192.168.0.1",
+                LocalDateTime.of(2026, 1, 1, 10, 15));
+    }
+}
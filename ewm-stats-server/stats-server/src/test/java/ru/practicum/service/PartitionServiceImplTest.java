@@ -0,0 +1,85 @@
+package ru.practicum.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.storage.EndpointHitPartitionRepository;
+import ru.practicum.storage.EndpointHitRollupRepository;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PartitionServiceImplTest {
+    private final EndpointHitPartitionRepository partitionRepository = mock(EndpointHitPartitionRepository.class);
+    private final EndpointHitRollupRepository rollupRepository = mock(EndpointHitRollupRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final YearMonth current = YearMonth.now();
+
+    @Test
+    void maintain_CreateMissingMonths() {
+        when(partitionRepository.findPartitions()).thenReturn(List.of(current));
+
+        service(2, 0).maintain();
+
+        verify(partitionRepository, never()).createPartition(current);
+        verify(partitionRepository).createPartition(current.plusMonths(1));
+        verify(partitionRepository).createPartition(current.plusMonths(2));
+        verify(partitionRepository, never()).detachDefault();
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void maintain_DefaultPartitionHoldsMonth_MoveRowsBeforeAttach() {
+        final YearMonth next = current.plusMonths(1);
+        when(partitionRepository.findPartitions()).thenReturn(List.of(current));
+        when(partitionRepository.hasDefaultRows(next)).thenReturn(true);
+
+        service(1, 0).maintain();
+
+        final InOrder order = inOrder(partitionRepository);
+        order.verify(partitionRepository).detachDefault();
+        order.verify(partitionRepository).createPartition(next);
+        order.verify(partitionRepository).moveDefaultRows(next);
+        order.verify(partitionRepository).attachDefault();
+    }
+
+    @Test
+    void maintain_Retention_PurgeHitsRollupsAndSketches() {
+        final YearMonth oldest = current.minusMonths(3);
+        when(partitionRepository.findPartitions()).thenReturn(List.of(
+                current.minusMonths(5), current.minusMonths(4), oldest, current));
+
+        service(0, 3).maintain();
+
+        verify(partitionRepository).dropPartition(current.minusMonths(5));
+        verify(partitionRepository).dropPartition(current.minusMonths(4));
+        verify(partitionRepository, never()).dropPartition(oldest);
+        verify(partitionRepository, never()).dropPartition(current);
+        verify(partitionRepository).deleteDefaultRowsBefore(oldest);
+        verify(rollupRepository).deleteBefore(oldest.atDay(1).atStartOfDay());
+    }
+
+    @Test
+    void maintain_NoRetention_KeepEverything() {
+        when(partitionRepository.findPartitions()).thenReturn(List.of(current.minusYears(5), current));
+
+        service(0, 0).maintain();
+
+        verify(partitionRepository, never()).dropPartition(any());
+        verify(partitionRepository, never()).deleteDefaultRowsBefore(any());
+        verify(rollupRepository, never()).deleteBefore(any());
+    }
+
+    private PartitionServiceImpl service(int monthsAhead, int retentionMonths) {
+        return new PartitionServiceImpl(partitionRepository, rollupRepository, transactionManager, monthsAhead,
+                retentionMonths);
+    }
+}
@@ -0,0 +1,154 @@
+package ru.practicum.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.dto.RollupCheckDto;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.storage.EndpointHitRollupRepository;
+
+import javax.persistence.EntityManager;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "stats.rollup.enabled=false")
+class RollupServiceImplTest {
+    private static final long COMMIT_LAG_MS = 1000;
+    private static final LocalDateTime CREATED = LocalDateTime.of(2026, 1, 1, 10, 15);
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2026, 1, 2, 0, 0);
+
+    @Autowired
+    private EndpointHitRollupRepository rollupRepository;
+    @Autowired
+    private EntityManager em;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final AtomicLong time = new AtomicLong();
+    private RollupServiceImpl rollupService;
+
+    @BeforeEach
+    void setUp() {
+        rollupService = new RollupServiceImpl(rollupRepository, em, transactionManager, true, 10000, COMMIT_LAG_MS,
+                true, 0.02, time::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM endpoint_hit");
+        rollupRepository.deleteAll();
+        rollupRepository.setWatermark("hits", 0);
+    }
+
+    @Test
+    void rollUp_HitsCommittedOutOfIdOrder_NoneSkipped() throws Exception {
+        final CountDownLatch inserted = new CountDownLatch(1);
+        final CountDownLatch commit = new CountDownLatch(1);
+        final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        final CompletableFuture<Long> late = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+            insertHit("/late");
+            final Long id = jdbcTemplate.queryForObject("SELECT id FROM endpoint_hit WHERE uri = '/late'", Long.class);
+            inserted.countDown();
+            await(commit);
+            return id;
+        }));
+        assertTrue(inserted.await(10, TimeUnit.SECONDS));
+        insertHit("/early");
+
+        assertEquals(0, rollupService.rollUp());
+        time.set(COMMIT_LAG_MS / 2);
+        assertEquals(0, rollupService.rollUp());
+        assertEquals(0, rollupRepository.getWatermark("hits"));
+
+        commit.countDown();
+        final long lateId = late.get(10, TimeUnit.SECONDS);
+        final long earlyId = jdbcTemplate.queryForObject("SELECT id FROM endpoint_hit WHERE uri = '/early'",
+                Long.class);
+        assertTrue(lateId < earlyId);
+
+        time.set(COMMIT_LAG_MS);
+        assertEquals(2, rollupService.rollUp());
+        assertEquals(earlyId, rollupRepository.getWatermark("hits"));
+
+        assertEquals(List.of(new ViewStatsDto("ewm-main-service", "/late", 1L)),
+                rollupRepository.sumHits(RollupGranularity.HOUR, START, END, null, new String[]{"/late"}));
+        assertEquals(List.of(new ViewStatsDto("ewm-main-service", "/late", 1L)),
+                rollupService.getHits(START, END, null, new String[]{"/late"}));
+        final RollupCheckDto check = rollupService.check(RollupGranularity.MINUTE, START, END);
+        assertEquals(2, check.getChecked());
+        assertTrue(check.getMismatches().isEmpty());
+    }
+
+    @Test
+    void rollUp_HitsAfterHorizon_ReadFromRawTable() {
+        insertHit("/events/1");
+        rollupService.rollUp();
+        time.set(COMMIT_LAG_MS);
+        assertEquals(1, rollupService.rollUp());
+
+        insertHit("/events/1");
+        assertEquals(0, rollupService.rollUp());
+
+        assertEquals(List.of(new ViewStatsDto("ewm-main-service", "/events/1", 2L)),
+                rollupService.getHits(START, END, null, new String[]{"/events/1"}));
+    }
+
+    @Test
+    void rollUp_SketchesMergedWithStored() {
+        insertHit("/events/1", "10.0.0.1");
+        insertHit("/events/2", "10.0.0.1");
+        rollupService.rollUp();
+        time.set(COMMIT_LAG_MS);
+        assertEquals(2, rollupService.rollUp());
+
+        insertHit("/events/1", "10.0.0.1");
+        insertHit("/events/1", "10.0.0.2");
+        insertHit("/events/1", "10.0.0.3");
+        time.set(2 * COMMIT_LAG_MS);
+        rollupService.rollUp();
+        time.set(3 * COMMIT_LAG_MS);
+        assertEquals(3, rollupService.rollUp());
+
+        final List<ViewStatsDto> stats = rollupService.getUniqueHits(START, END, null,
+                new String[]{"/events/1", "/events/2"});
+        assertEquals(Set.of(new ViewStatsDto("ewm-main-service", "/events/1", 3L),
+                new ViewStatsDto("ewm-main-service", "/events/2", 1L)), new HashSet<>(stats));
+    }
+
+    private void insertHit(String uri) {
+        insertHit(uri, "192.168.0.1");
+    }
+
+    private void insertHit(String uri, String ip) {
+        jdbcTemplate.update("INSERT INTO endpoint_hit (app, uri, ip, created) VALUES (?, ?, ?, ?)",
+                "ewm-main-service", uri, ip, Timestamp.valueOf(CREATED));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package ru.practicum.storage;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Миграции на базе, созданной до их появления
+ */
+class MigrationTest {
+
+    @Test
+    void existingSchema_baselined_createRollupTables() {
+        final DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:baseline;DB_CLOSE_DELAY=-1", "test", "test");
+        final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        // база, созданная прежним schema.sql, без истории Flyway; V1 - его копия
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/common/V1__init_schema.sql"))
+                .execute(dataSource);
+
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common")
+                .baselineOnMigrate(true)
+                .load()
+                .migrate();
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM endpoint_hit_rollup", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM endpoint_hit_sketch", Integer.class));
+        assertEquals(0L, jdbcTemplate.queryForObject(
+                "SELECT last_hit_id FROM stats_rollup_state WHERE name = 'hits'", Long.class));
+    }
+}
@@ -0,0 +1,94 @@
+package ru.practicum.utils;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.exeption.ValidateException;
+import ru.practicum.model.RawHit;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HitColumnarWriterTest {
+    private static final LocalDateTime CREATED = LocalDateTime.of(2026, 1, 1, 10, 15, 30);
+
+    @Test
+    void roundTrip_SeveralBlocks() throws IOException {
+        final List<RawHit> hits = new ArrayList<>();
+        for (int i = 0; i < HitColumnarWriter.BLOCK_ROWS * 2 + 17; i++) {
+            // id и время не монотонны: разности бывают отрицательными
+            hits.add(new RawHit(i % 3 == 0 ? 1_000_000L - i : i + 1L,
+                    "app" + (i % 2),
+                    "/events/" + (i % 7),
+                    "10.0." + (i % 256) + ".1",
+                    CREATED.plusSeconds(i % 5 == 0 ? -i : i)));
+        }
+
+        final List<EndpointHitDto> read = readAll(write(hits));
+
+        assertEquals(hits.size(), read.size());
+        for (int i = 0; i < hits.size(); i++) {
+            final RawHit hit = hits.get(i);
+            assertEquals(new EndpointHitDto(hit.getApp(), hit.getUri(), hit.getIp(), hit.getCreated()), read.get(i));
+        }
+    }
+
+    @Test
+    void roundTrip_Unicode() throws IOException {
+        final RawHit hit = new RawHit(42, "ewm-main-service", "/events/концерт?q=\"a,b\"", "192.168.0.1", CREATED);
+
+        assertEquals(List.of(new EndpointHitDto(hit.getApp(), hit.getUri(), hit.getIp(), hit.getCreated())),
+                readAll(write(List.of(hit))));
+    }
+
+    @Test
+    void roundTrip_Empty() throws IOException {
+        final HitColumnarReader reader = new HitColumnarReader(new ByteArrayInputStream(write(List.of())));
+
+        assertNull(reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void read_Truncated() throws IOException {
+        final byte[] dump = write(List.of(new RawHit(1, "app", "/events/1", "192.168.0.1", CREATED)));
+        final byte[] truncated = Arrays.copyOf(dump, dump.length - 3);
+
+        assertThrows(ValidateException.class, () -> readAll(truncated));
+    }
+
+    @Test
+    void read_NotDump() {
+        final byte[] dump = "{\"app\":\"app\"}".getBytes();
+
+        assertThrows(ValidateException.class, () -> new HitColumnarReader(new ByteArrayInputStream(dump)));
+    }
+
+    private static byte[] write(List<RawHit> hits) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final HitColumnarWriter writer = new HitColumnarWriter(out);
+        for (RawHit hit : hits) {
+            writer.write(hit);
+        }
+        writer.finish();
+        return out.toByteArray();
+    }
+
+    private static List<EndpointHitDto> readAll(byte[] dump) throws IOException {
+        final HitColumnarReader reader = new HitColumnarReader(new ByteArrayInputStream(dump));
+        final List<EndpointHitDto> hits = new ArrayList<>();
+        EndpointHitDto hit;
+        while ((hit = reader.next()) != null) {
+            hits.add(hit);
+        }
+        return hits;
+    }
+}
@@ -0,0 +1,116 @@
+package ru.practicum.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTest {
+    private static final int PRECISION = 12;
+
+    @Test
+    void precisionForError() {
+        assertEquals(12, HyperLogLog.precisionForError(0.02));
+        assertEquals(HyperLogLog.MAX_PRECISION, HyperLogLog.precisionForError(0.0001));
+        assertEquals(HyperLogLog.MIN_PRECISION, HyperLogLog.precisionForError(0.5));
+        assertTrue(HyperLogLog.standardError(12) <= 0.02);
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.precisionForError(0));
+    }
+
+    @Test
+    void estimate_SmallCardinality() {
+        final HyperLogLog sketch = sketch(0, 10);
+
+        assertEquals(0, new HyperLogLog(PRECISION).estimate());
+        assertEquals(10, sketch.estimate());
+    }
+
+    @Test
+    void estimate_Duplicates_Ignored() {
+        final HyperLogLog sketch = sketch(0, 1000);
+        final long estimate = sketch.estimate();
+        for (int i = 0; i < 1000; i++) {
+            sketch.add(ip(i));
+        }
+
+        assertEquals(estimate, sketch.estimate());
+    }
+
+    @Test
+    void estimate_WithinStandardError() {
+        for (int cardinality : new int[]{1_000, 10_000, 100_000}) {
+            final HyperLogLog sketch = sketch(0, cardinality);
+            final double error = Math.abs(sketch.estimate() - cardinality) / (double) cardinality;
+
+            assertTrue(error < 3 * HyperLogLog.standardError(PRECISION),
+                    "cardinality " + cardinality + ", error " + error);
+        }
+    }
+
+    @Test
+    void merge_EqualsSketchOfUnion() {
+        final HyperLogLog left = sketch(0, 30_000);
+        final HyperLogLog right = sketch(20_000, 50_000);
+        final byte[] leftBytes = left.toBytes();
+
+        final HyperLogLog merged = left.merge(right);
+
+        assertArrayEquals(sketch(0, 50_000).toBytes(), merged.toBytes());
+        assertArrayEquals(leftBytes, left.toBytes());
+    }
+
+    @Test
+    void merge_DifferentPrecision_FoldsToLower() {
+        final HyperLogLog precise = new HyperLogLog(14);
+        for (int i = 0; i < 30_000; i++) {
+            precise.add(ip(i));
+        }
+        final HyperLogLog coarse = sketch(20_000, 50_000);
+
+        final HyperLogLog merged = precise.merge(coarse);
+
+        assertEquals(PRECISION, merged.getPrecision());
+        assertArrayEquals(sketch(0, 50_000).toBytes(), merged.toBytes());
+        assertArrayEquals(merged.toBytes(), coarse.merge(precise).toBytes());
+    }
+
+    @Test
+    void fold_ToHigherPrecision_Fails() {
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(PRECISION).fold(PRECISION + 1));
+    }
+
+    @Test
+    void serialization_RoundTrip() {
+        final HyperLogLog sketch = sketch(0, 5_000);
+
+        final byte[] bytes = sketch.toBytes();
+        final HyperLogLog restored = HyperLogLog.fromBytes(bytes);
+
+        assertEquals(1 + (1 << PRECISION), bytes.length);
+        assertEquals(PRECISION, bytes[0]);
+        assertEquals(PRECISION, restored.getPrecision());
+        assertEquals(sketch.estimate(), restored.estimate());
+        assertArrayEquals(bytes, restored.toBytes());
+    }
+
+    @Test
+    void serialization_Invalid() {
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[]{PRECISION, 0, 0}));
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[]{30}));
+    }
+
+    private static HyperLogLog sketch(int from, int to) {
+        final HyperLogLog sketch = new HyperLogLog(PRECISION);
+        for (int i = from; i < to; i++) {
+            sketch.add(ip(i));
+        }
+        return sketch;
+    }
+
+    private static String ip(int i) {
+        return "10." + (i >>> 16 & 0xff) + "." + (i >>> 8 & 0xff) + "." + (i & 0xff);
+    }
+}